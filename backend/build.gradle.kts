@@ -31,6 +31,7 @@ dependencies {
     annotationProcessor("org.mapstruct:mapstruct-processor:1.6.3")
 
     implementation("org.springframework.boot:spring-boot-starter-web")
+    implementation("tools.jackson.dataformat:jackson-dataformat-cbor")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
     implementation("org.springframework.boot:spring-boot-starter-flyway")
     implementation("org.springframework.boot:spring-boot-starter-validation")
@@ -62,7 +63,6 @@ val exclusionList = listOf(
     "**/repository/**",
     "**/config/**",            // Usually config is excluded too
     "**/BackendApplication*",  // The main class
-    "**/SsePubSub*",            // Exclude until you are ready to test it
     "**/*Exception*",
     "**/exception/**",
     "**/*MapperImpl*"
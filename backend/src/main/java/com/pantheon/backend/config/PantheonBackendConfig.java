@@ -9,18 +9,99 @@ import org.springframework.context.annotation.PropertySource;
 @PropertySource(value = "classpath:app.cfg")
 public class PantheonBackendConfig {
 
-    @Value("${app.sse.batch.size:100}")
-    private int sseBatchSize;
+    @Value("${app.sse.batch.max-items:50}")
+    private int sseBatchMaxItems;
+
+    @Value("${app.sse.batch.max-bytes:65536}")
+    private long sseBatchMaxBytes;
+
+    @Value("${app.sse.batch.max-delay.ms:50}")
+    private long sseBatchMaxDelayMillis;
 
     @Value("${app.sse.timeout:0}")
     private Long sseTimeout;
 
+    @Value("${app.sse.client.queue-capacity:256}")
+    private int sseClientQueueCapacity;
+
+    @Value("${app.sse.client.overflow-policy:COALESCE}")
+    private String sseOverflowPolicy;
+
+    @Value("${app.sse.replay.max-events:1000}")
+    private int sseReplayMaxEvents;
+
+    @Value("${app.sse.replay.max-bytes:8388608}")
+    private long sseReplayMaxBytes;
+
     @Value("${app.sse.tries.max:3}")
     private int maxTries;
 
-    @Bean(name = "sseBatchSize")
-    public int getSseBatchSize() {
-        return sseBatchSize;
+    @Value("${app.scanner.parallelism:8}")
+    private int scannerParallelism;
+
+    @Value("${app.scanner.epic.data-dir:C:/ProgramData/Epic}")
+    private String epicDataDirectory;
+
+    @Value("${app.scanner.gog.galaxy-db:C:/ProgramData/GOG.com/Galaxy/storage/galaxy-2.0.db}")
+    private String gogGalaxyDatabase;
+
+    @Value("${app.scan.max-concurrent-paths:4}")
+    private int scanMaxConcurrentPaths;
+
+    @Value("${app.scan.pipeline.chunk-size:100}")
+    private int scanPipelineChunkSize;
+
+    @Value("${app.scan.pipeline.queue-capacity:1000}")
+    private int scanPipelineQueueCapacity;
+
+    @Value("${app.watcher.enabled:true}")
+    private boolean watcherEnabled;
+
+    @Value("${app.watcher.debounce.ms:250}")
+    private long watcherDebounceMillis;
+
+    @Value("${app.watcher.max-delay.ms:1000}")
+    private long watcherMaxDelayMillis;
+
+    @Value("${app.db.sqlite.journal-mode:WAL}")
+    private String sqliteJournalMode;
+
+    @Value("${app.db.sqlite.synchronous:NORMAL}")
+    private String sqliteSynchronous;
+
+    @Value("${app.db.sqlite.mmap-size:268435456}")
+    private long sqliteMmapSize;
+
+    @Value("${app.db.sqlite.cache-size:-65536}")
+    private long sqliteCacheSize;
+
+    @Value("${app.db.sqlite.busy-timeout.ms:5000}")
+    private int sqliteBusyTimeoutMillis;
+
+    @Value("${app.db.sqlite.reader-pool-size:4}")
+    private int sqliteReaderPoolSize;
+
+    @Value("${app.db.write.batch.max-games:2000}")
+    private int inventoryWriteMaxBatchGames;
+
+    @Value("${app.db.write.batch.max-delay.ms:5}")
+    private long inventoryWriteMaxDelayMillis;
+
+    @Value("${app.db.write.timeout.ms:300000}")
+    private long inventoryWriteTimeoutMillis;
+
+    @Value("${app.cache.inventory.max-entries:500000}")
+    private int inventoryCacheMaxEntries;
+
+    @Value("${app.library.page.default-size:50}")
+    private int libraryPageDefaultSize;
+
+    @Value("${app.library.page.max-size:200}")
+    private int libraryPageMaxSize;
+
+    @Bean(name = "sseBatching")
+    public SseBatching getSseBatching() {
+        return new SseBatching(sseBatchMaxItems, sseBatchMaxBytes, sseBatchMaxDelayMillis);
     }
 
 
@@ -34,4 +115,105 @@ public class PantheonBackendConfig {
         return sseTimeout;
     }
 
+    @Bean(name = "sseClientQueueCapacity")
+    public int getSseClientQueueCapacity() {
+        return sseClientQueueCapacity;
+    }
+
+    @Bean(name = "sseOverflowPolicy")
+    public String getSseOverflowPolicy() {
+        return sseOverflowPolicy;
+    }
+
+    @Bean(name = "sseReplayMaxEvents")
+    public int getSseReplayMaxEvents() {
+        return sseReplayMaxEvents;
+    }
+
+    @Bean(name = "sseReplayMaxBytes")
+    public long getSseReplayMaxBytes() {
+        return sseReplayMaxBytes;
+    }
+
+    @Bean(name = "scannerParallelism")
+    public int getScannerParallelism() {
+        return scannerParallelism;
+    }
+
+    @Bean(name = "epicDataDirectory")
+    public String getEpicDataDirectory() {
+        return epicDataDirectory;
+    }
+
+    @Bean(name = "gogGalaxyDatabase")
+    public String getGogGalaxyDatabase() {
+        return gogGalaxyDatabase;
+    }
+
+    @Bean(name = "scanMaxConcurrentPaths")
+    public int getScanMaxConcurrentPaths() {
+        return scanMaxConcurrentPaths;
+    }
+
+    @Bean(name = "scanPipelineChunkSize")
+    public int getScanPipelineChunkSize() {
+        return scanPipelineChunkSize;
+    }
+
+    @Bean(name = "scanPipelineQueueCapacity")
+    public int getScanPipelineQueueCapacity() {
+        return scanPipelineQueueCapacity;
+    }
+
+    @Bean(name = "watcherEnabled")
+    public boolean isWatcherEnabled() {
+        return watcherEnabled;
+    }
+
+    @Bean(name = "watcherDebounceMillis")
+    public long getWatcherDebounceMillis() {
+        return watcherDebounceMillis;
+    }
+
+    @Bean(name = "watcherMaxDelayMillis")
+    public long getWatcherMaxDelayMillis() {
+        return watcherMaxDelayMillis;
+    }
+
+    @Bean(name = "sqliteTuning")
+    public SqliteTuning getSqliteTuning() {
+        return new SqliteTuning(sqliteJournalMode, sqliteSynchronous, sqliteMmapSize, sqliteCacheSize,
+                sqliteBusyTimeoutMillis, sqliteReaderPoolSize);
+    }
+
+    @Bean(name = "inventoryWriteMaxBatchGames")
+    public int getInventoryWriteMaxBatchGames() {
+        return inventoryWriteMaxBatchGames;
+    }
+
+    @Bean(name = "inventoryWriteMaxDelayMillis")
+    public long getInventoryWriteMaxDelayMillis() {
+        return inventoryWriteMaxDelayMillis;
+    }
+
+    @Bean(name = "inventoryWriteTimeoutMillis")
+    public long getInventoryWriteTimeoutMillis() {
+        return inventoryWriteTimeoutMillis;
+    }
+
+    @Bean(name = "inventoryCacheMaxEntries")
+    public int getInventoryCacheMaxEntries() {
+        return inventoryCacheMaxEntries;
+    }
+
+    @Bean(name = "libraryPageDefaultSize")
+    public int getLibraryPageDefaultSize() {
+        return libraryPageDefaultSize;
+    }
+
+    @Bean(name = "libraryPageMaxSize")
+    public int getLibraryPageMaxSize() {
+        return libraryPageMaxSize;
+    }
+
 }
@@ -0,0 +1,92 @@
+package com.pantheon.backend.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Lays the library database out as one writer connection and a pool of reader connections.
+ * <p>
+ * SQLite allows a single writer at a time, so extra writer connections would only queue on the database lock and
+ * fail with {@code SQLITE_BUSY}; queueing on the pool instead is cheaper and fair. In WAL mode readers do not block
+ * the writer nor the other way around, so read-only transactions are routed to their own pool and keep serving the
+ * library while a scan writes.
+ * </p>
+ * <p>
+ * The pragmas are applied by the driver whenever a connection is opened, {@link SqlitePragmaHealthCheck} confirms
+ * at startup that they took effect.
+ * </p>
+ */
+@Configuration
+public class SqliteDataSourceConfig {
+
+    private static final String DRIVER_CLASS_NAME = "org.sqlite.JDBC";
+
+    @Bean(name = "sqliteWriterDataSource", destroyMethod = "close")
+    public HikariDataSource sqliteWriterDataSource(@Value("${spring.datasource.url}") String url,
+                                                   @Qualifier("sqliteTuning") SqliteTuning tuning) {
+        return writer(url, tuning);
+    }
+
+    @Bean(name = "sqliteReaderDataSource", destroyMethod = "close")
+    public HikariDataSource sqliteReaderDataSource(@Value("${spring.datasource.url}") String url,
+                                                   @Qualifier("sqliteTuning") SqliteTuning tuning) {
+        return readers(url, tuning);
+    }
+
+    /**
+     * Hands out the writer connection, or a reader connection for transactions marked read-only. The connection is
+     * only fetched once the first statement runs, after the transaction has declared whether it is read-only.
+     */
+    @Primary
+    @Bean(name = "dataSource")
+    public DataSource dataSource(@Qualifier("sqliteWriterDataSource") DataSource writer,
+                                 @Qualifier("sqliteReaderDataSource") DataSource readers) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writer);
+        dataSource.setReadOnlyDataSource(readers);
+        return dataSource;
+    }
+
+    static HikariDataSource writer(String url, SqliteTuning tuning) {
+
+        HikariConfig config = baseConfig("sqlite-writer", url, tuning);
+        config.setMaximumPoolSize(1);
+        config.setMinimumIdle(1);
+        // Journal mode is stored in the database file, so the writer switching it once covers the readers too
+        config.addDataSourceProperty("journal_mode", tuning.journalMode());
+
+        return new HikariDataSource(config);
+    }
+
+    static HikariDataSource readers(String url, SqliteTuning tuning) {
+
+        HikariConfig config = baseConfig("sqlite-reader", url, tuning);
+        config.setMaximumPoolSize(Math.max(1, tuning.readerPoolSize()));
+        config.setMinimumIdle(1);
+        config.setConnectionInitSql("PRAGMA query_only = 1");
+
+        return new HikariDataSource(config);
+    }
+
+    private static HikariConfig baseConfig(String poolName, String url, SqliteTuning tuning) {
+
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setDriverClassName(DRIVER_CLASS_NAME);
+        config.addDataSourceProperty("foreign_keys", "true");
+        config.addDataSourceProperty("synchronous", tuning.synchronous());
+        config.addDataSourceProperty("busy_timeout", String.valueOf(tuning.busyTimeoutMillis()));
+        config.addDataSourceProperty("cache_size", String.valueOf(tuning.cacheSize()));
+        config.addDataSourceProperty("mmap_size", String.valueOf(tuning.mmapSize()));
+
+        return config;
+    }
+}
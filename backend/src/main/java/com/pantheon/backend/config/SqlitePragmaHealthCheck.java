@@ -0,0 +1,114 @@
+package com.pantheon.backend.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Confirms at startup that the pragmas of {@link SqliteTuning} took effect on both pools.
+ * <p>
+ * A driver that silently ignores a setting, or a database on a filesystem without shared memory support (where WAL
+ * cannot be enabled), would otherwise only show up as readers stalling behind scans. Journal mode, synchronous,
+ * foreign keys, busy timeout and the read-only readers are required and fail the startup; cache and mmap sizes can be
+ * capped by the SQLite build, so a difference there is only logged.
+ * </p>
+ */
+@Slf4j
+@Component
+class SqlitePragmaHealthCheck implements ApplicationRunner {
+
+    private static final List<String> SYNCHRONOUS_LEVELS = List.of("OFF", "NORMAL", "FULL", "EXTRA");
+
+    private final DataSource writer;
+    private final DataSource readers;
+    private final SqliteTuning tuning;
+
+    SqlitePragmaHealthCheck(@Qualifier("sqliteWriterDataSource") DataSource writer,
+                            @Qualifier("sqliteReaderDataSource") DataSource readers,
+                            @Qualifier("sqliteTuning") SqliteTuning tuning) {
+        this.writer = writer;
+        this.readers = readers;
+        this.tuning = tuning;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws SQLException {
+        verify();
+    }
+
+    void verify() throws SQLException {
+
+        List<String> problems = new ArrayList<>();
+
+        try (Connection connection = writer.getConnection()) {
+            checkCommon("writer", connection, problems);
+            expect("writer", "query_only", connection, "0", problems);
+        }
+
+        try (Connection connection = readers.getConnection()) {
+            checkCommon("reader", connection, problems);
+            expect("reader", "query_only", connection, "1", problems);
+        }
+
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("SQLite pragmas did not take effect: " + String.join(", ", problems));
+        }
+
+        log.info("SQLite tuned: journal_mode={}, synchronous={}, mmap_size={}, cache_size={}, busy_timeout={}ms, {} reader connections",
+                tuning.journalMode(), tuning.synchronous(), tuning.mmapSize(), tuning.cacheSize(),
+                tuning.busyTimeoutMillis(), tuning.readerPoolSize());
+    }
+
+    private void checkCommon(String pool, Connection connection, List<String> problems) throws SQLException {
+
+        expect(pool, "journal_mode", connection, tuning.journalMode().toLowerCase(Locale.ROOT), problems);
+        expect(pool, "synchronous", connection, synchronousLevel(tuning.synchronous()), problems);
+        expect(pool, "foreign_keys", connection, "1", problems);
+        expect(pool, "busy_timeout", connection, String.valueOf(tuning.busyTimeoutMillis()), problems);
+
+        String cacheSize = pragma(connection, "cache_size");
+        if (!cacheSize.equals(String.valueOf(tuning.cacheSize()))) {
+            log.warn("SQLite {} cache_size is {} instead of {}", pool, cacheSize, tuning.cacheSize());
+        }
+
+        String mmapSize = pragma(connection, "mmap_size");
+        if (!mmapSize.equals(String.valueOf(tuning.mmapSize()))) {
+            log.warn("SQLite {} mmap_size is {} instead of {}, the SQLite build may cap or disable it", pool, mmapSize, tuning.mmapSize());
+        }
+    }
+
+    private static void expect(String pool, String name, Connection connection, String expected, List<String> problems)
+            throws SQLException {
+
+        String actual = pragma(connection, name);
+        if (!actual.equalsIgnoreCase(expected)) {
+            problems.add(pool + " " + name + " is " + actual + " instead of " + expected);
+        }
+    }
+
+    private static String pragma(Connection connection, String name) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("PRAGMA " + name)) {
+            return resultSet.next() ? String.valueOf(resultSet.getString(1)) : "";
+        }
+    }
+
+    /**
+     * {@code PRAGMA synchronous} reports the level as a number
+     */
+    private static String synchronousLevel(String synchronous) {
+        int level = SYNCHRONOUS_LEVELS.indexOf(synchronous.toUpperCase(Locale.ROOT));
+        return level >= 0 ? String.valueOf(level) : synchronous;
+    }
+}
@@ -0,0 +1,15 @@
+package com.pantheon.backend.config;
+
+/**
+ * The SQLite pragmas every connection of the library database is opened with, and the size of the reader pool.
+ *
+ * @param journalMode       {@code WAL} lets readers keep reading while a scan writes
+ * @param synchronous       {@code NORMAL} only syncs at checkpoints, which is durable across crashes in WAL mode
+ * @param mmapSize          bytes of the database file read through memory mapping, 0 disables it
+ * @param cacheSize         page cache per connection, negative values are KiB rather than pages
+ * @param busyTimeoutMillis how long a connection waits on a lock before failing with {@code SQLITE_BUSY}
+ * @param readerPoolSize    connections serving read-only transactions next to the single writer connection
+ */
+public record SqliteTuning(String journalMode, String synchronous, long mmapSize, long cacheSize, int busyTimeoutMillis,
+                           int readerPoolSize) {
+}
@@ -0,0 +1,11 @@
+package com.pantheon.backend.config;
+
+/**
+ * When a batch of events sent as one frame goes out, whichever limit is reached first.
+ *
+ * @param maxItems       events in a batch at most
+ * @param maxBytes       serialized bytes in a batch at most, an event larger than that goes out on its own
+ * @param maxDelayMillis how long the first event of a batch waits for others
+ */
+public record SseBatching(int maxItems, long maxBytes, long maxDelayMillis) {
+}
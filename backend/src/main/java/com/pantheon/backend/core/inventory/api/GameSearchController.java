@@ -0,0 +1,29 @@
+package com.pantheon.backend.core.inventory.api;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import com.pantheon.backend.core.inventory.query.GameSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/library")
+@RequiredArgsConstructor
+public class GameSearchController {
+
+    private final GameSearchService gameSearchService;
+
+    /**
+     * Searches games by the words typed so far, each word matching as a prefix, best matches first
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<GameSearchResultDTO>> search(@RequestParam String q,
+                                                            @RequestParam(required = false) Integer limit) {
+        return ResponseEntity.ok(gameSearchService.search(q, limit));
+    }
+}
@@ -1,34 +1,55 @@
 package com.pantheon.backend.core.inventory.api;
 
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
 import com.pantheon.backend.core.inventory.local.InventoryLocalDiscoveryService;
+import com.pantheon.backend.core.inventory.local.dto.InventoryCacheStatsDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
 import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.NotificationStatsDTO;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
 import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/library/discovery")
 @RequiredArgsConstructor
 public class InventoryController {
 
+    private static final String JOBS_PATH = "/api/library/discovery/jobs";
+
     private final InventoryLocalDiscoveryService inventoryLocalDiscoveryService;
     private final NotificationService notificationService;
+    private final InventoryCache inventoryCache;
 
+    /**
+     * Starts a scan of the platform, or joins its running scan. The job can be followed at the returned Location.
+     */
     @PostMapping("/scan/{platform}")
     public ResponseEntity<String> scanPlatform(@PathVariable String platform) {
-        inventoryLocalDiscoveryService.scanPlatform(platform);
-        return ResponseEntity.accepted().body("Scan initiated for " + platform);
+        ScanJobDTO job = inventoryLocalDiscoveryService.scanPlatform(platform);
+        return ResponseEntity.accepted()
+                .location(URI.create(JOBS_PATH + "/" + job.id()))
+                .body("Scan initiated for " + platform);
     }
 
+    /**
+     * Starts a scan of the platforms. Their jobs can be followed at the returned Location.
+     */
     @PostMapping("/scan")
     public ResponseEntity<String> scanPlatforms(@RequestParam(required = false) String[] platforms) {
 
@@ -39,11 +60,72 @@ public class InventoryController {
         if (platforms != null && platforms.length > 0)
             responseMessage = "Scan Initiated for " + Arrays.toString(platforms);
 
-        return ResponseEntity.accepted().body(responseMessage);
+        return ResponseEntity.accepted().location(URI.create(JOBS_PATH)).body(responseMessage);
+    }
+
+    @GetMapping("/jobs")
+    public ResponseEntity<List<ScanJobDTO>> getScanJobs() {
+        return ResponseEntity.ok(inventoryLocalDiscoveryService.getScanJobs());
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ScanJobDTO> getScanJob(@PathVariable String id) {
+        return inventoryLocalDiscoveryService.getScanJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<ScanJobDTO> cancelScanJob(@PathVariable String id) {
+        return inventoryLocalDiscoveryService.cancelScanJob(id)
+                .map(job -> ResponseEntity.accepted().body(job))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Whether the scan cache is warm, how much it holds and roughly how much heap it takes
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<InventoryCacheStatsDTO> getCacheStats() {
+        return ResponseEntity.ok(inventoryCache.stats());
     }
 
+    /**
+     * The event stream. Browsers reconnect with the id of the last event they received, and get what they missed.
+     *
+     * @param platforms only the events of these platforms, all when left out
+     * @param events    only the events of these types, all when left out
+     * @param jobId     only the events of this scan job, the stream then ends with the job
+     */
     @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamEvents() {
-        return notificationService.subscribe();
+    public ResponseEntity<SseEmitter> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String[] platforms,
+            @RequestParam(required = false) String[] events,
+            @RequestParam(required = false) String jobId) {
+
+        if (jobId != null && inventoryLocalDiscoveryService.getScanJob(jobId).isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+
+        Set<String> platformNames = platforms == null ? Set.of() : new HashSet<>(Arrays.asList(platforms));
+        Set<String> eventTypes = events == null ? Set.of() : new HashSet<>(Arrays.asList(events));
+
+        SseEmitter emitter = notificationService.subscribe(lastEventId, new StreamFilter(platformNames, eventTypes, jobId));
+
+        // The job may have ended before the subscription existed, checked after subscribing so that it cannot be missed
+        if (jobId != null && inventoryLocalDiscoveryService.getScanJob(jobId).map(job -> job.phase().isFinished()).orElse(true)) {
+            notificationService.endJob(jobId);
+        }
+
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * How far behind each client of the event stream is, and how many events were dropped for slow clients
+     */
+    @GetMapping("/stream/stats")
+    public ResponseEntity<NotificationStatsDTO> getStreamStats() {
+        return ResponseEntity.ok(notificationService.stats());
     }
 }
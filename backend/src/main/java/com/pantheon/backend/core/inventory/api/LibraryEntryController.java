@@ -0,0 +1,114 @@
+package com.pantheon.backend.core.inventory.api;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.query.LibraryEntryQueryService;
+import com.pantheon.backend.core.inventory.query.LibraryEntrySort;
+import com.pantheon.backend.core.inventory.query.LibrarySnapshotFormat;
+import com.pantheon.backend.core.inventory.query.LibrarySnapshotService;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/library")
+@RequiredArgsConstructor
+public class LibraryEntryController {
+
+    private final LibraryEntryQueryService libraryEntryQueryService;
+    private final LibrarySnapshotService librarySnapshotService;
+
+    /**
+     * Lists library entries a page at a time. The next page is fetched by passing the returned {@code nextCursor}
+     * along with the same filters and order.
+     *
+     * @param sort      {@code last_played} (default), {@code playtime} or {@code size}
+     * @param direction {@code desc} (default) or {@code asc}
+     */
+    @GetMapping("/entries")
+    public ResponseEntity<LibraryEntryPageDTO> getEntries(@RequestParam(required = false) String platform,
+                                                          @RequestParam(required = false) Boolean installed,
+                                                          @RequestParam(required = false) String tag,
+                                                          @RequestParam(required = false) String titlePrefix,
+                                                          @RequestParam(required = false) String sort,
+                                                          @RequestParam(required = false) String direction,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor) {
+
+        if (direction != null && !direction.equalsIgnoreCase("asc") && !direction.equalsIgnoreCase("desc")) {
+            throw new IllegalArgumentException("Unknown direction " + direction + ", expected asc or desc");
+        }
+
+        LibraryEntryQueryDTO query = LibraryEntryQueryDTO.builder()
+                .platform(blankToNull(platform))
+                .installed(installed)
+                .tag(blankToNull(tag))
+                .titlePrefix(blankToNull(titlePrefix))
+                .sort(blankToNull(sort) == null ? null : LibraryEntrySort.from(sort))
+                .ascending("asc".equalsIgnoreCase(direction))
+                .limit(limit)
+                .cursor(blankToNull(cursor))
+                .build();
+
+        return ResponseEntity.ok(libraryEntryQueryService.findEntries(query));
+    }
+
+    /**
+     * The whole library as of its current version, streamed as it is read. The ETag is the library version, a client
+     * sending it back in {@code If-None-Match} gets a 304 while the library is unchanged, then catches up from the
+     * library deltas of the event stream.
+     *
+     * @param format {@code jsonl} or {@code cbor}, picked from the Accept header when left out
+     */
+    @GetMapping("/snapshot")
+    public void getSnapshot(@RequestParam(required = false) String format,
+                            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                            HttpServletResponse response) throws IOException {
+
+        LibrarySnapshotFormat snapshotFormat = blankToNull(format) == null
+                ? LibrarySnapshotFormat.fromAccept(accept)
+                : LibrarySnapshotFormat.from(format);
+
+        librarySnapshotService.writeSnapshot(snapshotFormat, version -> {
+            String etag = snapshotFormat.etag(version);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+
+            if (matches(ifNoneMatch, etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return null;
+            }
+
+            response.setContentType(snapshotFormat.mediaType());
+            return response.getOutputStream();
+        });
+    }
+
+    /**
+     * Weak comparison, as If-None-Match asks for
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
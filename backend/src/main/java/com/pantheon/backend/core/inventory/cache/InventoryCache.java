@@ -0,0 +1,324 @@
+package com.pantheon.backend.core.inventory.cache;
+
+import com.pantheon.backend.core.inventory.local.dto.InventoryCacheStatsDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * In-memory copy of the ids the scan hot path matches on: title key to game id, and per platform the state of every
+ * library entry keyed by game id.
+ * <p>
+ * Loaded with one streaming pass over each table once the application is ready. From then on every write of the
+ * inventory reports what it changed; inside a transaction the changes are only visible to that transaction until it
+ * commits, and are dropped if it rolls back. Once warm and complete, a miss is as good as a read returning nothing, so
+ * the processor decides between insert and update without querying.
+ * </p>
+ * <p>
+ * Changes are recorded as absolute operations (set this state, uninstall these ids) and replayed in commit order, so
+ * replaying a commit onto a snapshot that already contains it changes nothing. All inventory writes go through the
+ * single writer thread, which applies each commit before starting the next transaction.
+ * </p>
+ * <p>
+ * While the transaction runs, its operations are also applied to an overlay of its own as they are recorded: the
+ * games it inserted, and a copy of the entries of each platform it wrote to, taken on its first write there. Lookups
+ * read the overlay directly, so they cost the same however many changes are pending.
+ * </p>
+ * <p>
+ * The cache is bounded: if the inventory outgrows it, it is cleared and stays incomplete, and callers go back to the
+ * database.
+ * </p>
+ */
+@Slf4j
+@Component
+public class InventoryCache {
+
+    // Rough per-mapping heap cost of the map node, boxed keys and record headers, on top of the string contents
+    private static final int GAME_OVERHEAD_BYTES = 96;
+    private static final int ENTRY_OVERHEAD_BYTES = 240;
+
+    private final InventoryBulkRepository inventoryBulkRepository;
+    private final int maxEntries;
+
+    private final Map<String, Integer> gameIdsByTitleKey = new ConcurrentHashMap<>();
+    private final Map<Integer, Map<Integer, LibraryEntryStateDTO>> entriesByPlatform = new ConcurrentHashMap<>();
+
+    private volatile boolean complete;
+
+    /**
+     * @param maxEntries games plus library entries the cache holds at most
+     */
+    @Autowired
+    public InventoryCache(InventoryBulkRepository inventoryBulkRepository,
+                          @Qualifier("inventoryCacheMaxEntries") int maxEntries) {
+        this.inventoryBulkRepository = inventoryBulkRepository;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Loads every title key and library entry, after the title keys have been backfilled.
+     * <p>
+     * Commits racing with the load are applied after it, which is safe since applying a change twice is a no-op.
+     * </p>
+     */
+    @Order(1)
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void warmUp() {
+
+        long start = System.nanoTime();
+
+        complete = false;
+        gameIdsByTitleKey.clear();
+        entriesByPlatform.clear();
+
+        int[] loaded = new int[1];
+        boolean[] overflow = new boolean[1];
+
+        inventoryBulkRepository.forEachGameTitleKey((titleKey, gameId) -> {
+            if (overflow[0] || ++loaded[0] > maxEntries) {
+                overflow[0] = true;
+                return;
+            }
+            gameIdsByTitleKey.putIfAbsent(titleKey, gameId);
+        });
+
+        inventoryBulkRepository.forEachLibraryEntryState((platformId, state) -> {
+            if (overflow[0] || ++loaded[0] > maxEntries) {
+                overflow[0] = true;
+                return;
+            }
+            platformEntries(platformId).put(state.gameId(), normalize(state));
+        });
+
+        if (overflow[0]) {
+            disable();
+            return;
+        }
+
+        complete = true;
+
+        InventoryCacheStatsDTO stats = stats();
+        log.info("Inventory cache warmed in {} ms: {} games, {} library entries, ~{} KiB", (System.nanoTime() - start) / 1_000_000,
+                stats.games(), stats.libraryEntries(), stats.estimatedBytes() / 1024);
+    }
+
+    /**
+     * @return whether a miss can be trusted to mean the row does not exist
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return the oldest game with the key, {@code null} when unknown
+     */
+    public Integer gameId(String titleKey) {
+        Integer gameId = gameIdsByTitleKey.get(titleKey);
+        if (gameId != null) return gameId;
+        Changes changes = currentChanges(false);
+        return changes == null ? null : changes.games.get(titleKey);
+    }
+
+    /**
+     * @return the library entries of a platform keyed by game id, as the current transaction sees them. A read-only
+     * view, not a copy: it reflects the writes that follow.
+     */
+    public Map<Integer, LibraryEntryStateDTO> entryStates(Integer platformId) {
+        Changes changes = currentChanges(false);
+        Map<Integer, LibraryEntryStateDTO> states = changes == null ? null : changes.entries.get(platformId);
+        return Collections.unmodifiableMap(states != null ? states : entriesByPlatform.getOrDefault(platformId, Map.of()));
+    }
+
+    public void gamesInserted(Map<String, Integer> gameIdsByKey) {
+        if (gameIdsByKey.isEmpty()) return;
+        record(games -> gameIdsByKey.forEach(games::putIfAbsent), _ -> {
+        });
+    }
+
+    /**
+     * Records inserted or updated library entries
+     */
+    public void entriesWritten(Integer platformId, Collection<LibraryEntryStateDTO> states) {
+        if (states.isEmpty()) return;
+        List<LibraryEntryStateDTO> written = states.stream().map(InventoryCache::normalize).toList();
+        record(_ -> {
+        }, entries -> {
+            Map<Integer, LibraryEntryStateDTO> platform = entries.apply(platformId);
+            written.forEach(state -> platform.put(state.gameId(), state));
+        });
+    }
+
+    /**
+     * Mirrors {@link InventoryBulkRepository#markUninstalled}
+     */
+    public void entriesUninstalled(Integer platformId, String installRoot, Collection<String> platformGameIds) {
+        if (platformGameIds.isEmpty()) return;
+        Set<String> removed = Set.copyOf(platformGameIds);
+        record(_ -> {
+        }, entries -> entries.apply(platformId).replaceAll((_, state) ->
+                state.isInstalled() && removed.contains(state.platformGameId())
+                        && InventoryBulkRepository.isInstalledBelow(state.installPath(), installRoot)
+                        ? state.toBuilder().isInstalled(false).build() : state));
+    }
+
+    public InventoryCacheStatsDTO stats() {
+
+        long bytes = 0;
+        int entries = 0;
+
+        for (String titleKey : gameIdsByTitleKey.keySet()) {
+            bytes += GAME_OVERHEAD_BYTES + titleKey.length();
+        }
+
+        for (Map<Integer, LibraryEntryStateDTO> platform : entriesByPlatform.values()) {
+            for (LibraryEntryStateDTO state : platform.values()) {
+                entries++;
+                bytes += ENTRY_OVERHEAD_BYTES + length(state.installPath()) + length(state.platformGameId());
+            }
+        }
+
+        return new InventoryCacheStatsDTO(complete, gameIdsByTitleKey.size(), entries, bytes);
+    }
+
+    private void record(GameOperation games, EntryOperation entries) {
+        Changes changes = currentChanges(true);
+        changes.operations.add(new Operation(games, entries));
+
+        if (!changes.deferred) {
+            apply(changes);
+            return;
+        }
+
+        games.apply(changes.games);
+        entries.apply(platformId -> changes.entries.computeIfAbsent(platformId,
+                id -> new HashMap<>(entriesByPlatform.getOrDefault(id, Map.of()))));
+    }
+
+    private synchronized void apply(Changes changes) {
+
+        if (!complete) return;
+
+        changes.replay(gameIdsByTitleKey, this::platformEntries);
+
+        if (size() > maxEntries) disable();
+    }
+
+    private void disable() {
+        complete = false;
+        gameIdsByTitleKey.clear();
+        entriesByPlatform.clear();
+        log.warn("Inventory outgrew the cache limit of {} entries, matching falls back to the database", maxEntries);
+    }
+
+    private int size() {
+        int size = gameIdsByTitleKey.size();
+        for (Map<Integer, LibraryEntryStateDTO> platform : entriesByPlatform.values()) {
+            size += platform.size();
+        }
+        return size;
+    }
+
+    private Map<Integer, LibraryEntryStateDTO> platformEntries(Integer platformId) {
+        return entriesByPlatform.computeIfAbsent(platformId, _ -> new ConcurrentHashMap<>());
+    }
+
+    /**
+     * @return the pending changes of the current transaction, changes applied right away outside of transactions
+     */
+    private Changes currentChanges(boolean create) {
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return create ? new Changes(false) : null;
+        }
+
+        Changes changes = (Changes) TransactionSynchronizationManager.getResource(this);
+
+        if (changes == null && create) {
+            Changes pending = new Changes(true);
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(pending);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(InventoryCache.this);
+                }
+            });
+            changes = pending;
+        }
+
+        return changes;
+    }
+
+    /**
+     * Entries are matched on (platform, game) and updated through that key, so the row id is not kept
+     */
+    private static LibraryEntryStateDTO normalize(LibraryEntryStateDTO state) {
+        return state.id() == null ? state : state.toBuilder().id(null).build();
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    @FunctionalInterface
+    private interface GameOperation {
+        void apply(Map<String, Integer> gameIdsByTitleKey);
+    }
+
+    @FunctionalInterface
+    private interface EntryOperation {
+        void apply(Function<Integer, Map<Integer, LibraryEntryStateDTO>> entriesOfPlatform);
+    }
+
+    private record Operation(GameOperation games, EntryOperation entries) {
+    }
+
+    /**
+     * The operations of one transaction, in the order they were recorded, and what the transaction sees once they are
+     * applied
+     */
+    private static final class Changes {
+
+        private final boolean deferred;
+        private final List<Operation> operations = new ArrayList<>();
+
+        // Games inserted by the transaction, and its copy of the entries of every platform it wrote to
+        private final Map<String, Integer> games = new HashMap<>();
+        private final Map<Integer, Map<Integer, LibraryEntryStateDTO>> entries = new HashMap<>();
+
+        private Changes(boolean deferred) {
+            this.deferred = deferred;
+        }
+
+        private void replay(Map<String, Integer> gameIdsByTitleKey, Function<Integer, Map<Integer, LibraryEntryStateDTO>> entriesOfPlatform) {
+            for (Operation operation : operations) {
+                operation.games().apply(gameIdsByTitleKey);
+                operation.entries().apply(entriesOfPlatform);
+            }
+        }
+    }
+}
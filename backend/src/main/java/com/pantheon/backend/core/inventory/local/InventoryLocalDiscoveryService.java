@@ -1,24 +1,27 @@
 package com.pantheon.backend.core.inventory.local;
 
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
+import com.pantheon.backend.core.inventory.local.job.ScanJob;
+import com.pantheon.backend.core.inventory.local.job.ScanJobManager;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
-import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.inventory.local.processor.LocalScanCoordinator;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 /**
  * Service responsible for orchestrating local library discovery tasks.
  * <p>
  * This service acts as the entry point for scanning operations, resolving platform names to {@link Platform} entities
  * and dispatching scan requests to the processing layer.
- * All public scan methods are execution-heavy and run asynchronously.
+ * Scans run as {@link ScanJob}s in the background; the scan methods return as soon as the jobs are started.
  * </p>
  */
 @Slf4j
@@ -27,39 +30,38 @@ public class InventoryLocalDiscoveryService {
 
     private final PlatformRepository platformRepository;
     private final LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService;
-    private final InventoryLocalScanService inventoryLocalScanService;
+    private final ScanJobManager scanJobManager;
+    private final LocalScanCoordinator localScanCoordinator;
 
     @Autowired
     public InventoryLocalDiscoveryService(PlatformRepository platformRepository,
-                                          InventoryLocalScanService inventoryLocalScanService,
-                                          LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService) {
+                                          ScanJobManager scanJobManager,
+                                          LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService,
+                                          LocalScanCoordinator localScanCoordinator) {
 
         this.platformRepository = platformRepository;
-        this.inventoryLocalScanService = inventoryLocalScanService;
+        this.scanJobManager = scanJobManager;
         this.localScanNotificationOrchestrationService = localScanNotificationOrchestrationService;
+        this.localScanCoordinator = localScanCoordinator;
 
     }
 
     /**
      * Scans all platforms
      *
-     * @throws IllegalArgumentException for incorrect platform name
-     * @throws IllegalStateException    for correct platform name but no Scanner defined for it.
+     * @return the jobs scanning the platforms
      */
-    @Async
-    public void scanPlatforms() throws IllegalStateException, IllegalArgumentException {
-        scanPlatforms(null);
+    public List<ScanJobDTO> scanPlatforms() {
+        return scanPlatforms(null);
     }
 
     /**
-     * Scans provided platforms
+     * Scans provided platforms concurrently, see {@link LocalScanCoordinator}. Unknown platforms are skipped.
      *
      * @param platforms platforms to scan
-     * @throws IllegalArgumentException for incorrect platform name
-     * @throws IllegalStateException    for correct platform name but no Scanner defined for it.
+     * @return the jobs scanning the platforms
      */
-    @Async
-    public void scanPlatforms(String[] platforms) throws IllegalStateException, IllegalArgumentException {
+    public List<ScanJobDTO> scanPlatforms(String[] platforms) {
 
         List<Platform> platformList;
 
@@ -79,31 +81,41 @@ public class InventoryLocalDiscoveryService {
 
         log.info("Initiating Scan request for: {}", platformList);
 
-        for (Platform platform : platformList) {
-            try {
-                this.inventoryLocalScanService.scanPlatformPaths(platform);
-            } catch (IllegalStateException | IllegalArgumentException e) {
-                log.error("{}: Error while scanning platform {}", platform.getName(), e.getMessage());
-            }
-        }
+        return this.localScanCoordinator.scanPlatforms(platformList).stream().map(ScanJob::toDTO).toList();
 
     }
 
     /**
-     * Scans the specified platform
+     * Scans the specified platform, or joins its running scan
      *
      * @param platformName The name of the platform to scan
+     * @return the job scanning the platform
      * @throws IllegalArgumentException for incorrect platform name
-     * @throws IllegalStateException    for correct platform name but no Scanner defined for it.
      */
-    @Async
-    public void scanPlatform(String platformName) throws IllegalStateException, IllegalArgumentException {
+    public ScanJobDTO scanPlatform(String platformName) throws IllegalArgumentException {
         log.info("Requesting scan for platform {}", platformName);
 
         Platform platform = getPlatformByName(platformName);
 
-        this.inventoryLocalScanService.scanPlatformPaths(platform);
+        return this.scanJobManager.submit(platform).toDTO();
+
+    }
+
+    public Optional<ScanJobDTO> getScanJob(String jobId) {
+        return scanJobManager.find(jobId).map(ScanJob::toDTO);
+    }
+
+    public List<ScanJobDTO> getScanJobs() {
+        return scanJobManager.findAll().stream().map(ScanJob::toDTO).toList();
+    }
 
+    /**
+     * Requests the cancellation of a scan job
+     *
+     * @return the job, empty when unknown
+     */
+    public Optional<ScanJobDTO> cancelScanJob(String jobId) {
+        return scanJobManager.cancel(jobId).map(ScanJob::toDTO);
     }
 
     /**
@@ -115,7 +127,7 @@ public class InventoryLocalDiscoveryService {
         return platformRepository.findByName(platformName)
                 .orElseThrow(() -> {
                     log.error("{}: Unknown Platform", platformName);
-                    localScanNotificationOrchestrationService.notifyError(platformName, "Platform not found");
+                    localScanNotificationOrchestrationService.notifyError(platformName, null, "Platform not found");
                     return new IllegalArgumentException("Unknown platform: " + platformName);
                 });
     }
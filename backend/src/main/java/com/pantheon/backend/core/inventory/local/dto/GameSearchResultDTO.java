@@ -0,0 +1,16 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import lombok.Builder;
+
+/**
+ * A game matching a library search, see {@link com.pantheon.backend.core.inventory.query.GameSearchService}
+ */
+@Builder
+public record GameSearchResultDTO(
+        Integer id,
+        String title,
+        String developer,
+        String publisher,
+        String coverUrl
+) {
+}
@@ -0,0 +1,7 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+public record GameTitleKeyRefDTO(
+        Integer id,
+        String titleKey
+) {
+}
@@ -0,0 +1,7 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+public record GameTitleRefDTO(
+        Integer id,
+        String title
+) {
+}
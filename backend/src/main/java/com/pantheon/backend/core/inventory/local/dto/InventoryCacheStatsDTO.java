@@ -0,0 +1,17 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+/**
+ * Size of the {@link com.pantheon.backend.core.inventory.cache.InventoryCache}
+ *
+ * @param complete       whether the cache holds every game and library entry, only then are its misses trusted
+ * @param games          cached title keys
+ * @param libraryEntries cached library entries
+ * @param estimatedBytes rough heap footprint of the cached keys, entries and map nodes
+ */
+public record InventoryCacheStatsDTO(
+        boolean complete,
+        int games,
+        int libraryEntries,
+        long estimatedBytes
+) {
+}
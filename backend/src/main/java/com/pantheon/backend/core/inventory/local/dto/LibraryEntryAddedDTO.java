@@ -0,0 +1,21 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * A library entry that did not exist before, with every field. The platform is in the header of the delta.
+ */
+@Builder
+public record LibraryEntryAddedDTO(
+        Integer gameId,
+        String title,
+        String platformGameId,
+        boolean isInstalled,
+        String installPath,
+        Integer playtimeMinutes,
+        Long gameSize,
+        LocalDateTime lastPlayed
+) {
+}
@@ -0,0 +1,13 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import java.util.List;
+
+/**
+ * @param entries    the entries of the page, in sort order
+ * @param nextCursor passed back as {@code cursor} to fetch the next page, {@code null} on the last page
+ */
+public record LibraryEntryPageDTO(
+        List<LibraryEntryViewDTO> entries,
+        String nextCursor
+) {
+}
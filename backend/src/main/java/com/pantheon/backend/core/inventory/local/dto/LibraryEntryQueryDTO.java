@@ -0,0 +1,24 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import com.pantheon.backend.core.inventory.query.LibraryEntrySort;
+import lombok.Builder;
+
+/**
+ * Filters, order and page of a library listing. Filters left {@code null} are not applied.
+ *
+ * @param titlePrefix matched against the title key, so it ignores case, punctuation and diacritics
+ * @param limit       page size, {@code null} for the default
+ * @param cursor      the {@code nextCursor} of the previous page, {@code null} for the first page
+ */
+@Builder(toBuilder = true)
+public record LibraryEntryQueryDTO(
+        String platform,
+        Boolean installed,
+        String tag,
+        String titlePrefix,
+        LibraryEntrySort sort,
+        boolean ascending,
+        Integer limit,
+        String cursor
+) {
+}
@@ -0,0 +1,21 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Slim, write-oriented view of a library_entries row used by the bulk reconciliation path
+ */
+@Builder(toBuilder = true)
+public record LibraryEntryStateDTO(
+        Integer id,
+        Integer gameId,
+        boolean isInstalled,
+        String installPath,
+        String platformGameId,
+        Integer playtimeMinutes,
+        Long gameSize,
+        LocalDateTime lastPlayed
+) {
+}
@@ -0,0 +1,15 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import java.util.Map;
+
+/**
+ * A library entry that changed
+ *
+ * @param gameId  the game of the entry, entries are unique per game within a platform
+ * @param changed the new value of every field that changed, by the name it has in {@link LibraryEntryAddedDTO}
+ */
+public record LibraryEntryUpdatedDTO(
+        Integer gameId,
+        Map<String, Object> changed
+) {
+}
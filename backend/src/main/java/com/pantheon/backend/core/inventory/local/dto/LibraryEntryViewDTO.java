@@ -0,0 +1,24 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of a library entry with the game and platform columns a library listing shows
+ */
+@Builder
+public record LibraryEntryViewDTO(
+        Integer id,
+        Integer gameId,
+        String title,
+        String coverUrl,
+        String platform,
+        boolean isInstalled,
+        String installPath,
+        String platformGameId,
+        Integer playtimeMinutes,
+        Long gameSize,
+        LocalDateTime lastPlayed
+) {
+}
@@ -0,0 +1,10 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+/**
+ * First record of a library snapshot, ahead of its entries.
+ *
+ * @param version the library version the snapshot shows, library deltas with a higher version apply on top of it
+ * @param entries how many entries follow
+ */
+public record LibrarySnapshotHeaderDTO(long version, int entries) {
+}
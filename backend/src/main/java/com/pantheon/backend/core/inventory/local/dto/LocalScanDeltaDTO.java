@@ -0,0 +1,25 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import java.util.List;
+
+/**
+ * Result of an incremental scan of one library path
+ *
+ * @param changed                games whose manifest was added or changed since the last scan
+ * @param removedPlatformGameIds platform ids of games whose manifest disappeared since the last scan
+ * @param unchanged              number of manifests skipped because they did not change
+ */
+public record LocalScanDeltaDTO(
+        List<ScannedLocalGameDTO> changed,
+        List<String> removedPlatformGameIds,
+        int unchanged
+) {
+
+    public static LocalScanDeltaDTO full(List<ScannedLocalGameDTO> games) {
+        return new LocalScanDeltaDTO(games, List.of(), 0);
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && removedPlatformGameIds.isEmpty();
+    }
+}
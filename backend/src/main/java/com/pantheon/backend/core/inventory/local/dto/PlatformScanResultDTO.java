@@ -0,0 +1,25 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of scanning every library path of one platform
+ *
+ * @param platformName   the scanned platform
+ * @param success        whether at least one library path could be scanned
+ * @param gamesFound     the number of games found across the scanned paths
+ * @param failedPaths    the library paths that could not be scanned
+ * @param durationMillis wall-clock time of the platform scan
+ */
+public record PlatformScanResultDTO(
+        String platformName,
+        boolean success,
+        int gamesFound,
+        List<String> failedPaths,
+        long durationMillis
+) {
+
+    public static PlatformScanResultDTO failed(String platformName, long durationMillis) {
+        return new PlatformScanResultDTO(platformName, false, 0, List.of(), durationMillis);
+    }
+}
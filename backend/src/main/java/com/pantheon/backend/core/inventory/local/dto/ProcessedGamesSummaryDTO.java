@@ -0,0 +1,34 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+public record ProcessedGamesSummaryDTO(
+        int inserted,
+        int updated,
+        int unchanged,
+        int removed
+) {
+
+    public static final ProcessedGamesSummaryDTO EMPTY = new ProcessedGamesSummaryDTO(0, 0, 0, 0);
+
+    public ProcessedGamesSummaryDTO(int inserted, int updated, int unchanged) {
+        this(inserted, updated, unchanged, 0);
+    }
+
+    public ProcessedGamesSummaryDTO plus(ProcessedGamesSummaryDTO other) {
+        return new ProcessedGamesSummaryDTO(inserted + other.inserted, updated + other.updated,
+                unchanged + other.unchanged, removed + other.removed);
+    }
+
+    /**
+     * @return the number of games still present after processing
+     */
+    public int total() {
+        return inserted + updated + unchanged;
+    }
+
+    /**
+     * @return whether processing altered the library at all
+     */
+    public boolean hasChanges() {
+        return inserted + updated + removed > 0;
+    }
+}
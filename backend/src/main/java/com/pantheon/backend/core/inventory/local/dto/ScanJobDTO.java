@@ -0,0 +1,23 @@
+package com.pantheon.backend.core.inventory.local.dto;
+
+import com.pantheon.backend.core.inventory.local.job.ScanJobPhase;
+import lombok.Builder;
+
+import java.time.LocalDateTime;
+
+@Builder
+public record ScanJobDTO(
+        String id,
+        String platformName,
+        ScanJobPhase phase,
+        boolean cancelRequested,
+        int pathsTotal,
+        int pathsCompleted,
+        int pathsFailed,
+        int manifestsFound,
+        int manifestsParsed,
+        int gamesFound,
+        LocalDateTime createdAt,
+        long elapsedMillis
+) {
+}
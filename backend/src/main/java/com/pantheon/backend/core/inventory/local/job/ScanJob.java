@@ -0,0 +1,138 @@
+package com.pantheon.backend.core.inventory.local.job;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A scan of one platform, tracked by {@link ScanJobManager}.
+ * <p>
+ * The job is the {@link ScanMonitor} of its scan: it collects the progress counters and carries the cancellation
+ * request down to the scanners. Its {@link #getCompletion() completion} never completes exceptionally.
+ * </p>
+ */
+public class ScanJob implements ScanMonitor {
+
+    @Getter
+    private final String id;
+
+    @Getter
+    private final String platformName;
+
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    @Getter
+    private final CompletableFuture<PlatformScanResultDTO> completion = new CompletableFuture<>();
+
+    private final AtomicInteger pathsTotal = new AtomicInteger();
+    private final AtomicInteger pathsCompleted = new AtomicInteger();
+    private final AtomicInteger pathsFailed = new AtomicInteger();
+    private final AtomicInteger manifestsFound = new AtomicInteger();
+    private final AtomicInteger manifestsParsed = new AtomicInteger();
+    private final AtomicInteger gamesFound = new AtomicInteger();
+
+    @Getter
+    private volatile ScanJobPhase phase = ScanJobPhase.QUEUED;
+
+    private volatile boolean cancelRequested;
+    private volatile long startedNanos;
+    private volatile long finishedNanos;
+
+    public ScanJob(String id, String platformName) {
+        this.id = id;
+        this.platformName = platformName;
+    }
+
+    void start() {
+        startedNanos = System.nanoTime();
+        phase = ScanJobPhase.RUNNING;
+    }
+
+    void finish(PlatformScanResultDTO result) {
+        finishedNanos = System.nanoTime();
+        if (cancelRequested) {
+            phase = ScanJobPhase.CANCELLED;
+        } else {
+            phase = result.success() ? ScanJobPhase.COMPLETED : ScanJobPhase.FAILED;
+        }
+        completion.complete(result);
+    }
+
+    /**
+     * Asks the scan to stop at the next manifest or library path boundary
+     *
+     * @return false when the job had already finished
+     */
+    public boolean cancel() {
+        if (phase.isFinished()) return false;
+        cancelRequested = true;
+        return true;
+    }
+
+    public boolean isFinished() {
+        return phase.isFinished();
+    }
+
+    @Override
+    public String jobId() {
+        return id;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelRequested;
+    }
+
+    @Override
+    public void onPathsFound(int count) {
+        pathsTotal.addAndGet(count);
+    }
+
+    @Override
+    public void onPathCompleted(boolean success) {
+        (success ? pathsCompleted : pathsFailed).incrementAndGet();
+    }
+
+    @Override
+    public void onManifestsFound(int count) {
+        manifestsFound.addAndGet(count);
+    }
+
+    @Override
+    public void onManifestParsed() {
+        manifestsParsed.incrementAndGet();
+    }
+
+    @Override
+    public void onGamesFound(int count) {
+        gamesFound.addAndGet(count);
+    }
+
+    public ScanJobDTO toDTO() {
+
+        long started = startedNanos;
+        long finished = finishedNanos;
+        long elapsedNanos = started == 0 ? 0 : (finished != 0 ? finished : System.nanoTime()) - started;
+
+        return ScanJobDTO.builder()
+                .id(id)
+                .platformName(platformName)
+                .phase(phase)
+                .cancelRequested(cancelRequested)
+                .pathsTotal(pathsTotal.get())
+                .pathsCompleted(pathsCompleted.get())
+                .pathsFailed(pathsFailed.get())
+                .manifestsFound(manifestsFound.get())
+                .manifestsParsed(manifestsParsed.get())
+                .gamesFound(gamesFound.get())
+                .createdAt(createdAt)
+                .elapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .build();
+    }
+}
@@ -0,0 +1,134 @@
+package com.pantheon.backend.core.inventory.local.job;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.platform.model.Platform;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Registry of the platform scans, running each one as a {@link ScanJob} on its own virtual thread.
+ * <p>
+ * There is at most one running job per platform: submitting a platform that is already being scanned returns the
+ * running job instead of starting a second scan against the same database rows. Finished jobs are kept around, up to
+ * {@value #MAX_RETAINED_JOBS}, so their outcome can still be looked up.
+ * </p>
+ * <p>
+ * Once a job finished, the event stream subscriptions following it are ended. Its last event has been broadcast by
+ * then, as scan events are published on the scanning thread.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScanJobManager {
+
+    static final int MAX_RETAINED_JOBS = 100;
+
+    private final InventoryLocalScanService inventoryLocalScanService;
+    private final NotificationService notificationService;
+
+    private final Map<String, ScanJob> jobs = new LinkedHashMap<>();
+    private final Map<String, ScanJob> activeJobs = new HashMap<>();
+
+    /**
+     * @param platform the platform to scan
+     * @return the new job, or the job already scanning the platform
+     */
+    public synchronized ScanJob submit(Platform platform) {
+
+        ScanJob active = activeJobs.get(platform.getName());
+
+        if (active != null) {
+            log.info("{}: Scan already running as job {}", platform.getName(), active.getId());
+            return active;
+        }
+
+        ScanJob job = new ScanJob(UUID.randomUUID().toString(), platform.getName());
+
+        jobs.put(job.getId(), job);
+        activeJobs.put(platform.getName(), job);
+        pruneFinishedJobs();
+
+        log.info("{}: Starting scan job {}", platform.getName(), job.getId());
+
+        Thread.ofVirtual().name("scan-job-" + job.getId()).start(() -> run(job, platform));
+
+        return job;
+    }
+
+    public synchronized Optional<ScanJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public synchronized List<ScanJob> findAll() {
+        return new ArrayList<>(jobs.values());
+    }
+
+    /**
+     * Requests the cancellation of a job, which stops at the next manifest or library path boundary
+     *
+     * @return the job, empty when unknown
+     */
+    public Optional<ScanJob> cancel(String id) {
+
+        Optional<ScanJob> job = find(id);
+
+        job.ifPresent(found -> {
+            if (found.cancel()) log.info("{}: Cancellation requested for scan job {}", found.getPlatformName(), id);
+        });
+
+        return job;
+    }
+
+    private void run(ScanJob job, Platform platform) {
+
+        long start = System.nanoTime();
+
+        job.start();
+
+        PlatformScanResultDTO result = null;
+
+        try {
+            result = inventoryLocalScanService.scanPlatform(platform, job);
+        } catch (RuntimeException e) {
+            log.error("{}: Scan job {} failed: {}", platform.getName(), job.getId(), e.getMessage());
+        } finally {
+            // Also on an Error, the job would otherwise stay active and every later request would join it
+            if (result == null) {
+                result = PlatformScanResultDTO.failed(platform.getName(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            }
+
+            // Leave the active set before completing, so a new request never joins a job that is already done
+            synchronized (this) {
+                activeJobs.remove(platform.getName(), job);
+            }
+
+            job.finish(result);
+            notificationService.endJob(job.getId());
+        }
+
+        log.info("{}: Scan job {} finished as {}", platform.getName(), job.getId(), job.getPhase());
+    }
+
+    private void pruneFinishedJobs() {
+
+        Iterator<ScanJob> iterator = jobs.values().iterator();
+
+        while (jobs.size() > MAX_RETAINED_JOBS && iterator.hasNext()) {
+            if (iterator.next().isFinished()) iterator.remove();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.pantheon.backend.core.inventory.local.job;
+
+public enum ScanJobPhase {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
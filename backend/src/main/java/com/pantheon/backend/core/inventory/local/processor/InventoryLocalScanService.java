@@ -1,19 +1,27 @@
 package com.pantheon.backend.core.inventory.local.processor;
 
 import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
-import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ScanMonitor;
 import com.pantheon.backend.core.library.utils.ScannerUtil;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
  *
@@ -30,23 +38,31 @@ import java.util.List;
 public class InventoryLocalScanService {
 
     private final LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService;
-    private final LocalGamesProcessor localGamesProcessor;
+    private final InventoryWriteQueue inventoryWriteQueue;
     private final ScannerUtil scannerUtil;
+    private final ScanConcurrencyLimiter scanConcurrencyLimiter;
+    private final LocalScanPipeline localScanPipeline;
 
     /**
      * Initializes the scan service and builds a strategy map of available scanners.
      *
      * @param localScanNotificationOrchestrationService Orchestrator for scan-progress events.
-     * @param localGamesProcessor               Responsible for the actual path-specific scanning
+     * @param inventoryWriteQueue                       Persists the scanned games through the single writer
      * @param ScannerUtil                               Utility class for fetching scanners
      *                                                  List of all {@link LocalGameLibraryScanner} beans found in the context.
+     * @param scanConcurrencyLimiter                    Global limit on the library paths scanned at once
+     * @param localScanPipeline                         Overlaps scanning, persisting and notifying of a path
      */
     @Autowired
-    public InventoryLocalScanService(LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService, ScannerUtil scannerUtil, LocalGamesProcessor localGamesProcessor) {
+    public InventoryLocalScanService(LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService, ScannerUtil scannerUtil,
+                                     InventoryWriteQueue inventoryWriteQueue, ScanConcurrencyLimiter scanConcurrencyLimiter,
+                                     LocalScanPipeline localScanPipeline) {
 
         this.localScanNotificationOrchestrationService = localScanNotificationOrchestrationService;
         this.scannerUtil = scannerUtil;
-        this.localGamesProcessor = localGamesProcessor;
+        this.inventoryWriteQueue = inventoryWriteQueue;
+        this.scanConcurrencyLimiter = scanConcurrencyLimiter;
+        this.localScanPipeline = localScanPipeline;
     }
 
     /**
@@ -54,80 +70,226 @@ public class InventoryLocalScanService {
      * Responsible for initiating the path-specific scans via {@link LocalGameLibraryScanner}, initiating notifications
      * via {@link LocalScanNotificationOrchestrationService} as well as initiating the processing for the scanned games
      * via {@link LocalGamesProcessor}
+     * <p>
+     * The library paths are scanned in parallel, within the global limit of {@link ScanConcurrencyLimiter}. Within a
+     * path, scanned games are persisted and broadcast in chunks while the scan is still running, see
+     * {@link LocalScanPipeline}. Returns once every path has been scanned.
+     * </p>
      *
      * @param platform The Platform for which we need to scan games
+     * @return the outcome of the scan
      * @throws IllegalStateException when there's no scanner configured for the platform
      */
-    @Async
-    public void scanPlatformPaths(Platform platform) throws IllegalStateException {
+    public PlatformScanResultDTO scanPlatform(Platform platform) throws IllegalStateException {
+        return scanPlatform(platform, ScanMonitor.NONE);
+    }
+
+    /**
+     *
+     * {@link #scanPlatform(Platform)} that reports its progress to, and can be cancelled through, a
+     * {@link ScanMonitor}. Cancellation is checked before each library path and, by the scanners, between manifests.
+     *
+     * @param platform The Platform for which we need to scan games
+     * @param monitor  the monitor of the scan
+     * @return the outcome of the scan
+     * @throws IllegalStateException when there's no scanner configured for the platform
+     */
+    public PlatformScanResultDTO scanPlatform(Platform platform, ScanMonitor monitor) throws IllegalStateException {
+
+        long start = System.nanoTime();
 
         log.info("{}: Attempting scan", platform.getName());
 
         String platformName = platform.getName();
+        String jobId = monitor.jobId();
         LocalGameLibraryScanner client;
 
         try {
             client = scannerUtil.getScannerForPlatform(platform);
         } catch (IllegalStateException e) {
-            localScanNotificationOrchestrationService.notifyError(platformName, e.getMessage());
+            localScanNotificationOrchestrationService.notifyError(platformName, jobId, e.getMessage());
             throw e;
         }
 
-        String phase = "Initializing";
-
         List<String> libraryPaths = client.getConfiguredLibraryPaths();
 
         if (libraryPaths == null || libraryPaths.isEmpty()) {
             log.error("{}: No Library Paths Configured", platform.getName());
-            localScanNotificationOrchestrationService.notifyError(platform.getName(), "No Library Paths Configured");
+            localScanNotificationOrchestrationService.notifyError(platform.getName(), jobId, "No Library Paths Configured");
             throw new IllegalStateException("No libraries paths configured");
         }
 
-        localScanNotificationOrchestrationService.notifyStart(platformName);
+        localScanNotificationOrchestrationService.notifyStart(platformName, jobId);
+
+        monitor.onPathsFound(libraryPaths.size());
+
+        List<Future<Integer>> pathScans = new ArrayList<>(libraryPaths.size());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String pathStr : libraryPaths) {
+                pathScans.add(executor.submit(() -> scanConcurrencyLimiter.run(() -> scanPath(client, platform, pathStr, monitor))));
+            }
+        }
 
         List<String> failedPaths = new ArrayList<>();
 
         int totalGamesFound = 0;
 
-        for (String pathStr : libraryPaths) {
+        for (int i = 0; i < libraryPaths.size(); i++) {
+            Future<Integer> pathScan = pathScans.get(i);
+            if (pathScan.state() == Future.State.SUCCESS) {
+                totalGamesFound += pathScan.resultNow();
+            } else {
+                failedPaths.add(libraryPaths.get(i));
+            }
+        }
 
-            log.info("{}: Initializing scan for path: {}", platformName, pathStr);
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
 
-            try {
+        if (monitor.isCancelled()) {
+            log.info("{}: Scan cancelled after {} ms, skipped or failed paths: {}", platformName, durationMillis, failedPaths);
+            localScanNotificationOrchestrationService.notifyError(platformName, jobId, "Scan cancelled");
+            return new PlatformScanResultDTO(platformName, false, totalGamesFound, failedPaths, durationMillis);
+        }
 
-                phase = "Scanning";
+        if (failedPaths.size() == libraryPaths.size()) {
+            log.error("{}: Scan failed for all paths", platformName);
+            localScanNotificationOrchestrationService.notifyError(platformName, jobId, failedPaths.size(), failedPaths);
+            return new PlatformScanResultDTO(platformName, false, 0, failedPaths, durationMillis);
+        }
 
-                List<ScannedLocalGameDTO> foundGames = client.scan(Path.of(pathStr));
+        if (failedPaths.isEmpty()) {
+            log.info("{}: Scan completed in {} ms, totalPaths: {}, all succeeded", platformName, durationMillis, libraryPaths.size());
+            localScanNotificationOrchestrationService.notifyComplete(platformName, jobId, totalGamesFound);
+        } else {
+            log.info("{}: Scan completed in {} ms, totalPaths: {}, failed: {}", platformName, durationMillis, libraryPaths.size(), failedPaths);
+            localScanNotificationOrchestrationService.notifyComplete(platformName, jobId, totalGamesFound, failedPaths.size(), failedPaths);
+        }
 
-                phase = "Processing";
+        return new PlatformScanResultDTO(platformName, true, totalGamesFound, failedPaths, durationMillis);
+    }
 
-                this.localGamesProcessor.processScannedGames(foundGames, platform);
+    /**
+     * @return the number of games found in the path
+     */
+    private int scanPath(LocalGameLibraryScanner client, Platform platform, String pathStr, ScanMonitor monitor)
+            throws ScanFailureException {
 
-                phase = "Sending";
+        String platformName = platform.getName();
+        String phase = "Initializing";
+
+        log.info("{}: Initializing scan for path: {}", platformName, pathStr);
+
+        try {
+
+            monitor.checkCancelled();
 
-                localScanNotificationOrchestrationService.notifyBatch(platformName, foundGames);
+            phase = "Scanning";
 
-                totalGamesFound += foundGames.size();
+            Path libraryPath = Path.of(pathStr);
+            String installRoot = installRoot(client, libraryPath);
 
-                log.info("{}: Scan Succeeded for path {}", platformName, pathStr);
+            ProcessedGamesSummaryDTO summary;
 
+            try {
+                summary = localScanPipeline.run(
+                        (sink, pipelineMonitor) -> client.scanChanges(libraryPath, pipelineMonitor, sink),
+                        chunk -> persistChunk(chunk, platform, installRoot, monitor.jobId()),
+                        games -> localScanNotificationOrchestrationService.notifyBatch(platformName, monitor.jobId(), games),
+                        monitor);
+            } catch (ScanCancelledException e) {
+                throw e;
             } catch (ScanFailureException e) {
-                log.error("{}: Scan failed for path {} in phase {} with exception: {}", platformName, pathStr, phase, e.getMessage(), e);
-                failedPaths.add(pathStr);
+                // Part of what the scanner remembered may not have been persisted, so the next scan of the path is a full one
+                client.forgetChanges(libraryPath);
+                throw e;
             }
+
+            log.info("{}: Scan Succeeded for path {} - {}", platformName, pathStr, summary);
+
+            int gamesFound = summary.total();
+
+            monitor.onGamesFound(gamesFound);
+            monitor.onPathCompleted(true);
+
+            return gamesFound;
+
+        } catch (ScanCancelledException e) {
+            log.info("{}: Scan of path {} cancelled in phase {}", platformName, pathStr, phase);
+            monitor.onPathCompleted(false);
+            throw e;
+        } catch (ScanFailureException | RuntimeException e) {
+            monitor.onPathCompleted(false);
+            log.error("{}: Scan failed for path {} in phase {} with exception: {}", platformName, pathStr, phase, e.getMessage(), e);
+            throw e;
         }
+    }
 
-        if (failedPaths.size() == platform.getLibraryPaths().size()) {
-            log.error("{}: Scan failed for all paths", platformName);
-            localScanNotificationOrchestrationService.notifyError(platformName, failedPaths.size(), failedPaths);
-        } else if (failedPaths.isEmpty()) {
-            log.info("{}: Scan completed, totalPaths: {}, all succeeded", platformName, libraryPaths.size());
-            localScanNotificationOrchestrationService.notifyComplete(platformName, totalGamesFound);
-        } else {
-            log.info("{}: Scan completed, totalPaths: {}, failed: {}", platformName, libraryPaths.size(), failedPaths);
-            localScanNotificationOrchestrationService.notifyComplete(platformName, totalGamesFound, failedPaths.size(), failedPaths);
+    /**
+     *
+     * Picks up the changes of a single library path without going through a full platform scan, e.g. when a
+     * filesystem watcher noticed that games were installed or uninstalled. What changed in the library is broadcast by
+     * {@link LocalGamesProcessor}.
+     *
+     * @param platform     the platform the library path belongs to
+     * @param libraryPath  the library path that changed
+     * @param changedFiles the files that changed, {@code null} when the whole path needs to be looked at again
+     * @return how many library entries were inserted, updated, left unchanged or removed
+     * @throws ScanFailureException  when the path cannot be scanned or its changes cannot be persisted
+     * @throws IllegalStateException when there's no scanner configured for the platform
+     */
+    public ProcessedGamesSummaryDTO syncLibraryPath(Platform platform, Path libraryPath, Collection<Path> changedFiles)
+            throws ScanFailureException, IllegalStateException {
+
+        String platformName = platform.getName();
+        LocalGameLibraryScanner client = scannerUtil.getScannerForPlatform(platform);
+
+        LocalScanDeltaDTO delta = changedFiles == null
+                ? client.scanChanges(libraryPath)
+                : client.scanChanges(libraryPath, changedFiles);
+
+        if (delta.isEmpty()) {
+            log.debug("{}: Nothing changed in {}", platformName, libraryPath);
+            return ProcessedGamesSummaryDTO.EMPTY;
         }
+
+        ProcessedGamesSummaryDTO summary = persistDelta(client, libraryPath, delta, platform);
+
+        log.info("{}: Synced path {} - {}", platformName, libraryPath, summary);
+
+        return summary;
     }
 
+    /**
+     * The scanner has already remembered what it reported, so a delta that fails to persist would be lost for good.
+     * In that case the scanner forgets the path, making the next scan of it a full one.
+     */
+    private ProcessedGamesSummaryDTO persistDelta(LocalGameLibraryScanner client, Path libraryPath, LocalScanDeltaDTO delta,
+                                                  Platform platform) throws ScanFailureException {
+        try {
+            return persistChunk(delta, platform, installRoot(client, libraryPath), null);
+        } catch (ScanFailureException e) {
+            client.forgetChanges(libraryPath);
+            throw e;
+        }
+    }
+
+    /**
+     * Paths are scanned concurrently but persisted by a single writer: SQLite only has one, and two paths containing
+     * the same title must not both insert it. Chunks of concurrent scans are coalesced into shared transactions.
+     */
+    private ProcessedGamesSummaryDTO persistChunk(LocalScanDeltaDTO chunk, Platform platform, String installRoot, String jobId)
+            throws ScanFailureException {
+        return inventoryWriteQueue.write(chunk, platform, installRoot, jobId);
+    }
+
+    /**
+     * Games removed from a path are only marked as uninstalled below its install root: scanned concurrently, another
+     * path of the platform may already have written the game it moved to
+     */
+    private static String installRoot(LocalGameLibraryScanner client, Path libraryPath) {
+        Path installRoot = client.getInstallRoot(libraryPath);
+        return installRoot == null ? null : installRoot.toString();
+    }
 
 }
\ No newline at end of file
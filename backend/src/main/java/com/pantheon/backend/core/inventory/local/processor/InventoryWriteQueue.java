@@ -0,0 +1,236 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.platform.model.Platform;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Funnels every inventory mutation through a single writer thread.
+ * <p>
+ * SQLite has a single writer, so concurrent scans committing on their own would only take turns on the database lock,
+ * paying a commit each. Instead callers submit their deltas here and the writer coalesces whatever is queued, up to a
+ * budget of games and of time spent waiting for more, into one transaction. Callers are completed with the summary of
+ * their own delta.
+ * </p>
+ * <p>
+ * When a coalesced transaction fails, it is rolled back and its writes are retried one transaction each, so that one
+ * bad delta only fails its own caller. Since every write runs on the same thread, two deltas containing the same title
+ * can never both insert it.
+ * </p>
+ * <p>
+ * Should the writer die of something unexpected, the queue closes: queued and later writes fail instead of waiting
+ * for a writer that is gone.
+ * </p>
+ */
+@Slf4j
+@Component
+public class InventoryWriteQueue {
+
+    private final LocalGamesProcessor localGamesProcessor;
+    private final TransactionOperations transactionOperations;
+    private final int maxBatchGames;
+    private final long maxDelayNanos;
+    private final long timeoutMillis;
+
+    private final BlockingQueue<Write> pending = new LinkedBlockingQueue<>();
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * @param maxBatchGames  changed and removed games after which no more writes are added to a transaction
+     * @param maxDelayMillis how long the writer waits for more writes once it has drained the queue, 0 only coalesces
+     *                       the writes that queued up while the previous transaction ran
+     * @param timeoutMillis  how long {@link #write} waits for its delta to be written
+     */
+    @Autowired
+    public InventoryWriteQueue(LocalGamesProcessor localGamesProcessor, TransactionOperations transactionOperations,
+                               @Qualifier("inventoryWriteMaxBatchGames") int maxBatchGames,
+                               @Qualifier("inventoryWriteMaxDelayMillis") long maxDelayMillis,
+                               @Qualifier("inventoryWriteTimeoutMillis") long timeoutMillis) {
+        this.localGamesProcessor = localGamesProcessor;
+        this.transactionOperations = transactionOperations;
+        this.maxBatchGames = Math.max(1, maxBatchGames);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxDelayMillis));
+        this.timeoutMillis = timeoutMillis;
+        this.writer = Thread.ofPlatform().name("inventory-writer").daemon().start(this::drain);
+    }
+
+    /**
+     * Queues a delta for the writer
+     *
+     * @param installRoot see {@link LocalGamesProcessor#processScanDelta}
+     * @param jobId       see {@link LocalGamesProcessor#processScanDelta}
+     * @return completed with how many library entries were inserted, updated, left unchanged or removed, or
+     * exceptionally with the failure of the write
+     */
+    public CompletableFuture<ProcessedGamesSummaryDTO> submit(LocalScanDeltaDTO delta, Platform platform, String installRoot,
+                                                            String jobId) {
+
+        Write write = new Write(delta, platform, installRoot, jobId, new CompletableFuture<>());
+
+        if (closed) {
+            write.result().completeExceptionally(new IllegalStateException("Inventory write queue is closed"));
+            return write.result();
+        }
+
+        pending.add(write);
+
+        // Closed while queueing, the writer may already have failed what was left in the queue
+        if (closed && pending.remove(write)) {
+            write.result().completeExceptionally(new IllegalStateException("Inventory write queue is closed"));
+        }
+
+        return write.result();
+    }
+
+    /**
+     * Queues a delta and waits until it has been written
+     *
+     * @throws ScanFailureException when the write fails or is not done within the timeout, or when the thread is
+     *                              interrupted while waiting
+     */
+    public ProcessedGamesSummaryDTO write(LocalScanDeltaDTO delta, Platform platform, String installRoot, String jobId)
+            throws ScanFailureException {
+
+        try {
+            return submit(delta, platform, installRoot, jobId).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScanFailureException("Interrupted while waiting for scanned games to be persisted", e);
+        } catch (TimeoutException e) {
+            throw new ScanFailureException("Scanned games were not persisted within " + timeoutMillis + " ms", e);
+        } catch (ExecutionException e) {
+            throw new ScanFailureException("Failed to persist scanned games: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void drain() {
+
+        List<Write> batch = new ArrayList<>();
+
+        try {
+            while (!closed) {
+                batch.add(pending.take());
+                collect(batch);
+                writeBatch(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable e) {
+            log.error("Inventory writer died, closing the write queue", e);
+        } finally {
+            // Before draining, so that writes submitted from now on fail on their own
+            closed = true;
+            pending.drainTo(batch);
+            batch.forEach(write -> write.result().completeExceptionally(new IllegalStateException("Inventory write queue is closed")));
+        }
+    }
+
+    /**
+     * Adds queued writes to the batch until it is over the game budget, or nothing arrives within the delay
+     */
+    private void collect(List<Write> batch) throws InterruptedException {
+
+        int games = batch.getFirst().games();
+        long deadline = System.nanoTime() + maxDelayNanos;
+
+        while (games < maxBatchGames) {
+
+            Write next = pending.poll();
+
+            if (next == null) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) break;
+                next = pending.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) break;
+            }
+
+            batch.add(next);
+            games += next.games();
+        }
+    }
+
+    private void writeBatch(List<Write> batch) {
+
+        long start = System.nanoTime();
+
+        try {
+            List<ProcessedGamesSummaryDTO> summaries = transactionOperations.execute(status -> {
+                List<ProcessedGamesSummaryDTO> results = new ArrayList<>(batch.size());
+                for (Write write : batch) {
+                    results.add(process(write));
+                }
+                return results;
+            });
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(summaries.get(i));
+            }
+
+            log.debug("Wrote {} inventory deltas in one transaction in {} ms", batch.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+
+        } catch (RuntimeException e) {
+
+            if (batch.size() == 1) {
+                batch.getFirst().result().completeExceptionally(e);
+                return;
+            }
+
+            log.warn("Transaction of {} inventory deltas failed, writing them one by one: {}", batch.size(), e.getMessage());
+
+            for (Write write : batch) {
+                try {
+                    write.result().complete(transactionOperations.execute(
+                            status -> process(write)));
+                } catch (RuntimeException writeFailure) {
+                    write.result().completeExceptionally(writeFailure);
+                }
+            }
+        }
+    }
+
+    private ProcessedGamesSummaryDTO process(Write write) {
+        return localGamesProcessor.processScanDelta(write.delta(), write.platform(), write.installRoot(), write.jobId());
+    }
+
+    /**
+     * Stops the writer, writes that have not started yet fail
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        writer.interrupt();
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Write(LocalScanDeltaDTO delta, Platform platform, String installRoot, String jobId,
+                         CompletableFuture<ProcessedGamesSummaryDTO> result) {
+
+        int games() {
+            return delta.changed().size() + delta.removedPlatformGameIds().size();
+        }
+    }
+}
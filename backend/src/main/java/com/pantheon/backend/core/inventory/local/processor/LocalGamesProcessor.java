@@ -1,18 +1,33 @@
 package com.pantheon.backend.core.inventory.local.processor;
 
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryAddedDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryUpdatedDTO;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
-import com.pantheon.backend.core.inventory.mapper.GameMapper;
-import com.pantheon.backend.core.inventory.model.Game;
-import com.pantheon.backend.core.inventory.model.LibraryEntry;
+import com.pantheon.backend.core.inventory.matching.GameMatchingService;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryVersionRepository;
+import com.pantheon.backend.core.notification.event.library.LibraryDeltaEvent;
 import com.pantheon.backend.core.platform.model.Platform;
-import com.pantheon.backend.core.inventory.repository.GameRepository;
 import com.pantheon.backend.core.inventory.repository.LibraryEntryRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * This Service processes the scanned games and creates/updates related entries in the DB
@@ -21,68 +36,239 @@ import java.util.List;
 @Service
 public class LocalGamesProcessor {
 
-    private final GameRepository gameRepository;
-    private final GameMapper gameMapper;
     private final LibraryEntryRepository libraryEntryRepository;
+    private final InventoryBulkRepository inventoryBulkRepository;
+    private final GameMatchingService gameMatchingService;
+    private final InventoryCache inventoryCache;
+    private final LibraryVersionRepository libraryVersionRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public LocalGamesProcessor(GameRepository gameRepository, GameMapper gameMapper, LibraryEntryRepository libraryEntryRepository) {
-        this.gameRepository = gameRepository;
-        this.gameMapper = gameMapper;
+    public LocalGamesProcessor(LibraryEntryRepository libraryEntryRepository, InventoryBulkRepository inventoryBulkRepository,
+                               GameMatchingService gameMatchingService, InventoryCache inventoryCache,
+                               LibraryVersionRepository libraryVersionRepository, ApplicationEventPublisher eventPublisher) {
         this.libraryEntryRepository = libraryEntryRepository;
+        this.inventoryBulkRepository = inventoryBulkRepository;
+        this.gameMatchingService = gameMatchingService;
+        this.inventoryCache = inventoryCache;
+        this.libraryVersionRepository = libraryVersionRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      *
-     * Calls helper methods interacting with the repositories to Create/Update the Scanned Games
+     * Persists the result of a scan: changed games are reconciled in bulk and the library entries of removed games
+     * are marked as uninstalled (they are kept to preserve playtime and history). When something changed, the library
+     * version is bumped and a {@link LibraryDeltaEvent} carrying only what changed is published.
      *
-     * @param scannedGames The Games identified by scanning the platform
-     * @param platform     the platform for which the games were scanned
+     * @param delta       the changes found by the scanner
+     * @param platform    the platform for which the games were scanned
+     * @param installRoot the directory the games of the scanned library path are installed below, only entries
+     *                    installed there are marked as uninstalled. Null when they may be installed anywhere.
+     * @param jobId       the scan job that found the changes, published with them. Null when no job did.
+     * @return how many library entries were inserted, updated, left unchanged or removed
      */
     @Transactional
-    public void processScannedGames(List<ScannedLocalGameDTO> scannedGames, Platform platform) {
+    public ProcessedGamesSummaryDTO processScanDelta(LocalScanDeltaDTO delta, Platform platform, String installRoot,
+                                                     String jobId) {
+
+        LibraryChanges changes = new LibraryChanges();
+        ProcessedGamesSummaryDTO summary = reconcile(delta.changed(), platform, changes);
+
+        if (!delta.removedPlatformGameIds().isEmpty()) {
+            Set<String> removedIds = Set.copyOf(delta.removedPlatformGameIds());
+            findEntryStates(platform.getId()).values().stream()
+                    .filter(state -> state.isInstalled() && removedIds.contains(state.platformGameId()))
+                    .filter(state -> InventoryBulkRepository.isInstalledBelow(state.installPath(), installRoot))
+                    .forEach(state -> changes.removed.add(state.gameId()));
+        }
+
+        int removed = inventoryBulkRepository.markUninstalled(platform.getId(), installRoot, delta.removedPlatformGameIds());
+        inventoryCache.entriesUninstalled(platform.getId(), installRoot, delta.removedPlatformGameIds());
+
+        if (removed > 0) {
+            log.info("{}: Marked {} removed games as uninstalled", platform.getName(), removed);
+        }
+
+        publish(changes, platform, jobId);
+
+        return summary.plus(new ProcessedGamesSummaryDTO(0, 0, delta.unchanged(), removed));
+    }
+
+    /**
+     * Matches the titles to games (see {@link GameMatchingService}) and loads all library entries of the platform
+     * up-front, from the {@link InventoryCache} once it is warm, diffs them against the scanned games in memory and
+     * only writes new or changed rows, using JDBC batches.
+     */
+    private ProcessedGamesSummaryDTO reconcile(List<ScannedLocalGameDTO> scannedGames, Platform platform, LibraryChanges changes) {
+
+        if (scannedGames.isEmpty()) return ProcessedGamesSummaryDTO.EMPTY;
+
+        Set<String> titles = new LinkedHashSet<>();
+        for (ScannedLocalGameDTO dto : scannedGames) {
+            titles.add(dto.title());
+        }
+
+        Map<String, Integer> gameIdsByTitle = gameMatchingService.matchOrCreate(titles);
+
+        Map<Integer, LibraryEntryStateDTO> existingByGameId = findEntryStates(platform.getId());
+
+        Map<Integer, String> titlesByGameId = new HashMap<>();
+        Map<Integer, LibraryEntryStateDTO> toInsert = new LinkedHashMap<>();
+        Map<Integer, LibraryEntryStateDTO> toUpdate = new LinkedHashMap<>();
+        Set<Integer> touched = new HashSet<>();
+
         for (ScannedLocalGameDTO dto : scannedGames) {
-            Game game = findOrCreateGame(dto);
-            createOrUpdateLibraryEntry(game, platform, dto);
+
+            Integer gameId = gameIdsByTitle.get(dto.title());
+
+            if (toInsert.containsKey(gameId)) {
+                toInsert.put(gameId, mergeEntryState(toInsert.get(gameId), dto));
+                continue;
+            }
+
+            LibraryEntryStateDTO existing = existingByGameId.get(gameId);
+
+            if (existing == null) {
+                titlesByGameId.put(gameId, dto.title());
+                toInsert.put(gameId, mergeEntryState(newEntryState(gameId), dto));
+                continue;
+            }
+
+            touched.add(gameId);
+
+            LibraryEntryStateDTO current = toUpdate.getOrDefault(gameId, existing);
+            LibraryEntryStateDTO merged = mergeEntryState(current, dto);
+
+            if (!merged.equals(existing)) {
+                toUpdate.put(gameId, merged);
+            }
         }
-        log.info("{}: Processed {} games ", platform.getName(), scannedGames.size());
+
+        inventoryBulkRepository.insertLibraryEntries(platform.getId(), toInsert.values());
+        inventoryBulkRepository.updateLibraryEntries(platform.getId(), toUpdate.values());
+
+        // Before the cache learns of the writes, the cached states are a view that would then show the new values
+        toInsert.forEach((gameId, state) -> changes.added.add(added(titlesByGameId.get(gameId), state)));
+        toUpdate.forEach((gameId, state) -> changes.updated.add(new LibraryEntryUpdatedDTO(gameId, changedFields(existingByGameId.get(gameId), state))));
+
+        inventoryCache.entriesWritten(platform.getId(), toInsert.values());
+        inventoryCache.entriesWritten(platform.getId(), toUpdate.values());
+
+        ProcessedGamesSummaryDTO summary = new ProcessedGamesSummaryDTO(toInsert.size(), toUpdate.size(), touched.size() - toUpdate.size());
+
+        log.info("{}: Reconciled {} games, inserted: {}, updated: {}, unchanged: {}", platform.getName(),
+                scannedGames.size(), summary.inserted(), summary.updated(), summary.unchanged());
+
+        return summary;
+    }
+
+    /**
+     * Bumps the library version and publishes the changes, delivered once the transaction commits
+     */
+    private void publish(LibraryChanges changes, Platform platform, String jobId) {
+
+        if (changes.isEmpty()) return;
+
+        long version = libraryVersionRepository.increment();
+
+        eventPublisher.publishEvent(new LibraryDeltaEvent(version, platform.getName(), platform.getType(), jobId,
+                changes.added, changes.updated, changes.removed));
     }
 
-    private Game findOrCreateGame(ScannedLocalGameDTO dto) {
+    private static LibraryEntryAddedDTO added(String title, LibraryEntryStateDTO state) {
+        return LibraryEntryAddedDTO.builder()
+                .gameId(state.gameId())
+                .title(title)
+                .platformGameId(state.platformGameId())
+                .isInstalled(state.isInstalled())
+                .installPath(state.installPath())
+                .playtimeMinutes(state.playtimeMinutes())
+                .gameSize(state.gameSize())
+                .lastPlayed(state.lastPlayed())
+                .build();
+    }
+
+    /**
+     * @return the fields of the entry that differ, named as in {@link LibraryEntryAddedDTO}
+     */
+    private static Map<String, Object> changedFields(LibraryEntryStateDTO before, LibraryEntryStateDTO after) {
+
+        Map<String, Object> changed = new LinkedHashMap<>();
+
+        putIfChanged(changed, "platformGameId", before.platformGameId(), after.platformGameId());
+        putIfChanged(changed, "isInstalled", before.isInstalled(), after.isInstalled());
+        putIfChanged(changed, "installPath", before.installPath(), after.installPath());
+        putIfChanged(changed, "playtimeMinutes", before.playtimeMinutes(), after.playtimeMinutes());
+        putIfChanged(changed, "gameSize", before.gameSize(), after.gameSize());
+        putIfChanged(changed, "lastPlayed", before.lastPlayed(), after.lastPlayed());
+
+        return changed;
+    }
 
-        return gameRepository.findByTitle(dto.title()).orElseGet(() -> gameRepository.save(gameMapper.toEntity(dto)));
+    private static void putIfChanged(Map<String, Object> changed, String field, Object before, Object after) {
+        if (!Objects.equals(before, after)) changed.put(field, after);
     }
 
-    private void createOrUpdateLibraryEntry(Game game, Platform platform, ScannedLocalGameDTO dto) {
+    /**
+     * @return the library entries of the platform keyed by game id
+     */
+    private Map<Integer, LibraryEntryStateDTO> findEntryStates(Integer platformId) {
+
+        if (inventoryCache.isComplete()) return inventoryCache.entryStates(platformId);
+
+        Map<Integer, LibraryEntryStateDTO> statesByGameId = new HashMap<>();
+        for (LibraryEntryStateDTO state : libraryEntryRepository.findStatesByPlatformId(platformId)) {
+            statesByGameId.put(state.gameId(), state);
+        }
+        return statesByGameId;
+    }
 
-        log.info("{}: Creating/Updating library entry {}", platform.getName(), dto.toString());
+    private LibraryEntryStateDTO newEntryState(Integer gameId) {
+        return LibraryEntryStateDTO.builder()
+                .gameId(gameId)
+                .playtimeMinutes(0)
+                .gameSize(0L)
+                .build();
+    }
 
-        LibraryEntry entry = libraryEntryRepository.findByGameIdAndPlatformId(game.getId(), platform.getId())
-                .orElseGet(() -> {
-                    LibraryEntry newEntry = new LibraryEntry();
-                    newEntry.setGame(game);
-                    newEntry.setPlatform(platform);
-                    return newEntry;
-                });
+    /**
+     * Applies the scanned values on top of a stored entry: playtime, size and last played are only overwritten by
+     * known values
+     */
+    private LibraryEntryStateDTO mergeEntryState(LibraryEntryStateDTO state, ScannedLocalGameDTO dto) {
 
-        entry.setInstalled(dto.isInstalled());
-        entry.setInstallPath(dto.installPath());
-        entry.setPlatformGameId(dto.platformGameId());
+        LibraryEntryStateDTO.LibraryEntryStateDTOBuilder builder = state.toBuilder()
+                .isInstalled(dto.isInstalled())
+                .installPath(dto.installPath())
+                .platformGameId(dto.platformGameId());
 
         if (dto.playtimeMinutes() != null && dto.playtimeMinutes() > 0) {
-            entry.setPlaytimeMinutes(dto.playtimeMinutes());
+            builder.playtimeMinutes(dto.playtimeMinutes());
         }
 
         if (dto.downloadSize() != null && dto.downloadSize() > 0) {
-            entry.setGameSize(dto.downloadSize());
+            builder.gameSize(dto.downloadSize());
         }
 
         if (dto.lastPlayed() != null) {
-            entry.setLastPlayed(dto.lastPlayed());
+            builder.lastPlayed(dto.lastPlayed());
         }
 
-
-        libraryEntryRepository.save(entry);
+        return builder.build();
     }
 
+    /**
+     * What a write changed, collected while reconciling
+     */
+    private static final class LibraryChanges {
+
+        private final List<LibraryEntryAddedDTO> added = new ArrayList<>();
+        private final List<LibraryEntryUpdatedDTO> updated = new ArrayList<>();
+        private final List<Integer> removed = new ArrayList<>();
+
+        private boolean isEmpty() {
+            return added.isEmpty() && updated.isEmpty() && removed.isEmpty();
+        }
+    }
 }
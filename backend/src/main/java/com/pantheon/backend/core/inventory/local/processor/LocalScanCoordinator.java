@@ -0,0 +1,58 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.job.ScanJob;
+import com.pantheon.backend.core.inventory.local.job.ScanJobManager;
+import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
+import com.pantheon.backend.core.platform.model.Platform;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scans several platforms at once and reports when all of them are done.
+ * <p>
+ * Every platform is scanned as its own {@link ScanJob} (joining the running job when the platform is already being
+ * scanned), its library paths share the global limit of {@link ScanConcurrencyLimiter}. Once every job has finished,
+ * successfully or not, one aggregated completion event is published.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LocalScanCoordinator {
+
+    private final ScanJobManager scanJobManager;
+    private final LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService;
+
+    /**
+     * @param platforms the platforms to scan
+     * @return the jobs scanning the platforms, in the order of {@code platforms}
+     */
+    public List<ScanJob> scanPlatforms(List<Platform> platforms) {
+
+        long start = System.nanoTime();
+
+        List<ScanJob> jobs = platforms.stream().map(scanJobManager::submit).toList();
+
+        CompletableFuture.allOf(jobs.stream().map(ScanJob::getCompletion).toArray(CompletableFuture[]::new))
+                .thenRun(() -> publishResults(jobs, start));
+
+        return jobs;
+    }
+
+    private void publishResults(List<ScanJob> jobs, long start) {
+
+        List<PlatformScanResultDTO> results = jobs.stream().map(job -> job.getCompletion().join()).toList();
+
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        log.info("Scanned {} platforms in {} ms", results.size(), durationMillis);
+
+        localScanNotificationOrchestrationService.notifyAllComplete(results, durationMillis);
+    }
+}
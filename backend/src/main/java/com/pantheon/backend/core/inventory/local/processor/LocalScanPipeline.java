@@ -0,0 +1,308 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs the scan, persist and notify phases of a library path as three overlapping stages.
+ * <p>
+ * The producer (the scanner) hands games to the persister through a bounded queue; the persister writes them in
+ * chunks and hands every persisted chunk to the notifier through a second bounded queue. A full queue blocks the
+ * stage feeding it, so a slow database slows the scanner down instead of buffering the whole library, and a slow
+ * client slows the persister down. A chunk is flushed when it is full or when the producer has been quiet for
+ * {@value #LINGER_MILLIS} ms, so the first results reach the UI early even on slow disks.
+ * </p>
+ * <p>
+ * If persisting fails the producer is cancelled through its {@link ScanMonitor}. The pipeline only returns once every
+ * stage has stopped, so callers may safely clean up after the scanner.
+ * </p>
+ */
+@Slf4j
+@Component
+public class LocalScanPipeline {
+
+    static final long LINGER_MILLIS = 100;
+
+    /**
+     * Scan stage. Games may be handed to the sink as they are found, see
+     * {@link com.pantheon.backend.core.library.local.LocalGameLibraryScanner#scanChanges(java.nio.file.Path, ScanMonitor, Consumer)},
+     * or returned in the delta, or both.
+     */
+    @FunctionalInterface
+    public interface Producer {
+        LocalScanDeltaDTO produce(Consumer<ScannedLocalGameDTO> sink, ScanMonitor monitor) throws ScanFailureException;
+    }
+
+    /**
+     * Persist stage, called with chunks of changed games and finally with the removed games of the path
+     */
+    @FunctionalInterface
+    public interface Persister {
+        ProcessedGamesSummaryDTO persist(LocalScanDeltaDTO chunk) throws ScanFailureException;
+    }
+
+    private final int chunkSize;
+    private final int queueCapacity;
+
+    public LocalScanPipeline(@Qualifier("scanPipelineChunkSize") int chunkSize,
+                             @Qualifier("scanPipelineQueueCapacity") int queueCapacity) {
+        this.chunkSize = Math.max(1, chunkSize);
+        this.queueCapacity = Math.max(this.chunkSize, queueCapacity);
+    }
+
+    /**
+     * @param producer  scans the library path
+     * @param persister persists chunks of the scanned games
+     * @param notifier  publishes persisted chunks, its failures are logged and otherwise ignored
+     * @param monitor   the monitor of the scan
+     * @return the combined summary of every persisted chunk
+     * @throws ScanFailureException when scanning or persisting failed, or the scan was cancelled
+     */
+    public ProcessedGamesSummaryDTO run(Producer producer, Persister persister, Consumer<List<ScannedLocalGameDTO>> notifier,
+                                        ScanMonitor monitor) throws ScanFailureException {
+
+        Run run = new Run(monitor);
+
+        Thread producerThread = Thread.ofVirtual().name("scan-pipeline-producer").start(() -> produce(run, producer));
+        Thread notifierThread = Thread.ofVirtual().name("scan-pipeline-notifier").start(() -> notify(run, notifier));
+
+        ProcessedGamesSummaryDTO summary = ProcessedGamesSummaryDTO.EMPTY;
+        ScanFailureException failure = null;
+
+        try {
+            summary = persist(run, persister);
+        } catch (ScanFailureException e) {
+            failure = e;
+        } finally {
+            // Releases a producer blocked on the full queue, a producer that is done no longer looks
+            run.aborted = true;
+            run.endChunks();
+            joinUninterruptibly(producerThread);
+            joinUninterruptibly(notifierThread);
+        }
+
+        if (failure != null) throw failure;
+        if (run.producerFailure != null) throw run.producerFailure;
+
+        return summary;
+    }
+
+    private void produce(Run run, Producer producer) {
+
+        try {
+            LocalScanDeltaDTO delta = producer.produce(run::offerGame, run.monitor);
+
+            for (ScannedLocalGameDTO game : delta.changed()) {
+                run.offerGame(game);
+            }
+
+            run.offer(new Item(null, delta, null));
+
+        } catch (ScanFailureException e) {
+            run.offer(new Item(null, null, e));
+        } catch (RuntimeException e) {
+            run.offer(new Item(null, null, new ScanFailureException("Scan failed: " + e.getMessage(), e)));
+        }
+    }
+
+    private ProcessedGamesSummaryDTO persist(Run run, Persister persister) throws ScanFailureException {
+
+        ProcessedGamesSummaryDTO summary = ProcessedGamesSummaryDTO.EMPTY;
+        List<ScannedLocalGameDTO> chunk = new ArrayList<>(chunkSize);
+
+        while (true) {
+
+            Item item = chunk.isEmpty() ? run.take() : run.poll(LINGER_MILLIS);
+
+            if (item == null || item.game() == null || chunk.size() + 1 >= chunkSize) {
+                if (item != null && item.game() != null) chunk.add(item.game());
+                if (!chunk.isEmpty()) {
+                    summary = summary.plus(persister.persist(LocalScanDeltaDTO.full(chunk)));
+                    run.publish(chunk);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            } else {
+                chunk.add(item.game());
+            }
+
+            if (item == null || item.game() != null) continue;
+
+            if (item.failure() != null) {
+                run.producerFailure = item.failure();
+                return summary;
+            }
+
+            LocalScanDeltaDTO tail = new LocalScanDeltaDTO(List.of(), item.delta().removedPlatformGameIds(), item.delta().unchanged());
+            return summary.plus(persister.persist(tail));
+        }
+    }
+
+    /**
+     * Drains the chunks until their end whatever happens, the persister blocks on a full queue otherwise. Once the
+     * notifier failed badly or the thread was interrupted, the remaining chunks are only dropped.
+     */
+    private void notify(Run run, Consumer<List<ScannedLocalGameDTO>> notifier) {
+
+        boolean notifying = true;
+        boolean interrupted = false;
+
+        while (true) {
+
+            List<ScannedLocalGameDTO> chunk;
+            try {
+                chunk = run.chunks.take();
+            } catch (InterruptedException e) {
+                interrupted = true;
+                notifying = false;
+                continue;
+            }
+
+            if (chunk == Run.END_OF_CHUNKS) break;
+            if (!notifying) continue;
+
+            try {
+                notifier.accept(chunk);
+            } catch (RuntimeException e) {
+                log.error("Failed to publish {} scanned games: {}", chunk.size(), e.getMessage());
+            } catch (Throwable e) {
+                log.error("Failed to publish {} scanned games, no longer publishing this scan", chunk.size(), e);
+                notifying = false;
+            }
+        }
+
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    /**
+     * Either a game, or the end of the produced games carrying the rest of the delta or the producer's failure
+     */
+    private record Item(ScannedLocalGameDTO game, LocalScanDeltaDTO delta, ScanFailureException failure) {
+    }
+
+    private final class Run {
+
+        private static final List<ScannedLocalGameDTO> END_OF_CHUNKS = List.of();
+
+        private final BlockingQueue<Item> games = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<List<ScannedLocalGameDTO>> chunks = new ArrayBlockingQueue<>(Math.max(2, queueCapacity / chunkSize));
+        private final ScanMonitor monitor;
+
+        private volatile boolean aborted;
+        private ScanFailureException producerFailure;
+
+        private Run(ScanMonitor outer) {
+            this.monitor = new ScanMonitor() {
+                @Override
+                public String jobId() {
+                    return outer.jobId();
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return aborted || outer.isCancelled();
+                }
+
+                @Override
+                public void onManifestsFound(int count) {
+                    outer.onManifestsFound(count);
+                }
+
+                @Override
+                public void onManifestParsed() {
+                    outer.onManifestParsed();
+                }
+            };
+        }
+
+        private void offerGame(ScannedLocalGameDTO game) {
+            offer(new Item(game, null, null));
+        }
+
+        /**
+         * Blocks while the queue is full, gives up once the persister has stopped
+         */
+        private void offer(Item item) {
+            try {
+                while (!aborted) {
+                    if (games.offer(item, LINGER_MILLIS, TimeUnit.MILLISECONDS)) return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                aborted = true;
+            }
+        }
+
+        private Item take() throws ScanFailureException {
+            try {
+                return games.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScanCancelledException();
+            }
+        }
+
+        private Item poll(long millis) throws ScanFailureException {
+            try {
+                return games.poll(millis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScanCancelledException();
+            }
+        }
+
+        /**
+         * Blocks while the notifier is behind
+         */
+        private void publish(List<ScannedLocalGameDTO> chunk) throws ScanFailureException {
+            try {
+                chunks.put(chunk);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScanCancelledException();
+            }
+        }
+
+        /**
+         * The notifier keeps draining until it sees the end, so this never blocks for long
+         */
+        private void endChunks() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    chunks.put(END_OF_CHUNKS);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+        }
+    }
+}
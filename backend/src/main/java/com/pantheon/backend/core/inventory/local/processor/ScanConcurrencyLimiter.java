@@ -0,0 +1,46 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Global limit on the number of library paths being scanned at the same time, shared by every platform scan
+ */
+@Component
+public class ScanConcurrencyLimiter {
+
+    @FunctionalInterface
+    public interface ScanTask<T> {
+        T run() throws ScanFailureException;
+    }
+
+    private final Semaphore permits;
+
+    public ScanConcurrencyLimiter(@Qualifier("scanMaxConcurrentPaths") int maxConcurrentPaths) {
+        this.permits = new Semaphore(Math.max(1, maxConcurrentPaths), true);
+    }
+
+    /**
+     * Runs the task once a permit is available
+     *
+     * @throws ScanFailureException when the task fails, or when the thread is interrupted while waiting
+     */
+    public <T> T run(ScanTask<T> task) throws ScanFailureException {
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScanFailureException("Interrupted while waiting for a scan slot", e);
+        }
+
+        try {
+            return task.run();
+        } finally {
+            permits.release();
+        }
+    }
+}
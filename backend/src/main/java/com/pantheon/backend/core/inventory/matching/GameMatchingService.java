@@ -0,0 +1,151 @@
+package com.pantheon.backend.core.inventory.matching;
+
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
+import com.pantheon.backend.core.inventory.local.dto.GameTitleKeyRefDTO;
+import com.pantheon.backend.core.inventory.local.dto.GameTitleRefDTO;
+import com.pantheon.backend.core.inventory.model.Game;
+import com.pantheon.backend.core.inventory.repository.GameRepository;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Matches scanned titles to games through the indexed {@code games.title_key} column, so that a lookup is an index
+ * probe and the same game scanned on several platforms resolves to a single {@link Game}.
+ * <p>
+ * When several games share a key, the oldest one wins. Once the {@link InventoryCache} is warm, keys are resolved
+ * from memory and the database is only touched to insert new games.
+ * </p>
+ */
+@Slf4j
+@Service
+public class GameMatchingService {
+
+    /**
+     * SQLite caps the number of bound parameters per statement, so key lookups are chunked
+     */
+    private static final int TITLE_KEY_LOOKUP_CHUNK = 500;
+
+    private final GameRepository gameRepository;
+    private final InventoryBulkRepository inventoryBulkRepository;
+    private final InventoryCache inventoryCache;
+
+    @Autowired
+    public GameMatchingService(GameRepository gameRepository, InventoryBulkRepository inventoryBulkRepository,
+                               InventoryCache inventoryCache) {
+        this.gameRepository = gameRepository;
+        this.inventoryBulkRepository = inventoryBulkRepository;
+        this.inventoryCache = inventoryCache;
+    }
+
+    /**
+     * @return the game a title matches, if any
+     */
+    @Transactional(readOnly = true)
+    public Optional<Game> findMatch(String title) {
+        return gameRepository.findFirstByTitleKeyOrderByIdAsc(GameTitleKeys.of(title));
+    }
+
+    /**
+     * Resolves every title to a game id, inserting one game for each key that has no game yet. Titles that only differ
+     * in case, punctuation or diacritics share the inserted game, which is named after the first of them.
+     *
+     * @return the game id of every title
+     */
+    @Transactional
+    public Map<String, Integer> matchOrCreate(Collection<String> titles) {
+
+        Map<String, String> keysByTitle = new LinkedHashMap<>();
+        for (String title : titles) {
+            keysByTitle.put(title, GameTitleKeys.of(title));
+        }
+
+        Map<String, Integer> gameIdsByKey = findGameIdsByTitleKey(keysByTitle.values());
+
+        Map<String, String> missingTitlesByKey = new LinkedHashMap<>();
+        keysByTitle.forEach((title, key) -> {
+            if (!gameIdsByKey.containsKey(key)) missingTitlesByKey.putIfAbsent(key, title);
+        });
+
+        if (!missingTitlesByKey.isEmpty()) {
+            inventoryBulkRepository.insertGames(List.copyOf(missingTitlesByKey.values()));
+            Map<String, Integer> insertedIdsByKey = findGameIdsByTitleKeyInDatabase(missingTitlesByKey.keySet());
+            inventoryCache.gamesInserted(insertedIdsByKey);
+            gameIdsByKey.putAll(insertedIdsByKey);
+        }
+
+        Map<String, Integer> gameIdsByTitle = new HashMap<>();
+        keysByTitle.forEach((title, key) -> gameIdsByTitle.put(title, gameIdsByKey.get(key)));
+
+        return gameIdsByTitle;
+    }
+
+    /**
+     * @return the oldest game of every key that has one
+     */
+    private Map<String, Integer> findGameIdsByTitleKey(Collection<String> titleKeys) {
+
+        if (!inventoryCache.isComplete()) return findGameIdsByTitleKeyInDatabase(titleKeys);
+
+        Map<String, Integer> gameIdsByKey = new HashMap<>();
+        for (String titleKey : titleKeys) {
+            Integer gameId = inventoryCache.gameId(titleKey);
+            if (gameId != null) gameIdsByKey.put(titleKey, gameId);
+        }
+
+        return gameIdsByKey;
+    }
+
+    private Map<String, Integer> findGameIdsByTitleKeyInDatabase(Collection<String> titleKeys) {
+
+        Map<String, Integer> gameIdsByKey = new HashMap<>();
+        List<String> keyList = titleKeys.stream().distinct().toList();
+
+        for (int i = 0; i < keyList.size(); i += TITLE_KEY_LOOKUP_CHUNK) {
+            List<String> chunk = keyList.subList(i, Math.min(keyList.size(), i + TITLE_KEY_LOOKUP_CHUNK));
+            // Ordered by id, so shared keys resolve to the oldest game
+            for (GameTitleKeyRefDTO ref : gameRepository.findTitleKeyRefsByTitleKeyIn(chunk)) {
+                gameIdsByKey.putIfAbsent(ref.titleKey(), ref.id());
+            }
+        }
+
+        return gameIdsByKey;
+    }
+
+    /**
+     * Gives the games stored before titles had match keys their key, then folds the games that turn out to be the
+     * same game into the oldest one
+     */
+    @Order(0)
+    @Transactional
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillTitleKeys() {
+
+        List<GameTitleRefDTO> games = inventoryBulkRepository.findGamesWithoutTitleKey();
+
+        if (games.isEmpty()) return;
+
+        Map<Integer, String> titleKeysByGameId = new LinkedHashMap<>();
+        for (GameTitleRefDTO game : games) {
+            titleKeysByGameId.put(game.id(), GameTitleKeys.of(game.title()));
+        }
+
+        inventoryBulkRepository.updateTitleKeys(titleKeysByGameId);
+
+        int merged = inventoryBulkRepository.mergeDuplicateGames();
+
+        log.info("Computed title keys of {} games, merged {} duplicate games", games.size(), merged);
+    }
+}
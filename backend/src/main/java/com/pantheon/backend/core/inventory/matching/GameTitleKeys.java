@@ -0,0 +1,40 @@
+package com.pantheon.backend.core.inventory.matching;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Derives the key games are matched on, so that e.g. "DOOM" on Steam and "Doom" on GOG, or "Pokémon™" and "Pokemon",
+ * end up as the same game.
+ * <p>
+ * The key is the title with trademark signs dropped, diacritics removed, case folded and everything but letters and
+ * digits stripped, with {@code &} read as "and".
+ * </p>
+ */
+public final class GameTitleKeys {
+
+    private static final Pattern TRADEMARKS = Pattern.compile("[™®©℠]");
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NOT_LETTER_OR_DIGIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+
+    private GameTitleKeys() {
+    }
+
+    /**
+     * @return the match key of a title, the trimmed lower-cased title when it has no letters or digits at all
+     */
+    public static String of(String title) {
+
+        if (title == null) return null;
+
+        // Trademark signs first, NFKD would otherwise expand ™ into the letters TM
+        String key = TRADEMARKS.matcher(title).replaceAll("");
+        key = Normalizer.normalize(key, Normalizer.Form.NFKD);
+        key = COMBINING_MARKS.matcher(key).replaceAll("");
+        key = key.toLowerCase(Locale.ROOT).replace("&", "and");
+        key = NOT_LETTER_OR_DIGIT.matcher(key).replaceAll("");
+
+        return key.isEmpty() ? title.strip().toLowerCase(Locale.ROOT) : key;
+    }
+}
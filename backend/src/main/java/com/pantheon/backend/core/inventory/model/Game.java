@@ -1,15 +1,17 @@
 package com.pantheon.backend.core.inventory.model;
 
+import com.pantheon.backend.core.inventory.matching.GameTitleKeys;
 import com.pantheon.backend.shared.model.Tag;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -42,6 +44,12 @@ public class Game {
     @Column(nullable = false)
     private String title;
 
+    /**
+     * Match key of the title, see {@link GameTitleKeys}
+     */
+    @Column(name = "title_key")
+    private String titleKey;
+
     @Column(unique = true)
     private String igdbId;
 
@@ -56,7 +64,7 @@ public class Game {
 
     private String developer;
 
-    @ManyToMany(fetch = FetchType.EAGER)
+    @ManyToMany
     @JoinTable(
             name = "game_tags",
             joinColumns = @JoinColumn(name = "game_id"),
@@ -67,6 +75,12 @@ public class Game {
     @Builder.Default
     private Set<Tag> tags = new HashSet<>();
 
+    @PrePersist
+    @PreUpdate
+    void updateTitleKey() {
+        titleKey = GameTitleKeys.of(title);
+    }
+
     @Override
     public final boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,78 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import com.pantheon.backend.core.inventory.repository.GameSearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Search-as-you-type over titles, developers, publishers and descriptions, ranked by relevance.
+ * <p>
+ * The text typed is split into words and every word is matched as a prefix, so "hol kni" finds "Hollow Knight". The
+ * words are quoted before they reach FTS5, user input never becomes query syntax.
+ * </p>
+ */
+@Service
+public class GameSearchService {
+
+    private static final Pattern NOT_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final GameSearchRepository gameSearchRepository;
+    private final int defaultLimit;
+    private final int maxLimit;
+
+    @Autowired
+    public GameSearchService(GameSearchRepository gameSearchRepository,
+                             @Qualifier("libraryPageDefaultSize") int defaultLimit,
+                             @Qualifier("libraryPageMaxSize") int maxLimit) {
+        this.gameSearchRepository = gameSearchRepository;
+        this.defaultLimit = defaultLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * @param limit how many games to return at most, {@code null} for the default
+     * @return the best matches first, empty when the text has no words
+     * @throws IllegalArgumentException when the limit is out of range
+     */
+    @Transactional(readOnly = true)
+    public List<GameSearchResultDTO> search(String text, Integer limit) {
+
+        int size = limit == null ? defaultLimit : limit;
+
+        if (size < 1 || size > maxLimit) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxLimit);
+        }
+
+        String matchExpression = toMatchExpression(text);
+
+        if (matchExpression == null) return List.of();
+
+        return gameSearchRepository.search(matchExpression, size);
+    }
+
+    /**
+     * @return every word of the text as a quoted prefix query, all of which must match, {@code null} without words
+     */
+    static String toMatchExpression(String text) {
+
+        if (text == null) return null;
+
+        List<String> words = new ArrayList<>();
+        for (String word : NOT_WORD.split(text)) {
+            if (!word.isEmpty()) words.add(word);
+        }
+
+        if (words.isEmpty()) return null;
+
+        // Words only hold letters and digits, quoting keeps FTS5 from reading AND, OR, NOT or NEAR as operators
+        return words.stream().map(word -> "\"" + word + "\"*").collect(Collectors.joining(" "));
+    }
+}
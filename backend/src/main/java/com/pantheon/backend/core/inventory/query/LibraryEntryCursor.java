@@ -0,0 +1,53 @@
+package com.pantheon.backend.core.inventory.query;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last entry of a page: its sort value and id, along with the order it was read in.
+ * <p>
+ * Handed to clients as an opaque string. The sort value is kept as SQLite returned it, an integer or a text depending
+ * on how the column was written, so the next page compares against exactly the same value.
+ * </p>
+ *
+ * @param sortValue a {@link Long} or a {@link String}
+ */
+public record LibraryEntryCursor(LibraryEntrySort sort, boolean ascending, Object sortValue, int id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    public String encode() {
+        String value = switch (sortValue) {
+            case Number number -> "i" + number.longValue();
+            default -> "s" + sortValue;
+        };
+        String raw = sort.name() + ":" + (ascending ? "asc" : "desc") + ":" + id + ":" + value;
+        return ENCODER.encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException when the cursor is malformed
+     */
+    public static LibraryEntryCursor decode(String cursor) {
+        try {
+            String[] parts = new String(DECODER.decode(cursor), StandardCharsets.UTF_8).split(":", 4);
+
+            if (parts.length != 4 || parts[3].isEmpty()) throw new IllegalArgumentException("Malformed cursor");
+
+            String value = parts[3].substring(1);
+            Object sortValue = switch (parts[3].charAt(0)) {
+                case 'i' -> Long.parseLong(value);
+                case 's' -> value;
+                default -> throw new IllegalArgumentException("Malformed cursor");
+            };
+
+            return new LibraryEntryCursor(LibraryEntrySort.valueOf(parts[0]), "asc".equals(parts[1]), sortValue,
+                    Integer.parseInt(parts[2]));
+
+        } catch (IllegalArgumentException e) {
+            // Also covers bad base64, unknown sorts and NumberFormatException
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+}
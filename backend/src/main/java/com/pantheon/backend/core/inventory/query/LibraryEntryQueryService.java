@@ -0,0 +1,59 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryQueryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Pages through the library with keyset pagination, see {@link LibraryEntryQueryRepository}.
+ * <p>
+ * Unset sort and page size fall back to the most recently played entries and the configured default size.
+ * </p>
+ */
+@Service
+public class LibraryEntryQueryService {
+
+    private final LibraryEntryQueryRepository libraryEntryQueryRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    @Autowired
+    public LibraryEntryQueryService(LibraryEntryQueryRepository libraryEntryQueryRepository,
+                                    @Qualifier("libraryPageDefaultSize") int defaultPageSize,
+                                    @Qualifier("libraryPageMaxSize") int maxPageSize) {
+        this.libraryEntryQueryRepository = libraryEntryQueryRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * @throws IllegalArgumentException when the page size is out of range, or the cursor is malformed or was issued
+     *                                  for another order
+     */
+    @Transactional(readOnly = true)
+    public LibraryEntryPageDTO findEntries(LibraryEntryQueryDTO query) {
+
+        int limit = query.limit() == null ? defaultPageSize : query.limit();
+
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + maxPageSize);
+        }
+
+        LibraryEntryQueryDTO resolved = query.sort() == null ? query.toBuilder().sort(LibraryEntrySort.LAST_PLAYED).build() : query;
+
+        LibraryEntryCursor after = null;
+
+        if (query.cursor() != null) {
+            after = LibraryEntryCursor.decode(query.cursor());
+            if (after.sort() != resolved.sort() || after.ascending() != resolved.ascending()) {
+                throw new IllegalArgumentException("Cursor was issued for another sort order");
+            }
+        }
+
+        return libraryEntryQueryRepository.findPage(resolved, after, limit);
+    }
+}
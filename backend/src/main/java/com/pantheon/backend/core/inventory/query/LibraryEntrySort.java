@@ -0,0 +1,41 @@
+package com.pantheon.backend.core.inventory.query;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Orders a library listing can be sorted by.
+ * <p>
+ * Each order is an expression with an index of its own (see {@code V4__Library_Entry_Sort_Indexes.sql}), the queries
+ * must use it verbatim for SQLite to pick the index. Missing values sort as -1, below every stored value.
+ * </p>
+ */
+public enum LibraryEntrySort {
+
+    LAST_PLAYED("IFNULL(e.last_played, -1)"),
+    PLAYTIME("IFNULL(e.playtime_minutes, -1)"),
+    SIZE("IFNULL(e.game_size, -1)");
+
+    private final String expression;
+
+    LibraryEntrySort(String expression) {
+        this.expression = expression;
+    }
+
+    public String expression() {
+        return expression;
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown names
+     */
+    public static LibraryEntrySort from(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown sort " + name + ", expected one of " + Arrays.stream(values())
+                    .map(sort -> sort.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", ")));
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.pantheon.backend.core.inventory.query;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Encodings of a library snapshot. Both write the same records one after the other: a
+ * {@link com.pantheon.backend.core.inventory.local.dto.LibrarySnapshotHeaderDTO} then every entry.
+ */
+public enum LibrarySnapshotFormat {
+
+    /**
+     * One JSON object per line
+     */
+    JSONL("application/x-ndjson"),
+
+    /**
+     * A sequence of CBOR items (RFC 8742), smaller than the JSON and cheaper to parse
+     */
+    CBOR("application/cbor-seq");
+
+    private final String mediaType;
+
+    LibrarySnapshotFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Strong validator of the snapshot of a library version, each format being a representation of its own
+     */
+    public String etag(long version) {
+        return "\"" + version + "-" + name().toLowerCase(Locale.ROOT) + "\"";
+    }
+
+    /**
+     * @throws IllegalArgumentException for unknown names
+     */
+    public static LibrarySnapshotFormat from(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown snapshot format " + name + ", expected one of " + Arrays.stream(values())
+                    .map(format -> format.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * @param accept the Accept header of the request, may be null
+     * @return CBOR when the client asks for it, JSON Lines otherwise
+     */
+    public static LibrarySnapshotFormat fromAccept(String accept) {
+        return accept != null && accept.contains("application/cbor") ? CBOR : JSONL;
+    }
+}
@@ -0,0 +1,80 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.LibrarySnapshotHeaderDTO;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryQueryRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryVersionRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectWriter;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the whole library in one response, for clients that start with nothing.
+ * <p>
+ * Entries are encoded as they are read, neither the rows nor the output are ever held in full. The snapshot is read in
+ * one read-only transaction, so it shows exactly the library version in its header and ETag, and the library deltas
+ * published after that version apply on top of it.
+ * </p>
+ */
+@Service
+public class LibrarySnapshotService {
+
+    /**
+     * Where a snapshot goes, opened once its version is known
+     */
+    @FunctionalInterface
+    public interface SnapshotOutput {
+
+        /**
+         * @return the stream to write the snapshot to, null when the client already has this version
+         */
+        OutputStream open(long version) throws IOException;
+    }
+
+    private final LibraryEntryQueryRepository libraryEntryQueryRepository;
+    private final LibraryVersionRepository libraryVersionRepository;
+    private final ObjectWriter jsonLinesWriter;
+    private final ObjectWriter cborWriter;
+
+    @Autowired
+    public LibrarySnapshotService(LibraryEntryQueryRepository libraryEntryQueryRepository,
+                                  LibraryVersionRepository libraryVersionRepository,
+                                  JsonMapper jsonMapper) {
+        this.libraryEntryQueryRepository = libraryEntryQueryRepository;
+        this.libraryVersionRepository = libraryVersionRepository;
+        this.jsonLinesWriter = jsonMapper.writer().withRootValueSeparator("\n");
+        this.cborWriter = CBORMapper.builder().build().writer();
+    }
+
+    /**
+     * @throws tools.jackson.core.JacksonException when the client goes away while the snapshot is written
+     */
+    @Transactional(readOnly = true)
+    public void writeSnapshot(LibrarySnapshotFormat format, SnapshotOutput output) throws IOException {
+
+        // The first read starts the read transaction of SQLite, every read after it sees the library as of this version
+        long version = libraryVersionRepository.current();
+
+        OutputStream out = output.open(version);
+        if (out == null) return;
+
+        ObjectWriter writer = format == LibrarySnapshotFormat.CBOR ? cborWriter : jsonLinesWriter;
+
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            sequence.write(new LibrarySnapshotHeaderDTO(version, libraryEntryQueryRepository.countEntries()));
+            libraryEntryQueryRepository.forEachEntry(sequence::write);
+
+            if (format == LibrarySnapshotFormat.JSONL) {
+                // Values are only separated by line breaks, the last line still needs one
+                sequence.flush();
+                out.write('\n');
+            }
+        }
+    }
+}
@@ -1,9 +1,13 @@
 package com.pantheon.backend.core.inventory.repository;
 
+import com.pantheon.backend.core.inventory.local.dto.GameTitleKeyRefDTO;
 import com.pantheon.backend.core.inventory.model.Game;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -11,8 +15,10 @@ public interface GameRepository extends JpaRepository<Game, Integer> {
 
     Optional<Game> findByIgdbId(String igdbId);
 
-    Optional<Game> findByTitle(String title);
+    Optional<Game> findFirstByTitleKeyOrderByIdAsc(String titleKey);
 
-    List<Game> findByTitleContainingIgnoreCase(String title);
+    @Query("select new com.pantheon.backend.core.inventory.local.dto.GameTitleKeyRefDTO(g.id, g.titleKey) " +
+            "from Game g where g.titleKey in :titleKeys order by g.id")
+    List<GameTitleKeyRefDTO> findTitleKeyRefsByTitleKeyIn(@Param("titleKeys") Collection<String> titleKeys);
 
 }
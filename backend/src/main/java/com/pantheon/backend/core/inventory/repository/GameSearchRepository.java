@@ -0,0 +1,43 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Searches the {@code games_fts} full-text index (see {@code V5__Game_Search.sql})
+ */
+@Repository
+@RequiredArgsConstructor
+public class GameSearchRepository {
+
+    /**
+     * bm25 weights of title, developer, publisher and description: a hit in the title outranks the others
+     */
+    private static final String SEARCH = """
+            SELECT g.id, g.title, g.developer, g.publisher, g.cover_url
+            FROM games_fts f
+            JOIN games g ON g.id = f.rowid
+            WHERE games_fts MATCH ?
+            ORDER BY bm25(games_fts, 10.0, 3.0, 3.0, 1.0), g.id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @param matchExpression an FTS5 query, built from trusted tokens only
+     */
+    public List<GameSearchResultDTO> search(String matchExpression, int limit) {
+        return jdbcTemplate.query(SEARCH, (rs, row) -> GameSearchResultDTO.builder()
+                .id(rs.getInt("id"))
+                .title(rs.getString("title"))
+                .developer(rs.getString("developer"))
+                .publisher(rs.getString("publisher"))
+                .coverUrl(rs.getString("cover_url"))
+                .build(), matchExpression, limit);
+    }
+}
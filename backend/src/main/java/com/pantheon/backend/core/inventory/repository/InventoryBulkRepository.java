@@ -0,0 +1,296 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.GameTitleRefDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.matching.GameTitleKeys;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.File;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * JDBC batch writer for the inventory tables.
+ * <p>
+ * Used by the bulk reconciliation path of the scan processor, where going through the entity manager would cost one
+ * statement (and one round trip) per row. Runs on the connection bound to the surrounding transaction.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class InventoryBulkRepository {
+
+    static final int BATCH_SIZE = 500;
+
+    private static final String INSERT_GAME = "INSERT INTO games (title, title_key) VALUES (?, ?)";
+
+    private static final String SELECT_GAMES_WITHOUT_TITLE_KEY = "SELECT id, title FROM games WHERE title_key IS NULL";
+
+    private static final String UPDATE_TITLE_KEY = "UPDATE games SET title_key = ? WHERE id = ?";
+
+    /**
+     * Games that share their title key with an older game
+     */
+    private static final String DUPLICATE_GAMES = """
+            SELECT g.id FROM games g
+            WHERE g.id > (SELECT MIN(k.id) FROM games k WHERE k.title_key = g.title_key)
+            """;
+
+    private static final String CANONICAL_GAME = """
+            (SELECT MIN(k.id) FROM games k JOIN games g ON g.title_key = k.title_key WHERE g.id = %s)
+            """;
+
+    /**
+     * The oldest game of each title key that has duplicates
+     */
+    private static final String CANONICAL_GAMES =
+            "SELECT MIN(id) FROM games WHERE title_key IS NOT NULL GROUP BY title_key HAVING COUNT(*) > 1";
+
+    private static final String DUPLICATE_VALUE = "(SELECT d.%1$s FROM games d WHERE d.title_key = games.title_key"
+            + " AND d.%1$s IS NOT NULL ORDER BY d.id LIMIT 1)";
+
+    // igdb_id is unique, so it is moved separately
+    private static final String COPY_DUPLICATE_METADATA = "UPDATE games SET"
+            + " cover_url = COALESCE(cover_url, " + DUPLICATE_VALUE.formatted("cover_url") + "),"
+            + " description = COALESCE(description, " + DUPLICATE_VALUE.formatted("description") + "),"
+            + " release_date = COALESCE(release_date, " + DUPLICATE_VALUE.formatted("release_date") + "),"
+            + " publisher = COALESCE(publisher, " + DUPLICATE_VALUE.formatted("publisher") + "),"
+            + " developer = COALESCE(developer, " + DUPLICATE_VALUE.formatted("developer") + ")"
+            + " WHERE id IN (" + CANONICAL_GAMES + ")";
+
+    private static final String SELECT_DUPLICATE_IGDB_IDS = """
+            SELECT c.id AS canonical_id, d.id AS duplicate_id, d.igdb_id FROM games c
+            JOIN games d ON d.id = (SELECT MIN(x.id) FROM games x
+                                    WHERE x.title_key = c.title_key AND x.id > c.id AND x.igdb_id IS NOT NULL)
+            WHERE c.igdb_id IS NULL AND c.id IN (
+            """ + CANONICAL_GAMES + ")";
+
+    private static final String UPDATE_IGDB_ID = "UPDATE games SET igdb_id = ? WHERE id = ?";
+
+    // OR IGNORE keeps the entry on the duplicate when the oldest game already has one for the platform
+    private static final String MOVE_DUPLICATE_ENTRIES = "UPDATE OR IGNORE library_entries SET game_id = "
+            + CANONICAL_GAME.formatted("library_entries.game_id") + " WHERE game_id IN (" + DUPLICATE_GAMES + ")";
+
+    private static final String COPY_DUPLICATE_TAGS = "INSERT OR IGNORE INTO game_tags (game_id, tag_id) SELECT "
+            + CANONICAL_GAME.formatted("game_tags.game_id") + ", tag_id FROM game_tags WHERE game_id IN (" + DUPLICATE_GAMES + ")";
+
+    private static final String DELETE_MERGED_DUPLICATES = "DELETE FROM games WHERE id IN (" + DUPLICATE_GAMES + ")"
+            + " AND NOT EXISTS (SELECT 1 FROM library_entries e WHERE e.game_id = games.id)";
+
+    private static final String INSERT_ENTRY = """
+            INSERT INTO library_entries
+                (game_id, platform_id, is_installed, install_path, platform_game_id, playtime_minutes, game_size, last_played)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String UPDATE_ENTRY = """
+            UPDATE library_entries
+            SET is_installed = ?, install_path = ?, platform_game_id = ?, playtime_minutes = ?, game_size = ?, last_played = ?
+            WHERE game_id = ? AND platform_id = ?
+            """;
+
+    // Only entries installed below the library path that reported the removal, a game that moved to another library
+    // of the platform may already have been written there
+    private static final String MARK_UNINSTALLED = """
+            UPDATE library_entries SET is_installed = 0
+            WHERE platform_id = ? AND platform_game_id = ? AND is_installed = 1
+              AND (? IS NULL OR install_path = ? OR substr(install_path, 1, ?) = ?)
+            """;
+
+    private static final String SELECT_GAME_TITLE_KEYS = "SELECT id, title_key FROM games WHERE title_key IS NOT NULL ORDER BY id";
+
+    private static final String SELECT_ENTRY_STATES = """
+            SELECT id, game_id, platform_id, is_installed, install_path, platform_game_id, playtime_minutes, game_size, last_played
+            FROM library_entries
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insertGames(Collection<String> titles) {
+        if (titles.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_GAME, List.copyOf(titles), BATCH_SIZE, (ps, title) -> {
+            ps.setString(1, title);
+            ps.setString(2, GameTitleKeys.of(title));
+        });
+    }
+
+    /**
+     * @return the games stored before titles had match keys
+     */
+    public List<GameTitleRefDTO> findGamesWithoutTitleKey() {
+        return jdbcTemplate.query(SELECT_GAMES_WITHOUT_TITLE_KEY, (rs, row) -> new GameTitleRefDTO(rs.getInt("id"), rs.getString("title")));
+    }
+
+    public void updateTitleKeys(Map<Integer, String> titleKeysByGameId) {
+        if (titleKeysByGameId.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPDATE_TITLE_KEY, List.copyOf(titleKeysByGameId.entrySet()), BATCH_SIZE, (ps, entry) -> {
+            ps.setString(1, entry.getValue());
+            ps.setInt(2, entry.getKey());
+        });
+    }
+
+    /**
+     * Folds games sharing a title key into the oldest of them: metadata the oldest game lacks is taken from the
+     * duplicates, library entries and tags move over, and the duplicate is deleted once it has no entries left. An
+     * entry stays on its duplicate when the oldest game already has one for the same platform, so no playtime or
+     * history is lost.
+     *
+     * @return the number of duplicate games deleted
+     */
+    public int mergeDuplicateGames() {
+        jdbcTemplate.update(COPY_DUPLICATE_METADATA);
+        moveDuplicateIgdbIds();
+        jdbcTemplate.update(MOVE_DUPLICATE_ENTRIES);
+        jdbcTemplate.update(COPY_DUPLICATE_TAGS);
+        return jdbcTemplate.update(DELETE_MERGED_DUPLICATES);
+    }
+
+    private void moveDuplicateIgdbIds() {
+
+        List<IgdbIdMove> moves = jdbcTemplate.query(SELECT_DUPLICATE_IGDB_IDS, (rs, row) ->
+                new IgdbIdMove(rs.getInt("canonical_id"), rs.getInt("duplicate_id"), rs.getString("igdb_id")));
+
+        if (moves.isEmpty()) return;
+
+        // Cleared on the duplicate first, the column is unique
+        jdbcTemplate.batchUpdate(UPDATE_IGDB_ID, moves, BATCH_SIZE, (ps, move) -> {
+            ps.setNull(1, Types.VARCHAR);
+            ps.setInt(2, move.duplicateId());
+        });
+        jdbcTemplate.batchUpdate(UPDATE_IGDB_ID, moves, BATCH_SIZE, (ps, move) -> {
+            ps.setString(1, move.igdbId());
+            ps.setInt(2, move.canonicalId());
+        });
+    }
+
+    private record IgdbIdMove(int canonicalId, int duplicateId, String igdbId) {
+    }
+
+    public void insertLibraryEntries(Integer platformId, Collection<LibraryEntryStateDTO> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, List.copyOf(entries), BATCH_SIZE, (ps, entry) -> {
+            ps.setInt(1, entry.gameId());
+            ps.setInt(2, platformId);
+            bindEntryState(ps, 3, entry);
+        });
+    }
+
+    /**
+     * Updates entries through their (game, platform) key, which is unique
+     */
+    public void updateLibraryEntries(Integer platformId, Collection<LibraryEntryStateDTO> entries) {
+        if (entries.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPDATE_ENTRY, List.copyOf(entries), BATCH_SIZE, (ps, entry) -> {
+            int next = bindEntryState(ps, 1, entry);
+            ps.setInt(next++, entry.gameId());
+            ps.setInt(next, platformId);
+        });
+    }
+
+    /**
+     * @param installRoot the directory the removed games were installed below, null when they may be installed anywhere
+     * @return the number of entries that were installed before
+     */
+    public int markUninstalled(Integer platformId, String installRoot, Collection<String> platformGameIds) {
+        if (platformGameIds.isEmpty()) return 0;
+
+        String prefix = installRoot == null ? null : installPrefix(installRoot);
+
+        int[][] counts = jdbcTemplate.batchUpdate(MARK_UNINSTALLED, List.copyOf(platformGameIds), BATCH_SIZE, (ps, platformGameId) -> {
+            ps.setInt(1, platformId);
+            ps.setString(2, platformGameId);
+            ps.setString(3, installRoot);
+            ps.setString(4, installRoot);
+            ps.setInt(5, prefix == null ? 0 : prefix.length());
+            ps.setString(6, prefix);
+        });
+
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count > 0) updated += count;
+            }
+        }
+        return updated;
+    }
+
+    /**
+     * @param installRoot a directory, null standing for anywhere
+     * @return whether the install path is the directory or below it, as {@link #markUninstalled} decides
+     */
+    public static boolean isInstalledBelow(String installPath, String installRoot) {
+        return installRoot == null
+                || installRoot.equals(installPath)
+                || installPath != null && installPath.startsWith(installPrefix(installRoot));
+    }
+
+    /**
+     * The root with a trailing separator, so that {@code /games/steam} does not match {@code /games/steam2}
+     */
+    private static String installPrefix(String installRoot) {
+        return installRoot.endsWith("/") || installRoot.endsWith("\\") ? installRoot : installRoot + File.separator;
+    }
+
+    /**
+     * Streams the title key of every game in id order, without holding the table in memory
+     */
+    public void forEachGameTitleKey(BiConsumer<String, Integer> consumer) {
+        jdbcTemplate.query(SELECT_GAME_TITLE_KEYS, rs -> {
+            consumer.accept(rs.getString("title_key"), rs.getInt("id"));
+        });
+    }
+
+    /**
+     * Streams the state of every library entry along with its platform id
+     */
+    public void forEachLibraryEntryState(BiConsumer<Integer, LibraryEntryStateDTO> consumer) {
+        jdbcTemplate.query(SELECT_ENTRY_STATES, rs -> {
+            consumer.accept(rs.getInt("platform_id"), readEntryState(rs));
+        });
+    }
+
+    private LibraryEntryStateDTO readEntryState(ResultSet rs) throws SQLException {
+        Timestamp lastPlayed = rs.getTimestamp("last_played");
+        return LibraryEntryStateDTO.builder()
+                .id(rs.getInt("id"))
+                .gameId(rs.getInt("game_id"))
+                .isInstalled(rs.getBoolean("is_installed"))
+                .installPath(rs.getString("install_path"))
+                .platformGameId(rs.getString("platform_game_id"))
+                .playtimeMinutes(rs.getObject("playtime_minutes", Integer.class))
+                .gameSize(rs.getObject("game_size", Long.class))
+                .lastPlayed(lastPlayed == null ? null : lastPlayed.toLocalDateTime())
+                .build();
+    }
+
+    /**
+     * Binds the mutable columns of an entry starting at {@code index}
+     *
+     * @return the next free parameter index
+     */
+    private int bindEntryState(PreparedStatement ps, int index, LibraryEntryStateDTO entry) throws SQLException {
+        ps.setBoolean(index++, entry.isInstalled());
+        ps.setString(index++, entry.installPath());
+        ps.setString(index++, entry.platformGameId());
+        ps.setInt(index++, entry.playtimeMinutes() == null ? 0 : entry.playtimeMinutes());
+        ps.setLong(index++, entry.gameSize() == null ? 0L : entry.gameSize());
+
+        if (entry.lastPlayed() != null) {
+            ps.setTimestamp(index++, Timestamp.valueOf(entry.lastPlayed()));
+        } else {
+            ps.setNull(index++, Types.TIMESTAMP);
+        }
+
+        return index;
+    }
+
+}
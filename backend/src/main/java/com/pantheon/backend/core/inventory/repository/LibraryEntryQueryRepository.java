@@ -0,0 +1,147 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryViewDTO;
+import com.pantheon.backend.core.inventory.matching.GameTitleKeys;
+import com.pantheon.backend.core.inventory.query.LibraryEntryCursor;
+import com.pantheon.backend.core.inventory.query.LibraryEntrySort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keyset-paginated reads of the library, projected straight into {@link LibraryEntryViewDTO}s.
+ * <p>
+ * A page seeks to the position after the previous one through the index of its sort order, instead of skipping an
+ * offset, so every page costs the same however deep into the library it is.
+ * </p>
+ * <p>
+ * The whole library can also be read in one pass, row by row, for snapshots.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class LibraryEntryQueryRepository {
+
+    private static final String SELECT = """
+            SELECT e.id, e.game_id, g.title, g.cover_url, p.name AS platform, e.is_installed, e.install_path,
+                   e.platform_game_id, e.playtime_minutes, e.game_size, e.last_played, %s AS sort_value
+            FROM library_entries e
+            JOIN games g ON g.id = e.game_id
+            JOIN platforms p ON p.id = e.platform_id
+            WHERE 1 = 1
+            """;
+
+    private static final String HAS_TAG = """
+             AND EXISTS (SELECT 1 FROM game_tags gt JOIN tags t ON t.id = gt.tag_id
+                         WHERE gt.game_id = e.game_id AND t.name = ? COLLATE NOCASE)
+            """;
+
+    private static final String COUNT = "SELECT COUNT(*) FROM library_entries";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads one row past the page to tell whether another page follows
+     *
+     * @param query filters and order, the sort must be set
+     * @param after the last entry of the previous page, {@code null} for the first page
+     * @param limit page size
+     */
+    public LibraryEntryPageDTO findPage(LibraryEntryQueryDTO query, LibraryEntryCursor after, int limit) {
+
+        LibraryEntrySort sort = query.sort();
+        boolean ascending = query.ascending();
+        StringBuilder sql = new StringBuilder(SELECT.formatted(sort.expression()));
+        List<Object> args = new ArrayList<>();
+
+        if (query.platform() != null) {
+            sql.append(" AND p.name = ? COLLATE NOCASE");
+            args.add(query.platform());
+        }
+
+        if (query.installed() != null) {
+            sql.append(" AND e.is_installed = ?");
+            args.add(query.installed() ? 1 : 0);
+        }
+
+        if (query.tag() != null) {
+            sql.append(HAS_TAG);
+            args.add(query.tag());
+        }
+
+        if (query.titlePrefix() != null) {
+            // Range over the title key index: every key starting with the prefix sorts between these bounds
+            String prefix = GameTitleKeys.of(query.titlePrefix());
+            sql.append(" AND g.title_key >= ? AND g.title_key < ?");
+            args.add(prefix);
+            args.add(prefix + Character.MAX_VALUE);
+        }
+
+        String direction = ascending ? "ASC" : "DESC";
+
+        if (after != null) {
+            sql.append(" AND (").append(sort.expression()).append(", e.id) ").append(ascending ? ">" : "<").append(" (?, ?)");
+            args.add(after.sortValue());
+            args.add(after.id());
+        }
+
+        sql.append(" ORDER BY ").append(sort.expression()).append(' ').append(direction)
+                .append(", e.id ").append(direction)
+                .append(" LIMIT ?");
+        args.add(limit + 1);
+
+        List<Object> sortValues = new ArrayList<>();
+        List<LibraryEntryViewDTO> entries = jdbcTemplate.query(sql.toString(), (rs, row) -> {
+            Object sortValue = rs.getObject("sort_value");
+            sortValues.add(sortValue instanceof Number number ? number.longValue() : sortValue);
+            return toView(rs);
+        }, args.toArray());
+
+        if (entries.size() <= limit) return new LibraryEntryPageDTO(entries, null);
+
+        LibraryEntryViewDTO last = entries.get(limit - 1);
+        LibraryEntryCursor next = new LibraryEntryCursor(sort, ascending, sortValues.get(limit - 1), last.id());
+
+        return new LibraryEntryPageDTO(List.copyOf(entries.subList(0, limit)), next.encode());
+    }
+
+    public int countEntries() {
+        Integer count = jdbcTemplate.queryForObject(COUNT, Integer.class);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Hands every entry to the consumer in id order as the rows are read, without holding the library in memory
+     */
+    public void forEachEntry(Consumer<LibraryEntryViewDTO> consumer) {
+        jdbcTemplate.query(SELECT.formatted("e.id") + " ORDER BY e.id",
+                (RowCallbackHandler) rs -> consumer.accept(toView(rs)));
+    }
+
+    private static LibraryEntryViewDTO toView(ResultSet rs) throws SQLException {
+        Timestamp lastPlayed = rs.getTimestamp("last_played");
+        return LibraryEntryViewDTO.builder()
+                .id(rs.getInt("id"))
+                .gameId(rs.getInt("game_id"))
+                .title(rs.getString("title"))
+                .coverUrl(rs.getString("cover_url"))
+                .platform(rs.getString("platform"))
+                .isInstalled(rs.getBoolean("is_installed"))
+                .installPath(rs.getString("install_path"))
+                .platformGameId(rs.getString("platform_game_id"))
+                .playtimeMinutes(rs.getObject("playtime_minutes", Integer.class))
+                .gameSize(rs.getObject("game_size", Long.class))
+                .lastPlayed(lastPlayed == null ? null : lastPlayed.toLocalDateTime())
+                .build();
+    }
+}
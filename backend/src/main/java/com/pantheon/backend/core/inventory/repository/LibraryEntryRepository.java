@@ -1,8 +1,12 @@
 package com.pantheon.backend.core.inventory.repository;
 
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
 import com.pantheon.backend.core.inventory.model.LibraryEntry;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -11,8 +15,15 @@ public interface LibraryEntryRepository extends JpaRepository<LibraryEntry, Long
 
     Optional<LibraryEntry> findByGameIdAndPlatformId(Integer gameId, Integer platformId);
 
+    @EntityGraph(attributePaths = {"game", "platform"})
     List<LibraryEntry> findByPlatformId(Integer platformId);
 
+    @EntityGraph(attributePaths = {"game", "platform"})
     List<LibraryEntry> findByIsInstalledTrue();
 
+    @Query("select new com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO(" +
+            "e.id, e.game.id, e.isInstalled, e.installPath, e.platformGameId, e.playtimeMinutes, e.gameSize, e.lastPlayed) " +
+            "from LibraryEntry e where e.platform.id = :platformId")
+    List<LibraryEntryStateDTO> findStatesByPlatformId(@Param("platformId") Integer platformId);
+
 }
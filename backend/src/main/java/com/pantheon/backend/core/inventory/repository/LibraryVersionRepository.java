@@ -0,0 +1,36 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * The version of the library (see {@code V6__Library_Version.sql}).
+ * <p>
+ * Bumped in the transaction that changes the library, so a version is only ever seen together with its changes and
+ * keeps increasing across restarts.
+ * </p>
+ */
+@Repository
+@RequiredArgsConstructor
+public class LibraryVersionRepository {
+
+    private static final String INCREMENT = "UPDATE library_version SET version = version + 1 WHERE id = 1";
+
+    private static final String SELECT = "SELECT version FROM library_version WHERE id = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * @return the new version
+     */
+    public long increment() {
+        jdbcTemplate.update(INCREMENT);
+        return current();
+    }
+
+    public long current() {
+        Long version = jdbcTemplate.queryForObject(SELECT, Long.class);
+        return version == null ? 0 : version;
+    }
+}
@@ -0,0 +1,20 @@
+package com.pantheon.backend.core.library.dto;
+
+import lombok.Builder;
+
+@Builder
+public record ManifestFingerprintDTO(
+        String path,
+        String platformGameId,
+        long lastModified,
+        long fileSize,
+        long contentHash
+) {
+
+    /**
+     * @return true when the file's metadata still matches this fingerprint, so it can be skipped without reading it
+     */
+    public boolean matchesMetadata(long lastModified, long fileSize) {
+        return this.lastModified == lastModified && this.fileSize == fileSize;
+    }
+}
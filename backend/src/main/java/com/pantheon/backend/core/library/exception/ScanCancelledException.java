@@ -0,0 +1,9 @@
+package com.pantheon.backend.core.library.exception;
+
+public class ScanCancelledException extends ScanFailureException {
+
+    public ScanCancelledException() {
+        super("Scan cancelled");
+    }
+
+}
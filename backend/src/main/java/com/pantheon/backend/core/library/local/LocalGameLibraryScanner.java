@@ -1,12 +1,16 @@
 package com.pantheon.backend.core.library.local;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public abstract class LocalGameLibraryScanner {
 
@@ -20,14 +24,131 @@ public abstract class LocalGameLibraryScanner {
 
     public abstract String getPlatformName();
 
-    public abstract List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException;
+    /**
+     * Scans a library path, handing every game to the sink as soon as it is found.
+     * <p>
+     * The sink is called from the calling thread and may block, e.g. to apply backpressure, so scanners should not
+     * hold on to games they already handed over.
+     * </p>
+     *
+     * @param libraryPath the library path to scan
+     * @param sink        receives the games of the path
+     * @throws ScanFailureException when the library path cannot be read
+     */
+    public abstract void scan(Path libraryPath, Consumer<? super ScannedLocalGameDTO> sink) throws ScanFailureException;
+
+    /**
+     * {@link #scan(Path, Consumer)} that collects the games of the library path
+     *
+     * @param libraryPath the library path to scan
+     * @return the games of the path
+     * @throws ScanFailureException when the library path cannot be read
+     */
+    public List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException {
+        List<ScannedLocalGameDTO> games = new ArrayList<>();
+        scan(libraryPath, games::add);
+        return games;
+    }
+
+    /**
+     * Scans a library path and only reports what changed since its previous scan.
+     * <p>
+     * Scanners that cannot tell what changed fall back to a full {@link #scan(Path, Consumer)}, reporting every game as
+     * changed.
+     * </p>
+     *
+     * @param libraryPath the library path to scan
+     * @return the added/changed games and the removed games of the path
+     * @throws ScanFailureException when the library path cannot be read
+     */
+    public LocalScanDeltaDTO scanChanges(Path libraryPath) throws ScanFailureException {
+        return scanChanges(libraryPath, ScanMonitor.NONE);
+    }
+
+    /**
+     * {@link #scanChanges(Path)} that reports its progress to, and can be cancelled through, a {@link ScanMonitor}.
+     * <p>
+     * A cancelled scan must not remember anything about the path, so that the next scan picks up the same changes.
+     * </p>
+     *
+     * @param libraryPath the library path to scan
+     * @param monitor     the monitor of the scan
+     * @return the added/changed games and the removed games of the path
+     * @throws ScanFailureException when the library path cannot be read, or the scan was cancelled
+     */
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, ScanMonitor monitor) throws ScanFailureException {
+        List<ScannedLocalGameDTO> changed = new ArrayList<>();
+        LocalScanDeltaDTO delta = scanChanges(libraryPath, monitor, changed::add);
+        return new LocalScanDeltaDTO(changed, delta.removedPlatformGameIds(), delta.unchanged());
+    }
+
+    /**
+     * Streaming {@link #scanChanges(Path, ScanMonitor)}: added/changed games are handed to the sink as soon as they are
+     * found, like {@link #scan(Path, Consumer)} does, and only the removed games and the unchanged count are returned.
+     * <p>
+     * Scanners that cannot tell what changed fall back to a full {@link #scan(Path, Consumer)}.
+     * </p>
+     *
+     * @param libraryPath the library path to scan
+     * @param monitor     the monitor of the scan
+     * @param sink        receives the added/changed games of the path
+     * @return the removed games of the path, with no changed games
+     * @throws ScanFailureException when the library path cannot be read, or the scan was cancelled
+     */
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
+        monitor.checkCancelled();
+        scan(libraryPath, sink);
+        return LocalScanDeltaDTO.full(List.of());
+    }
+
+    /**
+     * Scans only the given files of a library path, typically the ones a filesystem watcher reported as modified.
+     * <p>
+     * Scanners that cannot rescan individual files fall back to {@link #scanChanges(Path)}.
+     * </p>
+     *
+     * @param libraryPath  the library path the files belong to
+     * @param changedFiles the created, modified or deleted files
+     * @return the added/changed games and the removed games among the files
+     * @throws ScanFailureException when the library path cannot be read
+     */
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, Collection<Path> changedFiles) throws ScanFailureException {
+        return scanChanges(libraryPath);
+    }
+
+    /**
+     * @param libraryPath a configured library path
+     * @return the directories holding the files that describe the installed games of the path, empty when the
+     * scanner does not support live sync
+     */
+    public List<Path> getWatchDirectories(Path libraryPath) {
+        return List.of();
+    }
+
+    /**
+     * @param libraryPath a configured library path
+     * @return the directory the games of the path are installed below, as their install paths spell it, or null when
+     * they may be installed anywhere, e.g. when the path only holds the launcher's manifests
+     */
+    public Path getInstallRoot(Path libraryPath) {
+        return libraryPath;
+    }
+
+    /**
+     * Drops whatever the scanner remembers about a library path, so its next {@link #scanChanges(Path)} is a full one
+     *
+     * @param libraryPath the library path to forget
+     */
+    public void forgetChanges(Path libraryPath) {
+    }
 
     protected Platform getPlatform() {
         if (this.cachedPlatform == null) {
 
             String name = getPlatformName();
 
-            this.cachedPlatform = platformRepository.findByName(name).orElse(null);
+            this.cachedPlatform = platformRepository.findWithLibraryPathsByName(name).orElse(null);
 
         }
         return this.cachedPlatform;
@@ -0,0 +1,86 @@
+package com.pantheon.backend.core.library.local;
+
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
+import com.pantheon.backend.core.library.model.ManifestFingerprint;
+import com.pantheon.backend.core.library.repository.LibraryProductRepository;
+import com.pantheon.backend.core.library.repository.ManifestFingerprintBulkRepository;
+import com.pantheon.backend.core.library.repository.ManifestFingerprintRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Persists the (path, mtime, size, content hash) fingerprint of every manifest a scanner has read, so that rescans
+ * only have to look at manifests that were added, changed or removed since the last scan of a library path.
+ * <p>
+ * Platforms without a manifest per game keep the ids of the games they reported per library path instead.
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ManifestFingerprintStore {
+
+    private final ManifestFingerprintRepository manifestFingerprintRepository;
+    private final ManifestFingerprintBulkRepository manifestFingerprintBulkRepository;
+    private final LibraryProductRepository libraryProductRepository;
+
+    /**
+     * @return the known fingerprints of a library path, keyed by manifest path
+     */
+    @Transactional(readOnly = true)
+    public Map<String, ManifestFingerprintDTO> load(Integer platformId, String libraryPath) {
+
+        Map<String, ManifestFingerprintDTO> fingerprints = new HashMap<>();
+
+        for (ManifestFingerprint fingerprint : manifestFingerprintRepository.findByPlatformIdAndLibraryPath(platformId, libraryPath)) {
+            fingerprints.put(fingerprint.getPath(), ManifestFingerprintDTO.builder()
+                    .path(fingerprint.getPath())
+                    .platformGameId(fingerprint.getPlatformGameId())
+                    .lastModified(fingerprint.getLastModified())
+                    .fileSize(fingerprint.getFileSize())
+                    .contentHash(fingerprint.getContentHash())
+                    .build());
+        }
+
+        return fingerprints;
+    }
+
+    @Transactional
+    public void commit(Integer platformId, String libraryPath, Collection<ManifestFingerprintDTO> changed, Collection<String> removedPaths) {
+        manifestFingerprintBulkRepository.upsert(platformId, libraryPath, changed);
+        manifestFingerprintBulkRepository.delete(removedPaths);
+        log.debug("Committed {} changed and {} removed manifest fingerprints for {}", changed.size(), removedPaths.size(), libraryPath);
+    }
+
+    /**
+     * @return the platform game ids reported on previous scans of a library path
+     */
+    @Transactional(readOnly = true)
+    public Set<String> loadProducts(Integer platformId, String libraryPath) {
+        return libraryProductRepository.findPlatformGameIds(platformId, libraryPath);
+    }
+
+    @Transactional
+    public void commitProducts(Integer platformId, String libraryPath, Collection<String> reported, Collection<String> removed) {
+        libraryProductRepository.insert(platformId, libraryPath, reported);
+        libraryProductRepository.delete(platformId, libraryPath, removed);
+        log.debug("Committed {} reported and {} removed products for {}", reported.size(), removed.size(), libraryPath);
+    }
+
+    /**
+     * Forgets every fingerprint and product of a library path, forcing the next scan of it to read every manifest again
+     */
+    @Transactional
+    public void invalidate(Integer platformId, String libraryPath) {
+        int removed = manifestFingerprintRepository.deleteByPlatformIdAndLibraryPath(platformId, libraryPath)
+                + libraryProductRepository.deleteByPlatformIdAndLibraryPath(platformId, libraryPath);
+        log.info("Invalidated {} manifest fingerprints and products for {}", removed, libraryPath);
+    }
+}
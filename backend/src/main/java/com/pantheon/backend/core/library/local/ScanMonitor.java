@@ -0,0 +1,52 @@
+package com.pantheon.backend.core.library.local;
+
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
+
+/**
+ * Progress and cancellation hooks of a running scan.
+ * <p>
+ * Scanners report what they found and check for cancellation between manifests; the scan service does the same
+ * between library paths. Implementations must be thread-safe, as paths and manifests are scanned concurrently.
+ * </p>
+ */
+public interface ScanMonitor {
+
+    /**
+     * Monitor of scans nobody is tracking, it is never cancelled
+     */
+    ScanMonitor NONE = new ScanMonitor() {
+    };
+
+    /**
+     * @return the scan job the scan runs as, null when nobody tracks it
+     */
+    default String jobId() {
+        return null;
+    }
+
+    default boolean isCancelled() {
+        return false;
+    }
+
+    /**
+     * @throws ScanCancelledException when the scan has been cancelled
+     */
+    default void checkCancelled() throws ScanCancelledException {
+        if (isCancelled()) throw new ScanCancelledException();
+    }
+
+    default void onPathsFound(int count) {
+    }
+
+    default void onPathCompleted(boolean success) {
+    }
+
+    default void onManifestsFound(int count) {
+    }
+
+    default void onManifestParsed() {
+    }
+
+    default void onGamesFound(int count) {
+    }
+}
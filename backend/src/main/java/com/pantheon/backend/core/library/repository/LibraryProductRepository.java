@@ -0,0 +1,62 @@
+package com.pantheon.backend.core.library.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The games a scanner reported per library path, for platforms that have no manifest per game to fingerprint
+ */
+@Repository
+@RequiredArgsConstructor
+public class LibraryProductRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String SELECT = "SELECT platform_game_id FROM library_products WHERE platform_id = ? AND library_path = ?";
+
+    private static final String INSERT = """
+            INSERT OR IGNORE INTO library_products (platform_id, library_path, platform_game_id)
+            VALUES (?, ?, ?)
+            """;
+
+    private static final String DELETE = "DELETE FROM library_products WHERE platform_id = ? AND library_path = ? AND platform_game_id = ?";
+
+    private static final String DELETE_LIBRARY = "DELETE FROM library_products WHERE platform_id = ? AND library_path = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Set<String> findPlatformGameIds(Integer platformId, String libraryPath) {
+        return new HashSet<>(jdbcTemplate.queryForList(SELECT, String.class, platformId, libraryPath));
+    }
+
+    public void insert(Integer platformId, String libraryPath, Collection<String> platformGameIds) {
+        if (platformGameIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT, List.copyOf(platformGameIds), BATCH_SIZE, (ps, platformGameId) -> {
+            ps.setInt(1, platformId);
+            ps.setString(2, libraryPath);
+            ps.setString(3, platformGameId);
+        });
+    }
+
+    public void delete(Integer platformId, String libraryPath, Collection<String> platformGameIds) {
+        if (platformGameIds.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE, List.copyOf(platformGameIds), BATCH_SIZE, (ps, platformGameId) -> {
+            ps.setInt(1, platformId);
+            ps.setString(2, libraryPath);
+            ps.setString(3, platformGameId);
+        });
+    }
+
+    /**
+     * @return the number of products forgotten
+     */
+    public int deleteByPlatformIdAndLibraryPath(Integer platformId, String libraryPath) {
+        return jdbcTemplate.update(DELETE_LIBRARY, platformId, libraryPath);
+    }
+}
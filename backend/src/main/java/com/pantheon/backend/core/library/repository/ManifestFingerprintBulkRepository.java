@@ -0,0 +1,52 @@
+package com.pantheon.backend.core.library.repository;
+
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ManifestFingerprintBulkRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String UPSERT = """
+            INSERT INTO manifest_fingerprints
+                (path, platform_id, library_path, platform_game_id, last_modified, file_size, content_hash)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT(path) DO UPDATE SET
+                platform_id = excluded.platform_id,
+                library_path = excluded.library_path,
+                platform_game_id = excluded.platform_game_id,
+                last_modified = excluded.last_modified,
+                file_size = excluded.file_size,
+                content_hash = excluded.content_hash
+            """;
+
+    private static final String DELETE = "DELETE FROM manifest_fingerprints WHERE path = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void upsert(Integer platformId, String libraryPath, Collection<ManifestFingerprintDTO> fingerprints) {
+        if (fingerprints.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT, List.copyOf(fingerprints), BATCH_SIZE, (ps, fingerprint) -> {
+            ps.setString(1, fingerprint.path());
+            ps.setInt(2, platformId);
+            ps.setString(3, libraryPath);
+            ps.setString(4, fingerprint.platformGameId());
+            ps.setLong(5, fingerprint.lastModified());
+            ps.setLong(6, fingerprint.fileSize());
+            ps.setLong(7, fingerprint.contentHash());
+        });
+    }
+
+    public void delete(Collection<String> paths) {
+        if (paths.isEmpty()) return;
+        jdbcTemplate.batchUpdate(DELETE, List.copyOf(paths), BATCH_SIZE, (ps, path) -> ps.setString(1, path));
+    }
+
+}
@@ -0,0 +1,20 @@
+package com.pantheon.backend.core.library.repository;
+
+import com.pantheon.backend.core.library.model.ManifestFingerprint;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ManifestFingerprintRepository extends JpaRepository<ManifestFingerprint, String> {
+
+    List<ManifestFingerprint> findByPlatformIdAndLibraryPath(Integer platformId, String libraryPath);
+
+    @Modifying
+    @Query("delete from ManifestFingerprint f where f.platformId = :platformId and f.libraryPath = :libraryPath")
+    int deleteByPlatformIdAndLibraryPath(@Param("platformId") Integer platformId, @Param("libraryPath") String libraryPath);
+
+}
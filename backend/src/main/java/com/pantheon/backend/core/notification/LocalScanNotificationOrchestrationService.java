@@ -1,12 +1,13 @@
 package com.pantheon.backend.core.notification;
 
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanAllCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanBatchEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanErrorEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanStartedEvent;
 
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
@@ -20,66 +21,60 @@ import java.util.List;
 public class LocalScanNotificationOrchestrationService {
 
     private final ApplicationEventPublisher eventPublisher;
-    private final int batchSize;
 
-    public LocalScanNotificationOrchestrationService(
-            ApplicationEventPublisher eventPublisher,
-            @Qualifier("sseBatchSize") int batchSize
-    ) {
+    public LocalScanNotificationOrchestrationService(ApplicationEventPublisher eventPublisher) {
         this.eventPublisher = eventPublisher;
-        this.batchSize = batchSize;
     }
 
-    public void notifyStart(String platformName) {
-        notifyStart(platformName, 0);
+    /**
+     * @param jobId the scan job, null for scans nobody tracks. Passed on with every event of the scan, so that clients
+     *              can follow a single job.
+     */
+    public void notifyStart(String platformName, String jobId) {
+        notifyStart(platformName, jobId, 0);
     }
 
-    public void notifyStart(String platformName, int totalExpected) {
+    public void notifyStart(String platformName, String jobId, int totalExpected) {
         log.info("{}: Starting scan notification (Expect ~{} games)", platformName, totalExpected);
-        eventPublisher.publishEvent(new LocalScanStartedEvent(platformName, totalExpected));
+        eventPublisher.publishEvent(new LocalScanStartedEvent(platformName, jobId, totalExpected));
     }
 
-    public void notifyBatch(String platformName, List<ScannedLocalGameDTO> batch) {
+    /**
+     * Reports the progress of a scan, the games themselves reach clients as library deltas
+     */
+    public void notifyBatch(String platformName, String jobId, List<ScannedLocalGameDTO> batch) {
 
         if (batch.isEmpty()) return;
 
-        log.info("{}: Starting batch event for {} games", platformName, batch.size());
-
-        if (batch.size() <= batchSize) {
-            log.info("{}: Publishing all {} games", platformName, batch.size());
-            eventPublisher.publishEvent(new LocalScanBatchEvent(platformName, batch));
-        } else {
-
-            int total = batch.size();
-
-            for (int i = 0, batchCount = 1; i < total; i += batchSize, batchCount++) {
-                int end = Math.min(total, i + batchSize);
-                List<ScannedLocalGameDTO> subList = batch.subList(i, end);
-                log.info("{}: Publishing Batch {} - {} games", platformName, batchCount, subList.size());
-                eventPublisher.publishEvent(new LocalScanBatchEvent(platformName, subList));
-            }
-        }
+        log.info("{}: Persisted batch of {} games", platformName, batch.size());
+        eventPublisher.publishEvent(new LocalScanBatchEvent(platformName, jobId, batch.size()));
     }
 
-    public void notifyComplete(String platformName, int finalCount) {
-        notifyComplete(platformName, finalCount, 0, new ArrayList<>());
+    public void notifyComplete(String platformName, String jobId, int finalCount) {
+        notifyComplete(platformName, jobId, finalCount, 0, new ArrayList<>());
     }
 
-    public void notifyComplete(String platformName, int finalCount, int failedPathsCount, List<String> failedPaths) {
+    public void notifyComplete(String platformName, String jobId, int finalCount, int failedPathsCount, List<String> failedPaths) {
         log.info("{}: Scan complete. Total processed: {}", platformName, finalCount);
-        eventPublisher.publishEvent(new LocalScanCompletedEvent(platformName, finalCount, true, failedPathsCount, failedPaths));
+        eventPublisher.publishEvent(new LocalScanCompletedEvent(platformName, jobId, finalCount, true, failedPathsCount, failedPaths));
+    }
+
+    public void notifyAllComplete(List<PlatformScanResultDTO> results, long durationMillis) {
+        int totalGamesFound = results.stream().mapToInt(PlatformScanResultDTO::gamesFound).sum();
+        log.info("All {} platform scans complete. Total processed: {}", results.size(), totalGamesFound);
+        eventPublisher.publishEvent(new LocalScanAllCompletedEvent(results, totalGamesFound, durationMillis));
     }
 
-    public void notifyError(String platformName, int failedPathsCount, List<String> failedPaths) {
+    public void notifyError(String platformName, String jobId, int failedPathsCount, List<String> failedPaths) {
         log.error("{}: Scan failed", platformName);
-        eventPublisher.publishEvent(new LocalScanCompletedEvent(platformName, 0, false, failedPathsCount, failedPaths));
+        eventPublisher.publishEvent(new LocalScanCompletedEvent(platformName, jobId, 0, false, failedPathsCount, failedPaths));
     }
 
-    public void notifyError(String platformName, List<String> failedPaths) {
-        notifyError(platformName, failedPaths.size(), failedPaths);
+    public void notifyError(String platformName, String jobId, List<String> failedPaths) {
+        notifyError(platformName, jobId, failedPaths.size(), failedPaths);
     }
 
-    public void notifyError(String platformName, String errorMessage) {
-        eventPublisher.publishEvent(new LocalScanErrorEvent(platformName, errorMessage));
+    public void notifyError(String platformName, String jobId, String errorMessage) {
+        eventPublisher.publishEvent(new LocalScanErrorEvent(platformName, jobId, errorMessage));
     }
 }
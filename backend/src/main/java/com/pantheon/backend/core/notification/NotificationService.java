@@ -1,11 +1,55 @@
 package com.pantheon.backend.core.notification;
 
+import com.pantheon.backend.core.notification.dto.NotificationStatsDTO;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 public interface NotificationService {
 
-    SseEmitter subscribe();
+    /**
+     * @param lastEventId the id of the last event received on a previous connection, null for a new client. The
+     *                    events after it are sent first, or a resync event when they are no longer available.
+     * @param filter      the events the client receives, {@link StreamFilter#ALL} for every event
+     */
+    SseEmitter subscribe(String lastEventId, StreamFilter filter);
 
-    void broadcast(String eventName, Object payload);
+    /**
+     * {@link #broadcast(String, String, String, Object)} of an event that belongs to no scan job
+     */
+    default void broadcast(String eventName, String platformName, Object payload) {
+        broadcast(eventName, platformName, null, payload);
+    }
+
+    /**
+     * Hands the event to every subscriber that wants it without waiting for it to be sent
+     *
+     * @param platformName the platform the event concerns, null for none in particular
+     * @param jobId        the scan job the event belongs to, null for none
+     */
+    void broadcast(String eventName, String platformName, String jobId, Object payload);
+
+    /**
+     * {@link #broadcastBatched(String, String, String, Object)} of an event that belongs to no scan job
+     */
+    default void broadcastBatched(String eventName, String platformName, Object payload) {
+        broadcastBatched(eventName, platformName, null, payload);
+    }
+
+    /**
+     * Hands the event to every subscriber that wants it as part of a batch: a JSON array of the events of that name and
+     * platform, sent once it is full or its first event has waited long enough. Meant for events that come in bursts,
+     * such as library changes. An event broadcast on its own sends the pending batches first.
+     *
+     * @param platformName the platform the event concerns, null for none in particular
+     * @param jobId        the scan job the event belongs to, null for none
+     */
+    void broadcastBatched(String eventName, String platformName, String jobId, Object payload);
+
+    /**
+     * Ends the subscriptions that follow a scan job once it finished: they get no further events, and are closed as
+     * soon as the events already queued for them are sent
+     */
+    void endJob(String jobId);
+
+    NotificationStatsDTO stats();
 
 }
@@ -0,0 +1,38 @@
+package com.pantheon.backend.core.notification;
+
+import java.util.Set;
+
+/**
+ * The events a subscriber of the event stream receives. An empty set does not filter.
+ * <p>
+ * Events that concern no platform in particular, such as the end of a multi-platform scan, pass any platform filter.
+ * A job filter on the other hand only passes the events of that scan job.
+ * </p>
+ *
+ * @param platforms  names of the platforms whose events are sent
+ * @param eventTypes names of the events sent, such as {@code LIBRARY_DELTA}
+ * @param jobId      the scan job whose events are sent, null for every event
+ */
+public record StreamFilter(Set<String> platforms, Set<String> eventTypes, String jobId) {
+
+    public static final StreamFilter ALL = new StreamFilter(Set.of(), Set.of());
+
+    public StreamFilter {
+        platforms = platforms == null ? Set.of() : Set.copyOf(platforms);
+        eventTypes = eventTypes == null ? Set.of() : Set.copyOf(eventTypes);
+    }
+
+    public StreamFilter(Set<String> platforms, Set<String> eventTypes) {
+        this(platforms, eventTypes, null);
+    }
+
+    /**
+     * @param platformName the platform of the event, null when it concerns none in particular
+     * @param jobId        the scan job the event belongs to, null when it belongs to none
+     */
+    public boolean matches(String eventName, String platformName, String jobId) {
+        return (eventTypes.isEmpty() || eventTypes.contains(eventName))
+                && (platforms.isEmpty() || platformName == null || platforms.contains(platformName))
+                && (this.jobId == null || this.jobId.equals(jobId));
+    }
+}
@@ -0,0 +1,14 @@
+package com.pantheon.backend.core.notification.dto;
+
+import java.util.Map;
+
+/**
+ * Events sent in batches rather than one frame each.
+ *
+ * @param batchedEvents events sent in a batch since startup
+ * @param flushes       batches sent since startup, per reason: {@code ITEMS} and {@code BYTES} when full, {@code TIME}
+ *                      when the first event had waited long enough, {@code ORDER} ahead of an unbatched event
+ * @param batchSizes    batches sent since startup per size, keyed by the largest size counted
+ */
+public record BatchStatsDTO(long batchedEvents, Map<String, Long> flushes, Map<String, Long> batchSizes) {
+}
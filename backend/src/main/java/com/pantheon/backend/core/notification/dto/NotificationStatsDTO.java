@@ -0,0 +1,39 @@
+package com.pantheon.backend.core.notification.dto;
+
+import java.util.List;
+
+/**
+ * Delivery of notifications to the connected clients. Every event is encoded once however many clients receive it,
+ * so the delivered bytes grow with the clients and the encoded bytes do not.
+ *
+ * @param encodedEvents       events serialized since startup
+ * @param encodedBytes        bytes serialized since startup
+ * @param deliveredEvents     events written to any connection since startup
+ * @param deliveredBytes      bytes written to any connection since startup
+ * @param droppedEvents       events discarded since startup because a client fell behind
+ * @param overflowDisconnects clients disconnected since startup because they fell behind
+ * @param unwantedEvents      events not even serialized since startup because no client subscribed to them and
+ *                            replay is disabled
+ * @param bufferedEvents      events kept for clients that reconnect
+ * @param bufferedBytes       bytes kept for clients that reconnect
+ * @param replayedEvents      events sent again since startup to clients that reconnected
+ * @param replayResyncs       reconnects since startup that were too far behind to replay
+ * @param batching            events sent in batches
+ * @param subscribers         the connected clients
+ */
+public record NotificationStatsDTO(
+        long encodedEvents,
+        long encodedBytes,
+        long deliveredEvents,
+        long deliveredBytes,
+        long droppedEvents,
+        long overflowDisconnects,
+        long unwantedEvents,
+        int bufferedEvents,
+        long bufferedBytes,
+        long replayedEvents,
+        long replayResyncs,
+        BatchStatsDTO batching,
+        List<SubscriberStatsDTO> subscribers
+) {
+}
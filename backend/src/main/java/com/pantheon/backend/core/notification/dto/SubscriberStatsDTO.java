@@ -0,0 +1,23 @@
+package com.pantheon.backend.core.notification.dto;
+
+import com.pantheon.backend.core.notification.StreamFilter;
+
+/**
+ * Outbound queue of one subscriber
+ *
+ * @param id              identifies the subscriber in logs
+ * @param filter          the events the subscriber receives
+ * @param queuedEvents    events waiting to be sent
+ * @param maxQueuedEvents deepest the queue has been
+ * @param deliveredEvents events written to the connection
+ * @param droppedEvents   events discarded because the queue was full
+ */
+public record SubscriberStatsDTO(
+        String id,
+        StreamFilter filter,
+        int queuedEvents,
+        int maxQueuedEvents,
+        long deliveredEvents,
+        long droppedEvents
+) {
+}
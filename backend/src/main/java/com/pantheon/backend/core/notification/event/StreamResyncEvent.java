@@ -0,0 +1,9 @@
+package com.pantheon.backend.core.notification.event;
+
+/**
+ * Sent in place of events a slow client could not keep up with. The client missed state and should reload it.
+ *
+ * @param droppedEvents how many events were left out, -1 when that is not known
+ */
+public record StreamResyncEvent(long droppedEvents) {
+}
@@ -0,0 +1,30 @@
+package com.pantheon.backend.core.notification.event.library;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryAddedDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryUpdatedDTO;
+import com.pantheon.backend.core.platform.model.PlatformType;
+
+import java.util.List;
+
+/**
+ * What one write changed in the library entries of a platform. Only published when something did change.
+ *
+ * @param version      the library version after the change, a client that saw the previous version is up to date once
+ *                     it applied this one
+ * @param platformName the platform of every entry below
+ * @param platformType the type of that platform
+ * @param jobId        the scan job that made the change, null when no job did, e.g. for a filesystem watcher's sync
+ * @param added        new entries
+ * @param updated      changed entries, with only the fields that changed
+ * @param removed      game ids of the entries that are no longer installed
+ */
+public record LibraryDeltaEvent(
+        long version,
+        String platformName,
+        PlatformType platformType,
+        String jobId,
+        List<LibraryEntryAddedDTO> added,
+        List<LibraryEntryUpdatedDTO> updated,
+        List<Integer> removed
+) {
+}
@@ -1,6 +1,8 @@
 package com.pantheon.backend.core.notification.event.listener;
 
 import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.notification.event.library.LibraryDeltaEvent;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanAllCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanBatchEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanErrorEvent;
@@ -8,6 +10,7 @@ import com.pantheon.backend.core.notification.event.localscan.LocalScanStartedEv
 
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import lombok.RequiredArgsConstructor;
 
@@ -19,21 +22,38 @@ public class LibraryScanEventListener {
 
     @EventListener
     public void onScanStarted(LocalScanStartedEvent event) {
-        notificationService.broadcast("LOCAL_SCAN_STARTED", event);
+        notificationService.broadcast("LOCAL_SCAN_STARTED", event.platformName(), event.jobId(), event);
     }
 
+    /**
+     * Batched, a scan reports progress for every chunk it writes
+     */
     @EventListener
     public void onScanBatch(LocalScanBatchEvent event) {
-        notificationService.broadcast("LOCAL_SCAN_BATCH", event);
+        notificationService.broadcastBatched("LOCAL_SCAN_BATCH", event.platformName(), event.jobId(), event);
+    }
+
+    /**
+     * Sent once the change is committed, and so in commit order: every inventory write goes through one thread.
+     * Batched, clients receive an array of consecutive deltas.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onLibraryDelta(LibraryDeltaEvent event) {
+        notificationService.broadcastBatched("LIBRARY_DELTA", event.platformName(), event.jobId(), event);
     }
 
     @EventListener
     public void onScanCompleted(LocalScanCompletedEvent event) {
-        notificationService.broadcast("LOCAL_SCAN_COMPLETED", event);
+        notificationService.broadcast("LOCAL_SCAN_COMPLETED", event.platformName(), event.jobId(), event);
+    }
+
+    @EventListener
+    public void onAllScansCompleted(LocalScanAllCompletedEvent event) {
+        notificationService.broadcast("LOCAL_SCAN_ALL_COMPLETED", null, event);
     }
 
     @EventListener
     public void onScanFailed(LocalScanErrorEvent event) {
-        notificationService.broadcast("LOCAL_SCAN_FAILED", event);
+        notificationService.broadcast("LOCAL_SCAN_FAILED", event.platformName(), event.jobId(), event);
     }
 }
\ No newline at end of file
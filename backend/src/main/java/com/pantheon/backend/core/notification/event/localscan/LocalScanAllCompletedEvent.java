@@ -0,0 +1,15 @@
+package com.pantheon.backend.core.notification.event.localscan;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+
+import java.util.List;
+
+/**
+ * Published once every platform of a multi-platform scan has finished, successfully or not
+ */
+public record LocalScanAllCompletedEvent(
+        List<PlatformScanResultDTO> platforms,
+        int totalGamesFound,
+        long durationMillis
+) {
+}
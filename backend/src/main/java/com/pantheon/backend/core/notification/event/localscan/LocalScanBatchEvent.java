@@ -1,16 +1,15 @@
 package com.pantheon.backend.core.notification.event.localscan;
 
-import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
-
-import java.util.List;
-
+/**
+ * Progress of a scan: a batch of scanned games was persisted. What the batch changed in the library is published as a
+ * {@link com.pantheon.backend.core.notification.event.library.LibraryDeltaEvent}.
+ *
+ * @param jobId      the scan job, null for scans nobody tracks
+ * @param gamesFound games in the batch
+ */
 public record LocalScanBatchEvent(
         String platformName,
-        int gamesFound,
-        List<ScannedLocalGameDTO> games
+        String jobId,
+        int gamesFound
 ) implements LocalScanEvent {
-
-    public LocalScanBatchEvent(String platformName, List<ScannedLocalGameDTO> games) {
-        this(platformName, games.size(), games);
-    }
 }
@@ -2,8 +2,14 @@ package com.pantheon.backend.core.notification.event.localscan;
 
 import java.util.List;
 
+/**
+ * Published once a scan of a platform ended, whether it succeeded or not
+ *
+ * @param jobId the scan job, null for scans nobody tracks
+ */
 public record LocalScanCompletedEvent(
         String platformName,
+        String jobId,
         int finalCount,
         boolean success,
         int failedPathsCount,
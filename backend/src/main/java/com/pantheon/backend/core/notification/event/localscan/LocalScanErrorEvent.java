@@ -1,4 +1,9 @@
 package com.pantheon.backend.core.notification.event.localscan;
 
-public record LocalScanErrorEvent(String platformName, String errorMessage) implements LocalScanEvent {
+/**
+ * Published when a scan could not run, or was cancelled
+ *
+ * @param jobId the scan job, null for scans nobody tracks or when the scan never got to be a job
+ */
+public record LocalScanErrorEvent(String platformName, String jobId, String errorMessage) implements LocalScanEvent {
 }
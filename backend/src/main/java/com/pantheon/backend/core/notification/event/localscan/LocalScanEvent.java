@@ -4,4 +4,9 @@ public interface LocalScanEvent {
 
     String platformName();
 
+    /**
+     * @return the scan job the event belongs to, null for scans nobody tracks
+     */
+    String jobId();
+
 }
@@ -1,7 +1,11 @@
 package com.pantheon.backend.core.notification.event.localscan;
 
+/**
+ * @param jobId the scan job, null for scans nobody tracks
+ */
 public record LocalScanStartedEvent(
         String platformName,
+        String jobId,
         int totalGames
 ) implements LocalScanEvent {
 }
@@ -0,0 +1,9 @@
+package com.pantheon.backend.core.platform.event;
+
+/**
+ * Published after the configured library paths of a platform were saved
+ */
+public record PlatformLibraryPathsChangedEvent(
+        String platformName
+) {
+}
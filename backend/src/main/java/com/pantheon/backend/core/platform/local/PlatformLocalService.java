@@ -2,12 +2,14 @@ package com.pantheon.backend.core.platform.local;
 
 import com.pantheon.backend.core.platform.dto.PlatformDTO;
 import com.pantheon.backend.core.platform.dto.PlatformSetupDTO;
+import com.pantheon.backend.core.platform.event.PlatformLibraryPathsChangedEvent;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 import com.pantheon.backend.core.library.utils.ScannerUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +21,7 @@ public class PlatformLocalService {
 
     private final PlatformRepository platformRepository;
     private final ScannerUtil scannerUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     public List<Platform> getAllPlatforms() {
         return platformRepository.findAll();
@@ -30,7 +33,8 @@ public class PlatformLocalService {
 
     public PlatformDTO setupLocalPlatform(PlatformSetupDTO platformSetupDTO) throws IllegalArgumentException {
 
-        Platform platform = getPlatformByName(platformSetupDTO.name());
+        Platform platform = platformRepository.findWithLibraryPathsByName(platformSetupDTO.name())
+                .orElseThrow(() -> new IllegalArgumentException("Platform with name " + platformSetupDTO.name() + " not found"));
         platform.setExecutablePath(platformSetupDTO.executablePath());
 
         platform.setType(PlatformType.API);
@@ -48,6 +52,8 @@ public class PlatformLocalService {
 
         scannerUtil.getScannerForPlatform(saved).refreshPlatform();
 
+        eventPublisher.publishEvent(new PlatformLibraryPathsChangedEvent(saved.getName()));
+
         return platformDTO(saved);
     }
 
@@ -6,7 +6,6 @@ import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -48,8 +47,13 @@ public class Platform {
     @Column(nullable = false)
     private PlatformType type;
 
+    /**
+     * Lazy, lookups that need the paths fetch them along with the platform, see
+     * {@link com.pantheon.backend.core.platform.repository.PlatformRepository#findWithLibraryPathsByName(String)}
+     */
     @Builder.Default
-    @ElementCollection(fetch = FetchType.EAGER)
+    @ToString.Exclude
+    @ElementCollection
     @CollectionTable(name = "platform_paths", joinColumns = @JoinColumn(name = "platform_id"))
     @Column(name = "path")
     private List<String> libraryPaths = new ArrayList<>();
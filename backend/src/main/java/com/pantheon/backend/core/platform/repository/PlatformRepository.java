@@ -2,12 +2,25 @@ package com.pantheon.backend.core.platform.repository;
 
 import com.pantheon.backend.core.platform.model.Platform;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface PlatformRepository extends JpaRepository<Platform, Integer> {
 
     Optional<Platform> findByName(String name);
 
+    /**
+     * For callers that read the library paths outside of a transaction, such as the scanners
+     */
+    @EntityGraph(attributePaths = "libraryPaths")
+    Optional<Platform> findWithLibraryPathsByName(String name);
+
+    @EntityGraph(attributePaths = "libraryPaths")
+    @Query("select p from Platform p")
+    List<Platform> findAllWithLibraryPaths();
+
 }
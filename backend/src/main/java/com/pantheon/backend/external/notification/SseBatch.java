@@ -0,0 +1,94 @@
+package com.pantheon.backend.external.notification;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Serialized events of one name, platform and scan job waiting to go out together, as the elements of a JSON array.
+ * <p>
+ * Not thread-safe, {@link SsePubSub} guards it with its lock.
+ * </p>
+ */
+final class SseBatch {
+
+    private final String eventName;
+    private final String platformName;
+    private final String jobId;
+    private final List<byte[]> items = new ArrayList<>();
+
+    private long bytes;
+    private ScheduledFuture<?> deadline;
+
+    SseBatch(String eventName, String platformName, String jobId) {
+        this.eventName = eventName;
+        this.platformName = platformName;
+        this.jobId = jobId;
+    }
+
+    String eventName() {
+        return eventName;
+    }
+
+    String platformName() {
+        return platformName;
+    }
+
+    String jobId() {
+        return jobId;
+    }
+
+    void add(byte[] json) {
+        items.add(json);
+        bytes += json.length;
+    }
+
+    int size() {
+        return items.size();
+    }
+
+    /**
+     * @return bytes of the JSON array the batch is sent as
+     */
+    long arrayBytes() {
+        return bytes + Math.max(0, items.size() - 1) + 2;
+    }
+
+    /**
+     * @return bytes of the JSON array with one more item of the given size
+     */
+    long arrayBytesWith(int itemBytes) {
+        return arrayBytes() + itemBytes + (items.isEmpty() ? 0 : 1);
+    }
+
+    /**
+     * @param deadline the flush due once the first item has waited long enough
+     */
+    void deadline(ScheduledFuture<?> deadline) {
+        this.deadline = deadline;
+    }
+
+    /**
+     * Stops the pending deadline, the batch is going out anyway
+     */
+    void cancelDeadline() {
+        if (deadline != null) deadline.cancel(false);
+    }
+
+    /**
+     * Joins the items without serializing them again
+     */
+    byte[] toJsonArray() {
+
+        ByteArrayOutputStream array = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8, arrayBytes()));
+        array.write('[');
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) array.write(',');
+            array.writeBytes(items.get(i));
+        }
+        array.write(']');
+
+        return array.toByteArray();
+    }
+}
@@ -0,0 +1,239 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.SubscriberStatsDTO;
+import com.pantheon.backend.core.notification.event.StreamResyncEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * One subscriber: a bounded queue of outgoing events, drained by a virtual thread of its own.
+ * <p>
+ * Publishers only ever queue, so a slow or half-dead connection holds up nobody but itself. Once the queue is full,
+ * the {@link SseOverflowPolicy} decides what gives.
+ * </p>
+ * <p>
+ * Queued frames are already encoded and shared with the other clients, sending one is a plain write.
+ * </p>
+ * <p>
+ * A client can also be {@link #finish() finished}, e.g. once the scan job it follows is over: the connection then
+ * ends as soon as what is queued has been sent.
+ * </p>
+ */
+@Slf4j
+final class SseClient {
+
+    static final String RESYNC_EVENT = "STREAM_RESYNC";
+
+    private final String id;
+    private final SseEmitter emitter;
+    private final StreamFilter filter;
+    private final int capacity;
+    private final SseOverflowPolicy overflowPolicy;
+    private final SseEventEncoder encoder;
+    private final SseMetrics metrics;
+    private final Consumer<SseClient> onClose;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Deque<SseFrame> queue = new ArrayDeque<>();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean finishing;
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread sender;
+
+    private int maxQueued;
+
+    /**
+     * @param capacity events queued at most, at least 2 so that a resync event fits next to the event that caused it
+     * @param onClose  called once when the client goes away, for whatever reason
+     */
+    SseClient(String id, SseEmitter emitter, StreamFilter filter, int capacity, SseOverflowPolicy overflowPolicy,
+              SseEventEncoder encoder, SseMetrics metrics, Consumer<SseClient> onClose) {
+        this.id = id;
+        this.emitter = emitter;
+        this.filter = filter;
+        this.capacity = Math.max(2, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.encoder = encoder;
+        this.metrics = metrics;
+        this.onClose = onClose;
+        this.sender = Thread.ofVirtual().name("sse-client-" + id).start(this::drain);
+    }
+
+    String id() {
+        return id;
+    }
+
+    StreamFilter filter() {
+        return filter;
+    }
+
+    /**
+     * Queues an event without blocking
+     *
+     * @return whether the client is still connected
+     */
+    boolean offer(SseFrame frame) {
+
+        if (closed.get()) return false;
+
+        lock.lock();
+        try {
+            if (queue.size() >= capacity && !makeRoom()) return false;
+
+            queue.addLast(frame);
+            maxQueued = Math.max(maxQueued, queue.size());
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        return true;
+    }
+
+    /**
+     * @return false when the client was disconnected instead
+     */
+    private boolean makeRoom() {
+
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                SseFrame oldest = queue.pollFirst();
+                drop(oldest.events());
+                log.debug("SSE client {} fell behind, dropped a queued {}", id, oldest.eventName());
+            }
+            case COALESCE -> {
+                long skipped = 0;
+                for (SseFrame queued : queue) {
+                    skipped += queued.events();
+                }
+                // The resync takes the id of the last event it replaces, a reconnect resumes right after it
+                long last = queue.peekLast().sequence();
+                queue.clear();
+                queue.addLast(encoder.encode(last, RESYNC_EVENT, new StreamResyncEvent(skipped)));
+                drop(skipped);
+                log.warn("SSE client {} fell behind, replaced {} queued events by a resync", id, skipped);
+            }
+            case DISCONNECT -> {
+                drop(queue.stream().mapToLong(SseFrame::events).sum() + 1);
+                metrics.overflowDisconnects.increment();
+                log.warn("SSE client {} fell {} events behind, disconnecting it", id, queue.size());
+                close();
+                completeAsync();
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Ends the connection off the publishing thread. Completing waits for a send in progress, which for a client that
+     * stopped reading may never return, while the publisher holds the locks every broadcast needs.
+     */
+    private void completeAsync() {
+        Thread.ofVirtual().name("sse-complete-" + id).start(() -> {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("SSE client {} could not be completed: {}", id, e.getMessage());
+            }
+        });
+    }
+
+    private void drop(long events) {
+        dropped.addAndGet(events);
+        metrics.dropped.add(events);
+    }
+
+    private void drain() {
+        try {
+            while (!closed.get()) {
+                SseFrame frame = take();
+                if (frame == null) {
+                    log.debug("SSE client {} is finished, ending the connection", id);
+                    emitter.complete();
+                    break;
+                }
+                emitter.send(frame.content());
+                delivered.incrementAndGet();
+                metrics.delivered.increment();
+                metrics.deliveredBytes.add(frame.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | IllegalStateException e) {
+            log.info("SSE client {} went away: {}", id, e.getMessage());
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * @return the next frame, null once the queue is empty and the client is finishing
+     */
+    private SseFrame take() throws InterruptedException {
+        lock.lock();
+        try {
+            while (queue.isEmpty()) {
+                if (finishing) return null;
+                notEmpty.await();
+            }
+            return queue.pollFirst();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ends the connection once the queued events are sent, events queued meanwhile are still sent
+     */
+    void finish() {
+        lock.lock();
+        try {
+            finishing = true;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops the sender and forgets the queued events, the connection itself is left to its owner
+     */
+    void close() {
+
+        if (!closed.compareAndSet(false, true)) return;
+
+        sender.interrupt();
+
+        lock.lock();
+        try {
+            queue.clear();
+        } finally {
+            lock.unlock();
+        }
+
+        onClose.accept(this);
+    }
+
+    SubscriberStatsDTO stats() {
+        lock.lock();
+        try {
+            return new SubscriberStatsDTO(id, filter, queue.size(), maxQueued, delivered.get(), dropped.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+}
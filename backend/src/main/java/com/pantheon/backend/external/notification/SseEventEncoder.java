@@ -0,0 +1,91 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.event.StreamResyncEvent;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes events to the same bytes {@link org.springframework.web.servlet.mvc.method.annotation.SseEmitter} would
+ * write, with the JSON mapper of the application.
+ * <p>
+ * Event ids are the id of the stream followed by the sequence of the event, {@code <stream>-<sequence>}. The stream id
+ * changes with every start, so an id handed out before a restart is never taken for one of the current stream.
+ * </p>
+ */
+final class SseEventEncoder {
+
+    private static final byte[] ID = "id:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] EVENT = "event:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] DATA = "\ndata:".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] END = "\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final JsonMapper jsonMapper;
+    private final String streamId;
+
+    SseEventEncoder(JsonMapper jsonMapper, String streamId) {
+        this.jsonMapper = jsonMapper;
+        this.streamId = streamId;
+    }
+
+    /**
+     * @param sequence the position of the event in the stream, 0 to leave out the id
+     * @throws tools.jackson.core.JacksonException when the payload cannot be serialized
+     */
+    SseFrame encode(long sequence, String eventName, Object payload) {
+        long events = payload instanceof StreamResyncEvent resync ? Math.max(0, resync.droppedEvents()) : 1;
+        return frame(sequence, eventName, null, null, serialize(payload), events);
+    }
+
+    /**
+     * @throws tools.jackson.core.JacksonException when the payload cannot be serialized
+     */
+    byte[] serialize(Object payload) {
+        // Compact JSON has no line breaks, so the payload fits on a single data line
+        return jsonMapper.writeValueAsBytes(payload);
+    }
+
+    /**
+     * Frames a serialized payload. Cheap next to {@link #serialize}, which can then happen outside any lock.
+     */
+    SseFrame frame(long sequence, String eventName, String platformName, String jobId, byte[] json, long events) {
+
+        byte[] id = sequence > 0 ? eventId(sequence).getBytes(StandardCharsets.UTF_8) : null;
+        byte[] name = eventName.getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream frame = new ByteArrayOutputStream(
+                (id == null ? 0 : ID.length + id.length + 1) + EVENT.length + name.length + DATA.length + json.length
+                        + END.length);
+        if (id != null) {
+            frame.writeBytes(ID);
+            frame.writeBytes(id);
+            frame.write('\n');
+        }
+        frame.writeBytes(EVENT);
+        frame.writeBytes(name);
+        frame.writeBytes(DATA);
+        frame.writeBytes(json);
+        frame.writeBytes(END);
+
+        return SseFrame.of(sequence, eventName, platformName, jobId, frame.toByteArray(), events);
+    }
+
+    String eventId(long sequence) {
+        return streamId + "-" + sequence;
+    }
+
+    /**
+     * @return the sequence of an id of this stream, -1 for ids of another stream or that are not ids at all
+     */
+    long sequenceOf(String eventId) {
+
+        if (eventId == null || !eventId.startsWith(streamId + "-")) return -1;
+
+        try {
+            return Long.parseLong(eventId.substring(streamId.length() + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
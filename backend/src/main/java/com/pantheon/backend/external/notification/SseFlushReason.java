@@ -0,0 +1,27 @@
+package com.pantheon.backend.external.notification;
+
+/**
+ * Why a batch of events went out
+ */
+enum SseFlushReason {
+
+    /**
+     * It held as many events as a batch may
+     */
+    ITEMS,
+
+    /**
+     * One more event would have made it larger than a batch may be
+     */
+    BYTES,
+
+    /**
+     * Its first event had waited as long as it may
+     */
+    TIME,
+
+    /**
+     * An event broadcast on its own must not overtake it
+     */
+    ORDER
+}
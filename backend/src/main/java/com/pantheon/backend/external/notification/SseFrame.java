@@ -0,0 +1,27 @@
+package com.pantheon.backend.external.notification;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+import java.util.Set;
+
+/**
+ * An event in its wire format, {@code id:}, {@code event:} and {@code data:} lines included. Built once per broadcast
+ * and written as is to every subscriber.
+ *
+ * @param sequence     position of the event in the stream, 0 for events sent to a single client that carry no id
+ * @param eventName    the name of the event
+ * @param platformName the platform the event concerns, null for none in particular
+ * @param jobId        the scan job the event belongs to, null for none
+ * @param content      the encoded event, shared by every subscriber and never modified
+ * @param size         bytes of the encoded event
+ * @param events       published events the frame stands for, more than one for a resync or a batch
+ */
+record SseFrame(long sequence, String eventName, String platformName, String jobId, Set<DataWithMediaType> content,
+                int size, long events) {
+
+    static SseFrame of(long sequence, String eventName, String platformName, String jobId, byte[] bytes, long events) {
+        return new SseFrame(sequence, eventName, platformName, jobId,
+                Set.of(new DataWithMediaType(bytes, MediaType.TEXT_EVENT_STREAM)), bytes.length, events);
+    }
+}
@@ -0,0 +1,70 @@
+package com.pantheon.backend.external.notification;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery counters over every subscriber, including the ones that have gone
+ */
+final class SseMetrics {
+
+    /**
+     * Batch size buckets, each counting the batches up to its size and above the previous one
+     */
+    private static final int[] BATCH_SIZE_BUCKETS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512, 1024, Integer.MAX_VALUE};
+
+    final LongAdder encoded = new LongAdder();
+    final LongAdder encodedBytes = new LongAdder();
+    final LongAdder delivered = new LongAdder();
+    final LongAdder deliveredBytes = new LongAdder();
+    final LongAdder dropped = new LongAdder();
+    final LongAdder overflowDisconnects = new LongAdder();
+    final LongAdder unwanted = new LongAdder();
+    final LongAdder replayed = new LongAdder();
+    final LongAdder replayResyncs = new LongAdder();
+    final LongAdder batchedEvents = new LongAdder();
+
+    private final Map<SseFlushReason, LongAdder> flushes = new EnumMap<>(SseFlushReason.class);
+    private final LongAdder[] batchSizes = new LongAdder[BATCH_SIZE_BUCKETS.length];
+
+    SseMetrics() {
+        for (SseFlushReason reason : SseFlushReason.values()) {
+            flushes.put(reason, new LongAdder());
+        }
+        for (int i = 0; i < batchSizes.length; i++) {
+            batchSizes[i] = new LongAdder();
+        }
+    }
+
+    void batchFlushed(SseFlushReason reason, int size) {
+        flushes.get(reason).increment();
+        batchedEvents.add(size);
+
+        int bucket = 0;
+        while (size > BATCH_SIZE_BUCKETS[bucket]) bucket++;
+        batchSizes[bucket].increment();
+    }
+
+    /**
+     * @return batches flushed per reason
+     */
+    Map<String, Long> flushes() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        flushes.forEach((reason, count) -> counts.put(reason.name(), count.sum()));
+        return counts;
+    }
+
+    /**
+     * @return batches per size bucket, keyed by the largest size of the bucket
+     */
+    Map<String, Long> batchSizes() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH_SIZE_BUCKETS.length; i++) {
+            String bucket = BATCH_SIZE_BUCKETS[i] == Integer.MAX_VALUE ? "+Inf" : String.valueOf(BATCH_SIZE_BUCKETS[i]);
+            counts.put(bucket, batchSizes[i].sum());
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,39 @@
+package com.pantheon.backend.external.notification;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * What a subscriber's queue does with a new event once it is full, because the client reads slower than events are
+ * published.
+ */
+public enum SseOverflowPolicy {
+
+    /**
+     * Discards the oldest queued event to make room
+     */
+    DROP_OLDEST,
+
+    /**
+     * Replaces the whole backlog by a single resync event, telling the client to reload what it shows
+     */
+    COALESCE,
+
+    /**
+     * Closes the connection, the client reconnects and starts over
+     */
+    DISCONNECT;
+
+    /**
+     * @throws IllegalArgumentException for unknown names
+     */
+    public static SseOverflowPolicy from(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT).replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown SSE overflow policy " + name + ", expected one of " + Arrays.stream(values())
+                    .map(policy -> policy.name().toLowerCase(Locale.ROOT)).collect(Collectors.joining(", ")));
+        }
+    }
+}
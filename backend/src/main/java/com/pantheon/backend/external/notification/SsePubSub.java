@@ -1,60 +1,342 @@
 package com.pantheon.backend.external.notification;
 
+import com.pantheon.backend.config.SseBatching;
 import com.pantheon.backend.core.notification.NotificationService;
-import com.pantheon.backend.core.notification.event.localscan.LocalScanEvent;
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.BatchStatsDTO;
+import com.pantheon.backend.core.notification.dto.NotificationStatsDTO;
+import com.pantheon.backend.core.notification.dto.SubscriberStatsDTO;
+import com.pantheon.backend.core.notification.event.StreamResyncEvent;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.json.JsonMapper;
 
-import java.io.IOException;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+/**
+ * Pushes notifications to every client of the event stream.
+ * <p>
+ * Events are published from the scanning threads, so {@link #broadcast} never writes to a connection itself: each
+ * client has a bounded queue of its own that a virtual thread drains (see {@link SseClient}).
+ * </p>
+ * <p>
+ * An event is serialized once, to the exact bytes of its frame, and that one buffer is queued for every client. A scan
+ * batch costs the same serialization whether one window is open or ten.
+ * </p>
+ * <p>
+ * Every broadcast gets the next id of the stream and is kept in a bounded replay buffer. A client that reconnects with
+ * a {@code Last-Event-ID} first receives what it missed, or a resync when that is no longer buffered.
+ * </p>
+ * <p>
+ * Events broadcast with {@link #broadcastBatched} wait for others of their name and go out together, as soon as the
+ * batch holds enough events or bytes or its first event has waited long enough. A burst then costs a few large frames
+ * while a trickle still goes out within the delay.
+ * </p>
+ * <p>
+ * Clients may subscribe to some platforms, event types or a single scan job only. A {@link SseSubscriberIndex} finds
+ * the clients an event is for without looking at the others. When replay is disabled, an event no client wants is not
+ * even serialized. The subscriptions to a job end with the job, see {@link #endJob}.
+ * </p>
+ */
 @Slf4j
 @Service
 public class SsePubSub implements NotificationService {
 
-    private final CopyOnWriteArrayList<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+    private final Map<String, SseClient> clients = new ConcurrentHashMap<>();
+    private final SseSubscriberIndex index = new SseSubscriberIndex();
+    private final AtomicLong clientIds = new AtomicLong();
+    private final SseMetrics metrics = new SseMetrics();
+    private final SseEventEncoder encoder;
+
+    // Numbering, buffering and queueing an event happen under one lock, so that every client sees the ids in order
+    // and a reconnecting client misses nothing between its replay and the next broadcast
+    private final ReentrantLock lock = new ReentrantLock();
+    private final SseReplayBuffer replayBuffer;
+    private long sequence;
+
+    // Batches waiting to go out, in the order of their first event
+    private final Map<Topic, SseBatch> pending = new LinkedHashMap<>();
+    private final ScheduledExecutorService batchTimer =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("sse-batch-timer").factory());
+    private final SseBatching batching;
 
     private final Long sseTimeout;
+    private final int queueCapacity;
+    private final SseOverflowPolicy overflowPolicy;
 
-    public SsePubSub(@Qualifier("sseTimeout") Long sseTimeout) {
+    /**
+     * @param queueCapacity  events queued per client at most
+     * @param overflowPolicy what to do when a client's queue is full, one of {@link SseOverflowPolicy}
+     * @param replayEvents   events kept for reconnecting clients at most
+     * @param replayBytes    bytes kept for reconnecting clients at most
+     * @param batching       when the events of {@link #broadcastBatched} go out
+     */
+    @Autowired
+    public SsePubSub(JsonMapper jsonMapper,
+                     @Qualifier("sseTimeout") Long sseTimeout,
+                     @Qualifier("sseClientQueueCapacity") int queueCapacity,
+                     @Qualifier("sseOverflowPolicy") String overflowPolicy,
+                     @Qualifier("sseReplayMaxEvents") int replayEvents,
+                     @Qualifier("sseReplayMaxBytes") long replayBytes,
+                     @Qualifier("sseBatching") SseBatching batching) {
+        this.encoder = new SseEventEncoder(jsonMapper, Long.toString(System.currentTimeMillis(), 36));
+        this.replayBuffer = new SseReplayBuffer(replayEvents, replayBytes);
         this.sseTimeout = sseTimeout;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = SseOverflowPolicy.from(overflowPolicy);
+        this.batching = batching;
     }
 
-    public SseEmitter subscribe() {
-
+    public SseEmitter subscribe(String lastEventId, StreamFilter filter) {
         SseEmitter emitter = new SseEmitter(sseTimeout);
+        register(emitter, lastEventId, filter);
+        return emitter;
+    }
 
-        emitter.onCompletion(() -> emitters.remove(emitter));
-        emitter.onTimeout(() -> emitters.remove(emitter));
-        emitter.onError((_) -> emitters.remove(emitter));
+    /**
+     * @param lastEventId the last event the client received before it lost the connection, null for a new client
+     */
+    SseClient register(SseEmitter emitter, String lastEventId, StreamFilter filter) {
 
-        emitters.add(emitter);
-        log.info("New SSE client subscribed. Active clients: {}", emitters.size());
-        return emitter;
+        SseClient client = new SseClient(String.valueOf(clientIds.incrementAndGet()), emitter, filter, queueCapacity,
+                overflowPolicy, encoder, metrics, this::remove);
+
+        emitter.onCompletion(client::close);
+        emitter.onTimeout(client::close);
+        emitter.onError((_) -> client.close());
+
+        lock.lock();
+        try {
+            if (lastEventId != null) catchUp(client, lastEventId);
+            clients.put(client.id(), client);
+            index.add(client);
+        } finally {
+            lock.unlock();
+        }
+
+        log.info("New SSE client subscribed. Active clients: {}", clients.size());
+        return client;
+    }
+
+    /**
+     * Queues what the client missed, or a resync when the buffer no longer has all of it or it would not fit in the
+     * client's queue
+     */
+    private void catchUp(SseClient client, String lastEventId) {
+
+        long last = encoder.sequenceOf(lastEventId);
+        if (last == sequence) return;
+
+        List<SseFrame> missed = last >= 0 && last < sequence
+                ? replayBuffer.framesAfter(last)
+                        .map(frames -> frames.stream()
+                                .filter(frame -> client.filter().matches(frame.eventName(), frame.platformName(), frame.jobId()))
+                                .toList())
+                        .filter(frames -> frames.size() <= queueCapacity)
+                        .orElse(null)
+                : null;
+
+        if (missed != null) {
+            missed.forEach(client::offer);
+            metrics.replayed.add(missed.size());
+            log.info("Replayed {} events to SSE client {}", missed.size(), client.id());
+            return;
+        }
+
+        // Unknown after a restart or when the id is not ours, so the client cannot tell what it missed
+        long gap = last >= 0 && last < sequence ? sequence - last : -1;
+        client.offer(encoder.encode(sequence, SseClient.RESYNC_EVENT, new StreamResyncEvent(gap)));
+        metrics.replayResyncs.increment();
+        log.info("SSE client {} resumed from {}, too far behind to replay, sent a resync", client.id(), lastEventId);
     }
 
-    public void broadcast(String eventName, Object payload) {
-        if (emitters.isEmpty()) return;
+    private void remove(SseClient client) {
+        index.remove(client);
+        clients.remove(client.id());
+        log.info("SSE client {} unsubscribed. Active clients: {}", client.id(), clients.size());
+    }
+
+    public void broadcast(String eventName, String platformName, String jobId, Object payload) {
+
+        byte[] json = serializeIfWanted(eventName, platformName, jobId, payload);
+        if (json == null) return;
 
-        SseEmitter.SseEventBuilder event = SseEmitter.event()
-                .name(eventName)
-                .data(payload);
+        lock.lock();
+        try {
+            flushPending(SseFlushReason.ORDER);
+            publish(eventName, platformName, jobId, json, 1);
+        } finally {
+            lock.unlock();
+        }
+    }
 
-        for (SseEmitter emitter : emitters) {
-            try {
-                emitter.send(event);
-            } catch (IOException e) {
-                emitters.remove(emitter);
+    public void broadcastBatched(String eventName, String platformName, String jobId, Object payload) {
 
-                if (payload instanceof LocalScanEvent localScanEvent) {
-                    log.error("Failed to broadcast to emitter for {}: {}", localScanEvent.platformName(), eventName);
-                } else {
-                    log.error("Failed to broadcast {} ", eventName, e);
-                }
+        byte[] json = serializeIfWanted(eventName, platformName, jobId, payload);
+        if (json == null) return;
+
+        Topic topic = new Topic(eventName, platformName, jobId);
+
+        lock.lock();
+        try {
+            SseBatch batch = pending.get(topic);
+            if (batch != null && batch.arrayBytesWith(json.length) > batching.maxBytes()) {
+                flush(batch, SseFlushReason.BYTES);
+                batch = null;
             }
+            if (batch == null) {
+                batch = new SseBatch(eventName, platformName, jobId);
+                pending.put(topic, batch);
+            }
+
+            batch.add(json);
+
+            if (batch.size() >= batching.maxItems()) {
+                flush(batch, SseFlushReason.ITEMS);
+            } else if (batch.arrayBytes() >= batching.maxBytes()) {
+                flush(batch, SseFlushReason.BYTES);
+            } else if (batch.size() == 1) {
+                SseBatch due = batch;
+                batch.deadline(batchTimer.schedule(() -> flushDue(due), batching.maxDelayMillis(),
+                        TimeUnit.MILLISECONDS));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return null when the payload cannot be serialized, or is not worth it: no client wants the event and none can
+     * ask for it later through a replay
+     */
+    private byte[] serializeIfWanted(String eventName, String platformName, String jobId, Object payload) {
+
+        if (!replayBuffer.isEnabled() && index.matching(eventName, platformName, jobId).isEmpty()) {
+            metrics.unwanted.increment();
+            return null;
+        }
+
+        try {
+            return encoder.serialize(payload);
+        } catch (JacksonException e) {
+            log.error("Failed to serialize {}, not broadcasting it", eventName, e);
+            return null;
         }
     }
 
+    private void flushDue(SseBatch batch) {
+        lock.lock();
+        try {
+            // Already sent when it filled up before its deadline
+            if (pending.get(topic(batch)) == batch) flush(batch, SseFlushReason.TIME);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushPending(SseFlushReason reason) {
+        if (pending.isEmpty()) return;
+
+        for (SseBatch batch : new ArrayList<>(pending.values())) {
+            flush(batch, reason);
+        }
+    }
+
+    private void flush(SseBatch batch, SseFlushReason reason) {
+        pending.remove(topic(batch));
+        batch.cancelDeadline();
+
+        publish(batch.eventName(), batch.platformName(), batch.jobId(), batch.toJsonArray(), batch.size());
+        metrics.batchFlushed(reason, batch.size());
+    }
+
+    /**
+     * Numbers the event, keeps it for replay and queues it for the clients that want it. Must hold the lock.
+     *
+     * @param events the events the frame carries
+     */
+    private void publish(String eventName, String platformName, String jobId, byte[] json, long events) {
+
+        SseFrame frame = encoder.frame(++sequence, eventName, platformName, jobId, json, events);
+        replayBuffer.add(frame);
+
+        metrics.encoded.increment();
+        metrics.encodedBytes.add(frame.size());
+
+        for (SseClient client : index.matching(eventName, platformName, jobId)) {
+            client.offer(frame);
+        }
+    }
+
+    /**
+     * Stops matching the clients that follow the job, and ends their connections once what is queued for them is sent.
+     * Under the lock, so that the events published before are already queued and are still sent.
+     */
+    public void endJob(String jobId) {
+
+        int ended = 0;
+
+        lock.lock();
+        try {
+            for (SseClient client : clients.values()) {
+                if (!jobId.equals(client.filter().jobId())) continue;
+                index.remove(client);
+                client.finish();
+                ended++;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (ended > 0) log.info("Scan job {} is over, ending {} SSE clients following it", jobId, ended);
+    }
+
+    private static Topic topic(SseBatch batch) {
+        return new Topic(batch.eventName(), batch.platformName(), batch.jobId());
+    }
+
+    public NotificationStatsDTO stats() {
+        List<SubscriberStatsDTO> subscribers = clients.values().stream().map(SseClient::stats).toList();
+
+        int bufferedEvents;
+        long bufferedBytes;
+        lock.lock();
+        try {
+            bufferedEvents = replayBuffer.size();
+            bufferedBytes = replayBuffer.bytes();
+        } finally {
+            lock.unlock();
+        }
+
+        return new NotificationStatsDTO(metrics.encoded.sum(), metrics.encodedBytes.sum(), metrics.delivered.sum(),
+                metrics.deliveredBytes.sum(), metrics.dropped.sum(), metrics.overflowDisconnects.sum(),
+                metrics.unwanted.sum(), bufferedEvents, bufferedBytes, metrics.replayed.sum(), metrics.replayResyncs.sum(),
+                new BatchStatsDTO(metrics.batchedEvents.sum(), metrics.flushes(), metrics.batchSizes()), subscribers);
+    }
+
+    @PreDestroy
+    public void close() {
+        batchTimer.shutdownNow();
+        clients.values().forEach(SseClient::close);
+    }
+
+    /**
+     * What a batch holds, events of one name about one platform and scan job
+     */
+    private record Topic(String eventName, String platformName, String jobId) {
+    }
 }
@@ -0,0 +1,71 @@
+package com.pantheon.backend.external.notification;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The latest broadcast frames, for clients that reconnect with a {@code Last-Event-ID}. Bounded in events and in
+ * bytes, the oldest frames go first.
+ * <p>
+ * Not thread-safe, {@link SsePubSub} guards it with the lock it numbers events under.
+ * </p>
+ */
+final class SseReplayBuffer {
+
+    private final int maxEvents;
+    private final long maxBytes;
+    private final Deque<SseFrame> frames = new ArrayDeque<>();
+
+    private long bytes;
+
+    SseReplayBuffer(int maxEvents, long maxBytes) {
+        this.maxEvents = Math.max(0, maxEvents);
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * @return whether it keeps any frame at all
+     */
+    boolean isEnabled() {
+        return maxEvents > 0 && maxBytes > 0;
+    }
+
+    /**
+     * @param frame a frame with a sequence higher than any added before
+     */
+    void add(SseFrame frame) {
+
+        frames.addLast(frame);
+        bytes += frame.size();
+
+        while (!frames.isEmpty() && (frames.size() > maxEvents || bytes > maxBytes)) {
+            bytes -= frames.pollFirst().size();
+        }
+    }
+
+    /**
+     * @param sequence the last event the client received
+     * @return the frames after it, empty when they are not all buffered anymore
+     */
+    Optional<List<SseFrame>> framesAfter(long sequence) {
+
+        if (frames.isEmpty() || sequence + 1 < frames.peekFirst().sequence()) return Optional.empty();
+
+        long newest = frames.peekLast().sequence();
+        if (sequence >= newest) return Optional.of(List.of());
+
+        // Sequences are contiguous, so the frames to replay are the last (newest - sequence)
+        int skip = frames.size() - (int) (newest - sequence);
+        return Optional.of(frames.stream().skip(skip).toList());
+    }
+
+    int size() {
+        return frames.size();
+    }
+
+    long bytes() {
+        return bytes;
+    }
+}
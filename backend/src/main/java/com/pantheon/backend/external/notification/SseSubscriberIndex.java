@@ -0,0 +1,100 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.StreamFilter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The subscribers of each event type, platform and scan job, so that a broadcast only looks at the clients that want it.
+ * <p>
+ * A client is indexed under every event type and platform of its {@link StreamFilter} and under its job, or under
+ * {@value #ANY} when it does not filter on them. Changes to an event type happen atomically, lookups never block.
+ * </p>
+ */
+final class SseSubscriberIndex {
+
+    private static final String ANY = "*";
+
+    // Event type, then platform, then job
+    private final Map<String, Map<String, Map<String, Set<SseClient>>>> byEventType = new ConcurrentHashMap<>();
+
+    void add(SseClient client) {
+        String job = jobKey(client.filter());
+        for (String eventType : keys(client.filter().eventTypes())) {
+            byEventType.compute(eventType, (_, byPlatform) -> {
+                Map<String, Map<String, Set<SseClient>>> platforms = byPlatform == null ? new ConcurrentHashMap<>() : byPlatform;
+                for (String platform : keys(client.filter().platforms())) {
+                    platforms.computeIfAbsent(platform, _ -> new ConcurrentHashMap<>())
+                            .computeIfAbsent(job, _ -> ConcurrentHashMap.newKeySet())
+                            .add(client);
+                }
+                return platforms;
+            });
+        }
+    }
+
+    void remove(SseClient client) {
+        String job = jobKey(client.filter());
+        for (String eventType : keys(client.filter().eventTypes())) {
+            byEventType.computeIfPresent(eventType, (_, platforms) -> {
+                for (String platform : keys(client.filter().platforms())) {
+                    platforms.computeIfPresent(platform, (_, jobs) -> {
+                        jobs.computeIfPresent(job, (_, clients) -> {
+                            clients.remove(client);
+                            return clients.isEmpty() ? null : clients;
+                        });
+                        return jobs.isEmpty() ? null : jobs;
+                    });
+                }
+                return platforms.isEmpty() ? null : platforms;
+            });
+        }
+    }
+
+    /**
+     * @param platformName the platform of the event, null to match every platform filter
+     * @param jobId        the scan job of the event, null to only match clients that do not filter on a job
+     */
+    Collection<SseClient> matching(String eventName, String platformName, String jobId) {
+
+        List<Map<String, Map<String, Set<SseClient>>>> ofEvents = List.of(
+                byEventType.getOrDefault(eventName, Map.of()),
+                byEventType.getOrDefault(ANY, Map.of()));
+
+        if (platformName == null) {
+            // A client filtering on several platforms sits in several of them
+            Set<SseClient> clients = new LinkedHashSet<>();
+            for (Map<String, Map<String, Set<SseClient>>> ofEvent : ofEvents) {
+                ofEvent.values().forEach(ofPlatform -> addMatchingJob(clients, ofPlatform, jobId));
+            }
+            return clients;
+        }
+
+        // Every client is in one of these at most, a filter either names platforms or does not
+        List<SseClient> clients = new ArrayList<>();
+        for (Map<String, Map<String, Set<SseClient>>> ofEvent : ofEvents) {
+            addMatchingJob(clients, ofEvent.getOrDefault(platformName, Map.of()), jobId);
+            addMatchingJob(clients, ofEvent.getOrDefault(ANY, Map.of()), jobId);
+        }
+        return clients;
+    }
+
+    private static void addMatchingJob(Collection<SseClient> clients, Map<String, Set<SseClient>> byJob, String jobId) {
+        if (jobId != null) clients.addAll(byJob.getOrDefault(jobId, Set.of()));
+        clients.addAll(byJob.getOrDefault(ANY, Set.of()));
+    }
+
+    private static Set<String> keys(Set<String> filter) {
+        return filter.isEmpty() ? Set.of(ANY) : filter;
+    }
+
+    private static String jobKey(StreamFilter filter) {
+        return filter.jobId() == null ? ANY : filter.jobId();
+    }
+}
@@ -0,0 +1,228 @@
+package com.pantheon.backend.external.scanner.local;
+
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the installed games of a GOG Galaxy 2.0 client from its {@code galaxy-2.0.db} SQLite index.
+ * <p>
+ * Installed products, play times and last-played dates are each pulled with a single set-based query and joined in
+ * memory. The database belongs to the Galaxy client, which may be running, so it is only ever opened read-only, and
+ * through a small pool per database file whose connections are released once idle.
+ * </p>
+ */
+@Slf4j
+@Component
+class GalaxyDatabaseReader {
+
+    private static final String RELEASE_KEY_PREFIX = "gog_";
+
+    private static final String INSTALLED_PRODUCTS = """
+            SELECT p.productId, p.installationPath, MAX(d.title) AS title
+            FROM InstalledBaseProducts p
+            LEFT JOIN LimitedDetails d ON d.productId = p.productId
+            GROUP BY p.productId, p.installationPath
+            """;
+
+    private static final String PLAY_TIMES = """
+            SELECT releaseKey, minutesInGame, lastSessionEnd
+            FROM GameTimes
+            WHERE releaseKey LIKE 'gog\\_%' ESCAPE '\\'
+            """;
+
+    private static final String LAST_PLAYED_DATES = """
+            SELECT gameReleaseKey, lastPlayedDate
+            FROM LastPlayedDates
+            WHERE gameReleaseKey LIKE 'gog\\_%' ESCAPE '\\'
+            """;
+
+    private static final int POOL_SIZE = 2;
+    private static final long IDLE_TIMEOUT_MILLIS = 30_000;
+    private static final int BUSY_TIMEOUT_MILLIS = 5_000;
+    // SQLITE_OPEN_READONLY, without SQLITE_OPEN_CREATE a missing database is an error rather than a new empty file
+    private static final String OPEN_READONLY = "1";
+
+    private final Map<Path, HikariDataSource> pools = new ConcurrentHashMap<>();
+
+    /**
+     * A game the Galaxy client installed
+     *
+     * @param playtimeMinutes {@code null} when the client never tracked the game
+     * @param lastPlayed      {@code null} when the game was never played
+     */
+    record InstalledGame(String productId, String title, Path installPath, Integer playtimeMinutes,
+                         LocalDateTime lastPlayed) {
+    }
+
+    /**
+     * @param database the {@code galaxy-2.0.db} file
+     * @return the installed base games, without DLCs
+     * @throws ScanFailureException when the database cannot be opened or has no installed products table
+     */
+    List<InstalledGame> readInstalledGames(Path database) throws ScanFailureException {
+
+        try (Connection connection = pool(database).getConnection()) {
+
+            List<InstalledRow> installed = queryInstalledProducts(connection);
+            Map<String, PlayTime> playTimes = queryPlayTimes(connection);
+            Map<String, LocalDateTime> lastPlayedDates = queryLastPlayedDates(connection);
+
+            List<InstalledGame> games = new ArrayList<>(installed.size());
+
+            for (InstalledRow row : installed) {
+
+                String releaseKey = RELEASE_KEY_PREFIX + row.productId();
+                PlayTime playTime = playTimes.get(releaseKey);
+
+                LocalDateTime lastPlayed = lastPlayedDates.get(releaseKey);
+                if (lastPlayed == null && playTime != null) lastPlayed = playTime.lastSessionEnd();
+
+                games.add(new InstalledGame(row.productId(), row.title(), row.installPath(),
+                        playTime != null ? playTime.minutes() : null, lastPlayed));
+            }
+
+            log.info("GOG Galaxy lists {} installed games in {}", games.size(), database);
+
+            return games;
+
+        } catch (SQLException e) {
+            throw new ScanFailureException("Failed to read GOG Galaxy database " + database + ": " + e.getMessage(), e);
+        }
+    }
+
+    private List<InstalledRow> queryInstalledProducts(Connection connection) throws SQLException {
+
+        List<InstalledRow> rows = new ArrayList<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(INSTALLED_PRODUCTS);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+
+                String productId = resultSet.getString("productId");
+                String installationPath = resultSet.getString("installationPath");
+
+                if (productId == null || installationPath == null) continue;
+
+                try {
+                    rows.add(new InstalledRow(productId, resultSet.getString("title"), Path.of(installationPath)));
+                } catch (InvalidPathException e) {
+                    log.debug("Ignoring bad install location of GOG product {}: {}", productId, installationPath);
+                }
+            }
+        }
+
+        return rows;
+    }
+
+    /**
+     * Older clients lack the play time tables, which only costs us the play times
+     */
+    private Map<String, PlayTime> queryPlayTimes(Connection connection) {
+
+        Map<String, PlayTime> playTimes = new HashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(PLAY_TIMES);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                long lastSessionEnd = resultSet.getLong("lastSessionEnd");
+                playTimes.put(resultSet.getString("releaseKey"), new PlayTime(
+                        resultSet.getInt("minutesInGame"),
+                        lastSessionEnd > 0 ? LocalDateTime.ofInstant(Instant.ofEpochSecond(lastSessionEnd), ZoneId.systemDefault()) : null));
+            }
+
+        } catch (SQLException e) {
+            log.warn("Could not read GOG Galaxy play times: {}", e.getMessage());
+        }
+
+        return playTimes;
+    }
+
+    private Map<String, LocalDateTime> queryLastPlayedDates(Connection connection) {
+
+        Map<String, LocalDateTime> lastPlayedDates = new HashMap<>();
+
+        try (PreparedStatement statement = connection.prepareStatement(LAST_PLAYED_DATES);
+             ResultSet resultSet = statement.executeQuery()) {
+
+            while (resultSet.next()) {
+                LocalDateTime lastPlayed = parseUtc(resultSet.getString("lastPlayedDate"));
+                if (lastPlayed != null) lastPlayedDates.put(resultSet.getString("gameReleaseKey"), lastPlayed);
+            }
+
+        } catch (SQLException e) {
+            log.warn("Could not read GOG Galaxy last played dates: {}", e.getMessage());
+        }
+
+        return lastPlayedDates;
+    }
+
+    /**
+     * Galaxy stores {@code yyyy-MM-dd HH:mm:ss} in UTC
+     */
+    private static LocalDateTime parseUtc(String value) {
+
+        if (value == null || value.length() < 19) return null;
+
+        try {
+            LocalDateTime utc = LocalDateTime.parse(value.substring(0, 19).replace(' ', 'T'));
+            return LocalDateTime.ofInstant(utc.toInstant(ZoneOffset.UTC), ZoneId.systemDefault());
+        } catch (DateTimeParseException e) {
+            log.debug("Could not parse GOG Galaxy last played date {}", value);
+            return null;
+        }
+    }
+
+    private HikariDataSource pool(Path database) {
+        return pools.computeIfAbsent(database.toAbsolutePath().normalize(), path -> {
+
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("galaxy-db-" + pools.size());
+            config.setJdbcUrl("jdbc:sqlite:" + path);
+            config.setMaximumPoolSize(POOL_SIZE);
+            config.setMinimumIdle(0);
+            config.setIdleTimeout(IDLE_TIMEOUT_MILLIS);
+            config.setConnectionTimeout(BUSY_TIMEOUT_MILLIS);
+            // A missing database surfaces as a failed scan, not as a failed application start
+            config.setInitializationFailTimeout(-1);
+            config.addDataSourceProperty("open_mode", OPEN_READONLY);
+            config.addDataSourceProperty("busy_timeout", String.valueOf(BUSY_TIMEOUT_MILLIS));
+
+            return new HikariDataSource(config);
+        });
+    }
+
+    @PreDestroy
+    void close() {
+        pools.values().forEach(HikariDataSource::close);
+        pools.clear();
+    }
+
+    private record InstalledRow(String productId, String title, Path installPath) {
+    }
+
+    private record PlayTime(int minutes, LocalDateTime lastSessionEnd) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.pantheon.backend.external.scanner.local;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Checks whether a batch of install directories exists with one directory listing per parent directory, instead of
+ * a stat per game. Launchers install most games below one or two roots, so a library of hundreds of games costs a
+ * handful of listings.
+ */
+@Slf4j
+final class InstallDirectories {
+
+    private InstallDirectories() {
+    }
+
+    /**
+     * @param paths the install directories to check
+     * @return the ones that exist
+     */
+    static Set<Path> existing(Collection<Path> paths) {
+
+        Map<Path, List<Path>> byParent = new LinkedHashMap<>();
+        Set<Path> existing = new HashSet<>();
+
+        for (Path path : paths) {
+            Path parent = path.getParent();
+            if (parent == null) {
+                if (Files.exists(path)) existing.add(path);
+            } else {
+                byParent.computeIfAbsent(parent, _ -> new ArrayList<>()).add(path);
+            }
+        }
+
+        for (Map.Entry<Path, List<Path>> entry : byParent.entrySet()) {
+
+            Set<Path> children = new HashSet<>();
+
+            try (Stream<Path> files = Files.list(entry.getKey())) {
+                files.forEach(children::add);
+            } catch (IOException e) {
+                log.debug("Could not list install directory {}: {}", entry.getKey(), e.getMessage());
+                continue;
+            }
+
+            for (Path path : entry.getValue()) {
+                if (children.contains(path)) existing.add(path);
+            }
+        }
+
+        return existing;
+    }
+}
@@ -1,21 +1,102 @@
 package com.pantheon.backend.external.scanner.local;
 
 import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Reads the Epic Games Launcher's {@code Manifests/*.item} files, one JSON document per installed app.
+ * <p>
+ * A library path is either a directory holding a {@code Manifests} directory (and optionally a
+ * {@code LauncherInstalled.dat}), or an install root such as {@code C:/Program Files/Epic Games}. In the latter case the
+ * manifests of the launcher's data directory are read and only the games installed below the library path are
+ * reported.
+ * </p>
+ * <p>
+ * Manifests are read with a streaming JSON parser that only keeps the handful of top-level properties we need and
+ * skips everything else, and are parsed in parallel. {@code LauncherInstalled.dat} is the launcher's own list of
+ * installed apps; when present it decides the install location and whether a game counts as installed. Install
+ * directories are checked in batches with a single directory listing per parent directory.
+ * </p>
+ * <p>
+ * Incremental scans still read every manifest, but remember which manifests reported a game for the library path, so
+ * that games whose manifest disappeared, or that were moved out of an install root, are reported as removed.
+ * </p>
+ */
+@Slf4j
 @Component
 class LocalEpicLibraryScanner extends LocalGameLibraryScanner {
 
-    @Autowired
+    private static final String MANIFESTS_DIR = "Manifests";
+    private static final String ITEM_EXT = ".item";
+    private static final String LAUNCHER_INSTALLED_FILE = "LauncherInstalled.dat";
+    private static final String LAUNCHER_DATA_DIR = "EpicGamesLauncher/Data";
+    private static final String UNREAL_LAUNCHER_DIR = "UnrealEngineLauncher";
+    private static final String GAMES_CATEGORY = "games";
+
+    private static final int INSTALL_CHECK_BATCH = 64;
+
+    private static final JsonFactory JSON = JsonFactory.builder().build();
+
+    private final int parallelism;
+    private final Path dataDirectory;
+    private final ManifestFingerprintStore manifestFingerprintStore;
+
     protected LocalEpicLibraryScanner(PlatformRepository platformRepository) {
+        this(platformRepository, 1, null);
+    }
+
+    protected LocalEpicLibraryScanner(PlatformRepository platformRepository, int parallelism, String dataDirectory) {
+        this(platformRepository, parallelism, dataDirectory, null);
+    }
+
+    /**
+     * @param parallelism              maximum number of manifests parsed at once, 1 or less parses them one at a time
+     * @param dataDirectory            the launcher's data directory (holding {@code EpicGamesLauncher} and
+     *                                 {@code UnrealEngineLauncher}), used for library paths that are install roots
+     * @param manifestFingerprintStore manifests that reported a game on previous scans, {@code null} disables reporting
+     *                                 removed games
+     */
+    @Autowired
+    protected LocalEpicLibraryScanner(PlatformRepository platformRepository,
+                                      @Qualifier("scannerParallelism") int parallelism,
+                                      @Qualifier("epicDataDirectory") String dataDirectory,
+                                      ManifestFingerprintStore manifestFingerprintStore) {
         super(platformRepository);
+        this.parallelism = parallelism;
+        this.dataDirectory = dataDirectory == null || dataDirectory.isBlank() ? null : Path.of(dataDirectory);
+        this.manifestFingerprintStore = manifestFingerprintStore;
     }
 
     @Override
@@ -24,7 +105,354 @@ class LocalEpicLibraryScanner extends LocalGameLibraryScanner {
     }
 
     @Override
-    public List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException {
-        return List.of();
+    public void scan(Path libraryPath, Consumer<? super ScannedLocalGameDTO> sink) throws ScanFailureException {
+        scanAll(libraryPath, ScanMonitor.NONE, sink);
+    }
+
+    /**
+     * Hands every game to the sink like {@link #scan(Path, Consumer)} does, and reports the games whose manifest reported
+     * them on the previous scan of the library path but no longer exists, or no longer describes a game below it.
+     */
+    @Override
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
+
+        Platform platform = getPlatform();
+
+        monitor.checkCancelled();
+
+        if (manifestFingerprintStore == null || platform == null || platform.getId() == null) {
+            scanAll(libraryPath, monitor, sink);
+            return LocalScanDeltaDTO.full(List.of());
+        }
+
+        Map<String, ManifestFingerprintDTO> known = manifestFingerprintStore.load(platform.getId(), libraryPath.toString());
+
+        ManifestScan scan = scanAll(libraryPath, monitor, sink);
+
+        // Most likely an unmounted drive, which must not be mistaken for every game being uninstalled
+        if (scan == null) return LocalScanDeltaDTO.full(List.of());
+
+        Set<String> reportedGameIds = new HashSet<>();
+        scan.reported().forEach(fingerprint -> reportedGameIds.add(fingerprint.platformGameId()));
+
+        List<String> removedPaths = new ArrayList<>();
+        List<String> removedGameIds = new ArrayList<>();
+
+        for (ManifestFingerprintDTO fingerprint : known.values()) {
+
+            // A manifest that could not be read this time keeps its game
+            if (scan.listed().contains(fingerprint.path()) && !scan.skipped().contains(fingerprint.path())) continue;
+
+            removedPaths.add(fingerprint.path());
+
+            // Reinstalling writes a new manifest for the same app
+            String platformGameId = fingerprint.platformGameId();
+            if (platformGameId != null && !reportedGameIds.contains(platformGameId)) removedGameIds.add(platformGameId);
+        }
+
+        // Manifest paths are unique across install roots too, a game is installed below one of them at a time
+        manifestFingerprintStore.commit(platform.getId(), libraryPath.toString(), scan.reported(), removedPaths);
+
+        log.info("Epic: {} reported, {} removed manifests in {}", scan.reported().size(), removedGameIds.size(), libraryPath);
+
+        return new LocalScanDeltaDTO(List.of(), removedGameIds, 0);
+    }
+
+    @Override
+    public void forgetChanges(Path libraryPath) {
+
+        Platform platform = getPlatform();
+
+        if (manifestFingerprintStore != null && platform != null && platform.getId() != null) {
+            manifestFingerprintStore.invalidate(platform.getId(), libraryPath.toString());
+        }
+    }
+
+    /**
+     * Games of a path holding the manifests may be installed anywhere, those of an install root are below it
+     */
+    @Override
+    public Path getInstallRoot(Path libraryPath) {
+        if (Files.isDirectory(libraryPath.resolve(MANIFESTS_DIR)) || dataDirectory == null) return null;
+        return libraryPath.toAbsolutePath().normalize();
+    }
+
+    /**
+     * @return the manifests read, {@code null} when there is no manifests directory to read them from
+     */
+    private ManifestScan scanAll(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
+
+        log.info("🔎 Epic Scanner: Scanning directory {}", libraryPath);
+
+        Path manifestsPath = libraryPath.resolve(MANIFESTS_DIR);
+        Path launcherInstalledPath = libraryPath.resolve(LAUNCHER_INSTALLED_FILE);
+        boolean installRoot = false;
+
+        if (!Files.isDirectory(manifestsPath) && dataDirectory != null) {
+            manifestsPath = dataDirectory.resolve(LAUNCHER_DATA_DIR).resolve(MANIFESTS_DIR);
+            launcherInstalledPath = dataDirectory.resolve(UNREAL_LAUNCHER_DIR).resolve(LAUNCHER_INSTALLED_FILE);
+            installRoot = true;
+        }
+
+        if (!Files.isDirectory(manifestsPath)) {
+            log.warn("Epic library path valid, but '{}' directory not found for {}", MANIFESTS_DIR, libraryPath);
+            return null;
+        }
+
+        List<Path> manifests = listManifests(manifestsPath);
+        ManifestScan scan = new ManifestScan(new HashSet<>(), new HashSet<>(), new ArrayList<>());
+        manifests.forEach(manifest -> scan.listed().add(manifest.toAbsolutePath().toString()));
+        Map<String, Path> launcherInstalled = readLauncherInstalled(launcherInstalledPath);
+
+        Path root = libraryPath.toAbsolutePath().normalize();
+        boolean onlyBelowRoot = installRoot;
+        List<EpicManifest> batch = new ArrayList<>(INSTALL_CHECK_BATCH);
+
+        ParallelManifestParser.parseEach(manifests, parallelism, LocalEpicLibraryScanner::readManifest, manifest -> {
+
+            if (!manifest.isGame()) {
+                log.debug("Skipping Epic app {}, not a base game", manifest.appName());
+                scan.skipped().add(manifest.fingerprint().path());
+                return;
+            }
+
+            if (onlyBelowRoot && !installLocation(manifest, launcherInstalled).toAbsolutePath().normalize().startsWith(root)) {
+                scan.skipped().add(manifest.fingerprint().path());
+                return;
+            }
+
+            scan.reported().add(manifest.fingerprint());
+            batch.add(manifest);
+
+            if (batch.size() >= INSTALL_CHECK_BATCH) {
+                emit(batch, launcherInstalled, sink);
+                batch.clear();
+            }
+        }, monitor);
+
+        emit(batch, launcherInstalled, sink);
+
+        return scan;
+    }
+
+    private void emit(List<EpicManifest> batch, Map<String, Path> launcherInstalled, Consumer<? super ScannedLocalGameDTO> sink) {
+
+        if (batch.isEmpty()) return;
+
+        List<Path> locations = batch.stream().map(manifest -> installLocation(manifest, launcherInstalled)).toList();
+        Set<Path> existing = InstallDirectories.existing(locations);
+
+        for (int i = 0; i < batch.size(); i++) {
+
+            EpicManifest manifest = batch.get(i);
+            Path location = locations.get(i);
+
+            boolean isInstalled = existing.contains(location)
+                    && !manifest.incomplete()
+                    && (launcherInstalled == null || launcherInstalled.containsKey(manifest.appName()));
+
+            sink.accept(ScannedLocalGameDTO.builder()
+                    .title(manifest.displayName())
+                    .platformGameId(manifest.appName())
+                    .platformName("Epic")
+                    .platformType(PlatformType.API)
+                    .installPath(location.toString())
+                    .isInstalled(isInstalled)
+                    .downloadSize(manifest.installSize())
+                    .playtimeMinutes(0)
+                    .build());
+        }
+    }
+
+    /**
+     * The launcher's list of installed apps knows where a game lives if it was moved after installing
+     */
+    private static Path installLocation(EpicManifest manifest, Map<String, Path> launcherInstalled) {
+        Path installed = launcherInstalled == null ? null : launcherInstalled.get(manifest.appName());
+        return installed != null ? installed : manifest.installLocation();
+    }
+
+    private List<Path> listManifests(Path manifestsPath) throws ScanFailureException {
+
+        try (Stream<Path> files = Files.list(manifestsPath)) {
+            List<Path> manifests = files
+                    .filter(file -> file.getFileName().toString().endsWith(ITEM_EXT))
+                    .sorted()
+                    .toList();
+
+            log.info("Found {} manifest files in {}", manifests.size(), manifestsPath);
+
+            return manifests;
+
+        } catch (IOException e) {
+            throw new ScanFailureException("Failed to list files in Epic library: " + e.getMessage(), e);
+        }
+    }
+
+    private static EpicManifest readManifest(Path manifestPath) throws IOException {
+
+        log.debug("Parsing Epic manifest file {}", manifestPath);
+
+        String appName = null;
+        String displayName = null;
+        String installLocation = null;
+        String mainGameAppName = null;
+        long installSize = 0;
+        boolean incomplete = false;
+        List<String> categories = List.of();
+
+        BasicFileAttributes attributes = Files.readAttributes(manifestPath, BasicFileAttributes.class);
+
+        try (InputStream stream = Files.newInputStream(manifestPath);
+             JsonParser parser = JSON.createParser(ObjectReadContext.empty(), stream)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                log.warn("Skipping invalid manifest {}: Not a JSON object", manifestPath.getFileName());
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+
+                String property = parser.currentName();
+                parser.nextToken();
+
+                switch (property) {
+                    case "AppName" -> appName = parser.getValueAsString();
+                    case "DisplayName" -> displayName = parser.getValueAsString();
+                    case "InstallLocation" -> installLocation = parser.getValueAsString();
+                    case "MainGameAppName" -> mainGameAppName = parser.getValueAsString();
+                    case "InstallSize" -> installSize = parser.getValueAsLong(0);
+                    case "bIsIncompleteInstall" -> incomplete = parser.getValueAsBoolean(false);
+                    case "AppCategories" -> categories = readStrings(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+
+        } catch (JacksonException e) {
+            throw new IOException("Malformed JSON: " + e.getOriginalMessage(), e);
+        }
+
+        if (appName == null || displayName == null || installLocation == null) {
+            log.warn("Skipping invalid manifest {}: Missing AppName, DisplayName or InstallLocation", manifestPath.getFileName());
+            return null;
+        }
+
+        // Manifests are read in full on every scan, the fingerprint only remembers which game a manifest reported
+        ManifestFingerprintDTO fingerprint = ManifestFingerprintDTO.builder()
+                .path(manifestPath.toAbsolutePath().toString())
+                .platformGameId(appName)
+                .lastModified(attributes.lastModifiedTime().toMillis())
+                .fileSize(attributes.size())
+                .build();
+
+        try {
+            return new EpicManifest(appName, displayName, Path.of(installLocation), mainGameAppName, installSize, incomplete,
+                    categories, fingerprint);
+        } catch (InvalidPathException e) {
+            log.warn("Skipping invalid manifest {}: Bad InstallLocation {}", manifestPath.getFileName(), installLocation);
+            return null;
+        }
+    }
+
+    private static List<String> readStrings(JsonParser parser) {
+
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return List.of();
+        }
+
+        List<String> values = new ArrayList<>();
+
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (parser.currentToken().isScalarValue()) {
+                values.add(parser.getValueAsString());
+            } else {
+                parser.skipChildren();
+            }
+        }
+
+        return values;
+    }
+
+    /**
+     * @return the install location of every app the launcher considers installed, {@code null} when unknown
+     */
+    private static Map<String, Path> readLauncherInstalled(Path launcherInstalledPath) {
+
+        if (!Files.isRegularFile(launcherInstalledPath)) return null;
+
+        Map<String, Path> installed = new HashMap<>();
+
+        try (InputStream stream = Files.newInputStream(launcherInstalledPath);
+             JsonParser parser = JSON.createParser(ObjectReadContext.empty(), stream)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+            while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+
+                String property = parser.currentName();
+                parser.nextToken();
+
+                if (!"InstallationList".equals(property) || parser.currentToken() != JsonToken.START_ARRAY) {
+                    parser.skipChildren();
+                    continue;
+                }
+
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+
+                    String appName = null;
+                    String installLocation = null;
+
+                    while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+                        String field = parser.currentName();
+                        parser.nextToken();
+                        switch (field) {
+                            case "AppName" -> appName = parser.getValueAsString();
+                            case "InstallLocation" -> installLocation = parser.getValueAsString();
+                            default -> parser.skipChildren();
+                        }
+                    }
+
+                    if (appName == null || installLocation == null) continue;
+
+                    try {
+                        installed.put(appName, Path.of(installLocation));
+                    } catch (InvalidPathException e) {
+                        log.debug("Ignoring bad install location of Epic app {}: {}", appName, installLocation);
+                    }
+                }
+            }
+
+        } catch (IOException | JacksonException e) {
+            log.warn("Could not read {}, relying on manifests only: {}", launcherInstalledPath, e.getMessage());
+            return null;
+        }
+
+        log.info("Epic launcher lists {} installed apps", installed.size());
+
+        return installed;
+    }
+
+    /**
+     * @param listed   paths of the manifests found
+     * @param skipped  paths of the manifests that were read but describe no game below the library path
+     * @param reported fingerprints of the manifests whose game was handed to the sink
+     */
+    private record ManifestScan(Set<String> listed, Set<String> skipped, List<ManifestFingerprintDTO> reported) {
+    }
+
+    private record EpicManifest(String appName, String displayName, Path installLocation, String mainGameAppName,
+                                long installSize, boolean incomplete, List<String> categories,
+                                ManifestFingerprintDTO fingerprint) {
+
+        /**
+         * DLCs point at their base game, and the launcher also installs engines and plugins
+         */
+        private boolean isGame() {
+            boolean baseGame = mainGameAppName == null || mainGameAppName.isEmpty() || mainGameAppName.equals(appName);
+            return baseGame && (categories.isEmpty() || categories.contains(GAMES_CATEGORY));
+        }
     }
 }
@@ -1,19 +1,97 @@
 package com.pantheon.backend.external.scanner.local;
 
 import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.core.ObjectReadContext;
+import tools.jackson.core.json.JsonFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
+/**
+ * Finds GOG games through the GOG Galaxy 2.0 index, falling back to the {@code goggame-*.info} files of games that
+ * Galaxy does not know about (e.g. installed with offline installers).
+ * <p>
+ * A library path is either the Galaxy {@code storage} directory holding {@code galaxy-2.0.db}, or an install root such
+ * as {@code C:/GOG Games}. For an install root the configured Galaxy database is read and only the games installed
+ * below the root are reported; the root's game folders that Galaxy does not list are then checked for info files.
+ * </p>
+ * <p>
+ * The database is read in a few set-based queries by {@link GalaxyDatabaseReader}, so a library costs one pass over the
+ * index rather than a read per game folder.
+ * </p>
+ * <p>
+ * GOG has no manifest per game, so incremental scans still read everything. They remember the products reported for
+ * the library path instead, so that games Galaxy no longer lists as installed, or whose info file is gone, are reported
+ * as removed.
+ * </p>
+ */
+@Slf4j
 @Component
 class LocalGogLibraryScanner extends LocalGameLibraryScanner {
 
+    private static final String GALAXY_DB_FILE = "galaxy-2.0.db";
+    private static final String INFO_FILE_GLOB = "goggame-*.info";
+
+    private static final int INSTALL_CHECK_BATCH = 64;
+
+    private static final JsonFactory JSON = JsonFactory.builder().build();
+
+    private final int parallelism;
+    private final GalaxyDatabaseReader galaxyDatabaseReader;
+    private final Path galaxyDatabase;
+    private final ManifestFingerprintStore manifestFingerprintStore;
+
     protected LocalGogLibraryScanner(PlatformRepository platformRepository) {
+        this(platformRepository, 1, null, null);
+    }
+
+    protected LocalGogLibraryScanner(PlatformRepository platformRepository, int parallelism,
+                                     GalaxyDatabaseReader galaxyDatabaseReader, String galaxyDatabase) {
+        this(platformRepository, parallelism, galaxyDatabaseReader, galaxyDatabase, null);
+    }
+
+    /**
+     * @param parallelism              maximum number of info files parsed at once, 1 or less parses them one at a time
+     * @param galaxyDatabaseReader     reads the Galaxy index, {@code null} only uses info files
+     * @param galaxyDatabase           the Galaxy index used for library paths that are install roots
+     * @param manifestFingerprintStore products reported on previous scans, {@code null} disables reporting removed games
+     */
+    @Autowired
+    protected LocalGogLibraryScanner(PlatformRepository platformRepository,
+                                     @Qualifier("scannerParallelism") int parallelism,
+                                     GalaxyDatabaseReader galaxyDatabaseReader,
+                                     @Qualifier("gogGalaxyDatabase") String galaxyDatabase,
+                                     ManifestFingerprintStore manifestFingerprintStore) {
         super(platformRepository);
+        this.parallelism = parallelism;
+        this.galaxyDatabaseReader = galaxyDatabaseReader;
+        this.galaxyDatabase = galaxyDatabase == null || galaxyDatabase.isBlank() ? null : Path.of(galaxyDatabase);
+        this.manifestFingerprintStore = manifestFingerprintStore;
     }
 
     @Override
@@ -22,7 +100,226 @@ class LocalGogLibraryScanner extends LocalGameLibraryScanner {
     }
 
     @Override
-    public List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException {
-        return List.of();
+    public void scan(Path libraryPath, Consumer<? super ScannedLocalGameDTO> sink) throws ScanFailureException {
+        scanAll(libraryPath, ScanMonitor.NONE, sink);
+    }
+
+    /**
+     * Hands every game to the sink like {@link #scan(Path, Consumer)} does, and reports the products that were reported
+     * on the previous scan of the library path but are no longer installed in it.
+     */
+    @Override
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
+
+        Platform platform = getPlatform();
+
+        monitor.checkCancelled();
+
+        if (manifestFingerprintStore == null || platform == null || platform.getId() == null) {
+            scanAll(libraryPath, monitor, sink);
+            return LocalScanDeltaDTO.full(List.of());
+        }
+
+        Set<String> known = manifestFingerprintStore.loadProducts(platform.getId(), libraryPath.toString());
+
+        Set<String> reported = new HashSet<>();
+        boolean complete = scanAll(libraryPath, monitor, game -> {
+            reported.add(game.platformGameId());
+            sink.accept(game);
+        });
+
+        List<String> removedGameIds = new ArrayList<>();
+
+        // A partial read, e.g. of an unmounted drive or an unreadable index, must not be mistaken for games being uninstalled
+        if (complete) {
+            for (String productId : known) {
+                if (!reported.contains(productId)) removedGameIds.add(productId);
+            }
+        }
+
+        manifestFingerprintStore.commitProducts(platform.getId(), libraryPath.toString(), reported, removedGameIds);
+
+        log.info("GOG: {} reported, {} removed products in {}", reported.size(), removedGameIds.size(), libraryPath);
+
+        return new LocalScanDeltaDTO(List.of(), removedGameIds, 0);
+    }
+
+    @Override
+    public void forgetChanges(Path libraryPath) {
+
+        Platform platform = getPlatform();
+
+        if (manifestFingerprintStore != null && platform != null && platform.getId() != null) {
+            manifestFingerprintStore.invalidate(platform.getId(), libraryPath.toString());
+        }
+    }
+
+    /**
+     * Games of a Galaxy storage directory may be installed anywhere, those of an install root are below it
+     */
+    @Override
+    public Path getInstallRoot(Path libraryPath) {
+        if (galaxyDatabaseReader != null && Files.isRegularFile(libraryPath.resolve(GALAXY_DB_FILE))) return null;
+        return super.getInstallRoot(libraryPath);
+    }
+
+    /**
+     * @return whether every source of the library path could be read
+     */
+    private boolean scanAll(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
+
+        log.info("🔎 GOG Scanner: Scanning directory {}", libraryPath);
+
+        Path root = libraryPath.toAbsolutePath().normalize();
+        Path storageDatabase = libraryPath.resolve(GALAXY_DB_FILE);
+
+        if (galaxyDatabaseReader != null && Files.isRegularFile(storageDatabase)) {
+            emitGalaxyGames(galaxyDatabaseReader.readInstalledGames(storageDatabase), sink);
+            return true;
+        }
+
+        if (!Files.isDirectory(libraryPath)) {
+            log.warn("GOG library path {} not found", libraryPath);
+            return false;
+        }
+
+        boolean complete = true;
+        Set<Path> covered = new HashSet<>();
+
+        if (galaxyDatabaseReader != null && galaxyDatabase != null && Files.isRegularFile(galaxyDatabase)) {
+            try {
+                List<GalaxyDatabaseReader.InstalledGame> games = galaxyDatabaseReader.readInstalledGames(galaxyDatabase).stream()
+                        .filter(game -> game.installPath().toAbsolutePath().normalize().startsWith(root))
+                        .toList();
+
+                games.forEach(game -> covered.add(game.installPath().toAbsolutePath().normalize()));
+
+                emitGalaxyGames(games, sink);
+
+            } catch (ScanFailureException e) {
+                log.warn("GOG Galaxy database unavailable, falling back to info files: {}", e.getMessage());
+                complete = false;
+            }
+        }
+
+        monitor.checkCancelled();
+
+        List<Path> uncovered = listGameFolders(libraryPath).stream()
+                .filter(folder -> !covered.contains(folder.toAbsolutePath().normalize()))
+                .toList();
+
+        AtomicBoolean unreadable = new AtomicBoolean();
+
+        ParallelManifestParser.parseEach(uncovered, parallelism, folder -> {
+            try {
+                return readGameInfo(folder);
+            } catch (IOException e) {
+                unreadable.set(true);
+                throw e;
+            }
+        }, sink, monitor);
+
+        return complete && !unreadable.get();
+    }
+
+    private void emitGalaxyGames(List<GalaxyDatabaseReader.InstalledGame> games, Consumer<? super ScannedLocalGameDTO> sink) {
+
+        for (int from = 0; from < games.size(); from += INSTALL_CHECK_BATCH) {
+
+            List<GalaxyDatabaseReader.InstalledGame> batch = games.subList(from, Math.min(games.size(), from + INSTALL_CHECK_BATCH));
+            Set<Path> existing = InstallDirectories.existing(batch.stream().map(GalaxyDatabaseReader.InstalledGame::installPath).toList());
+
+            for (GalaxyDatabaseReader.InstalledGame game : batch) {
+
+                String title = game.title() != null ? game.title() : String.valueOf(game.installPath().getFileName());
+
+                sink.accept(ScannedLocalGameDTO.builder()
+                        .title(title)
+                        .platformGameId(game.productId())
+                        .platformName("GOG")
+                        .platformType(PlatformType.API)
+                        .installPath(game.installPath().toString())
+                        .isInstalled(existing.contains(game.installPath()))
+                        .lastPlayed(game.lastPlayed())
+                        .playtimeMinutes(game.playtimeMinutes() != null ? game.playtimeMinutes() : 0)
+                        .build());
+            }
+        }
+    }
+
+    private List<Path> listGameFolders(Path libraryPath) throws ScanFailureException {
+
+        try (Stream<Path> files = Files.list(libraryPath)) {
+            return files.filter(Files::isDirectory).sorted().toList();
+        } catch (IOException e) {
+            throw new ScanFailureException("Failed to list folders in GOG library: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * A game folder holds one info file per installed product, DLCs point at their base game through rootGameId
+     *
+     * @return the base game of the folder, {@code null} when it has no info file
+     */
+    private static ScannedLocalGameDTO readGameInfo(Path gameFolder) throws IOException {
+
+        List<Path> infoFiles = new ArrayList<>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(gameFolder, INFO_FILE_GLOB)) {
+            files.forEach(infoFiles::add);
+        }
+
+        infoFiles.sort(null);
+
+        for (Path infoFile : infoFiles) {
+
+            String gameId = null;
+            String rootGameId = null;
+            String name = null;
+
+            try (InputStream stream = Files.newInputStream(infoFile);
+                 JsonParser parser = JSON.createParser(ObjectReadContext.empty(), stream)) {
+
+                if (parser.nextToken() != JsonToken.START_OBJECT) continue;
+
+                while (parser.nextToken() == JsonToken.PROPERTY_NAME) {
+
+                    String property = parser.currentName();
+                    parser.nextToken();
+
+                    switch (property) {
+                        case "gameId" -> gameId = parser.getValueAsString();
+                        case "rootGameId" -> rootGameId = parser.getValueAsString();
+                        case "name" -> name = parser.getValueAsString();
+                        default -> parser.skipChildren();
+                    }
+                }
+
+            } catch (JacksonException e) {
+                log.warn("Skipping invalid info file {}: {}", infoFile.getFileName(), e.getOriginalMessage());
+                continue;
+            }
+
+            if (gameId == null || name == null) {
+                log.warn("Skipping invalid info file {}: Missing gameId or name", infoFile.getFileName());
+                continue;
+            }
+
+            if (rootGameId != null && !rootGameId.equals(gameId)) continue;
+
+            return ScannedLocalGameDTO.builder()
+                    .title(name)
+                    .platformGameId(gameId)
+                    .platformName("GOG")
+                    .platformType(PlatformType.API)
+                    .installPath(gameFolder.toString())
+                    .isInstalled(true)
+                    .playtimeMinutes(0)
+                    .build();
+        }
+
+        return null;
     }
 }
@@ -1,26 +1,41 @@
 package com.pantheon.backend.external.scanner.local;
 
 import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
 
 @Slf4j
 @Component
@@ -31,10 +46,26 @@ class LocalSteamLibraryScanner extends LocalGameLibraryScanner {
     private static final String MANIFEST_PREFIX = "appmanifest_";
     private static final String MANIFEST_EXT = ".acf";
 
-    private static final Pattern VDF_PAIR_PATTERN = Pattern.compile("\"([^\"]+)\"\\s+\"([^\"]+)\"");
+    private static final String[] MANIFEST_KEYS = {"appid", "name", "installdir", "lastplayed", "sizeondisk"};
+
+    private final int parallelism;
+    private final ManifestFingerprintStore manifestFingerprintStore;
 
     protected LocalSteamLibraryScanner(PlatformRepository platformRepository) {
+        this(platformRepository, 1, null);
+    }
+
+    /**
+     * @param parallelism              maximum number of manifests parsed at once, 1 or less parses them one at a time
+     * @param manifestFingerprintStore fingerprints of previously scanned manifests, {@code null} disables incremental scans
+     */
+    @Autowired
+    protected LocalSteamLibraryScanner(PlatformRepository platformRepository,
+                                       @Qualifier("scannerParallelism") int parallelism,
+                                       ManifestFingerprintStore manifestFingerprintStore) {
         super(platformRepository);
+        this.parallelism = parallelism;
+        this.manifestFingerprintStore = manifestFingerprintStore;
     }
 
     @Override
@@ -43,65 +74,253 @@ class LocalSteamLibraryScanner extends LocalGameLibraryScanner {
     }
 
     @Override
-    public List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException {
+    public void scan(Path libraryPath, Consumer<? super ScannedLocalGameDTO> sink) throws ScanFailureException {
+        scanAll(libraryPath, ScanMonitor.NONE, sink);
+    }
+
+    private void scanAll(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
         log.info("🔎 Steam Scanner: Scanning directory {}", libraryPath);
 
         Path steamAppsPath = libraryPath.resolve(STEAMAPPS_DIR);
         if (!Files.exists(steamAppsPath) || !Files.isDirectory(steamAppsPath)) {
             log.warn("Steam library path valid, but '{}' directory not found at {}", STEAMAPPS_DIR, libraryPath);
-            return List.of();
+            return;
         }
 
-        List<ScannedLocalGameDTO> foundGames = new ArrayList<>();
+        List<Path> manifests = listManifests(steamAppsPath);
 
-        try (Stream<Path> files = Files.list(steamAppsPath)) {
-            List<Path> manifests = files
-                    .filter(path -> {
-                        String fileName = path.getFileName().toString();
-                        return fileName.startsWith(MANIFEST_PREFIX) && fileName.endsWith(MANIFEST_EXT);
-                    })
-                    .toList();
+        ParallelManifestParser.parseEach(manifests, parallelism, manifest -> parseManifest(manifest, libraryPath), sink, monitor);
+    }
 
-            log.info("Found {} manifest files in {}", manifests.size(), steamAppsPath);
+    /**
+     * Only reads manifests whose mtime or size differ from their stored fingerprint, and only reports the ones whose
+     * content hash changed as well, handing them to the sink as they are parsed. Manifests that disappeared are
+     * reported as removed games.
+     */
+    @Override
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanFailureException {
 
-            // 3. Process each manifest
-            for (Path manifest : manifests) {
-                try {
-                    ScannedLocalGameDTO game = parseManifest(manifest, libraryPath);
+        Platform platform = getPlatform();
 
-                    if (game != null) foundGames.add(game);
+        if (manifestFingerprintStore == null || platform == null || platform.getId() == null) {
+            monitor.checkCancelled();
+            scanAll(libraryPath, monitor, sink);
+            return LocalScanDeltaDTO.full(List.of());
+        }
 
-                } catch (IOException ioe) {
-                    log.error("Failed to parse Steam manifest: {}. Error: {}", manifest.getFileName(), ioe.getMessage());
+        monitor.checkCancelled();
+
+        log.info("🔎 Steam Scanner: Scanning directory {} for changes", libraryPath);
+
+        Path steamAppsPath = libraryPath.resolve(STEAMAPPS_DIR);
+        if (!Files.isDirectory(steamAppsPath)) {
+            // Most likely an unmounted drive, which must not be mistaken for every game being uninstalled
+            log.warn("Steam library path valid, but '{}' directory not found at {}", STEAMAPPS_DIR, libraryPath);
+            return LocalScanDeltaDTO.full(List.of());
+        }
+
+        Map<String, ManifestFingerprintDTO> known = manifestFingerprintStore.load(platform.getId(), libraryPath.toString());
+
+        Set<String> seen = new HashSet<>();
+        List<Path> candidates = new ArrayList<>();
+        int unchanged = 0;
+
+        for (Path manifest : listManifests(steamAppsPath)) {
+
+            String key = manifest.toAbsolutePath().toString();
+            seen.add(key);
+
+            ManifestFingerprintDTO fingerprint = known.get(key);
+
+            if (fingerprint != null) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(manifest, BasicFileAttributes.class);
+                    if (fingerprint.matchesMetadata(attributes.lastModifiedTime().toMillis(), attributes.size())) {
+                        unchanged++;
+                        continue;
+                    }
+                } catch (IOException e) {
+                    log.debug("Could not stat Steam manifest {}: {}", manifest.getFileName(), e.getMessage());
                 }
             }
 
+            candidates.add(manifest);
+        }
+
+        List<String> removedPaths = new ArrayList<>();
+
+        for (ManifestFingerprintDTO fingerprint : known.values()) {
+            if (!seen.contains(fingerprint.path())) removedPaths.add(fingerprint.path());
+        }
+
+        return reconcile(platform, libraryPath, known, candidates, removedPaths, unchanged, monitor, sink);
+    }
+
+    /**
+     * Only reads the given manifests; the ones that no longer exist are reported as removed games. Files that are not
+     * manifests of this library path are ignored.
+     */
+    @Override
+    public LocalScanDeltaDTO scanChanges(Path libraryPath, Collection<Path> changedFiles) throws ScanFailureException {
+
+        Platform platform = getPlatform();
+
+        if (manifestFingerprintStore == null || platform == null || platform.getId() == null) {
+            return super.scanChanges(libraryPath, changedFiles);
+        }
+
+        Path steamAppsPath = libraryPath.resolve(STEAMAPPS_DIR);
+        if (!Files.isDirectory(steamAppsPath)) {
+            log.warn("Steam library path valid, but '{}' directory not found at {}", STEAMAPPS_DIR, libraryPath);
+            return LocalScanDeltaDTO.full(List.of());
+        }
+
+        Map<String, ManifestFingerprintDTO> known = manifestFingerprintStore.load(platform.getId(), libraryPath.toString());
+
+        List<Path> candidates = new ArrayList<>();
+        List<String> removedPaths = new ArrayList<>();
+
+        for (Path file : new TreeSet<>(changedFiles)) {
+
+            if (!steamAppsPath.equals(file.getParent()) || !isManifest(file)) continue;
+
+            if (Files.isRegularFile(file)) {
+                candidates.add(file);
+            } else if (known.containsKey(file.toAbsolutePath().toString())) {
+                removedPaths.add(file.toAbsolutePath().toString());
+            }
+        }
+
+        List<ScannedLocalGameDTO> changed = new ArrayList<>();
+        LocalScanDeltaDTO delta = reconcile(platform, libraryPath, known, candidates, removedPaths, 0, ScanMonitor.NONE, changed::add);
+
+        return new LocalScanDeltaDTO(changed, delta.removedPlatformGameIds(), delta.unchanged());
+    }
+
+    @Override
+    public List<Path> getWatchDirectories(Path libraryPath) {
+        return List.of(libraryPath.resolve(STEAMAPPS_DIR));
+    }
+
+    /**
+     * Parses the candidate manifests, hands the ones whose content hash differs from the known fingerprint to the sink
+     * and commits the new fingerprints of the library path. Nothing is committed when the scan gets cancelled.
+     */
+    private LocalScanDeltaDTO reconcile(Platform platform, Path libraryPath, Map<String, ManifestFingerprintDTO> known,
+                                        List<Path> candidates, List<String> removedPaths, int unchanged,
+                                        ScanMonitor monitor, Consumer<? super ScannedLocalGameDTO> sink)
+            throws ScanCancelledException {
+
+        List<ManifestFingerprintDTO> fingerprints = new ArrayList<>(candidates.size());
+        // changed and unchanged manifests, the consumer runs on this thread
+        int[] counts = {0, unchanged};
+
+        ParallelManifestParser.parseEach(candidates, parallelism, manifest -> parseFingerprintedManifest(manifest, libraryPath),
+                manifest -> {
+
+                    fingerprints.add(manifest.fingerprint());
+
+                    ManifestFingerprintDTO previous = known.get(manifest.fingerprint().path());
+
+                    if (previous != null && previous.contentHash() == manifest.fingerprint().contentHash()) {
+                        counts[1]++;
+                    } else if (manifest.game() != null) {
+                        counts[0]++;
+                        sink.accept(manifest.game());
+                    }
+                }, monitor);
+
+        List<String> removedGameIds = new ArrayList<>();
+
+        for (String removedPath : removedPaths) {
+            String platformGameId = known.get(removedPath).platformGameId();
+            if (platformGameId != null) removedGameIds.add(platformGameId);
+        }
+
+        manifestFingerprintStore.commit(platform.getId(), libraryPath.toString(), fingerprints, removedPaths);
+
+        log.info("Steam: {} changed, {} removed, {} unchanged manifests in {}", counts[0], removedGameIds.size(), counts[1], libraryPath);
+
+        return new LocalScanDeltaDTO(List.of(), removedGameIds, counts[1]);
+    }
+
+    @Override
+    public void forgetChanges(Path libraryPath) {
+
+        Platform platform = getPlatform();
+
+        if (manifestFingerprintStore != null && platform != null && platform.getId() != null) {
+            manifestFingerprintStore.invalidate(platform.getId(), libraryPath.toString());
+        }
+    }
+
+    private List<Path> listManifests(Path steamAppsPath) throws ScanFailureException {
+
+        try (Stream<Path> files = Files.list(steamAppsPath)) {
+            List<Path> manifests = files
+                    .filter(LocalSteamLibraryScanner::isManifest)
+                    .sorted()
+                    .toList();
+
+            log.info("Found {} manifest files in {}", manifests.size(), steamAppsPath);
+
+            return manifests;
+
         } catch (IOException e) {
             throw new ScanFailureException("Failed to list files in Steam library: " + e.getMessage(), e);
         }
+    }
 
-        return foundGames;
+    private static boolean isManifest(Path path) {
+        String fileName = path.getFileName().toString();
+        return fileName.startsWith(MANIFEST_PREFIX) && fileName.endsWith(MANIFEST_EXT);
     }
 
-    private ScannedLocalGameDTO parseManifest(Path manifestPath, Path rootLibraryPath) throws IOException {
+    /**
+     * Parses a manifest while hashing its content in the same pass
+     */
+    private ParsedManifest parseFingerprintedManifest(Path manifestPath, Path rootLibraryPath) throws IOException {
 
-        log.info("Parsing Steam manifest file {}", manifestPath);
+        BasicFileAttributes attributes = Files.readAttributes(manifestPath, BasicFileAttributes.class);
+        CRC32C checksum = new CRC32C();
+        Map<String, String> data;
+
+        try (InputStream stream = new CheckedInputStream(Files.newInputStream(manifestPath), checksum);
+             VdfReader reader = VdfReader.acquire()) {
+            data = reader.readRootValues(stream, MANIFEST_KEYS);
+            stream.transferTo(OutputStream.nullOutputStream());
+        }
 
-        List<String> lines = Files.readAllLines(manifestPath);
-        Map<String, String> data = new HashMap<>();
+        ScannedLocalGameDTO game = toScannedGame(data, manifestPath, rootLibraryPath);
 
-        for (String line : lines) {
+        ManifestFingerprintDTO fingerprint = ManifestFingerprintDTO.builder()
+                .path(manifestPath.toAbsolutePath().toString())
+                .platformGameId(game != null ? game.platformGameId() : data.get("appid"))
+                .lastModified(attributes.lastModifiedTime().toMillis())
+                .fileSize(attributes.size())
+                .contentHash(checksum.getValue())
+                .build();
 
-            Matcher matcher = VDF_PAIR_PATTERN.matcher(line.trim());
+        return new ParsedManifest(game, fingerprint);
+    }
 
-            if (matcher.find()) {
-                String key = matcher.group(1).toLowerCase();
-                String value = matcher.group(2);
-                data.put(key, value);
-            }
+    private ScannedLocalGameDTO parseManifest(Path manifestPath, Path rootLibraryPath) throws IOException {
+
+        log.info("Parsing Steam manifest file {}", manifestPath);
 
+        Map<String, String> data;
+
+        try (VdfReader reader = VdfReader.acquire()) {
+            data = reader.readRootValues(manifestPath, MANIFEST_KEYS);
         }
 
+        return toScannedGame(data, manifestPath, rootLibraryPath);
+    }
+
+    private ScannedLocalGameDTO toScannedGame(Map<String, String> data, Path manifestPath, Path rootLibraryPath) {
+
         if (!data.containsKey("appid") || !data.containsKey("name")) {
             log.warn("Skipping invalid manifest {}: Missing appid or name", manifestPath.getFileName());
             return null;
@@ -158,4 +377,7 @@ class LocalSteamLibraryScanner extends LocalGameLibraryScanner {
         return scannedLocalGameDTOBuilder.build();
     }
 
+    private record ParsedManifest(ScannedLocalGameDTO game, ManifestFingerprintDTO fingerprint) {
+    }
+
 }
@@ -0,0 +1,143 @@
+package com.pantheon.backend.external.scanner.local;
+
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Parses a set of manifest files on virtual threads, with at most {@code parallelism} parses in flight.
+ * <p>
+ * Results are handed over in the order of the input files, as soon as they and their predecessors are parsed. At most
+ * {@value #LOOKAHEAD} times {@code parallelism} manifests are parsed ahead of the consumer, so a slow consumer holds
+ * up parsing instead of letting results pile up. A manifest that fails (or yields {@code null}) is logged and left out
+ * without affecting its siblings.
+ * </p>
+ * <p>
+ * Every parse is reported to the {@link ScanMonitor}. Once the monitor is cancelled, the manifests that have not been
+ * started yet are skipped and {@link ScanCancelledException} is thrown after the in-flight ones are done.
+ * </p>
+ */
+@Slf4j
+final class ParallelManifestParser {
+
+    private static final int LOOKAHEAD = 2;
+
+    @FunctionalInterface
+    interface ManifestParser<R> {
+        R parse(Path manifest) throws IOException;
+    }
+
+    private ParallelManifestParser() {
+    }
+
+    static <R> List<R> parseAll(List<Path> manifests, int parallelism, ManifestParser<R> parser) {
+        try {
+            return parseAll(manifests, parallelism, parser, ScanMonitor.NONE);
+        } catch (ScanCancelledException e) {
+            throw new IllegalStateException("Unmonitored parse cannot be cancelled", e);
+        }
+    }
+
+    static <R> List<R> parseAll(List<Path> manifests, int parallelism, ManifestParser<R> parser, ScanMonitor monitor)
+            throws ScanCancelledException {
+        List<R> results = new ArrayList<>(manifests.size());
+        parseEach(manifests, parallelism, parser, results::add, monitor);
+        return results;
+    }
+
+    /**
+     * @param consumer called on the calling thread with every parsed manifest, may block
+     */
+    static <R> void parseEach(List<Path> manifests, int parallelism, ManifestParser<R> parser, Consumer<? super R> consumer,
+                              ScanMonitor monitor) throws ScanCancelledException {
+
+        monitor.onManifestsFound(manifests.size());
+
+        if (parallelism <= 1 || manifests.size() <= 1) {
+            parseSequentially(manifests, parser, consumer, monitor);
+            return;
+        }
+
+        Semaphore permits = new Semaphore(parallelism);
+        int window = parallelism * LOOKAHEAD;
+        Deque<Future<R>> inFlight = new ArrayDeque<>(window);
+
+        // Closing the executor waits for every submitted parse to finish
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+
+            int submitted = 0;
+            int collected = 0;
+
+            while (true) {
+
+                while (submitted < manifests.size() && inFlight.size() < window && !monitor.isCancelled()) {
+                    Path manifest = manifests.get(submitted++);
+                    inFlight.add(executor.submit(() -> {
+                        permits.acquire();
+                        try {
+                            return parser.parse(manifest);
+                        } finally {
+                            permits.release();
+                            monitor.onManifestParsed();
+                        }
+                    }));
+                }
+
+                Future<R> next = inFlight.poll();
+
+                if (next == null) break;
+
+                Path manifest = manifests.get(collected++);
+
+                try {
+                    R result = next.get();
+                    if (result != null) consumer.accept(result);
+                } catch (ExecutionException e) {
+                    logFailure(manifest, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    log.warn("Interrupted while collecting parsed manifests");
+                    inFlight.forEach(future -> future.cancel(true));
+                    break;
+                }
+            }
+        }
+
+        monitor.checkCancelled();
+    }
+
+    private static <R> void parseSequentially(List<Path> manifests, ManifestParser<R> parser, Consumer<? super R> consumer,
+                                              ScanMonitor monitor) throws ScanCancelledException {
+
+        for (Path manifest : manifests) {
+            monitor.checkCancelled();
+            R result;
+            try {
+                result = parser.parse(manifest);
+            } catch (IOException | RuntimeException e) {
+                logFailure(manifest, e);
+                continue;
+            } finally {
+                monitor.onManifestParsed();
+            }
+            if (result != null) consumer.accept(result);
+        }
+    }
+
+    private static void logFailure(Path manifest, Throwable cause) {
+        log.error("Failed to parse manifest: {}. Error: {}", manifest.getFileName(), cause.getMessage());
+    }
+}
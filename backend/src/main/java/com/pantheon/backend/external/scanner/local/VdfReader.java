@@ -0,0 +1,234 @@
+package com.pantheon.backend.external.scanner.local;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Streaming tokenizer for Valve's text KeyValues format (VDF / ACF).
+ * <p>
+ * Reads a file once through a reused byte buffer and only materializes strings for the keys the caller asked for.
+ * Handles nested blocks, quoted and unquoted tokens, escape sequences, {@code //} comments and platform conditionals
+ * such as {@code [$WIN32]}. Only pairs that sit directly inside the root block are returned, so keys of nested
+ * blocks (e.g. {@code UserConfig}) can never shadow the top-level ones.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; obtain one with {@link #acquire()} and close it to hand its buffers back to the pool.
+ * </p>
+ */
+final class VdfReader implements AutoCloseable {
+
+    private static final int IO_BUFFER_SIZE = 8 * 1024;
+    private static final int INITIAL_TOKEN_SIZE = 256;
+    private static final int MAX_POOLED = 64;
+
+    private static final ConcurrentLinkedQueue<VdfReader> POOL = new ConcurrentLinkedQueue<>();
+
+    private enum Token {STRING, OPEN, CLOSE, EOF}
+
+    private final byte[] ioBuffer = new byte[IO_BUFFER_SIZE];
+    private byte[] token = new byte[INITIAL_TOKEN_SIZE];
+
+    private InputStream in;
+    private int position;
+    private int limit;
+    private int tokenLength;
+    private boolean conditional;
+
+    private VdfReader() {
+    }
+
+    static VdfReader acquire() {
+        VdfReader reader = POOL.poll();
+        return reader != null ? reader : new VdfReader();
+    }
+
+    @Override
+    public void close() {
+        in = null;
+        if (POOL.size() < MAX_POOLED) POOL.offer(this);
+    }
+
+    /**
+     * Reads the key/value pairs directly inside the root block of a VDF file
+     *
+     * @param file       the file to read
+     * @param wantedKeys lower-case names of the keys to extract, matched case-insensitively
+     * @return the values of the wanted keys that were present, keyed by their lower-case name
+     */
+    Map<String, String> readRootValues(Path file, String... wantedKeys) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            return readRootValues(stream, wantedKeys);
+        }
+    }
+
+    Map<String, String> readRootValues(InputStream stream, String... wantedKeys) throws IOException {
+
+        String[] names = new String[wantedKeys.length];
+        byte[][] wanted = new byte[wantedKeys.length][];
+        for (int i = 0; i < wantedKeys.length; i++) {
+            names[i] = wantedKeys[i].toLowerCase(Locale.ROOT);
+            wanted[i] = names[i].getBytes(StandardCharsets.UTF_8);
+        }
+
+        this.in = stream;
+        this.position = 0;
+        this.limit = 0;
+
+        Map<String, String> values = new HashMap<>();
+
+        int depth = 0;
+        boolean expectingValue = false;
+        int wantedIndex = -1;
+
+        Token next;
+        while ((next = nextToken()) != Token.EOF) {
+            switch (next) {
+                case STRING -> {
+                    if (conditional) continue;
+
+                    if (!expectingValue) {
+                        expectingValue = true;
+                        wantedIndex = depth == 1 ? indexOfWanted(wanted) : -1;
+                    } else {
+                        if (wantedIndex >= 0) {
+                            values.put(names[wantedIndex], new String(token, 0, tokenLength, StandardCharsets.UTF_8));
+                        }
+                        expectingValue = false;
+                    }
+                }
+                case OPEN -> {
+                    depth++;
+                    expectingValue = false;
+                }
+                case CLOSE -> {
+                    depth--;
+                    expectingValue = false;
+                    if (depth < 0) return values;
+                }
+                default -> {
+                }
+            }
+        }
+
+        return values;
+    }
+
+    private int indexOfWanted(byte[][] wanted) {
+        for (int i = 0; i < wanted.length; i++) {
+            if (tokenEqualsIgnoreCase(wanted[i])) return i;
+        }
+        return -1;
+    }
+
+    private boolean tokenEqualsIgnoreCase(byte[] lowerCaseKey) {
+        if (lowerCaseKey.length != tokenLength) return false;
+        for (int i = 0; i < tokenLength; i++) {
+            byte b = token[i];
+            if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+            if (b != lowerCaseKey[i]) return false;
+        }
+        return true;
+    }
+
+    private Token nextToken() throws IOException {
+
+        conditional = false;
+
+        int c;
+        while ((c = read()) != -1) {
+
+            if (c == ' ' || c == '\t' || c == '\r' || c == '\n') continue;
+
+            if (c == '/' && peek() == '/') {
+                skipLine();
+                continue;
+            }
+
+            if (c == '{') return Token.OPEN;
+            if (c == '}') return Token.CLOSE;
+
+            if (c == '"') {
+                readQuoted();
+            } else {
+                conditional = c == '[';
+                readUnquoted(c);
+            }
+            return Token.STRING;
+        }
+
+        return Token.EOF;
+    }
+
+    private void readQuoted() throws IOException {
+        tokenLength = 0;
+        int c;
+        while ((c = read()) != -1 && c != '"') {
+            if (c == '\\') {
+                int escaped = read();
+                switch (escaped) {
+                    case 'n' -> append('\n');
+                    case 't' -> append('\t');
+                    case '\\', '"' -> append(escaped);
+                    case -1 -> {
+                        return;
+                    }
+                    default -> {
+                        append('\\');
+                        append(escaped);
+                    }
+                }
+            } else {
+                append(c);
+            }
+        }
+    }
+
+    private void readUnquoted(int first) throws IOException {
+        tokenLength = 0;
+        append(first);
+        int c;
+        while ((c = peek()) != -1 && c != ' ' && c != '\t' && c != '\r' && c != '\n' && c != '{' && c != '}' && c != '"') {
+            append(read());
+        }
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = read()) != -1 && c != '\n') {
+            // consume the comment
+        }
+    }
+
+    private void append(int b) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+        }
+        token[tokenLength++] = (byte) b;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return ioBuffer[position++] & 0xFF;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) return -1;
+        return ioBuffer[position] & 0xFF;
+    }
+
+    private boolean fill() throws IOException {
+        int read = in.read(ioBuffer, 0, ioBuffer.length);
+        if (read <= 0) return false;
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -0,0 +1,321 @@
+package com.pantheon.backend.external.watcher;
+
+import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.library.utils.ScannerUtil;
+import com.pantheon.backend.core.platform.event.PlatformLibraryPathsChangedEvent;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the library in sync with the filesystem between scans.
+ * <p>
+ * Watches the directories that each scanner reports for the configured library paths (e.g. {@code steamapps}).
+ * Events are coalesced per library path until the path has been quiet for the debounce interval, or until the
+ * maximum delay since its first pending event has passed, and are then handed to
+ * {@link InventoryLocalScanService#syncLibraryPath} with only the files that changed.
+ * </p>
+ * <p>
+ * One thread drains the watch service and owns the pending changes; syncs run one at a time on a separate thread so
+ * that slow database writes never hold up event collection.
+ * </p>
+ */
+@Slf4j
+@Component
+class LocalLibraryWatcher implements SmartLifecycle {
+
+    private final PlatformRepository platformRepository;
+    private final ScannerUtil scannerUtil;
+    private final InventoryLocalScanService inventoryLocalScanService;
+    private final boolean enabled;
+    private final long debounceNanos;
+    private final long maxDelayNanos;
+
+    private final Map<WatchKey, WatchedDirectory> watchedDirectories = new ConcurrentHashMap<>();
+
+    /**
+     * Only touched by the watcher thread
+     */
+    private final Map<LibraryKey, PendingChanges> pendingChanges = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watcherThread;
+    private ExecutorService syncExecutor;
+    private volatile boolean running;
+
+    @Autowired
+    LocalLibraryWatcher(PlatformRepository platformRepository,
+                        ScannerUtil scannerUtil,
+                        InventoryLocalScanService inventoryLocalScanService,
+                        @Qualifier("watcherEnabled") boolean enabled,
+                        @Qualifier("watcherDebounceMillis") long debounceMillis,
+                        @Qualifier("watcherMaxDelayMillis") long maxDelayMillis) {
+        this.platformRepository = platformRepository;
+        this.scannerUtil = scannerUtil;
+        this.inventoryLocalScanService = inventoryLocalScanService;
+        this.enabled = enabled;
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(debounceMillis);
+        this.maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMillis, maxDelayMillis));
+    }
+
+    @Override
+    public synchronized void start() {
+
+        if (!enabled || running) return;
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            log.error("Library watcher could not be started, live sync is disabled: {}", e.getMessage(), e);
+            return;
+        }
+
+        running = true;
+        syncExecutor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("library-sync").factory());
+        watcherThread = Thread.ofPlatform().name("library-watcher").daemon().start(this::watchLoop);
+
+        refresh();
+    }
+
+    @Override
+    public synchronized void stop() {
+
+        if (!running) return;
+
+        running = false;
+
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.debug("Failed to close library watch service: {}", e.getMessage());
+        }
+
+        watcherThread.interrupt();
+        syncExecutor.shutdown();
+        watchedDirectories.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @EventListener
+    public void onLibraryPathsChanged(PlatformLibraryPathsChangedEvent event) {
+        log.info("{}: Library paths changed, refreshing watches", event.platformName());
+        refresh();
+    }
+
+    /**
+     * Re-registers the watches of every configured library path, dropping the ones that are no longer configured
+     */
+    synchronized void refresh() {
+
+        if (!running) return;
+
+        Set<Path> wanted = new HashSet<>();
+
+        for (Platform platform : platformRepository.findAllWithLibraryPaths()) {
+
+            LocalGameLibraryScanner scanner;
+            try {
+                scanner = scannerUtil.getScannerForPlatform(platform);
+            } catch (IllegalStateException e) {
+                continue;
+            }
+
+            for (String pathStr : platform.getLibraryPaths()) {
+
+                Path libraryPath = Path.of(pathStr);
+
+                for (Path directory : scanner.getWatchDirectories(libraryPath)) {
+                    wanted.add(directory);
+                    if (!isWatched(directory)) {
+                        register(new WatchedDirectory(platform.getName(), libraryPath, directory));
+                    }
+                }
+            }
+        }
+
+        Iterator<Map.Entry<WatchKey, WatchedDirectory>> iterator = watchedDirectories.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<WatchKey, WatchedDirectory> entry = iterator.next();
+            if (!wanted.contains(entry.getValue().directory())) {
+                log.info("{}: No longer watching {}", entry.getValue().platformName(), entry.getValue().directory());
+                entry.getKey().cancel();
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean isWatched(Path directory) {
+        return watchedDirectories.values().stream().anyMatch(watched -> watched.directory().equals(directory));
+    }
+
+    private void register(WatchedDirectory watched) {
+
+        if (!Files.isDirectory(watched.directory())) {
+            log.warn("{}: Cannot watch {}, directory not found", watched.platformName(), watched.directory());
+            return;
+        }
+
+        try {
+            WatchKey key = watched.directory().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            watchedDirectories.put(key, watched);
+            log.info("{}: Watching {}", watched.platformName(), watched.directory());
+        } catch (IOException | ClosedWatchServiceException e) {
+            log.warn("{}: Failed to watch {}: {}", watched.platformName(), watched.directory(), e.getMessage());
+        }
+    }
+
+    private void watchLoop() {
+
+        while (running) {
+
+            WatchKey key;
+
+            try {
+                key = pendingChanges.isEmpty()
+                        ? watchService.take()
+                        : watchService.poll(nanosUntilNextFlush(System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException e) {
+                return;
+            }
+
+            if (key != null) collect(key);
+
+            flushDue(System.nanoTime());
+        }
+    }
+
+    private void collect(WatchKey key) {
+
+        WatchedDirectory watched = watchedDirectories.get(key);
+
+        if (watched == null) {
+            key.cancel();
+            return;
+        }
+
+        long now = System.nanoTime();
+        PendingChanges pending = pendingChanges.computeIfAbsent(new LibraryKey(watched.platformName(), watched.libraryPath()),
+                _ -> new PendingChanges(now));
+        pending.lastEventNanos = now;
+
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                pending.overflowed = true;
+            } else if (event.context() instanceof Path fileName) {
+                pending.files.add(watched.directory().resolve(fileName));
+            }
+        }
+
+        if (!key.reset()) {
+            log.warn("{}: {} is no longer accessible, watch dropped", watched.platformName(), watched.directory());
+            watchedDirectories.remove(key);
+        }
+    }
+
+    private long nanosUntilNextFlush(long now) {
+        long next = Long.MAX_VALUE;
+        for (PendingChanges pending : pendingChanges.values()) {
+            next = Math.min(next, pending.dueAt(debounceNanos, maxDelayNanos) - now);
+        }
+        return Math.max(0, next);
+    }
+
+    private void flushDue(long now) {
+
+        Iterator<Map.Entry<LibraryKey, PendingChanges>> iterator = pendingChanges.entrySet().iterator();
+
+        while (iterator.hasNext()) {
+
+            Map.Entry<LibraryKey, PendingChanges> entry = iterator.next();
+
+            if (entry.getValue().dueAt(debounceNanos, maxDelayNanos) - now > 0) continue;
+
+            iterator.remove();
+
+            LibraryKey library = entry.getKey();
+            List<Path> files = entry.getValue().overflowed ? null : List.copyOf(entry.getValue().files);
+
+            syncExecutor.execute(() -> sync(library, files));
+        }
+    }
+
+    private void sync(LibraryKey library, List<Path> files) {
+
+        log.debug("{}: Syncing {} ({})", library.platformName(), library.libraryPath(),
+                files == null ? "events overflowed" : files.size() + " changed files");
+
+        try {
+            Platform platform = platformRepository.findByName(library.platformName()).orElse(null);
+
+            if (platform == null) {
+                log.warn("{}: Unknown platform, dropping changes of {}", library.platformName(), library.libraryPath());
+                return;
+            }
+
+            inventoryLocalScanService.syncLibraryPath(platform, library.libraryPath(), files);
+
+        } catch (Exception e) {
+            log.error("{}: Live sync of {} failed: {}", library.platformName(), library.libraryPath(), e.getMessage(), e);
+        }
+    }
+
+    private record WatchedDirectory(String platformName, Path libraryPath, Path directory) {
+    }
+
+    private record LibraryKey(String platformName, Path libraryPath) {
+    }
+
+    private static final class PendingChanges {
+
+        private final long firstEventNanos;
+        private final Set<Path> files = new HashSet<>();
+        private long lastEventNanos;
+        private boolean overflowed;
+
+        private PendingChanges(long firstEventNanos) {
+            this.firstEventNanos = firstEventNanos;
+            this.lastEventNanos = firstEventNanos;
+        }
+
+        private long dueAt(long debounceNanos, long maxDelayNanos) {
+            return Math.min(lastEventNanos + debounceNanos, firstEventNanos + maxDelayNanos);
+        }
+    }
+
+}
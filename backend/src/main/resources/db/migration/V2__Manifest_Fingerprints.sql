@@ -0,0 +1,15 @@
+
+-- One row per scanned manifest file, used to skip unchanged manifests on rescans
+CREATE TABLE manifest_fingerprints (
+    path TEXT PRIMARY KEY,
+    platform_id INTEGER NOT NULL,
+    library_path TEXT NOT NULL,
+    platform_game_id TEXT,
+    last_modified BIGINT NOT NULL,
+    file_size BIGINT NOT NULL,
+    content_hash BIGINT NOT NULL,
+
+    FOREIGN KEY (platform_id) REFERENCES platforms(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_manifest_fingerprints_library ON manifest_fingerprints(platform_id, library_path);
@@ -0,0 +1,5 @@
+-- Normalized title (case-folded, without punctuation, trademark signs and diacritics) used to match the same game
+-- across platforms. Computed by the application, which also fills it in for existing games on startup.
+ALTER TABLE games ADD COLUMN title_key TEXT;
+
+CREATE INDEX idx_games_title_key ON games(title_key);
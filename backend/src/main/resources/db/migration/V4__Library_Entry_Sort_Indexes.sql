@@ -0,0 +1,5 @@
+-- Keyset pagination of the library: one index per sort order, on the exact expression the query orders by, with the
+-- id as tie-breaker so that a page starts with a single index seek.
+CREATE INDEX idx_library_entries_last_played ON library_entries(IFNULL(last_played, -1), id);
+CREATE INDEX idx_library_entries_playtime ON library_entries(IFNULL(playtime_minutes, -1), id);
+CREATE INDEX idx_library_entries_game_size ON library_entries(IFNULL(game_size, -1), id);
@@ -0,0 +1,31 @@
+-- Full-text index over the searchable columns of games. External content table: the text lives in games only, the
+-- index is kept in sync by the triggers below. Diacritics are folded so that "pokemon" finds "Pokémon".
+CREATE VIRTUAL TABLE games_fts USING fts5(
+    title,
+    developer,
+    publisher,
+    description,
+    content = 'games',
+    content_rowid = 'id',
+    tokenize = 'unicode61 remove_diacritics 2'
+);
+
+CREATE TRIGGER games_fts_insert AFTER INSERT ON games BEGIN
+    INSERT INTO games_fts (rowid, title, developer, publisher, description)
+    VALUES (new.id, new.title, new.developer, new.publisher, new.description);
+END;
+
+CREATE TRIGGER games_fts_delete AFTER DELETE ON games BEGIN
+    INSERT INTO games_fts (games_fts, rowid, title, developer, publisher, description)
+    VALUES ('delete', old.id, old.title, old.developer, old.publisher, old.description);
+END;
+
+-- Only the indexed columns, so that writing title keys or covers does not touch the index
+CREATE TRIGGER games_fts_update AFTER UPDATE OF title, developer, publisher, description ON games BEGIN
+    INSERT INTO games_fts (games_fts, rowid, title, developer, publisher, description)
+    VALUES ('delete', old.id, old.title, old.developer, old.publisher, old.description);
+    INSERT INTO games_fts (rowid, title, developer, publisher, description)
+    VALUES (new.id, new.title, new.developer, new.publisher, new.description);
+END;
+
+INSERT INTO games_fts (games_fts) VALUES ('rebuild');
@@ -0,0 +1,8 @@
+-- Version of the library, bumped in the transaction of every write that changed it. Clients compare versions to know
+-- whether what they show is current.
+CREATE TABLE library_version (
+    id INTEGER PRIMARY KEY CHECK (id = 1),
+    version INTEGER NOT NULL
+);
+
+INSERT INTO library_version (id, version) VALUES (1, 0);
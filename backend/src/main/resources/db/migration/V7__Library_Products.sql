@@ -0,0 +1,13 @@
+-- Games a scanner reported per library path, for platforms without a manifest file per game (GOG), used to report the
+-- games that are no longer installed on rescans
+CREATE TABLE library_products (
+    platform_id INTEGER NOT NULL,
+    library_path TEXT NOT NULL,
+    platform_game_id TEXT NOT NULL,
+
+    PRIMARY KEY (platform_id, library_path, platform_game_id),
+    FOREIGN KEY (platform_id) REFERENCES platforms(id) ON DELETE CASCADE
+);
+
+-- GOG products used to be kept as manifest fingerprints of made up paths
+DELETE FROM manifest_fingerprints WHERE platform_id IN (SELECT id FROM platforms WHERE name = 'GOG');
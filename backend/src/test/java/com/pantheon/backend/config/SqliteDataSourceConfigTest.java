@@ -0,0 +1,74 @@
+package com.pantheon.backend.config;
+
+import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.library.utils.ScannerUtil;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs requests against the routed data source, where a read-only transaction gets a {@code query_only} reader and
+ * anything else the single writer connection.
+ */
+@SpringBootTest(properties = "app.watcher.enabled=false")
+@AutoConfigureMockMvc
+class SqliteDataSourceConfigTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            String url = "jdbc:sqlite:" + Files.createTempFile("pantheon-routing", ".db") + "?foreign_keys=on";
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.flyway.url", () -> url);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PlatformRepository platformRepository;
+
+    @MockitoBean
+    private ScannerUtil scannerUtil;
+
+    @Test
+    void request_ReadThenWrite_WritesThroughWriter() throws Exception {
+        when(scannerUtil.getScannerForPlatform(any(Platform.class))).thenReturn(mock(LocalGameLibraryScanner.class));
+        String libraryPath = Files.createTempDirectory("pantheon-steam").toString().replace('\\', '/');
+
+        // Platform setup reads the platform in a read-only transaction, then saves it
+        mockMvc.perform(post("/api/library/setup")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"name": "Steam", "executablePath": "D:/Steam/steam.exe", "libraryPaths": ["%s"]}
+                                """.formatted(libraryPath)))
+                .andExpect(status().isOk());
+
+        Platform steam = platformRepository.findWithLibraryPathsByName("Steam").orElseThrow();
+        assertEquals("D:/Steam/steam.exe", steam.getExecutablePath());
+        assertEquals(List.of(libraryPath), steam.getLibraryPaths());
+    }
+}
@@ -0,0 +1,93 @@
+package com.pantheon.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SqlitePragmaHealthCheckTest {
+
+    private static final SqliteTuning TUNING = new SqliteTuning("WAL", "NORMAL", 268435456, -65536, 5000, 2);
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource writer;
+    private HikariDataSource readers;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:sqlite:" + tempDir.resolve("pantheon.db") + "?foreign_keys=on";
+        writer = SqliteDataSourceConfig.writer(url, TUNING);
+        readers = SqliteDataSourceConfig.readers(url, TUNING);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readers.close();
+        writer.close();
+    }
+
+    @Test
+    void verify_TunedPools_Passes() {
+        SqlitePragmaHealthCheck healthCheck = new SqlitePragmaHealthCheck(writer, readers, TUNING);
+
+        assertDoesNotThrow(healthCheck::verify);
+    }
+
+    @Test
+    void verify_PragmaNotApplied_FailsStartup() {
+        SqliteTuning expected = new SqliteTuning("WAL", "FULL", 268435456, -65536, 1234, 2);
+        SqlitePragmaHealthCheck healthCheck = new SqlitePragmaHealthCheck(writer, readers, expected);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, healthCheck::verify);
+
+        assertTrue(e.getMessage().contains("writer synchronous is 1 instead of 2"));
+        assertTrue(e.getMessage().contains("reader busy_timeout is 5000 instead of 1234"));
+    }
+
+    @Test
+    void readers_WhileWriterHoldsOpenTransaction_KeepReadingLastCommittedState() throws SQLException {
+        try (Connection connection = writer.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE games (id INTEGER PRIMARY KEY, title TEXT)");
+            statement.execute("INSERT INTO games (title) VALUES ('Hades')");
+        }
+
+        try (Connection writing = writer.getConnection(); Statement write = writing.createStatement()) {
+            writing.setAutoCommit(false);
+            write.execute("INSERT INTO games (title) VALUES ('Celeste')");
+
+            try (Connection reading = readers.getConnection();
+                 Statement read = reading.createStatement();
+                 ResultSet resultSet = read.executeQuery("SELECT COUNT(*) FROM games")) {
+                resultSet.next();
+                assertEquals(1, resultSet.getInt(1));
+            }
+
+            writing.commit();
+        }
+    }
+
+    @Test
+    void readers_RejectWrites() throws SQLException {
+        try (Connection connection = writer.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE games (id INTEGER PRIMARY KEY, title TEXT)");
+        }
+
+        try (Connection connection = readers.getConnection(); Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.execute("INSERT INTO games (title) VALUES ('Hades')"));
+        }
+    }
+}
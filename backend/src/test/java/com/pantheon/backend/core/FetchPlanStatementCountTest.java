@@ -0,0 +1,165 @@
+package com.pantheon.backend.core;
+
+import com.pantheon.backend.core.inventory.model.Game;
+import com.pantheon.backend.core.inventory.model.LibraryEntry;
+import com.pantheon.backend.core.inventory.repository.GameRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryRepository;
+import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.library.utils.ScannerUtil;
+import com.pantheon.backend.core.platform.dto.PlatformSetupDTO;
+import com.pantheon.backend.core.platform.local.PlatformLocalService;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import com.pantheon.backend.shared.model.Tag;
+import com.pantheon.backend.support.HibernateStatementCounter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jdbc.test.autoconfigure.AutoConfigureTestDatabase;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Pins the number of statements each use case of the inventory and platform entities runs, so that an association
+ * turning eager again, or a loop lazily loading one, fails here instead of slowing down large libraries.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(PlatformLocalService.class)
+class FetchPlanStatementCountTest {
+
+    private static final int STEAM = 1;
+    private static final int EPIC = 2;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        try {
+            String url = "jdbc:sqlite:" + Files.createTempFile("pantheon-fetch-plans", ".db") + "?foreign_keys=on";
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.flyway.url", () -> url);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformRepository platformRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    @Autowired
+    private LibraryEntryRepository libraryEntryRepository;
+
+    @Autowired
+    private PlatformLocalService platformLocalService;
+
+    @MockitoBean
+    private ScannerUtil scannerUtil;
+
+    private HibernateStatementCounter counter;
+
+    private Game firstGame;
+
+    @BeforeEach
+    void setUp() {
+        counter = new HibernateStatementCounter(entityManager);
+
+        Tag tag = Tag.builder().name("RPG").build();
+        entityManager.persist(tag);
+
+        Platform steam = entityManager.find(Platform.class, STEAM);
+        Platform epic = entityManager.find(Platform.class, EPIC);
+
+        for (int i = 0; i < 20; i++) {
+            Game game = Game.builder().title("Game " + i).build();
+            game.getTags().add(tag);
+            entityManager.persist(game);
+            if (i == 0) firstGame = game;
+
+            entityManager.persist(LibraryEntry.builder().game(game).platform(steam).isInstalled(i % 2 == 0).build());
+            if (i == 0) entityManager.persist(LibraryEntry.builder().game(game).platform(epic).isInstalled(true).build());
+        }
+    }
+
+    /**
+     * Reads what the callers of the listed entries read
+     */
+    private static void touch(List<LibraryEntry> entries) {
+        entries.forEach(entry -> {
+            entry.getGame().getTitle();
+            entry.getPlatform().getName();
+        });
+    }
+
+    @Test
+    void platformLookups_LoadPathsOnlyWhenAsked() {
+        counter.assertStatements("scanner platform lookup", 1,
+                () -> platformRepository.findWithLibraryPathsByName("Steam").orElseThrow().getLibraryPaths().size());
+
+        counter.assertStatements("watcher refresh", 1,
+                () -> platformRepository.findAllWithLibraryPaths().forEach(platform -> platform.getLibraryPaths().size()));
+
+        counter.assertStatements("discovery platform lookup", 1,
+                () -> platformRepository.findByName("Steam").orElseThrow().getName());
+    }
+
+    @Test
+    void entryLookup_DoesNotLoadGameTagsOrPlatform() {
+        counter.assertStatements("legacy processor entry lookup", 1,
+                () -> libraryEntryRepository.findByGameIdAndPlatformId(firstGame.getId(), STEAM).orElseThrow());
+    }
+
+    @Test
+    void titleMatch_DoesNotLoadTags() {
+        counter.assertStatements("title match", 1,
+                () -> gameRepository.findFirstByTitleKeyOrderByIdAsc("game0").orElseThrow().getTitle());
+    }
+
+    @Test
+    void entriesOfPlatform_FetchGameAndPlatformInOneStatement() {
+        counter.assertStatements("entries of platform", 1, () -> touch(libraryEntryRepository.findByPlatformId(STEAM)));
+
+        counter.assertConstant("entries of platform",
+                () -> touch(libraryEntryRepository.findByPlatformId(EPIC)),
+                () -> touch(libraryEntryRepository.findByPlatformId(STEAM)));
+    }
+
+    @Test
+    void installedEntries_FetchGameAndPlatformInOneStatement() {
+        counter.assertStatements("installed entries", 1, () -> touch(libraryEntryRepository.findByIsInstalledTrue()));
+    }
+
+    @Test
+    void platformSetup_StatementsDoNotGrowWithLibraryPaths() {
+        when(scannerUtil.getScannerForPlatform(any(Platform.class))).thenReturn(mock(LocalGameLibraryScanner.class));
+
+        List<String> manyPaths = IntStream.range(0, 8).mapToObj(i -> "D:/Games/Library " + i).toList();
+
+        // Both setups change the executable path, so both update the platform row
+
+        counter.assertConstant("platform setup",
+                () -> platformLocalService.setupLocalPlatform(new PlatformSetupDTO("Epic", "epic.exe", List.of("D:/Epic"), null)),
+                () -> platformLocalService.setupLocalPlatform(new PlatformSetupDTO("Epic", "epic-launcher.exe", manyPaths, null)));
+
+        assertEquals(manyPaths, platformRepository.findWithLibraryPathsByName("Epic").orElseThrow().getLibraryPaths());
+    }
+}
@@ -0,0 +1,37 @@
+package com.pantheon.backend.core.inventory.api;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import com.pantheon.backend.core.inventory.query.GameSearchService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GameSearchControllerTest {
+
+    @Mock
+    private GameSearchService gameSearchService;
+
+    @InjectMocks
+    private GameSearchController gameSearchController;
+
+    @Test
+    void search_ReturnsResultsOfService() {
+        List<GameSearchResultDTO> results = List.of(GameSearchResultDTO.builder().id(3).title("Hollow Knight").build());
+        when(gameSearchService.search("hol", 10)).thenReturn(results);
+
+        ResponseEntity<List<GameSearchResultDTO>> response = gameSearchController.search("hol", 10);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(results, response.getBody());
+    }
+}
@@ -1,7 +1,14 @@
 package com.pantheon.backend.core.inventory.api;
 
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
 import com.pantheon.backend.core.inventory.local.InventoryLocalDiscoveryService;
+import com.pantheon.backend.core.inventory.local.dto.InventoryCacheStatsDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
+import com.pantheon.backend.core.inventory.local.job.ScanJobPhase;
 import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.BatchStatsDTO;
+import com.pantheon.backend.core.notification.dto.NotificationStatsDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -11,8 +18,15 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +39,9 @@ class InventoryControllerTest {
     @Mock
     private NotificationService notificationService;
 
+    @Mock
+    private InventoryCache inventoryCache;
+
     @InjectMocks
     private InventoryController inventoryController;
 
@@ -32,11 +49,14 @@ class InventoryControllerTest {
     void scanPlatform_InitiatesScanAndReturnsAccepted() {
         String platform = "Steam";
 
+        when(inventoryLocalDiscoveryService.scanPlatform(platform)).thenReturn(ScanJobDTO.builder().id("job-1").platformName(platform).build());
+
         ResponseEntity<String> response = inventoryController.scanPlatform(platform);
 
         verify(inventoryLocalDiscoveryService).scanPlatform(platform);
         assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
         assertEquals("Scan initiated for Steam", response.getBody());
+        assertEquals(URI.create("/api/library/discovery/jobs/job-1"), response.getHeaders().getLocation());
     }
 
     @Test
@@ -59,15 +79,121 @@ class InventoryControllerTest {
         assertEquals("Scan Initiated for [Steam, Epic]", response.getBody());
     }
 
+    @Test
+    void getScanJob_KnownJob_ReturnsOk() {
+        ScanJobDTO job = ScanJobDTO.builder().id("job-1").platformName("Steam").phase(ScanJobPhase.RUNNING).build();
+        when(inventoryLocalDiscoveryService.getScanJob("job-1")).thenReturn(Optional.of(job));
+
+        ResponseEntity<ScanJobDTO> response = inventoryController.getScanJob("job-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(job, response.getBody());
+    }
+
+    @Test
+    void getScanJob_UnknownJob_ReturnsNotFound() {
+        when(inventoryLocalDiscoveryService.getScanJob("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<ScanJobDTO> response = inventoryController.getScanJob("missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+    }
+
+    @Test
+    void cancelScanJob_KnownJob_ReturnsAccepted() {
+        ScanJobDTO job = ScanJobDTO.builder().id("job-1").cancelRequested(true).build();
+        when(inventoryLocalDiscoveryService.cancelScanJob("job-1")).thenReturn(Optional.of(job));
+
+        ResponseEntity<ScanJobDTO> response = inventoryController.cancelScanJob("job-1");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(job, response.getBody());
+    }
+
+    @Test
+    void getCacheStats_ReturnsStatsOfCache() {
+        InventoryCacheStatsDTO stats = new InventoryCacheStatsDTO(true, 12, 20, 4096);
+        when(inventoryCache.stats()).thenReturn(stats);
+
+        ResponseEntity<InventoryCacheStatsDTO> response = inventoryController.getCacheStats();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
+    }
+
     @Test
     void streamEvents_SubscribesToNotificationService() {
         SseEmitter emitter = new SseEmitter();
-        when(notificationService.subscribe()).thenReturn(emitter);
+        when(notificationService.subscribe(null, StreamFilter.ALL)).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> result = inventoryController.streamEvents(null, null, null, null);
+
+        verify(notificationService).subscribe(null, StreamFilter.ALL);
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(emitter, result.getBody());
+    }
+
+    @Test
+    void streamEvents_Reconnect_PassesLastEventId() {
+        SseEmitter emitter = new SseEmitter();
+        when(notificationService.subscribe("abc-42", StreamFilter.ALL)).thenReturn(emitter);
+
+        assertEquals(emitter, inventoryController.streamEvents("abc-42", null, null, null).getBody());
+    }
+
+    @Test
+    void streamEvents_Filters_SubscribesToPlatformsAndEventTypes() {
+        SseEmitter emitter = new SseEmitter();
+        StreamFilter filter = new StreamFilter(Set.of("Steam", "Epic"), Set.of("LIBRARY_DELTA"));
+        when(notificationService.subscribe(null, filter)).thenReturn(emitter);
+
+        ResponseEntity<SseEmitter> result = inventoryController.streamEvents(null, new String[]{"Steam", "Epic"},
+                new String[]{"LIBRARY_DELTA", "LIBRARY_DELTA"}, null);
+
+        assertEquals(emitter, result.getBody());
+    }
+
+    @Test
+    void streamEvents_JobId_SubscribesToEventsOfJob() {
+        SseEmitter emitter = new SseEmitter();
+        ScanJobDTO job = ScanJobDTO.builder().id("job-1").platformName("Steam").phase(ScanJobPhase.RUNNING).build();
+        when(inventoryLocalDiscoveryService.getScanJob("job-1")).thenReturn(Optional.of(job));
+        when(notificationService.subscribe(null, new StreamFilter(Set.of(), Set.of(), "job-1"))).thenReturn(emitter);
+
+        assertEquals(emitter, inventoryController.streamEvents(null, null, null, "job-1").getBody());
+        verify(notificationService, never()).endJob(any());
+    }
+
+    @Test
+    void streamEvents_JobAlreadyFinished_EndsSubscriptionAfterReplay() {
+        SseEmitter emitter = new SseEmitter();
+        ScanJobDTO job = ScanJobDTO.builder().id("job-1").platformName("Steam").phase(ScanJobPhase.COMPLETED).build();
+        when(inventoryLocalDiscoveryService.getScanJob("job-1")).thenReturn(Optional.of(job));
+        when(notificationService.subscribe("abc-42", new StreamFilter(Set.of(), Set.of(), "job-1"))).thenReturn(emitter);
+
+        assertEquals(emitter, inventoryController.streamEvents("abc-42", null, null, "job-1").getBody());
+        verify(notificationService).endJob("job-1");
+    }
+
+    @Test
+    void streamEvents_UnknownJobId_ReturnsNotFound() {
+        when(inventoryLocalDiscoveryService.getScanJob("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<SseEmitter> result = inventoryController.streamEvents(null, null, null, "missing");
+
+        assertEquals(HttpStatus.NOT_FOUND, result.getStatusCode());
+        verify(notificationService, never()).subscribe(any(), any());
+    }
+
+    @Test
+    void getStreamStats_ReturnsStatsOfNotificationService() {
+        NotificationStatsDTO stats = new NotificationStatsDTO(10, 4096, 10, 4096, 2, 0, 0, 10, 4096, 0, 0,
+                new BatchStatsDTO(0, Map.of(), Map.of()), List.of());
+        when(notificationService.stats()).thenReturn(stats);
 
-        SseEmitter result = inventoryController.streamEvents();
+        ResponseEntity<NotificationStatsDTO> response = inventoryController.getStreamStats();
 
-        verify(notificationService).subscribe();
-        assertNotNull(result);
-        assertEquals(emitter, result);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(stats, response.getBody());
     }
 }
@@ -0,0 +1,142 @@
+package com.pantheon.backend.core.inventory.api;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.query.LibraryEntryQueryService;
+import com.pantheon.backend.core.inventory.query.LibraryEntrySort;
+import com.pantheon.backend.core.inventory.query.LibrarySnapshotFormat;
+import com.pantheon.backend.core.inventory.query.LibrarySnapshotService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LibraryEntryControllerTest {
+
+    @Mock
+    private LibraryEntryQueryService libraryEntryQueryService;
+
+    @Mock
+    private LibrarySnapshotService librarySnapshotService;
+
+    @InjectMocks
+    private LibraryEntryController libraryEntryController;
+
+    @Test
+    void getEntries_BuildsQueryFromParameters() {
+        LibraryEntryQueryDTO expected = LibraryEntryQueryDTO.builder()
+                .platform("Steam")
+                .installed(true)
+                .titlePrefix("hal")
+                .sort(LibraryEntrySort.PLAYTIME)
+                .ascending(true)
+                .limit(25)
+                .build();
+        LibraryEntryPageDTO page = new LibraryEntryPageDTO(List.of(), null);
+        when(libraryEntryQueryService.findEntries(expected)).thenReturn(page);
+
+        ResponseEntity<LibraryEntryPageDTO> response = libraryEntryController.getEntries("Steam", true, " ", "hal",
+                "playtime", "ASC", 25, null);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(page, response.getBody());
+    }
+
+    @Test
+    void getEntries_UnknownSort_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libraryEntryController.getEntries(null, null, null, null, "rating", null, null, null));
+        verifyNoInteractions(libraryEntryQueryService);
+    }
+
+    @Test
+    void getEntries_UnknownDirection_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libraryEntryController.getEntries(null, null, null, null, null, "up", null, null));
+        verifyNoInteractions(libraryEntryQueryService);
+    }
+
+    /**
+     * Stands in for a snapshot of version 7 holding a single line
+     */
+    private void snapshotOfVersion7(LibrarySnapshotFormat format) throws IOException {
+        doAnswer(invocation -> {
+            OutputStream out = invocation.<LibrarySnapshotService.SnapshotOutput>getArgument(1).open(7);
+            if (out != null) out.write("{\"version\":7}".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(librarySnapshotService).writeSnapshot(eq(format), any());
+    }
+
+    @Test
+    void getSnapshot_WritesSnapshotWithVersionAsETag() throws IOException {
+        snapshotOfVersion7(LibrarySnapshotFormat.JSONL);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        libraryEntryController.getSnapshot(null, null, null, response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("\"7-jsonl\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("application/x-ndjson", response.getContentType());
+        assertEquals("{\"version\":7}", response.getContentAsString());
+    }
+
+    @Test
+    void getSnapshot_AcceptCbor_WritesCbor() throws IOException {
+        snapshotOfVersion7(LibrarySnapshotFormat.CBOR);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        libraryEntryController.getSnapshot(null, "application/cbor-seq, */*", null, response);
+
+        assertEquals("\"7-cbor\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("application/cbor-seq", response.getContentType());
+    }
+
+    @Test
+    void getSnapshot_ETagStillCurrent_NotModified() throws IOException {
+        snapshotOfVersion7(LibrarySnapshotFormat.JSONL);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        libraryEntryController.getSnapshot("jsonl", null, "\"6-jsonl\", W/\"7-jsonl\"", response);
+
+        assertEquals(HttpStatus.NOT_MODIFIED.value(), response.getStatus());
+        assertEquals("\"7-jsonl\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void getSnapshot_ETagOfOlderVersion_WritesSnapshot() throws IOException {
+        snapshotOfVersion7(LibrarySnapshotFormat.JSONL);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        libraryEntryController.getSnapshot(null, null, "\"6-jsonl\"", response);
+
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertEquals("{\"version\":7}", response.getContentAsString());
+    }
+
+    @Test
+    void getSnapshot_UnknownFormat_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libraryEntryController.getSnapshot("xml", null, null, new MockHttpServletResponse()));
+        verifyNoInteractions(librarySnapshotService);
+    }
+}
@@ -0,0 +1,336 @@
+package com.pantheon.backend.core.inventory.cache;
+
+import com.pantheon.backend.core.inventory.local.dto.GameTitleKeyRefDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.inventory.local.processor.InventoryWriteQueue;
+import com.pantheon.backend.core.inventory.local.processor.LocalGamesProcessor;
+import com.pantheon.backend.core.inventory.matching.GameMatchingService;
+import com.pantheon.backend.core.inventory.matching.GameTitleKeys;
+import com.pantheon.backend.core.inventory.repository.GameRepository;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryVersionRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryRepository;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryCacheTest {
+
+    private static final LocalDateTime PLAYED = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private HikariDataSource writer;
+    private HikariDataSource readers;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactions;
+    private TransactionTemplate readOnlyTransactions;
+    private InventoryBulkRepository inventoryBulkRepository;
+
+    @BeforeEach
+    void setUp() {
+        String url = "jdbc:sqlite:" + tempDir.resolve("pantheon.db");
+
+        writer = dataSource(url, "writer", 1);
+        readers = dataSource(url, "readers", 2);
+        readers.setConnectionInitSql("PRAGMA query_only = 1");
+
+        Flyway.configure().dataSource(writer).locations("classpath:db/migration").load().migrate();
+        new JdbcTemplate(writer).execute("PRAGMA journal_mode = WAL");
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writer);
+        dataSource.setReadOnlyDataSource(readers);
+
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        transactions = new TransactionTemplate(transactionManager);
+        readOnlyTransactions = new TransactionTemplate(transactionManager);
+        readOnlyTransactions.setReadOnly(true);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        inventoryBulkRepository = new InventoryBulkRepository(jdbcTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        readers.close();
+        writer.close();
+    }
+
+    private static HikariDataSource dataSource(String url, String poolName, int size) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setMaximumPoolSize(size);
+        config.addDataSourceProperty("busy_timeout", "5000");
+        return new HikariDataSource(config);
+    }
+
+    private InventoryCache warmCache(int maxEntries) {
+        InventoryCache cache = new InventoryCache(inventoryBulkRepository, maxEntries);
+        readOnlyTransactions.executeWithoutResult(_ -> cache.warmUp());
+        return cache;
+    }
+
+    private static LibraryEntryStateDTO state(int gameId, String platformGameId, boolean installed) {
+        return LibraryEntryStateDTO.builder()
+                .gameId(gameId)
+                .isInstalled(installed)
+                .installPath("/games/" + platformGameId)
+                .platformGameId(platformGameId)
+                .playtimeMinutes(10)
+                .gameSize(1024L)
+                .lastPlayed(PLAYED)
+                .build();
+    }
+
+    @Test
+    void warmUp_LoadsTitleKeysAndEntries() {
+        inventoryBulkRepository.insertGames(List.of("Hades", "Celeste"));
+        inventoryBulkRepository.insertLibraryEntries(1, List.of(state(1, "h", true)));
+
+        InventoryCache cache = warmCache(100);
+
+        assertTrue(cache.isComplete());
+        assertEquals(1, cache.gameId("hades"));
+        assertEquals(2, cache.gameId("celeste"));
+        assertEquals(Map.of(1, state(1, "h", true)), cache.entryStates(1));
+        assertEquals(2, cache.stats().games());
+        assertEquals(1, cache.stats().libraryEntries());
+    }
+
+    @Test
+    void changesInTransaction_VisibleToItOnlyUntilCommit() {
+        InventoryCache cache = warmCache(100);
+
+        transactions.executeWithoutResult(_ -> {
+            cache.gamesInserted(Map.of("hades", 1));
+            cache.entriesWritten(1, List.of(state(1, "h", true)));
+
+            assertEquals(1, cache.gameId("hades"));
+            assertEquals(1, cache.entryStates(1).size());
+            assertNull(CompletableFuture.supplyAsync(() -> cache.gameId("hades")).join());
+            assertTrue(CompletableFuture.supplyAsync(() -> cache.entryStates(1)).join().isEmpty());
+        });
+
+        assertEquals(1, cache.gameId("hades"));
+        assertEquals(Map.of(1, state(1, "h", true)), cache.entryStates(1));
+    }
+
+    @Test
+    void changesInTransaction_RolledBack_AreDropped() {
+        InventoryCache cache = warmCache(100);
+
+        transactions.executeWithoutResult(status -> {
+            cache.gamesInserted(Map.of("hades", 1));
+            cache.entriesWritten(1, List.of(state(1, "h", true)));
+            status.setRollbackOnly();
+        });
+
+        assertNull(cache.gameId("hades"));
+        assertTrue(cache.entryStates(1).isEmpty());
+    }
+
+    @Test
+    void changesInTransaction_OnCommittedEntries_ReadFromOverlay() {
+        InventoryCache cache = warmCache(100);
+        cache.entriesWritten(1, List.of(state(1, "a", true), state(2, "b", true)));
+
+        transactions.executeWithoutResult(_ -> {
+            cache.entriesUninstalled(1, null, List.of("a"));
+            Map<Integer, LibraryEntryStateDTO> states = cache.entryStates(1);
+            cache.entriesWritten(1, List.of(state(3, "c", true)));
+
+            // A view of the transaction's overlay, later writes show through
+            assertFalse(states.get(1).isInstalled());
+            assertTrue(states.get(2).isInstalled());
+            assertEquals(3, states.size());
+            assertTrue(CompletableFuture.supplyAsync(() -> cache.entryStates(1).get(1).isInstalled()).join());
+        });
+
+        assertFalse(cache.entryStates(1).get(1).isInstalled());
+        assertEquals(3, cache.entryStates(1).size());
+    }
+
+    @Test
+    void entriesUninstalled_OnlyUninstallsMatchingEntriesOfPlatform() {
+        InventoryCache cache = warmCache(100);
+        cache.entriesWritten(1, List.of(state(1, "a", true), state(2, "b", true)));
+        cache.entriesWritten(2, List.of(state(1, "a", true)));
+
+        cache.entriesUninstalled(1, null, List.of("a"));
+
+        assertFalse(cache.entryStates(1).get(1).isInstalled());
+        assertTrue(cache.entryStates(1).get(2).isInstalled());
+        assertTrue(cache.entryStates(2).get(1).isInstalled());
+    }
+
+    @Test
+    void entriesUninstalled_InstalledBelowOtherRoot_StaysInstalled() {
+        InventoryCache cache = warmCache(100);
+        cache.entriesWritten(1, List.of(state(1, "a", true).toBuilder().installPath("/libraries/b/common/Hades").build()));
+
+        cache.entriesUninstalled(1, "/libraries/a", List.of("a"));
+        assertTrue(cache.entryStates(1).get(1).isInstalled());
+
+        cache.entriesUninstalled(1, "/libraries/b", List.of("a"));
+        assertFalse(cache.entryStates(1).get(1).isInstalled());
+    }
+
+    @Test
+    void warmUp_InventoryOverLimit_StaysIncomplete() {
+        inventoryBulkRepository.insertGames(List.of("Hades", "Celeste", "Doom"));
+
+        InventoryCache cache = warmCache(2);
+
+        assertFalse(cache.isComplete());
+        assertEquals(0, cache.stats().games());
+    }
+
+    @Test
+    void entriesWritten_OverLimit_DisablesCache() {
+        InventoryCache cache = warmCache(2);
+
+        cache.entriesWritten(1, List.of(state(1, "a", true), state(2, "b", true), state(3, "c", true)));
+
+        assertFalse(cache.isComplete());
+        assertEquals(0, cache.stats().libraryEntries());
+    }
+
+    /**
+     * Runs concurrent scans of several platforms through the real write path, with failing deltas rolling back
+     * coalesced transactions and a reload in the middle, then checks the cache against a freshly loaded one
+     */
+    @Test
+    void concurrentScans_CacheMatchesDatabase() throws Exception {
+        InventoryCache cache = warmCache(100_000);
+
+        GameRepository gameRepository = mock(GameRepository.class);
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        when(gameRepository.findTitleKeyRefsByTitleKeyIn(anyList())).thenAnswer(invocation -> named.query(
+                "SELECT id, title_key FROM games WHERE title_key IN (:keys) ORDER BY id",
+                Map.of("keys", invocation.getArgument(0)),
+                (rs, row) -> new GameTitleKeyRefDTO(rs.getInt("id"), rs.getString("title_key"))));
+
+        LibraryEntryRepository libraryEntryRepository = mock(LibraryEntryRepository.class);
+        when(libraryEntryRepository.findStatesByPlatformId(anyInt())).thenAnswer(invocation -> {
+            List<LibraryEntryStateDTO> states = new ArrayList<>();
+            inventoryBulkRepository.forEachLibraryEntryState((platformId, state) -> {
+                if (platformId.equals(invocation.getArgument(0))) states.add(state);
+            });
+            return states;
+        });
+
+        GameMatchingService gameMatchingService = new GameMatchingService(gameRepository, inventoryBulkRepository, cache);
+        LocalGamesProcessor processor = new LocalGamesProcessor(libraryEntryRepository, inventoryBulkRepository, gameMatchingService,
+                cache, new LibraryVersionRepository(jdbcTemplate), _ -> {
+        });
+        InventoryWriteQueue queue = new InventoryWriteQueue(processor, transactions, 50, 1, 5000);
+
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            titles.add("Game " + i);
+            titles.add("GAME " + i + "™");
+        }
+
+        CountDownLatch halfway = new CountDownLatch(3);
+        List<CompletableFuture<Void>> scans = new ArrayList<>();
+
+        try {
+            for (int platformId = 1; platformId <= 3; platformId++) {
+                Platform platform = Platform.builder().id(platformId).name("Platform " + platformId).build();
+                Random random = new Random(platformId);
+
+                scans.add(CompletableFuture.runAsync(() -> {
+                    for (int round = 0; round < 40; round++) {
+                        if (round == 20) halfway.countDown();
+                        queue.submit(randomDelta(random, titles, round), platform, null, null).exceptionally(_ -> null).join();
+                    }
+                }));
+            }
+
+            assertTrue(halfway.await(30, TimeUnit.SECONDS));
+            readOnlyTransactions.executeWithoutResult(_ -> cache.warmUp());
+
+            CompletableFuture.allOf(scans.toArray(CompletableFuture[]::new)).get(60, TimeUnit.SECONDS);
+        } finally {
+            queue.close();
+        }
+
+        InventoryCache fresh = warmCache(100_000);
+
+        assertTrue(cache.isComplete());
+        assertEquals(fresh.stats(), cache.stats());
+        for (int platformId = 1; platformId <= 3; platformId++) {
+            assertEquals(fresh.entryStates(platformId), cache.entryStates(platformId));
+        }
+        for (String title : titles) {
+            String key = GameTitleKeys.of(title);
+            assertEquals(fresh.gameId(key), cache.gameId(key));
+        }
+    }
+
+    /**
+     * A few games with random state, some removed ids, and now and then a game without a title that fails its
+     * transaction
+     */
+    private static LocalScanDeltaDTO randomDelta(Random random, List<String> titles, int round) {
+
+        List<ScannedLocalGameDTO> changed = new ArrayList<>();
+        int count = 1 + random.nextInt(12);
+
+        for (int i = 0; i < count; i++) {
+            String title = titles.get(random.nextInt(titles.size()));
+            changed.add(ScannedLocalGameDTO.builder()
+                    .title(round % 7 == 3 && i == 0 ? null : title)
+                    .platformGameId(GameTitleKeys.of(title))
+                    .installPath("/games/" + title)
+                    .isInstalled(random.nextBoolean())
+                    .playtimeMinutes(random.nextInt(3) * 60)
+                    .downloadSize((long) random.nextInt(4) * 1024)
+                    .lastPlayed(random.nextBoolean() ? PLAYED.plusMinutes(round) : null)
+                    .build());
+        }
+
+        Set<String> removed = new HashSet<>();
+        for (int i = random.nextInt(4); i > 0; i--) {
+            removed.add(GameTitleKeys.of(titles.get(random.nextInt(titles.size()))));
+        }
+
+        return new LocalScanDeltaDTO(changed, List.copyOf(removed), 0);
+    }
+}
@@ -1,6 +1,9 @@
 package com.pantheon.backend.core.inventory.local;
 
-import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
+import com.pantheon.backend.core.inventory.local.job.ScanJob;
+import com.pantheon.backend.core.inventory.local.job.ScanJobManager;
+import com.pantheon.backend.core.inventory.local.processor.LocalScanCoordinator;
 import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
@@ -12,11 +15,14 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
-import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,7 +37,10 @@ class InventoryLocalDiscoveryServiceTest {
     private LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService;
 
     @Mock
-    private InventoryLocalScanService inventoryLocalScanService;
+    private ScanJobManager scanJobManager;
+
+    @Mock
+    private LocalScanCoordinator localScanCoordinator;
 
     @InjectMocks
     private InventoryLocalDiscoveryService inventoryLocalDiscoveryService;
@@ -52,8 +61,7 @@ class InventoryLocalDiscoveryServiceTest {
         inventoryLocalDiscoveryService.scanPlatforms();
 
         verify(platformRepository).findAll();
-        verify(inventoryLocalScanService).scanPlatformPaths(steamPlatform);
-        verify(inventoryLocalScanService).scanPlatformPaths(epicPlatform);
+        verify(localScanCoordinator).scanPlatforms(List.of(steamPlatform, epicPlatform));
     }
 
     @Test
@@ -64,8 +72,7 @@ class InventoryLocalDiscoveryServiceTest {
 
         verify(platformRepository, never()).findAll();
         verify(platformRepository).findByName("Steam");
-        verify(inventoryLocalScanService).scanPlatformPaths(steamPlatform);
-        verify(inventoryLocalScanService, never()).scanPlatformPaths(epicPlatform);
+        verify(localScanCoordinator).scanPlatforms(List.of(steamPlatform));
     }
 
     @Test
@@ -74,17 +81,52 @@ class InventoryLocalDiscoveryServiceTest {
 
         inventoryLocalDiscoveryService.scanPlatforms(new String[]{"Unknown"});
 
-        verify(localScanNotificationOrchestrationService).notifyError(anyString(), anyString());
-        verify(inventoryLocalScanService, never()).scanPlatformPaths(any());
+        verify(localScanNotificationOrchestrationService).notifyError(anyString(), isNull(), anyString());
+        verify(localScanCoordinator).scanPlatforms(List.of());
     }
 
     @Test
     void scanPlatform_ValidPlatform_ScansPlatform() {
         when(platformRepository.findByName("Steam")).thenReturn(Optional.of(steamPlatform));
 
-        inventoryLocalDiscoveryService.scanPlatform("Steam");
+        when(scanJobManager.submit(steamPlatform)).thenReturn(new ScanJob("job-1", "Steam"));
+
+        ScanJobDTO job = inventoryLocalDiscoveryService.scanPlatform("Steam");
+
+        verify(scanJobManager).submit(steamPlatform);
+        assertEquals("job-1", job.id());
+        assertEquals("Steam", job.platformName());
+    }
+
+    @Test
+    void scanPlatforms_ReturnsJobsOfCoordinator() {
+        when(platformRepository.findAll()).thenReturn(List.of(steamPlatform));
+        when(localScanCoordinator.scanPlatforms(List.of(steamPlatform))).thenReturn(List.of(new ScanJob("job-1", "Steam")));
+
+        List<ScanJobDTO> jobs = inventoryLocalDiscoveryService.scanPlatforms();
+
+        assertEquals(1, jobs.size());
+        assertEquals("job-1", jobs.get(0).id());
+    }
+
+    @Test
+    void cancelScanJob_KnownJob_ReturnsJob() {
+        ScanJob job = new ScanJob("job-1", "Steam");
+        job.cancel();
+        when(scanJobManager.cancel("job-1")).thenReturn(Optional.of(job));
+
+        Optional<ScanJobDTO> result = inventoryLocalDiscoveryService.cancelScanJob("job-1");
+
+        assertTrue(result.isPresent());
+        assertEquals("job-1", result.get().id());
+        assertTrue(result.get().cancelRequested());
+    }
+
+    @Test
+    void getScanJob_UnknownJob_ReturnsEmpty() {
+        when(scanJobManager.find("missing")).thenReturn(Optional.empty());
 
-        verify(inventoryLocalScanService).scanPlatformPaths(steamPlatform);
+        assertTrue(inventoryLocalDiscoveryService.getScanJob("missing").isEmpty());
     }
 
     @Test
@@ -93,6 +135,6 @@ class InventoryLocalDiscoveryServiceTest {
 
         assertThrows(IllegalArgumentException.class, () -> inventoryLocalDiscoveryService.scanPlatform("Unknown"));
 
-        verify(localScanNotificationOrchestrationService).notifyError(anyString(), anyString());
+        verify(localScanNotificationOrchestrationService).notifyError(anyString(), isNull(), anyString());
     }
 }
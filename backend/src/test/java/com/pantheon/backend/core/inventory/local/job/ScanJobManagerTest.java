@@ -0,0 +1,171 @@
+package com.pantheon.backend.core.inventory.local.job;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScanJobDTO;
+import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.platform.model.Platform;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ScanJobManagerTest {
+
+    @Mock
+    private InventoryLocalScanService inventoryLocalScanService;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @InjectMocks
+    private ScanJobManager scanJobManager;
+
+    private Platform platform;
+
+    @BeforeEach
+    void setUp() {
+        platform = Platform.builder().id(1).name("Steam").build();
+    }
+
+    @Test
+    void submit_SamePlatformWhileRunning_ReturnsRunningJob() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class))).thenAnswer(_ -> {
+            release.await(5, TimeUnit.SECONDS);
+            return new PlatformScanResultDTO("Steam", true, 3, List.of(), 10);
+        });
+
+        ScanJob first = scanJobManager.submit(platform);
+        ScanJob second = scanJobManager.submit(platform);
+
+        assertSame(first, second);
+
+        release.countDown();
+        PlatformScanResultDTO result = first.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(3, result.gamesFound());
+        assertEquals(ScanJobPhase.COMPLETED, first.getPhase());
+        verify(inventoryLocalScanService, times(1)).scanPlatform(eq(platform), any(ScanMonitor.class));
+    }
+
+    @Test
+    void submit_AfterJobFinished_StartsNewJob() throws Exception {
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class)))
+                .thenReturn(new PlatformScanResultDTO("Steam", true, 3, List.of(), 10));
+
+        ScanJob first = scanJobManager.submit(platform);
+        first.getCompletion().get(5, TimeUnit.SECONDS);
+
+        ScanJob second = scanJobManager.submit(platform);
+        second.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertNotSame(first, second);
+        assertEquals(2, scanJobManager.findAll().size());
+    }
+
+    @Test
+    void cancel_RunningJob_StopsScanThroughMonitor() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class))).thenAnswer(invocation -> {
+            ScanMonitor monitor = invocation.getArgument(1);
+            started.countDown();
+            while (!monitor.isCancelled()) {
+                Thread.sleep(5);
+            }
+            return new PlatformScanResultDTO("Steam", false, 0, List.of("/lib"), 10);
+        });
+
+        ScanJob job = scanJobManager.submit(platform);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(scanJobManager.cancel(job.getId()).isPresent());
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertEquals(ScanJobPhase.CANCELLED, job.getPhase());
+        assertFalse(job.cancel());
+    }
+
+    @Test
+    void submit_ScanThrows_FinishesJobAsFailed() throws Exception {
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class)))
+                .thenThrow(new IllegalStateException("No libraries paths configured"));
+
+        ScanJob job = scanJobManager.submit(platform);
+        PlatformScanResultDTO result = job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.success());
+        assertEquals(ScanJobPhase.FAILED, job.getPhase());
+    }
+
+    @Test
+    void submit_ScanThrowsError_FinishesJobAndFreesPlatform() throws Exception {
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class)))
+                .thenThrow(new StackOverflowError())
+                .thenReturn(new PlatformScanResultDTO("Steam", true, 3, List.of(), 10));
+
+        ScanJob first = scanJobManager.submit(platform);
+        PlatformScanResultDTO result = first.getCompletion().get(5, TimeUnit.SECONDS);
+
+        assertFalse(result.success());
+        assertEquals(ScanJobPhase.FAILED, first.getPhase());
+        verify(notificationService, timeout(5000)).endJob(first.getId());
+
+        ScanJob second = scanJobManager.submit(platform);
+        assertNotSame(first, second);
+        assertTrue(second.getCompletion().get(5, TimeUnit.SECONDS).success());
+    }
+
+    @Test
+    void submit_JobFinished_EndsItsStreamSubscriptions() throws Exception {
+        when(inventoryLocalScanService.scanPlatform(eq(platform), any(ScanMonitor.class)))
+                .thenThrow(new IllegalStateException("No libraries paths configured"));
+
+        ScanJob job = scanJobManager.submit(platform);
+        job.getCompletion().get(5, TimeUnit.SECONDS);
+
+        verify(notificationService, timeout(5000)).endJob(job.getId());
+    }
+
+    @Test
+    void toDTO_ReportsProgressCounters() {
+        ScanJob job = new ScanJob("job-1", "Steam");
+        job.onPathsFound(2);
+        job.onManifestsFound(10);
+        job.onManifestParsed();
+        job.onGamesFound(4);
+        job.onPathCompleted(true);
+        job.onPathCompleted(false);
+
+        ScanJobDTO dto = job.toDTO();
+
+        assertEquals(ScanJobPhase.QUEUED, dto.phase());
+        assertEquals(2, dto.pathsTotal());
+        assertEquals(1, dto.pathsCompleted());
+        assertEquals(1, dto.pathsFailed());
+        assertEquals(10, dto.manifestsFound());
+        assertEquals(1, dto.manifestsParsed());
+        assertEquals(4, dto.gamesFound());
+        assertEquals(0, dto.elapsedMillis());
+    }
+}
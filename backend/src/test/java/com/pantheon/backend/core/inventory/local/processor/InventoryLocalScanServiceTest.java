@@ -1,30 +1,42 @@
 package com.pantheon.backend.core.inventory.local.processor;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
 import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.library.local.ScanMonitor;
 import com.pantheon.backend.core.library.utils.ScannerUtil;
 import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
 import com.pantheon.backend.core.platform.model.Platform;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionOperations;
 
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.IntStream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -43,82 +55,225 @@ class InventoryLocalScanServiceTest {
     @Mock
     private LocalGameLibraryScanner scanner;
 
-    @InjectMocks
+    @Spy
+    private ScanConcurrencyLimiter scanConcurrencyLimiter = new ScanConcurrencyLimiter(2);
+
+    @Spy
+    private LocalScanPipeline localScanPipeline = new LocalScanPipeline(2, 4);
+
+    private InventoryWriteQueue inventoryWriteQueue;
+
     private InventoryLocalScanService inventoryLocalScanService;
 
     private Platform platform;
 
     @BeforeEach
     void setUp() {
+        inventoryWriteQueue = new InventoryWriteQueue(localGamesProcessor, TransactionOperations.withoutTransaction(), 1000, 0, 5000);
+        inventoryLocalScanService = new InventoryLocalScanService(localScanNotificationOrchestrationService, scannerUtil,
+                inventoryWriteQueue, scanConcurrencyLimiter, localScanPipeline);
+
         platform = Platform.builder()
                 .name("Steam")
                 .libraryPaths(List.of("/path/to/library"))
                 .build();
     }
 
+    @AfterEach
+    void tearDown() {
+        inventoryWriteQueue.close();
+    }
+
+    private void persistAll() {
+        when(localGamesProcessor.processScanDelta(any(LocalScanDeltaDTO.class), eq(platform), any(), any())).thenAnswer(invocation -> {
+            LocalScanDeltaDTO delta = invocation.getArgument(0);
+            return new ProcessedGamesSummaryDTO(delta.changed().size(), 0, delta.unchanged(), delta.removedPlatformGameIds().size());
+        });
+    }
+
     @Test
-    void scanPlatformPaths_SuccessfulScan() throws ScanFailureException {
+    void scanPlatform_SuccessfulScan() throws ScanFailureException {
         when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
         when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/to/library"));
         List<ScannedLocalGameDTO> games = List.of(ScannedLocalGameDTO.builder().title("Game 1").build());
-        when(scanner.scan(any(Path.class))).thenReturn(games);
+        LocalScanDeltaDTO delta = LocalScanDeltaDTO.full(games);
+        when(scanner.scanChanges(any(Path.class), any(ScanMonitor.class), any())).thenReturn(delta);
+        persistAll();
 
-        inventoryLocalScanService.scanPlatformPaths(platform);
+        inventoryLocalScanService.scanPlatform(platform);
 
-        verify(localScanNotificationOrchestrationService).notifyStart("Steam");
-        verify(localGamesProcessor).processScannedGames(games, platform);
-        verify(localScanNotificationOrchestrationService).notifyBatch("Steam", games);
-        verify(localScanNotificationOrchestrationService).notifyComplete("Steam", 1);
+        verify(localScanNotificationOrchestrationService).notifyStart("Steam", null);
+        verify(localGamesProcessor).processScanDelta(delta, platform, null, null);
+        verify(localScanNotificationOrchestrationService).notifyBatch("Steam", null, games);
+        verify(localScanNotificationOrchestrationService).notifyComplete("Steam", null, 1);
     }
 
     @Test
-    void scanPlatformPaths_NoScanner_ThrowsException() {
+    void scanPlatform_NoScanner_ThrowsException() {
         when(scannerUtil.getScannerForPlatform(platform)).thenThrow(new IllegalStateException("No scanner"));
 
-        assertThrows(IllegalStateException.class, () -> inventoryLocalScanService.scanPlatformPaths(platform));
+        assertThrows(IllegalStateException.class, () -> inventoryLocalScanService.scanPlatform(platform));
 
-        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), anyString());
+        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), isNull(), anyString());
     }
 
     @Test
-    void scanPlatformPaths_NoLibraryPaths_ThrowsException() {
+    void scanPlatform_NoLibraryPaths_ThrowsException() {
         when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
         when(scanner.getConfiguredLibraryPaths()).thenReturn(Collections.emptyList());
 
-        assertThrows(IllegalStateException.class, () -> inventoryLocalScanService.scanPlatformPaths(platform));
+        assertThrows(IllegalStateException.class, () -> inventoryLocalScanService.scanPlatform(platform));
 
-        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), anyString());
+        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), isNull(), anyString());
     }
 
     @Test
-    void scanPlatformPaths_ScanFailure_LogsErrorAndContinues() throws ScanFailureException {
+    void scanPlatform_ScanFailure_LogsErrorAndContinues() throws ScanFailureException {
         when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
         when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/to/library"));
-        doThrow(new ScanFailureException("Scan failed")).when(scanner).scan(any(Path.class));
+        doThrow(new ScanFailureException("Scan failed")).when(scanner).scanChanges(any(Path.class), any(ScanMonitor.class), any());
 
-        inventoryLocalScanService.scanPlatformPaths(platform);
+        inventoryLocalScanService.scanPlatform(platform);
 
-        verify(localScanNotificationOrchestrationService).notifyStart("Steam");
-        verify(localGamesProcessor, never()).processScannedGames(anyList(), any(Platform.class));
-        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), eq(1), anyList());
+        verify(localScanNotificationOrchestrationService).notifyStart("Steam", null);
+        verify(localGamesProcessor, never()).processScanDelta(any(LocalScanDeltaDTO.class), any(Platform.class), any(), any());
+        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), isNull(), eq(1), anyList());
     }
 
     @Test
-    void scanPlatformPaths_PartialFailure() throws ScanFailureException {
+    void scanPlatform_PartialFailure() throws ScanFailureException {
         platform.setLibraryPaths(List.of("/path/1", "/path/2"));
         when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
         when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/1", "/path/2"));
         
         // First path fails
-        doThrow(new ScanFailureException("Scan failed")).when(scanner).scan(Path.of("/path/1"));
+        doThrow(new ScanFailureException("Scan failed")).when(scanner).scanChanges(eq(Path.of("/path/1")), any(ScanMonitor.class), any());
         // Second path succeeds
         List<ScannedLocalGameDTO> games = List.of(ScannedLocalGameDTO.builder().title("Game 1").build());
-        when(scanner.scan(Path.of("/path/2"))).thenReturn(games);
+        LocalScanDeltaDTO delta = LocalScanDeltaDTO.full(games);
+        when(scanner.scanChanges(eq(Path.of("/path/2")), any(ScanMonitor.class), any())).thenReturn(delta);
+        persistAll();
+
+        inventoryLocalScanService.scanPlatform(platform);
+
+        verify(localScanNotificationOrchestrationService).notifyStart("Steam", null);
+        verify(localGamesProcessor).processScanDelta(delta, platform, null, null);
+        verify(localScanNotificationOrchestrationService).notifyComplete(eq("Steam"), isNull(), eq(1), eq(1), anyList());
+    }
+
+    @Test
+    void scanPlatform_PartialFailure_ReturnsResult() throws ScanFailureException {
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/1", "/path/2", "/path/3"));
+        doThrow(new ScanFailureException("Scan failed")).when(scanner).scanChanges(eq(Path.of("/path/2")), any(ScanMonitor.class), any());
+        when(scanner.scanChanges(eq(Path.of("/path/1")), any(ScanMonitor.class), any())).thenReturn(LocalScanDeltaDTO.full(List.of(ScannedLocalGameDTO.builder().title("Game 1").build())));
+        when(scanner.scanChanges(eq(Path.of("/path/3")), any(ScanMonitor.class), any())).thenReturn(new LocalScanDeltaDTO(List.of(), List.of(), 2));
+        persistAll();
+
+        PlatformScanResultDTO result = inventoryLocalScanService.scanPlatform(platform);
+
+        assertTrue(result.success());
+        assertEquals("Steam", result.platformName());
+        assertEquals(3, result.gamesFound());
+        assertEquals(List.of("/path/2"), result.failedPaths());
+        verify(scanConcurrencyLimiter, times(3)).run(any());
+    }
+
+    @Test
+    void scanPlatform_AllPathsFail_ReturnsFailure() throws ScanFailureException {
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/to/library"));
+        doThrow(new ScanFailureException("Scan failed")).when(scanner).scanChanges(any(Path.class), any(ScanMonitor.class), any());
+
+        PlatformScanResultDTO result = inventoryLocalScanService.scanPlatform(platform);
+
+        assertFalse(result.success());
+        assertEquals(List.of("/path/to/library"), result.failedPaths());
+    }
+
+    @Test
+    void scanPlatform_Cancelled_SkipsPathsAndReportsCancellation() throws ScanFailureException {
+        ScanMonitor cancelledMonitor = new ScanMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/1", "/path/2"));
+
+        PlatformScanResultDTO result = inventoryLocalScanService.scanPlatform(platform, cancelledMonitor);
+
+        assertFalse(result.success());
+        assertEquals(List.of("/path/1", "/path/2"), result.failedPaths());
+        verify(scanner, never()).scanChanges(any(Path.class), any(ScanMonitor.class), any());
+        verify(localScanNotificationOrchestrationService).notifyError("Steam", null, "Scan cancelled");
+    }
+
+    @Test
+    void scanPlatform_PersistFailure_ForgetsPathAndReportsFailure() throws ScanFailureException {
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/to/library"));
+        LocalScanDeltaDTO delta = LocalScanDeltaDTO.full(List.of(ScannedLocalGameDTO.builder().title("Game 1").build()));
+        when(scanner.scanChanges(any(Path.class), any(ScanMonitor.class), any())).thenReturn(delta);
+        when(localGamesProcessor.processScanDelta(delta, platform, null, null)).thenThrow(new IllegalStateException("database is locked"));
+
+        inventoryLocalScanService.scanPlatform(platform);
+
+        verify(scanner).forgetChanges(Path.of("/path/to/library"));
+        verify(localScanNotificationOrchestrationService, never()).notifyBatch(anyString(), any(), anyList());
+        verify(localScanNotificationOrchestrationService).notifyError(eq("Steam"), isNull(), eq(1), anyList());
+    }
+
+    @Test
+    void scanPlatform_LargeDelta_PersistsAndNotifiesInChunks() throws ScanFailureException {
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getConfiguredLibraryPaths()).thenReturn(List.of("/path/to/library"));
+        List<ScannedLocalGameDTO> games = IntStream.range(0, 5)
+                .mapToObj(i -> ScannedLocalGameDTO.builder().title("Game " + i).build())
+                .toList();
+        when(scanner.scanChanges(any(Path.class), any(ScanMonitor.class), any())).thenReturn(new LocalScanDeltaDTO(games, List.of("9"), 1));
+        when(scanner.getInstallRoot(Path.of("/path/to/library"))).thenReturn(Path.of("/path/to/library"));
+        persistAll();
+
+        PlatformScanResultDTO result = inventoryLocalScanService.scanPlatform(platform);
+
+        assertEquals(6, result.gamesFound());
+        verify(localGamesProcessor).processScanDelta(LocalScanDeltaDTO.full(games.subList(0, 2)), platform, "/path/to/library", null);
+        verify(localGamesProcessor).processScanDelta(LocalScanDeltaDTO.full(games.subList(2, 4)), platform, "/path/to/library", null);
+        verify(localGamesProcessor).processScanDelta(LocalScanDeltaDTO.full(games.subList(4, 5)), platform, "/path/to/library", null);
+        verify(localGamesProcessor).processScanDelta(new LocalScanDeltaDTO(List.of(), List.of("9"), 1), platform, "/path/to/library", null);
+        verify(localScanNotificationOrchestrationService, times(3)).notifyBatch(eq("Steam"), isNull(), anyList());
+        verify(localScanNotificationOrchestrationService).notifyComplete("Steam", null, 6);
+    }
+
+    @Test
+    void syncLibraryPath_ChangedFiles_PersistsDelta() throws ScanFailureException {
+        Path libraryPath = Path.of("/path/to/library");
+        List<Path> changedFiles = List.of(libraryPath.resolve("steamapps/appmanifest_1.acf"));
+        List<ScannedLocalGameDTO> games = List.of(ScannedLocalGameDTO.builder().title("Game 1").build());
+        LocalScanDeltaDTO delta = new LocalScanDeltaDTO(games, List.of("2"), 0);
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.scanChanges(libraryPath, changedFiles)).thenReturn(delta);
+        when(scanner.getInstallRoot(libraryPath)).thenReturn(libraryPath);
+        when(localGamesProcessor.processScanDelta(delta, platform, "/path/to/library", null)).thenReturn(new ProcessedGamesSummaryDTO(1, 0, 0, 1));
+
+        ProcessedGamesSummaryDTO summary = inventoryLocalScanService.syncLibraryPath(platform, libraryPath, changedFiles);
+
+        assertEquals(new ProcessedGamesSummaryDTO(1, 0, 0, 1), summary);
+        verify(localGamesProcessor).processScanDelta(delta, platform, "/path/to/library", null);
+        verify(scanner, never()).scanChanges(libraryPath);
+    }
+
+    @Test
+    void syncLibraryPath_NoChanges_SkipsProcessing() throws ScanFailureException {
+        Path libraryPath = Path.of("/path/to/library");
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.scanChanges(libraryPath)).thenReturn(LocalScanDeltaDTO.full(List.of()));
 
-        inventoryLocalScanService.scanPlatformPaths(platform);
+        ProcessedGamesSummaryDTO summary = inventoryLocalScanService.syncLibraryPath(platform, libraryPath, null);
 
-        verify(localScanNotificationOrchestrationService).notifyStart("Steam");
-        verify(localGamesProcessor).processScannedGames(games, platform);
-        verify(localScanNotificationOrchestrationService).notifyComplete(eq("Steam"), eq(1), eq(1), anyList());
+        assertEquals(ProcessedGamesSummaryDTO.EMPTY, summary);
+        verify(localGamesProcessor, never()).processScanDelta(any(), any(), any(), any());
     }
 }
@@ -0,0 +1,214 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.platform.model.Platform;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryWriteQueueTest {
+
+    @Mock
+    private LocalGamesProcessor localGamesProcessor;
+
+    private final CountingTransactions transactions = new CountingTransactions();
+
+    private final Platform platform = Platform.builder().id(1).name("Steam").build();
+
+    private InventoryWriteQueue queue;
+
+    @AfterEach
+    void tearDown() {
+        if (queue != null) queue.close();
+    }
+
+    private static LocalScanDeltaDTO delta(String... titles) {
+        return LocalScanDeltaDTO.full(List.of(titles).stream()
+                .map(title -> ScannedLocalGameDTO.builder().title(title).platformGameId(title).build())
+                .toList());
+    }
+
+    private static ProcessedGamesSummaryDTO inserted(LocalScanDeltaDTO delta) {
+        return new ProcessedGamesSummaryDTO(delta.changed().size(), 0, 0);
+    }
+
+    @Test
+    void write_CompletesWithSummaryOfOwnDelta() throws ScanFailureException {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        LocalScanDeltaDTO delta = delta("Hades", "Celeste");
+        when(localGamesProcessor.processScanDelta(delta, platform, null, null)).thenReturn(inserted(delta));
+
+        assertEquals(new ProcessedGamesSummaryDTO(2, 0, 0), queue.write(delta, platform, null, null));
+        assertEquals(1, transactions.count.get());
+    }
+
+    @Test
+    void submit_WritesQueuedWhileWriterIsBusy_AreCoalescedIntoOneTransaction() throws Exception {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalScanDeltaDTO first = delta("First");
+        when(localGamesProcessor.processScanDelta(any(LocalScanDeltaDTO.class), eq(platform), any(), any()))
+                .thenAnswer(invocation -> inserted(invocation.getArgument(0)));
+        when(localGamesProcessor.processScanDelta(eq(first), eq(platform), any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return inserted(first);
+        });
+
+        CompletableFuture<ProcessedGamesSummaryDTO> firstResult = queue.submit(first, platform, null, null);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ProcessedGamesSummaryDTO> a = queue.submit(delta("A"), platform, null, null);
+        CompletableFuture<ProcessedGamesSummaryDTO> b = queue.submit(delta("B", "C"), platform, null, null);
+        CompletableFuture<ProcessedGamesSummaryDTO> c = queue.submit(delta("D", "E", "F"), platform, null, null);
+        release.countDown();
+
+        assertEquals(1, firstResult.get(5, TimeUnit.SECONDS).inserted());
+        assertEquals(1, a.get(5, TimeUnit.SECONDS).inserted());
+        assertEquals(2, b.get(5, TimeUnit.SECONDS).inserted());
+        assertEquals(3, c.get(5, TimeUnit.SECONDS).inserted());
+        assertEquals(2, transactions.count.get());
+    }
+
+    @Test
+    void submit_BatchOverGameBudget_IsSplitAcrossTransactions() throws Exception {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 2, 0, 5000);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalScanDeltaDTO first = delta("First");
+        when(localGamesProcessor.processScanDelta(any(LocalScanDeltaDTO.class), eq(platform), any(), any()))
+                .thenAnswer(invocation -> inserted(invocation.getArgument(0)));
+        when(localGamesProcessor.processScanDelta(eq(first), eq(platform), any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return inserted(first);
+        });
+
+        queue.submit(first, platform, null, null);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ProcessedGamesSummaryDTO> a = queue.submit(delta("A", "B"), platform, null, null);
+        CompletableFuture<ProcessedGamesSummaryDTO> b = queue.submit(delta("C", "D"), platform, null, null);
+        release.countDown();
+
+        CompletableFuture.allOf(a, b).get(5, TimeUnit.SECONDS);
+        assertEquals(3, transactions.count.get());
+    }
+
+    @Test
+    void submit_FailingDeltaInBatch_OnlyFailsItsOwnCaller() throws Exception {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalScanDeltaDTO first = delta("First");
+        LocalScanDeltaDTO broken = delta("Broken");
+        when(localGamesProcessor.processScanDelta(any(LocalScanDeltaDTO.class), eq(platform), any(), any()))
+                .thenAnswer(invocation -> inserted(invocation.getArgument(0)));
+        when(localGamesProcessor.processScanDelta(eq(first), eq(platform), any(), any())).thenAnswer(invocation -> {
+            writing.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return inserted(first);
+        });
+        when(localGamesProcessor.processScanDelta(eq(broken), eq(platform), any(), any())).thenThrow(new IllegalStateException("constraint failed"));
+
+        queue.submit(first, platform, null, null);
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ProcessedGamesSummaryDTO> ok = queue.submit(delta("A"), platform, null, null);
+        CompletableFuture<ProcessedGamesSummaryDTO> failing = queue.submit(broken, platform, null, null);
+        release.countDown();
+
+        assertEquals(1, ok.get(5, TimeUnit.SECONDS).inserted());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failing.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void write_Failure_ThrowsScanFailureException() {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        LocalScanDeltaDTO delta = delta("Hades");
+        when(localGamesProcessor.processScanDelta(delta, platform, null, null)).thenThrow(new IllegalStateException("database is locked"));
+
+        ScanFailureException e = assertThrows(ScanFailureException.class, () -> queue.write(delta, platform, null, null));
+
+        assertTrue(e.getMessage().contains("database is locked"));
+    }
+
+    @Test
+    void submit_AfterClose_FailsImmediately() {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        queue.close();
+
+        CompletableFuture<ProcessedGamesSummaryDTO> result = queue.submit(delta("Hades"), platform, null, null);
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+    }
+
+    @Test
+    void writerDies_QueuedAndLaterWritesFailInsteadOfHanging() {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 5000);
+        LocalScanDeltaDTO delta = delta("Hades");
+        when(localGamesProcessor.processScanDelta(delta, platform, null, null)).thenThrow(new Error("writer crashed"));
+
+        ScanFailureException e = assertThrows(ScanFailureException.class, () -> queue.write(delta, platform, null, null));
+        assertInstanceOf(IllegalStateException.class, e.getCause());
+
+        CompletableFuture<ProcessedGamesSummaryDTO> later = queue.submit(delta("Celeste"), platform, null, null);
+        assertTrue(later.isCompletedExceptionally());
+    }
+
+    @Test
+    void write_NotDoneWithinTimeout_ThrowsScanFailureException() throws InterruptedException {
+        queue = new InventoryWriteQueue(localGamesProcessor, transactions, 100, 0, 50);
+        CountDownLatch release = new CountDownLatch(1);
+        LocalScanDeltaDTO delta = delta("Hades");
+        when(localGamesProcessor.processScanDelta(delta, platform, null, null)).thenAnswer(invocation -> {
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return inserted(delta);
+        });
+
+        try {
+            ScanFailureException e = assertThrows(ScanFailureException.class, () -> queue.write(delta, platform, null, null));
+            assertTrue(e.getMessage().contains("50 ms"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Runs callbacks without a transaction, counting how many transactions would have been opened
+     */
+    private static class CountingTransactions implements TransactionOperations {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            count.incrementAndGet();
+            return TransactionOperations.withoutTransaction().execute(action);
+        }
+    }
+}
@@ -1,45 +1,69 @@
 package com.pantheon.backend.core.inventory.local.processor;
 
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryAddedDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryUpdatedDTO;
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
-import com.pantheon.backend.core.inventory.mapper.GameMapper;
-import com.pantheon.backend.core.inventory.model.Game;
-import com.pantheon.backend.core.inventory.model.LibraryEntry;
-import com.pantheon.backend.core.inventory.repository.GameRepository;
+import com.pantheon.backend.core.inventory.matching.GameMatchingService;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
 import com.pantheon.backend.core.inventory.repository.LibraryEntryRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryVersionRepository;
+import com.pantheon.backend.core.notification.event.library.LibraryDeltaEvent;
 import com.pantheon.backend.core.platform.model.Platform;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class LocalGamesProcessorTest {
 
     @Mock
-    private GameRepository gameRepository;
+    private LibraryEntryRepository libraryEntryRepository;
 
     @Mock
-    private GameMapper gameMapper;
+    private InventoryBulkRepository inventoryBulkRepository;
 
     @Mock
-    private LibraryEntryRepository libraryEntryRepository;
+    private GameMatchingService gameMatchingService;
+
+    @Mock
+    private InventoryCache inventoryCache;
+
+    @Mock
+    private LibraryVersionRepository libraryVersionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private LocalGamesProcessor localGamesProcessor;
 
     private Platform platform;
     private ScannedLocalGameDTO scannedGameDTO;
-    private Game game;
 
     @BeforeEach
     void setUp() {
@@ -57,38 +81,166 @@ class LocalGamesProcessorTest {
                 .downloadSize(1024L)
                 .lastPlayed(LocalDateTime.now())
                 .build();
+    }
+
+    @Test
+    void processScanDelta_EmptyDelta_WritesNothing() {
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(LocalScanDeltaDTO.full(List.of()), platform, null, null);
+
+        assertEquals(ProcessedGamesSummaryDTO.EMPTY, summary);
+        verify(inventoryBulkRepository, never()).insertLibraryEntries(any(), anyCollection());
+        verifyNoInteractions(libraryEntryRepository, gameMatchingService, libraryVersionRepository, eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processScanDelta_NewGame_InsertsGameAndEntry() {
+        when(gameMatchingService.matchOrCreate(anyCollection())).thenReturn(Map.of("Test Game", 100));
+        when(libraryEntryRepository.findStatesByPlatformId(1)).thenReturn(List.of());
+
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(LocalScanDeltaDTO.full(List.of(scannedGameDTO)), platform, null, null);
+
+        assertEquals(new ProcessedGamesSummaryDTO(1, 0, 0), summary);
+
+        ArgumentCaptor<Collection<LibraryEntryStateDTO>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryBulkRepository).insertLibraryEntries(eq(1), captor.capture());
+
+        List<LibraryEntryStateDTO> inserted = new ArrayList<>(captor.getValue());
+        assertEquals(1, inserted.size());
+        assertEquals(100, inserted.get(0).gameId());
+        assertEquals(120, inserted.get(0).playtimeMinutes());
+        assertTrue(inserted.get(0).isInstalled());
+
+        LibraryDeltaEvent event = publishedDelta();
+        assertEquals(List.of(LibraryEntryAddedDTO.builder()
+                .gameId(100)
+                .title("Test Game")
+                .platformGameId("12345")
+                .isInstalled(true)
+                .installPath("/path/to/game")
+                .playtimeMinutes(120)
+                .gameSize(1024L)
+                .lastPlayed(scannedGameDTO.lastPlayed())
+                .build()), event.added());
+        assertTrue(event.updated().isEmpty());
+    }
 
-        game = new Game();
-        game.setId(100);
-        game.setTitle("Test Game");
+    @Test
+    @SuppressWarnings("unchecked")
+    void processScanDelta_UnchangedEntry_WritesNothing() {
+        when(gameMatchingService.matchOrCreate(anyCollection())).thenReturn(Map.of("Test Game", 100));
+        when(libraryEntryRepository.findStatesByPlatformId(1)).thenReturn(List.of(stateFor(scannedGameDTO)));
+
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(LocalScanDeltaDTO.full(List.of(scannedGameDTO)), platform, null, null);
+
+        assertEquals(new ProcessedGamesSummaryDTO(0, 0, 1), summary);
+
+        ArgumentCaptor<Collection<LibraryEntryStateDTO>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryBulkRepository).updateLibraryEntries(eq(1), captor.capture());
+        assertTrue(captor.getValue().isEmpty());
+        verifyNoInteractions(libraryVersionRepository, eventPublisher);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void processScanDelta_ChangedEntry_UpdatesOnlyThatEntry() {
+        when(gameMatchingService.matchOrCreate(anyCollection())).thenReturn(Map.of("Test Game", 100));
+
+        LibraryEntryStateDTO stored = stateFor(scannedGameDTO).toBuilder().isInstalled(false).build();
+        when(libraryEntryRepository.findStatesByPlatformId(1)).thenReturn(List.of(stored));
+
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(LocalScanDeltaDTO.full(List.of(scannedGameDTO)), platform, null, null);
+
+        assertEquals(new ProcessedGamesSummaryDTO(0, 1, 0), summary);
+
+        ArgumentCaptor<Collection<LibraryEntryStateDTO>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryBulkRepository).updateLibraryEntries(eq(1), captor.capture());
+
+        LibraryEntryStateDTO updated = captor.getValue().iterator().next();
+        assertEquals(7, updated.id());
+        assertTrue(updated.isInstalled());
+
+        LibraryDeltaEvent event = publishedDelta();
+        assertEquals(List.of(new LibraryEntryUpdatedDTO(100, Map.of("isInstalled", true))), event.updated());
+        assertTrue(event.added().isEmpty());
     }
 
     @Test
-    void processScannedGames_NewGame_CreatesGameAndLibraryEntry() {
-        when(gameRepository.findByTitle("Test Game")).thenReturn(Optional.empty());
-        when(gameMapper.toEntity(scannedGameDTO)).thenReturn(game);
-        when(gameRepository.save(game)).thenReturn(game);
-        when(libraryEntryRepository.findByGameIdAndPlatformId(100, 1)).thenReturn(Optional.empty());
+    void processScanDelta_MarksRemovedGamesUninstalled() {
+        when(inventoryBulkRepository.markUninstalled(1, "/library", List.of("999"))).thenReturn(1);
 
-        localGamesProcessor.processScannedGames(List.of(scannedGameDTO), platform);
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(new LocalScanDeltaDTO(List.of(), List.of("999"), 4), platform, "/library", null);
 
-        verify(gameRepository).save(game);
-        verify(libraryEntryRepository).save(any(LibraryEntry.class));
+        assertEquals(new ProcessedGamesSummaryDTO(0, 0, 4, 1), summary);
+        verify(inventoryBulkRepository).markUninstalled(1, "/library", List.of("999"));
+        verify(inventoryCache).entriesUninstalled(1, "/library", List.of("999"));
     }
 
     @Test
-    void processScannedGames_ExistingGame_UpdatesLibraryEntry() {
-        when(gameRepository.findByTitle("Test Game")).thenReturn(Optional.of(game));
-        
-        LibraryEntry existingEntry = new LibraryEntry();
-        existingEntry.setGame(game);
-        existingEntry.setPlatform(platform);
-        
-        when(libraryEntryRepository.findByGameIdAndPlatformId(100, 1)).thenReturn(Optional.of(existingEntry));
-
-        localGamesProcessor.processScannedGames(List.of(scannedGameDTO), platform);
-
-        verify(gameRepository, org.mockito.Mockito.never()).save(any(Game.class));
-        verify(libraryEntryRepository).save(existingEntry);
+    @SuppressWarnings("unchecked")
+    void processScanDelta_WarmCache_DiffsAgainstCachedEntries() {
+        when(inventoryCache.isComplete()).thenReturn(true);
+        when(gameMatchingService.matchOrCreate(anyCollection())).thenReturn(Map.of("Test Game", 100));
+        LibraryEntryStateDTO cached = stateFor(scannedGameDTO).toBuilder().id(null).isInstalled(false).build();
+        when(inventoryCache.entryStates(1)).thenReturn(Map.of(100, cached));
+
+        ProcessedGamesSummaryDTO summary = localGamesProcessor.processScanDelta(LocalScanDeltaDTO.full(List.of(scannedGameDTO)), platform, null, null);
+
+        assertEquals(new ProcessedGamesSummaryDTO(0, 1, 0), summary);
+        verify(libraryEntryRepository, never()).findStatesByPlatformId(any());
+
+        ArgumentCaptor<Collection<LibraryEntryStateDTO>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(inventoryCache, org.mockito.Mockito.times(2)).entriesWritten(eq(1), captor.capture());
+        assertTrue(captor.getAllValues().get(0).isEmpty());
+        assertTrue(captor.getAllValues().get(1).iterator().next().isInstalled());
+    }
+
+    @Test
+    void processScanDelta_RemovedInstalledGame_PublishesItsGameId() {
+        when(libraryEntryRepository.findStatesByPlatformId(1)).thenReturn(List.of(
+                stateFor(scannedGameDTO).toBuilder().platformGameId("999").build(),
+                stateFor(scannedGameDTO).toBuilder().gameId(101).platformGameId("998").isInstalled(false).build()));
+        when(inventoryBulkRepository.markUninstalled(1, null, List.of("999", "998"))).thenReturn(1);
+
+        localGamesProcessor.processScanDelta(new LocalScanDeltaDTO(List.of(), List.of("999", "998"), 0), platform, null, "job-1");
+
+        LibraryDeltaEvent event = publishedDelta();
+        assertEquals(List.of(100), event.removed());
+        assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
+    }
+
+    @Test
+    void processScanDelta_RemovedGameInstalledInOtherLibrary_NotPublished() {
+        when(libraryEntryRepository.findStatesByPlatformId(1)).thenReturn(List.of(
+                stateFor(scannedGameDTO).toBuilder().platformGameId("999").installPath("/library/b/Hades").build()));
+
+        localGamesProcessor.processScanDelta(new LocalScanDeltaDTO(List.of(), List.of("999"), 0), platform, "/library/a", null);
+
+        verify(inventoryBulkRepository).markUninstalled(1, "/library/a", List.of("999"));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    /**
+     * @return the single delta published, checking the library version was bumped for it
+     */
+    private LibraryDeltaEvent publishedDelta() {
+        ArgumentCaptor<LibraryDeltaEvent> captor = ArgumentCaptor.forClass(LibraryDeltaEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
+        verify(libraryVersionRepository).increment();
+        return captor.getValue();
+    }
+
+    private LibraryEntryStateDTO stateFor(ScannedLocalGameDTO dto) {
+        return LibraryEntryStateDTO.builder()
+                .id(7)
+                .gameId(100)
+                .isInstalled(dto.isInstalled())
+                .installPath(dto.installPath())
+                .platformGameId(dto.platformGameId())
+                .playtimeMinutes(dto.playtimeMinutes())
+                .gameSize(dto.downloadSize())
+                .lastPlayed(dto.lastPlayed())
+                .build();
     }
 }
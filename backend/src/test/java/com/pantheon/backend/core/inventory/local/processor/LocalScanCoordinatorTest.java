@@ -0,0 +1,59 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.job.ScanJob;
+import com.pantheon.backend.core.inventory.local.job.ScanJobManager;
+import com.pantheon.backend.core.notification.LocalScanNotificationOrchestrationService;
+import com.pantheon.backend.core.platform.model.Platform;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LocalScanCoordinatorTest {
+
+    @Mock
+    private ScanJobManager scanJobManager;
+
+    @Mock
+    private LocalScanNotificationOrchestrationService localScanNotificationOrchestrationService;
+
+    @InjectMocks
+    private LocalScanCoordinator localScanCoordinator;
+
+    @Test
+    void scanPlatforms_SubmitsJobsAndPublishesOnceAllFinish() {
+        Platform steam = Platform.builder().id(1).name("Steam").build();
+        Platform epic = Platform.builder().id(2).name("Epic").build();
+        ScanJob steamJob = new ScanJob("job-1", "Steam");
+        ScanJob epicJob = new ScanJob("job-2", "Epic");
+        when(scanJobManager.submit(steam)).thenReturn(steamJob);
+        when(scanJobManager.submit(epic)).thenReturn(epicJob);
+
+        List<ScanJob> jobs = localScanCoordinator.scanPlatforms(List.of(steam, epic));
+
+        assertEquals(List.of(steamJob, epicJob), jobs);
+
+        PlatformScanResultDTO steamResult = new PlatformScanResultDTO("Steam", true, 10, List.of(), 100);
+        steamJob.getCompletion().complete(steamResult);
+
+        verify(localScanNotificationOrchestrationService, never()).notifyAllComplete(anyList(), anyLong());
+
+        PlatformScanResultDTO epicResult = PlatformScanResultDTO.failed("Epic", 50);
+        epicJob.getCompletion().complete(epicResult);
+
+        verify(localScanNotificationOrchestrationService).notifyAllComplete(eq(List.of(steamResult, epicResult)), anyLong());
+    }
+}
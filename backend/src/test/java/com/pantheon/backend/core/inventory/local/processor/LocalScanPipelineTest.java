@@ -0,0 +1,210 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
+import com.pantheon.backend.core.inventory.local.dto.ProcessedGamesSummaryDTO;
+import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalScanPipelineTest {
+
+    private final LocalScanPipeline pipeline = new LocalScanPipeline(2, 4);
+
+    private static ScannedLocalGameDTO game(int i) {
+        return ScannedLocalGameDTO.builder().platformGameId(String.valueOf(i)).title("Game " + i).build();
+    }
+
+    private static ProcessedGamesSummaryDTO inserted(LocalScanDeltaDTO chunk) {
+        return new ProcessedGamesSummaryDTO(chunk.changed().size(), 0, chunk.unchanged(), chunk.removedPlatformGameIds().size());
+    }
+
+    @Test
+    void run_StreamedGames_PersistsChunksThenTail() throws ScanFailureException {
+        List<LocalScanDeltaDTO> persisted = Collections.synchronizedList(new ArrayList<>());
+        List<List<ScannedLocalGameDTO>> notified = Collections.synchronizedList(new ArrayList<>());
+
+        ProcessedGamesSummaryDTO summary = pipeline.run(
+                (sink, monitor) -> {
+                    for (int i = 0; i < 5; i++) sink.accept(game(i));
+                    return new LocalScanDeltaDTO(List.of(), List.of("9"), 3);
+                },
+                chunk -> {
+                    persisted.add(chunk);
+                    return inserted(chunk);
+                },
+                notified::add,
+                ScanMonitor.NONE);
+
+        assertEquals(new ProcessedGamesSummaryDTO(5, 0, 3, 1), summary);
+        assertEquals(4, persisted.size());
+        assertEquals(new LocalScanDeltaDTO(List.of(), List.of("9"), 3), persisted.get(3));
+        assertEquals(List.of(List.of(game(0), game(1)), List.of(game(2), game(3)), List.of(game(4))), notified);
+    }
+
+    @Test
+    void run_ReturnedGames_AreFedThroughThePipeline() throws ScanFailureException {
+        List<List<ScannedLocalGameDTO>> notified = Collections.synchronizedList(new ArrayList<>());
+
+        ProcessedGamesSummaryDTO summary = pipeline.run(
+                (sink, monitor) -> LocalScanDeltaDTO.full(List.of(game(1), game(2), game(3))),
+                LocalScanPipelineTest::inserted,
+                notified::add,
+                ScanMonitor.NONE);
+
+        assertEquals(3, summary.total());
+        assertEquals(List.of(List.of(game(1), game(2)), List.of(game(3))), notified);
+    }
+
+    @Test
+    void run_SlowProducer_FlushesPartialChunk() throws ScanFailureException {
+        CountDownLatch firstChunkNotified = new CountDownLatch(1);
+        AtomicBoolean flushedEarly = new AtomicBoolean();
+
+        pipeline.run(
+                (sink, monitor) -> {
+                    sink.accept(game(1));
+                    try {
+                        flushedEarly.set(firstChunkNotified.await(2, TimeUnit.SECONDS));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    sink.accept(game(2));
+                    return LocalScanDeltaDTO.full(List.of());
+                },
+                LocalScanPipelineTest::inserted,
+                chunk -> firstChunkNotified.countDown(),
+                ScanMonitor.NONE);
+
+        assertTrue(flushedEarly.get());
+    }
+
+    @Test
+    void run_SlowPersister_BlocksProducer() throws ScanFailureException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger produced = new AtomicInteger();
+        AtomicInteger producedWhileBlocked = new AtomicInteger();
+
+        Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            producedWhileBlocked.set(produced.get());
+            release.countDown();
+        });
+
+        pipeline.run(
+                (sink, monitor) -> {
+                    for (int i = 0; i < 50; i++) {
+                        sink.accept(game(i));
+                        produced.incrementAndGet();
+                    }
+                    return LocalScanDeltaDTO.full(List.of());
+                },
+                chunk -> {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return inserted(chunk);
+                },
+                chunk -> {
+                },
+                ScanMonitor.NONE);
+
+        // queue capacity + the chunk being persisted + the game blocked in the sink
+        assertTrue(producedWhileBlocked.get() <= 7, "produced " + producedWhileBlocked.get() + " games while blocked");
+        assertEquals(50, produced.get());
+    }
+
+    @Test
+    void run_PersistFailure_CancelsProducerAndThrows() {
+        AtomicBoolean producerCancelled = new AtomicBoolean();
+
+        ScanFailureException e = assertThrows(ScanFailureException.class, () -> pipeline.run(
+                (sink, monitor) -> {
+                    int i = 0;
+                    while (!monitor.isCancelled()) sink.accept(game(i++));
+                    producerCancelled.set(true);
+                    monitor.checkCancelled();
+                    return LocalScanDeltaDTO.full(List.of());
+                },
+                chunk -> {
+                    throw new ScanFailureException("database is locked");
+                },
+                chunk -> {
+                },
+                ScanMonitor.NONE));
+
+        assertEquals("database is locked", e.getMessage());
+        assertTrue(producerCancelled.get());
+    }
+
+    @Test
+    void run_ProducerFailure_PersistsWhatWasFoundAndThrows() {
+        List<ScannedLocalGameDTO> notified = Collections.synchronizedList(new ArrayList<>());
+
+        ScanFailureException e = assertThrows(ScanFailureException.class, () -> pipeline.run(
+                (sink, monitor) -> {
+                    sink.accept(game(1));
+                    throw new ScanFailureException("disk gone");
+                },
+                LocalScanPipelineTest::inserted,
+                notified::addAll,
+                ScanMonitor.NONE));
+
+        assertEquals("disk gone", e.getMessage());
+        assertEquals(List.of(game(1)), notified);
+    }
+
+    @Test
+    void run_NotifierFailure_IsIgnored() throws ScanFailureException {
+        ProcessedGamesSummaryDTO summary = pipeline.run(
+                (sink, monitor) -> LocalScanDeltaDTO.full(List.of(game(1))),
+                LocalScanPipelineTest::inserted,
+                chunk -> {
+                    throw new IllegalStateException("client gone");
+                },
+                ScanMonitor.NONE);
+
+        assertEquals(1, summary.inserted());
+    }
+
+    @Test
+    void run_NotifierDiesWithError_PersisterStillFinishes() {
+        AtomicInteger notifications = new AtomicInteger();
+
+        ProcessedGamesSummaryDTO summary = assertTimeoutPreemptively(Duration.ofSeconds(5), () -> pipeline.run(
+                (sink, monitor) -> {
+                    // Many more chunks than the notifier queue holds
+                    for (int i = 0; i < 20; i++) sink.accept(game(i));
+                    return LocalScanDeltaDTO.full(List.of());
+                },
+                LocalScanPipelineTest::inserted,
+                chunk -> {
+                    notifications.incrementAndGet();
+                    throw new StackOverflowError();
+                },
+                ScanMonitor.NONE));
+
+        assertEquals(20, summary.inserted());
+        assertEquals(1, notifications.get());
+    }
+}
@@ -0,0 +1,61 @@
+package com.pantheon.backend.core.inventory.local.processor;
+
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanConcurrencyLimiterTest {
+
+    @Test
+    void run_ManyTasks_NeverExceedsParallelism() throws Exception {
+        ScanConcurrencyLimiter limiter = new ScanConcurrencyLimiter(2);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 10; i++) {
+                int value = i;
+                futures.add(executor.submit(() -> limiter.run(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(20);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    return value;
+                })));
+            }
+        }
+
+        int sum = 0;
+        for (Future<Integer> future : futures) {
+            sum += future.get();
+        }
+
+        assertEquals(45, sum);
+        assertTrue(maxRunning.get() <= 2);
+    }
+
+    @Test
+    void run_TaskFails_ReleasesPermit() throws ScanFailureException {
+        ScanConcurrencyLimiter limiter = new ScanConcurrencyLimiter(1);
+
+        assertThrows(ScanFailureException.class, () -> limiter.run(() -> {
+            throw new ScanFailureException("Scan failed");
+        }));
+
+        assertEquals("ok", limiter.run(() -> "ok"));
+    }
+}
@@ -0,0 +1,118 @@
+package com.pantheon.backend.core.inventory.matching;
+
+import com.pantheon.backend.core.inventory.cache.InventoryCache;
+import com.pantheon.backend.core.inventory.local.dto.GameTitleKeyRefDTO;
+import com.pantheon.backend.core.inventory.local.dto.GameTitleRefDTO;
+import com.pantheon.backend.core.inventory.model.Game;
+import com.pantheon.backend.core.inventory.repository.GameRepository;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GameMatchingServiceTest {
+
+    @Mock
+    private GameRepository gameRepository;
+
+    @Mock
+    private InventoryBulkRepository inventoryBulkRepository;
+
+    @Mock
+    private InventoryCache inventoryCache;
+
+    @InjectMocks
+    private GameMatchingService gameMatchingService;
+
+    @Test
+    void findMatch_ProbesTitleKey() {
+        Game doom = Game.builder().id(1).title("DOOM").build();
+        when(gameRepository.findFirstByTitleKeyOrderByIdAsc("doom")).thenReturn(Optional.of(doom));
+
+        assertEquals(Optional.of(doom), gameMatchingService.findMatch("Doom"));
+    }
+
+    @Test
+    void matchOrCreate_ExistingKey_MatchesAcrossSpellings() {
+        when(gameRepository.findTitleKeyRefsByTitleKeyIn(List.of("doom")))
+                .thenReturn(List.of(new GameTitleKeyRefDTO(1, "doom"), new GameTitleKeyRefDTO(5, "doom")));
+
+        Map<String, Integer> ids = gameMatchingService.matchOrCreate(List.of("DOOM", "Doom"));
+
+        assertEquals(Map.of("DOOM", 1, "Doom", 1), ids);
+        verify(inventoryBulkRepository, never()).insertGames(anyCollection());
+    }
+
+    @Test
+    void matchOrCreate_MissingKeys_InsertsOneGamePerKey() {
+        when(gameRepository.findTitleKeyRefsByTitleKeyIn(List.of("celeste", "hades")))
+                .thenReturn(List.of())
+                .thenReturn(List.of(new GameTitleKeyRefDTO(7, "celeste"), new GameTitleKeyRefDTO(8, "hades")));
+
+        Map<String, Integer> ids = gameMatchingService.matchOrCreate(List.of("Celeste", "HADES", "Hades™"));
+
+        assertEquals(Map.of("Celeste", 7, "HADES", 8, "Hades™", 8), ids);
+        verify(inventoryBulkRepository).insertGames(List.of("Celeste", "HADES"));
+        verify(inventoryCache).gamesInserted(Map.of("celeste", 7, "hades", 8));
+    }
+
+    @Test
+    void matchOrCreate_WarmCache_OnlyQueriesInsertedKeys() {
+        when(inventoryCache.isComplete()).thenReturn(true);
+        when(inventoryCache.gameId("doom")).thenReturn(1);
+        when(gameRepository.findTitleKeyRefsByTitleKeyIn(List.of("celeste"))).thenReturn(List.of(new GameTitleKeyRefDTO(7, "celeste")));
+
+        Map<String, Integer> ids = gameMatchingService.matchOrCreate(List.of("DOOM", "Celeste"));
+
+        assertEquals(Map.of("DOOM", 1, "Celeste", 7), ids);
+        verify(inventoryBulkRepository).insertGames(List.of("Celeste"));
+        verify(gameRepository, never()).findTitleKeyRefsByTitleKeyIn(List.of("doom"));
+        verify(inventoryCache).gamesInserted(Map.of("celeste", 7));
+    }
+
+    @Test
+    void matchOrCreate_WarmCacheAllHits_NeverTouchesDatabase() {
+        when(inventoryCache.isComplete()).thenReturn(true);
+        when(inventoryCache.gameId("doom")).thenReturn(1);
+
+        assertEquals(Map.of("Doom", 1), gameMatchingService.matchOrCreate(List.of("Doom")));
+
+        verify(gameRepository, never()).findTitleKeyRefsByTitleKeyIn(anyList());
+        verify(inventoryBulkRepository, never()).insertGames(anyCollection());
+    }
+
+    @Test
+    void backfillTitleKeys_ComputesKeysAndMergesDuplicates() {
+        when(inventoryBulkRepository.findGamesWithoutTitleKey())
+                .thenReturn(List.of(new GameTitleRefDTO(1, "DOOM"), new GameTitleRefDTO(2, "Doom")));
+        when(inventoryBulkRepository.mergeDuplicateGames()).thenReturn(1);
+
+        gameMatchingService.backfillTitleKeys();
+
+        verify(inventoryBulkRepository).updateTitleKeys(Map.of(1, "doom", 2, "doom"));
+        verify(inventoryBulkRepository).mergeDuplicateGames();
+    }
+
+    @Test
+    void backfillTitleKeys_NothingToBackfill_SkipsMerge() {
+        when(inventoryBulkRepository.findGamesWithoutTitleKey()).thenReturn(List.of());
+
+        gameMatchingService.backfillTitleKeys();
+
+        verify(inventoryBulkRepository, never()).mergeDuplicateGames();
+    }
+}
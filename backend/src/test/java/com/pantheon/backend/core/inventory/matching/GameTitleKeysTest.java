@@ -0,0 +1,41 @@
+package com.pantheon.backend.core.inventory.matching;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class GameTitleKeysTest {
+
+    @Test
+    void of_CaseAndPunctuation_AreIgnored() {
+        assertEquals(GameTitleKeys.of("DOOM"), GameTitleKeys.of("Doom"));
+        assertEquals(GameTitleKeys.of("Half-Life 2"), GameTitleKeys.of("Half Life 2"));
+        assertEquals("thewitcher3wildhunt", GameTitleKeys.of("The Witcher 3: Wild Hunt"));
+    }
+
+    @Test
+    void of_TrademarksAndDiacritics_AreStripped() {
+        assertEquals("pokemon", GameTitleKeys.of("Pokémon™"));
+        assertEquals("tomclancysrainbowsixsiege", GameTitleKeys.of("Tom Clancy's Rainbow Six® Siege"));
+        assertEquals(GameTitleKeys.of("Ōkami HD"), GameTitleKeys.of("Okami HD"));
+    }
+
+    @Test
+    void of_Ampersand_ReadsAsAnd() {
+        assertEquals(GameTitleKeys.of("Ratchet & Clank"), GameTitleKeys.of("Ratchet and Clank"));
+    }
+
+    @Test
+    void of_DifferentGames_KeepDifferentKeys() {
+        assertNotEquals(GameTitleKeys.of("DOOM"), GameTitleKeys.of("DOOM II"));
+        assertNotEquals(GameTitleKeys.of("Portal"), GameTitleKeys.of("Portal 2"));
+    }
+
+    @Test
+    void of_NoLettersOrDigits_FallsBackToTitle() {
+        assertEquals("???", GameTitleKeys.of(" ??? "));
+        assertNull(GameTitleKeys.of(null));
+    }
+}
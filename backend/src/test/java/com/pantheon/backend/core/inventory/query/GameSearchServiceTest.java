@@ -0,0 +1,68 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import com.pantheon.backend.core.inventory.repository.GameSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GameSearchServiceTest {
+
+    @Mock
+    private GameSearchRepository gameSearchRepository;
+
+    private GameSearchService gameSearchService;
+
+    @BeforeEach
+    void setUp() {
+        gameSearchService = new GameSearchService(gameSearchRepository, 50, 200);
+    }
+
+    @Test
+    void toMatchExpression_QuotesEveryWordAsPrefix() {
+        assertEquals("\"hol\"* \"kni\"*", GameSearchService.toMatchExpression("  hol kni"));
+    }
+
+    @Test
+    void toMatchExpression_DropsSyntax() {
+        assertEquals("\"half\"* \"OR\"* \"NEAR\"* \"life\"*", GameSearchService.toMatchExpression("half\" OR NEAR(life*)"));
+    }
+
+    @Test
+    void toMatchExpression_NoWords_ReturnsNull() {
+        assertNull(GameSearchService.toMatchExpression(" -:* "));
+        assertNull(GameSearchService.toMatchExpression(null));
+    }
+
+    @Test
+    void search_UsesDefaultLimit() {
+        List<GameSearchResultDTO> results = List.of(GameSearchResultDTO.builder().id(1).title("Hades").build());
+        when(gameSearchRepository.search("\"had\"*", 50)).thenReturn(results);
+
+        assertEquals(results, gameSearchService.search("had", null));
+    }
+
+    @Test
+    void search_NoWords_SkipsDatabase() {
+        assertTrue(gameSearchService.search("  ", 10).isEmpty());
+        verifyNoInteractions(gameSearchRepository);
+    }
+
+    @Test
+    void search_LimitOutOfRange_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> gameSearchService.search("hades", 0));
+        assertThrows(IllegalArgumentException.class, () -> gameSearchService.search("hades", 201));
+    }
+}
@@ -0,0 +1,29 @@
+package com.pantheon.backend.core.inventory.query;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LibraryEntryCursorTest {
+
+    @Test
+    void encode_Decode_RoundTripsIntegerSortValue() {
+        LibraryEntryCursor cursor = new LibraryEntryCursor(LibraryEntrySort.PLAYTIME, true, 120L, 42);
+
+        assertEquals(cursor, LibraryEntryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void encode_Decode_RoundTripsTextSortValueContainingSeparator() {
+        LibraryEntryCursor cursor = new LibraryEntryCursor(LibraryEntrySort.LAST_PLAYED, false, "2026-01-01 12:00:00.000", 7);
+
+        assertEquals(cursor, LibraryEntryCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void decode_Garbage_ThrowsIllegalArgumentException() {
+        assertThrows(IllegalArgumentException.class, () -> LibraryEntryCursor.decode("not a cursor!"));
+        assertThrows(IllegalArgumentException.class, () -> LibraryEntryCursor.decode("U0laRTpkZXNjOng6aTE"));
+    }
+}
@@ -0,0 +1,85 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryQueryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class LibraryEntryQueryServiceTest {
+
+    @Mock
+    private LibraryEntryQueryRepository libraryEntryQueryRepository;
+
+    private LibraryEntryQueryService libraryEntryQueryService;
+
+    @BeforeEach
+    void setUp() {
+        libraryEntryQueryService = new LibraryEntryQueryService(libraryEntryQueryRepository, 50, 200);
+    }
+
+    @Test
+    void findEntries_Defaults_MostRecentlyPlayedFirstWithDefaultSize() {
+        LibraryEntryPageDTO page = new LibraryEntryPageDTO(List.of(), null);
+        LibraryEntryQueryDTO expected = LibraryEntryQueryDTO.builder().sort(LibraryEntrySort.LAST_PLAYED).build();
+        when(libraryEntryQueryRepository.findPage(expected, null, 50)).thenReturn(page);
+
+        assertEquals(page, libraryEntryQueryService.findEntries(LibraryEntryQueryDTO.builder().build()));
+    }
+
+    @Test
+    void findEntries_Cursor_IsDecodedForRepository() {
+        LibraryEntryCursor cursor = new LibraryEntryCursor(LibraryEntrySort.SIZE, true, 1024L, 9);
+        LibraryEntryQueryDTO query = LibraryEntryQueryDTO.builder()
+                .sort(LibraryEntrySort.SIZE)
+                .ascending(true)
+                .limit(10)
+                .cursor(cursor.encode())
+                .build();
+
+        libraryEntryQueryService.findEntries(query);
+
+        verify(libraryEntryQueryRepository).findPage(eq(query), eq(cursor), eq(10));
+    }
+
+    @Test
+    void findEntries_CursorOfOtherOrder_Rejected() {
+        String cursor = new LibraryEntryCursor(LibraryEntrySort.SIZE, false, 1024L, 9).encode();
+        LibraryEntryQueryDTO query = LibraryEntryQueryDTO.builder().sort(LibraryEntrySort.PLAYTIME).cursor(cursor).build();
+
+        assertThrows(IllegalArgumentException.class, () -> libraryEntryQueryService.findEntries(query));
+        verifyNoInteractions(libraryEntryQueryRepository);
+    }
+
+    @Test
+    void findEntries_PageSizeOutOfRange_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> libraryEntryQueryService.findEntries(LibraryEntryQueryDTO.builder().limit(0).build()));
+        assertThrows(IllegalArgumentException.class,
+                () -> libraryEntryQueryService.findEntries(LibraryEntryQueryDTO.builder().limit(201).build()));
+        verifyNoInteractions(libraryEntryQueryRepository);
+    }
+
+    @Test
+    void findEntries_MaxPageSize_Accepted() {
+        libraryEntryQueryService.findEntries(LibraryEntryQueryDTO.builder().limit(200).build());
+
+        verify(libraryEntryQueryRepository).findPage(any(LibraryEntryQueryDTO.class), isNull(), anyInt());
+    }
+}
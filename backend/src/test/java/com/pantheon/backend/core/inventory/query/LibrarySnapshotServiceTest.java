@@ -0,0 +1,113 @@
+package com.pantheon.backend.core.inventory.query;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryViewDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibrarySnapshotHeaderDTO;
+import com.pantheon.backend.core.inventory.repository.InventoryBulkRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryEntryQueryRepository;
+import com.pantheon.backend.core.inventory.repository.LibraryVersionRepository;
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibrarySnapshotServiceTest {
+
+    private static final int ENTRIES = 1200;
+
+    @TempDir
+    Path tempDir;
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private LibraryVersionRepository libraryVersionRepository;
+    private LibrarySnapshotService librarySnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        SingleConnectionDataSource dataSource = SqliteTestDatabase.migrated(tempDir);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        libraryVersionRepository = new LibraryVersionRepository(jdbcTemplate);
+        librarySnapshotService = new LibrarySnapshotService(new LibraryEntryQueryRepository(jdbcTemplate),
+                libraryVersionRepository, jsonMapper);
+
+        InventoryBulkRepository inventoryBulkRepository = new InventoryBulkRepository(jdbcTemplate);
+        List<String> titles = new ArrayList<>();
+        List<LibraryEntryStateDTO> entries = new ArrayList<>();
+        for (int i = 0; i < ENTRIES; i++) {
+            titles.add("Game " + i);
+            entries.add(LibraryEntryStateDTO.builder().gameId(i + 1).isInstalled(true).platformGameId("app-" + i).build());
+        }
+        inventoryBulkRepository.insertGames(titles);
+        inventoryBulkRepository.insertLibraryEntries(1, entries);
+
+        libraryVersionRepository.increment();
+        libraryVersionRepository.increment();
+    }
+
+    @Test
+    void writeSnapshot_JsonLines_HeaderThenOneEntryPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        librarySnapshotService.writeSnapshot(LibrarySnapshotFormat.JSONL, _ -> out);
+
+        String text = out.toString(StandardCharsets.UTF_8);
+        assertTrue(text.endsWith("}\n"));
+        List<String> lines = text.lines().toList();
+        assertEquals(ENTRIES + 1, lines.size());
+        assertEquals(new LibrarySnapshotHeaderDTO(2, ENTRIES),
+                jsonMapper.readValue(lines.getFirst(), LibrarySnapshotHeaderDTO.class));
+
+        LibraryEntryViewDTO first = jsonMapper.readValue(lines.get(1), LibraryEntryViewDTO.class);
+        assertEquals("Game 0", first.title());
+        assertEquals("Steam", first.platform());
+    }
+
+    @Test
+    void writeSnapshot_Cbor_SameRecordsInFewerBytes() throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        ByteArrayOutputStream cbor = new ByteArrayOutputStream();
+
+        librarySnapshotService.writeSnapshot(LibrarySnapshotFormat.JSONL, _ -> json);
+        librarySnapshotService.writeSnapshot(LibrarySnapshotFormat.CBOR, _ -> cbor);
+
+        List<Map<?, ?>> records = new ArrayList<>();
+        try (MappingIterator<Map<?, ?>> iterator = CBORMapper.builder().build().readerFor(Map.class)
+                .readValues(cbor.toByteArray())) {
+            iterator.forEachRemaining(records::add);
+        }
+        assertEquals(ENTRIES + 1, records.size());
+        assertEquals(2, ((Number) records.getFirst().get("version")).intValue());
+        assertEquals("Game " + (ENTRIES - 1), records.getLast().get("title"));
+        assertTrue(cbor.size() < json.size());
+    }
+
+    @Test
+    void writeSnapshot_OutputNotOpened_WritesNothing() throws IOException {
+        List<Long> versions = new ArrayList<>();
+
+        librarySnapshotService.writeSnapshot(LibrarySnapshotFormat.JSONL, version -> {
+            versions.add(version);
+            return null;
+        });
+
+        assertEquals(List.of(2L), versions);
+    }
+}
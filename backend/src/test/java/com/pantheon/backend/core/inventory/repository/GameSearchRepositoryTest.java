@@ -0,0 +1,105 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.GameSearchResultDTO;
+import com.pantheon.backend.core.inventory.query.GameSearchService;
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameSearchRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private GameSearchService gameSearchService;
+
+    @BeforeEach
+    void setUp() {
+        SingleConnectionDataSource dataSource = SqliteTestDatabase.empty(tempDir);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // Stored before the index exists, the migration has to pick it up
+        SqliteTestDatabase.migrate(dataSource, "4");
+        insertGame("Hollow Knight", "Team Cherry", "Team Cherry", "Descend into a ruined kingdom of insects");
+
+        SqliteTestDatabase.migrate(dataSource);
+        insertGame("Pokémon Legends", "Game Freak", "Nintendo", "Catch them in the Hisui region");
+        insertGame("Hades", "Supergiant Games", "Supergiant Games", "Battle out of hell");
+        insertGame("Knights of Honor", "Black Sea Studios", "Sunflowers", "A medieval strategy game");
+        insertGame("Celeste", "Maddy Makes Games", "Matt Makes Games", "A knight's worth of climbing, hollow promises");
+
+        gameSearchService = new GameSearchService(new GameSearchRepository(jdbcTemplate), 50, 200);
+    }
+
+    private void insertGame(String title, String developer, String publisher, String description) {
+        jdbcTemplate.update("INSERT INTO games (title, developer, publisher, description) VALUES (?, ?, ?, ?)",
+                title, developer, publisher, description);
+    }
+
+    private List<String> titles(String text) {
+        return gameSearchService.search(text, 10).stream().map(GameSearchResultDTO::title).toList();
+    }
+
+    @Test
+    void search_PrefixesOfEveryWord_MustAllMatch() {
+        assertEquals(List.of("Hollow Knight", "Celeste"), titles("hol kni"));
+    }
+
+    @Test
+    void search_TitleHitsOutrankDescriptionHits() {
+        assertEquals(List.of("Hollow Knight", "Celeste"), titles("hollow"));
+        assertEquals("Celeste", titles("knight").getLast());
+    }
+
+    @Test
+    void search_IgnoresCaseAndDiacritics() {
+        assertEquals(List.of("Pokémon Legends"), titles("POKEMON"));
+    }
+
+    @Test
+    void search_MatchesDeveloperAndPublisher() {
+        assertEquals(List.of("Hades"), titles("supergiant"));
+        assertEquals(List.of("Pokémon Legends"), titles("nintendo"));
+    }
+
+    @Test
+    void search_QuerySyntaxInInput_IsSearchedAsWords() {
+        assertTrue(titles("hades OR \"celeste").isEmpty());
+        assertEquals(List.of("Hades"), titles("hades*)("));
+    }
+
+    @Test
+    void search_FollowsUpdatesAndDeletes() {
+        jdbcTemplate.update("UPDATE games SET title = 'Hades II' WHERE title = 'Hades'");
+        jdbcTemplate.update("DELETE FROM games WHERE title = 'Celeste'");
+
+        assertEquals(List.of("Hades II"), titles("hades ii"));
+        assertEquals(List.of("Hollow Knight"), titles("hollow"));
+        assertIndexInSync();
+    }
+
+    @Test
+    void search_TitleKeyUpdates_LeaveIndexAlone() {
+        jdbcTemplate.update("UPDATE games SET title_key = 'hades' WHERE title = 'Hades'");
+
+        assertEquals(List.of("Hades"), titles("hades"));
+        assertIndexInSync();
+    }
+
+    /**
+     * FTS5 fails the integrity check when the index no longer matches the content table
+     */
+    private void assertIndexInSync() {
+        jdbcTemplate.update("INSERT INTO games_fts (games_fts, rank) VALUES ('integrity-check', 1)");
+    }
+}
@@ -0,0 +1,95 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryBulkRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private InventoryBulkRepository inventoryBulkRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(SqliteTestDatabase.migrated(tempDir));
+        inventoryBulkRepository = new InventoryBulkRepository(jdbcTemplate);
+
+        inventoryBulkRepository.insertGames(List.of("Portal 2"));
+        inventoryBulkRepository.insertLibraryEntries(1, List.of(installedAt("/libraries/a/steamapps/common/Portal 2")));
+    }
+
+    private static LibraryEntryStateDTO installedAt(String installPath) {
+        return LibraryEntryStateDTO.builder()
+                .gameId(1)
+                .isInstalled(true)
+                .installPath(installPath)
+                .platformGameId("620")
+                .build();
+    }
+
+    private boolean isInstalled() {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT is_installed FROM library_entries WHERE game_id = 1", Boolean.class));
+    }
+
+    @Test
+    void markUninstalled_GameMovedToOtherLibrary_KeepsNewInstall() {
+        // Library B picked the game up before library A reported it gone
+        inventoryBulkRepository.updateLibraryEntries(1, List.of(installedAt("/libraries/b/steamapps/common/Portal 2")));
+
+        assertEquals(0, inventoryBulkRepository.markUninstalled(1, "/libraries/a", List.of("620")));
+        assertTrue(isInstalled());
+
+        assertEquals(1, inventoryBulkRepository.markUninstalled(1, "/libraries/b", List.of("620")));
+        assertFalse(isInstalled());
+    }
+
+    @Test
+    void markUninstalled_SiblingDirectorySharingPrefix_NotMatched() {
+        assertEquals(0, inventoryBulkRepository.markUninstalled(1, "/libraries/a/steam", List.of("620")));
+        assertTrue(isInstalled());
+    }
+
+    @Test
+    void markUninstalled_NoInstallRoot_MatchesAnyPath() {
+        assertEquals(1, inventoryBulkRepository.markUninstalled(1, null, List.of("620")));
+        assertFalse(isInstalled());
+    }
+
+    @Test
+    void mergeDuplicateGames_DuplicateHoldsOnlyMetadata_MovedToOldestGame() {
+        inventoryBulkRepository.insertGames(List.of("Hades", "HADES™"));
+        jdbcTemplate.update("UPDATE games SET description = 'Roguelike' WHERE id = 2");
+        jdbcTemplate.update("UPDATE games SET igdb_id = '113112', cover_url = 'hades.jpg', description = 'Other' WHERE id = 3");
+
+        assertEquals(1, inventoryBulkRepository.mergeDuplicateGames());
+
+        Map<String, Object> hades = jdbcTemplate.queryForMap("SELECT igdb_id, cover_url, description FROM games WHERE id = 2");
+        assertEquals("113112", hades.get("igdb_id"));
+        assertEquals("hades.jpg", hades.get("cover_url"));
+        assertEquals("Roguelike", hades.get("description"));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM games WHERE id = 3", Integer.class));
+    }
+
+    @Test
+    void isInstalledBelow_MatchesRootAndPathsBelowIt() {
+        assertTrue(InventoryBulkRepository.isInstalledBelow("/libraries/a", "/libraries/a"));
+        assertTrue(InventoryBulkRepository.isInstalledBelow("/libraries/a/common/Hades", "/libraries/a"));
+        assertFalse(InventoryBulkRepository.isInstalledBelow("/libraries/ab/common/Hades", "/libraries/a"));
+        assertFalse(InventoryBulkRepository.isInstalledBelow(null, "/libraries/a"));
+        assertTrue(InventoryBulkRepository.isInstalledBelow(null, null));
+    }
+}
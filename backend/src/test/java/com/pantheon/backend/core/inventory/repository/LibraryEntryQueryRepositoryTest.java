@@ -0,0 +1,160 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryPageDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryQueryDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryStateDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryViewDTO;
+import com.pantheon.backend.core.inventory.query.LibraryEntryCursor;
+import com.pantheon.backend.core.inventory.query.LibraryEntrySort;
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LibraryEntryQueryRepositoryTest {
+
+    private static final LocalDateTime PLAYED = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private LibraryEntryQueryRepository libraryEntryQueryRepository;
+
+    @BeforeEach
+    void setUp() {
+        SingleConnectionDataSource dataSource = SqliteTestDatabase.migrated(tempDir);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        libraryEntryQueryRepository = new LibraryEntryQueryRepository(jdbcTemplate);
+        InventoryBulkRepository inventoryBulkRepository = new InventoryBulkRepository(jdbcTemplate);
+
+        List<String> titles = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            titles.add("Game %02d".formatted(i));
+        }
+        inventoryBulkRepository.insertGames(titles);
+
+        List<LibraryEntryStateDTO> steam = new ArrayList<>();
+        List<LibraryEntryStateDTO> epic = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            // Few distinct values so that pages split ties, which only the id tie-breaker keeps apart
+            LibraryEntryStateDTO state = LibraryEntryStateDTO.builder()
+                    .gameId(i + 1)
+                    .isInstalled(i % 2 == 0)
+                    .platformGameId("app-" + i)
+                    .playtimeMinutes(i * 7 % 5 * 10)
+                    .gameSize(i * 100L)
+                    .lastPlayed(i % 3 == 0 ? null : PLAYED.plusHours(i % 5))
+                    .build();
+            steam.add(state);
+            if (i % 2 == 0) epic.add(state);
+        }
+        inventoryBulkRepository.insertLibraryEntries(1, steam);
+        inventoryBulkRepository.insertLibraryEntries(2, epic);
+        // The bulk insert stores missing sizes as 0, unknown sizes written by other paths are NULL
+        jdbcTemplate.update("UPDATE library_entries SET game_size = NULL WHERE game_id % 4 = 1");
+
+        jdbcTemplate.update("INSERT INTO tags (name) VALUES ('RPG')");
+        jdbcTemplate.update("INSERT INTO game_tags (game_id, tag_id) VALUES (2, 1), (3, 1)");
+    }
+
+    private List<Integer> pageThrough(LibraryEntryQueryDTO query, int limit) {
+
+        List<Integer> ids = new ArrayList<>();
+        LibraryEntryCursor after = null;
+
+        do {
+            LibraryEntryPageDTO page = libraryEntryQueryRepository.findPage(query, after, limit);
+            assertTrue(page.entries().size() <= limit);
+            page.entries().forEach(entry -> ids.add(entry.id()));
+            after = page.nextCursor() == null ? null : LibraryEntryCursor.decode(page.nextCursor());
+        } while (after != null);
+
+        return ids;
+    }
+
+    private List<Integer> idsInOrder(String orderBy) {
+        return jdbcTemplate.queryForList("SELECT id FROM library_entries e ORDER BY " + orderBy, Integer.class);
+    }
+
+    @Test
+    void findPage_EverySort_PagesThroughAllEntriesOnceInOrder() {
+        for (LibraryEntrySort sort : LibraryEntrySort.values()) {
+            LibraryEntryQueryDTO descending = LibraryEntryQueryDTO.builder().sort(sort).build();
+            LibraryEntryQueryDTO ascending = descending.toBuilder().ascending(true).build();
+
+            assertEquals(idsInOrder(sort.expression() + " DESC, e.id DESC"), pageThrough(descending, 7), sort.name());
+            assertEquals(idsInOrder(sort.expression() + " ASC, e.id ASC"), pageThrough(ascending, 7), sort.name());
+        }
+    }
+
+    @Test
+    void findPage_LastPage_HasNoCursor() {
+        LibraryEntryPageDTO page = libraryEntryQueryRepository.findPage(
+                LibraryEntryQueryDTO.builder().sort(LibraryEntrySort.SIZE).build(), null, 45);
+
+        assertEquals(45, page.entries().size());
+        assertNull(page.nextCursor());
+    }
+
+    @Test
+    void findPage_ProjectsGameAndPlatform() {
+        LibraryEntryQueryDTO query = LibraryEntryQueryDTO.builder()
+                .sort(LibraryEntrySort.PLAYTIME)
+                .platform("epic")
+                .titlePrefix("GAME 04")
+                .build();
+
+        List<LibraryEntryViewDTO> entries = libraryEntryQueryRepository.findPage(query, null, 10).entries();
+
+        assertEquals(1, entries.size());
+        assertEquals("Game 04", entries.getFirst().title());
+        assertEquals("Epic", entries.getFirst().platform());
+        assertEquals(5, entries.getFirst().gameId());
+        assertEquals(PLAYED.plusHours(4), entries.getFirst().lastPlayed());
+    }
+
+    @Test
+    void findPage_Filters_AreCombined() {
+        LibraryEntryQueryDTO steamInstalled = LibraryEntryQueryDTO.builder()
+                .sort(LibraryEntrySort.LAST_PLAYED)
+                .platform("Steam")
+                .installed(true)
+                .build();
+        assertEquals(15, pageThrough(steamInstalled, 4).size());
+
+        LibraryEntryQueryDTO tagged = LibraryEntryQueryDTO.builder().sort(LibraryEntrySort.SIZE).tag("rpg").build();
+        assertEquals(3, pageThrough(tagged, 2).size());
+
+        LibraryEntryQueryDTO prefixed = LibraryEntryQueryDTO.builder()
+                .sort(LibraryEntrySort.SIZE)
+                .platform("Steam")
+                .titlePrefix("Game 1")
+                .build();
+        assertEquals(10, pageThrough(prefixed, 3).size());
+    }
+
+    @Test
+    void forEachEntry_ReadsWholeLibraryInIdOrder() {
+        List<LibraryEntryViewDTO> entries = new ArrayList<>();
+
+        libraryEntryQueryRepository.forEachEntry(entries::add);
+
+        assertEquals(45, libraryEntryQueryRepository.countEntries());
+        assertEquals(idsInOrder("e.id"), entries.stream().map(LibraryEntryViewDTO::id).toList());
+        assertEquals("Game 00", entries.getFirst().title());
+        assertEquals("Steam", entries.getFirst().platform());
+    }
+}
@@ -0,0 +1,49 @@
+package com.pantheon.backend.core.inventory.repository;
+
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LibraryVersionRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private SingleConnectionDataSource dataSource;
+    private LibraryVersionRepository libraryVersionRepository;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = SqliteTestDatabase.migrated(tempDir);
+        libraryVersionRepository = new LibraryVersionRepository(new JdbcTemplate(dataSource));
+    }
+
+    @Test
+    void increment_ReturnsIncreasingVersions() {
+        assertEquals(0, libraryVersionRepository.current());
+        assertEquals(1, libraryVersionRepository.increment());
+        assertEquals(2, libraryVersionRepository.increment());
+        assertEquals(2, libraryVersionRepository.current());
+    }
+
+    @Test
+    void increment_RolledBack_IsUndone() {
+        TransactionTemplate transactions = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+        transactions.executeWithoutResult(status -> {
+            assertEquals(1, libraryVersionRepository.increment());
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, libraryVersionRepository.current());
+    }
+}
@@ -1,6 +1,8 @@
 package com.pantheon.backend.core.library.local;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
@@ -11,13 +13,16 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.file.Path;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -37,25 +42,25 @@ class LocalGameLibraryScannerTest {
     @Test
     void getPlatform_FirstCall_FetchesFromRepository() {
         Platform platform = Platform.builder().name("TestPlatform").build();
-        when(platformRepository.findByName("TestPlatform")).thenReturn(Optional.of(platform));
+        when(platformRepository.findWithLibraryPathsByName("TestPlatform")).thenReturn(Optional.of(platform));
 
         Platform result = scanner.getPlatform();
 
         assertEquals(platform, result);
-        verify(platformRepository).findByName("TestPlatform");
+        verify(platformRepository).findWithLibraryPathsByName("TestPlatform");
     }
 
     @Test
     void getPlatform_SubsequentCalls_ReturnCachedPlatform() {
         Platform platform = Platform.builder().name("TestPlatform").build();
-        when(platformRepository.findByName("TestPlatform")).thenReturn(Optional.of(platform));
+        when(platformRepository.findWithLibraryPathsByName("TestPlatform")).thenReturn(Optional.of(platform));
 
         scanner.getPlatform();
         Platform result = scanner.getPlatform();
 
         assertEquals(platform, result);
         // Verify repository was called only once
-        verify(platformRepository).findByName("TestPlatform");
+        verify(platformRepository).findWithLibraryPathsByName("TestPlatform");
     }
 
     @Test
@@ -64,7 +69,7 @@ class LocalGameLibraryScannerTest {
                 .name("TestPlatform")
                 .libraryPaths(List.of("/path/1", "/path/2"))
                 .build();
-        when(platformRepository.findByName("TestPlatform")).thenReturn(Optional.of(platform));
+        when(platformRepository.findWithLibraryPathsByName("TestPlatform")).thenReturn(Optional.of(platform));
 
         List<String> paths = scanner.getConfiguredLibraryPaths();
 
@@ -75,7 +80,7 @@ class LocalGameLibraryScannerTest {
 
     @Test
     void getConfiguredLibraryPaths_PlatformNotFound_ReturnsNull() {
-        when(platformRepository.findByName("TestPlatform")).thenReturn(Optional.empty());
+        when(platformRepository.findWithLibraryPathsByName("TestPlatform")).thenReturn(Optional.empty());
 
         List<String> paths = scanner.getConfiguredLibraryPaths();
 
@@ -85,13 +90,52 @@ class LocalGameLibraryScannerTest {
     @Test
     void refreshPlatform_ClearsCache() {
         Platform platform = Platform.builder().name("TestPlatform").build();
-        when(platformRepository.findByName("TestPlatform")).thenReturn(Optional.of(platform));
+        when(platformRepository.findWithLibraryPathsByName("TestPlatform")).thenReturn(Optional.of(platform));
 
         scanner.getPlatform(); // Cache it
         scanner.refreshPlatform(); // Clear it
         scanner.getPlatform(); // Fetch again
 
-        verify(platformRepository, org.mockito.Mockito.times(2)).findByName("TestPlatform");
+        verify(platformRepository, org.mockito.Mockito.times(2)).findWithLibraryPathsByName("TestPlatform");
+    }
+
+    @Test
+    void scan_CollectsStreamedGames() throws ScanFailureException {
+        List<ScannedLocalGameDTO> games = scanner.scan(Path.of("/path/1"));
+
+        assertEquals(List.of("Game 1", "Game 2"), games.stream().map(ScannedLocalGameDTO::title).toList());
+    }
+
+    @Test
+    void scanChanges_NoChangeTracking_ReportsEveryGameAsChanged() throws ScanFailureException {
+        LocalScanDeltaDTO delta = scanner.scanChanges(Path.of("/path/1"));
+
+        assertEquals(2, delta.changed().size());
+        assertEquals(List.of(), delta.removedPlatformGameIds());
+        assertEquals(0, delta.unchanged());
+    }
+
+    @Test
+    void scanChanges_Streaming_HandsGamesToSink() throws ScanFailureException {
+        List<ScannedLocalGameDTO> streamed = new ArrayList<>();
+
+        LocalScanDeltaDTO delta = scanner.scanChanges(Path.of("/path/1"), ScanMonitor.NONE, streamed::add);
+
+        assertEquals(2, streamed.size());
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    void scanChanges_Cancelled_Throws() {
+        ScanMonitor cancelled = new ScanMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertThrows(ScanCancelledException.class, () -> scanner.scanChanges(Path.of("/path/1"), cancelled, game -> {
+        }));
     }
 
     // Concrete implementation for testing abstract class
@@ -107,8 +151,9 @@ class LocalGameLibraryScannerTest {
         }
 
         @Override
-        public List<ScannedLocalGameDTO> scan(Path libraryPath) throws ScanFailureException {
-            return Collections.emptyList();
+        public void scan(Path libraryPath, Consumer<? super ScannedLocalGameDTO> sink) throws ScanFailureException {
+            sink.accept(ScannedLocalGameDTO.builder().title("Game 1").build());
+            sink.accept(ScannedLocalGameDTO.builder().title("Game 2").build());
         }
     }
 }
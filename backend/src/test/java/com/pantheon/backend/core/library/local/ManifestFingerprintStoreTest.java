@@ -0,0 +1,94 @@
+package com.pantheon.backend.core.library.local;
+
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
+import com.pantheon.backend.core.library.model.ManifestFingerprint;
+import com.pantheon.backend.core.library.repository.LibraryProductRepository;
+import com.pantheon.backend.core.library.repository.ManifestFingerprintBulkRepository;
+import com.pantheon.backend.core.library.repository.ManifestFingerprintRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ManifestFingerprintStoreTest {
+
+    @Mock
+    private ManifestFingerprintRepository manifestFingerprintRepository;
+
+    @Mock
+    private ManifestFingerprintBulkRepository manifestFingerprintBulkRepository;
+
+    @Mock
+    private LibraryProductRepository libraryProductRepository;
+
+    @InjectMocks
+    private ManifestFingerprintStore manifestFingerprintStore;
+
+    @Test
+    void load_ReturnsFingerprintsKeyedByPath() {
+        ManifestFingerprint fingerprint = ManifestFingerprint.builder()
+                .path("/lib/steamapps/appmanifest_1.acf")
+                .platformId(1)
+                .libraryPath("/lib")
+                .platformGameId("1")
+                .lastModified(10L)
+                .fileSize(20L)
+                .contentHash(30L)
+                .build();
+        when(manifestFingerprintRepository.findByPlatformIdAndLibraryPath(1, "/lib")).thenReturn(List.of(fingerprint));
+
+        Map<String, ManifestFingerprintDTO> result = manifestFingerprintStore.load(1, "/lib");
+
+        assertEquals(1, result.size());
+        ManifestFingerprintDTO dto = result.get("/lib/steamapps/appmanifest_1.acf");
+        assertEquals("1", dto.platformGameId());
+        assertEquals(30L, dto.contentHash());
+    }
+
+    @Test
+    void commit_UpsertsChangedAndDeletesRemoved() {
+        List<ManifestFingerprintDTO> changed = List.of(ManifestFingerprintDTO.builder().path("/a").build());
+        List<String> removed = List.of("/b");
+
+        manifestFingerprintStore.commit(1, "/lib", changed, removed);
+
+        verify(manifestFingerprintBulkRepository).upsert(1, "/lib", changed);
+        verify(manifestFingerprintBulkRepository).delete(removed);
+    }
+
+    @Test
+    void loadProducts_ReturnsReportedProducts() {
+        when(libraryProductRepository.findPlatformGameIds(3, "/gog")).thenReturn(Set.of("1207658924"));
+
+        assertEquals(Set.of("1207658924"), manifestFingerprintStore.loadProducts(3, "/gog"));
+    }
+
+    @Test
+    void commitProducts_InsertsReportedAndDeletesRemoved() {
+        List<String> reported = List.of("1");
+        List<String> removed = List.of("2");
+
+        manifestFingerprintStore.commitProducts(3, "/gog", reported, removed);
+
+        verify(libraryProductRepository).insert(3, "/gog", reported);
+        verify(libraryProductRepository).delete(3, "/gog", removed);
+    }
+
+    @Test
+    void invalidate_DeletesFingerprintsAndProductsOfPath() {
+        manifestFingerprintStore.invalidate(1, "/lib");
+
+        verify(manifestFingerprintRepository).deleteByPlatformIdAndLibraryPath(1, "/lib");
+        verify(libraryProductRepository).deleteByPlatformIdAndLibraryPath(1, "/lib");
+    }
+}
@@ -0,0 +1,81 @@
+package com.pantheon.backend.core.library.repository;
+
+import com.pantheon.backend.support.SqliteTestDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LibraryProductRepositoryTest {
+
+    private static final int STEAM = 1;
+    private static final int GOG = 3;
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private LibraryProductRepository libraryProductRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(SqliteTestDatabase.migrated(tempDir));
+        libraryProductRepository = new LibraryProductRepository(jdbcTemplate);
+    }
+
+    @Test
+    void insert_ReportedAgain_KeptOnce() {
+        libraryProductRepository.insert(GOG, "C:/GOG Games", List.of("1", "2"));
+        libraryProductRepository.insert(GOG, "C:/GOG Games", List.of("2", "3"));
+
+        assertEquals(Set.of("1", "2", "3"), libraryProductRepository.findPlatformGameIds(GOG, "C:/GOG Games"));
+    }
+
+    @Test
+    void delete_OnlyRemovesProductsOfLibraryPath() {
+        libraryProductRepository.insert(GOG, "C:/GOG Games", List.of("1", "2"));
+        libraryProductRepository.insert(GOG, "D:/GOG Games", List.of("1"));
+
+        libraryProductRepository.delete(GOG, "C:/GOG Games", List.of("1"));
+
+        assertEquals(Set.of("2"), libraryProductRepository.findPlatformGameIds(GOG, "C:/GOG Games"));
+        assertEquals(Set.of("1"), libraryProductRepository.findPlatformGameIds(GOG, "D:/GOG Games"));
+    }
+
+    @Test
+    void deleteByPlatformIdAndLibraryPath_ForgetsEveryProductOfPath() {
+        libraryProductRepository.insert(GOG, "C:/GOG Games", List.of("1", "2"));
+        libraryProductRepository.insert(GOG, "D:/GOG Games", List.of("1"));
+
+        assertEquals(2, libraryProductRepository.deleteByPlatformIdAndLibraryPath(GOG, "C:/GOG Games"));
+
+        assertEquals(Set.of(), libraryProductRepository.findPlatformGameIds(GOG, "C:/GOG Games"));
+        assertEquals(Set.of("1"), libraryProductRepository.findPlatformGameIds(GOG, "D:/GOG Games"));
+    }
+
+    @Test
+    void migration_DropsGogProductsStoredAsManifestFingerprints(@TempDir Path databaseDir) {
+        SingleConnectionDataSource dataSource = SqliteTestDatabase.empty(databaseDir);
+        SqliteTestDatabase.migrate(dataSource, "6");
+        JdbcTemplate oldSchema = new JdbcTemplate(dataSource);
+        String insert = """
+                INSERT INTO manifest_fingerprints
+                    (path, platform_id, library_path, platform_game_id, last_modified, file_size, content_hash)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """;
+        oldSchema.update(insert, "C:/GOG Games#1207658924", GOG, "C:/GOG Games", "1207658924", 0, 0, 0);
+        oldSchema.update(insert, "C:/Steam/steamapps/appmanifest_10.acf", STEAM, "C:/Steam", "10", 1, 2, 3);
+
+        SqliteTestDatabase.migrate(dataSource);
+
+        assertEquals(List.of("C:/Steam/steamapps/appmanifest_10.acf"),
+                oldSchema.queryForList("SELECT path FROM manifest_fingerprints", String.class));
+    }
+}
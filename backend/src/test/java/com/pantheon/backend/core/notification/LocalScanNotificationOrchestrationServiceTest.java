@@ -1,6 +1,8 @@
 package com.pantheon.backend.core.notification;
 
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanAllCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanBatchEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanErrorEvent;
@@ -22,7 +24,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,64 +35,70 @@ class LocalScanNotificationOrchestrationServiceTest {
 
     private LocalScanNotificationOrchestrationService service;
 
-    private final int BATCH_SIZE = 10;
-
     @BeforeEach
     void setUp() {
-        service = new LocalScanNotificationOrchestrationService(eventPublisher, BATCH_SIZE);
+        service = new LocalScanNotificationOrchestrationService(eventPublisher);
     }
 
     @Test
     void notifyStart_PublishesStartedEvent() {
-        service.notifyStart("Steam", 100);
+        service.notifyStart("Steam", "job-1", 100);
 
         ArgumentCaptor<LocalScanStartedEvent> captor = ArgumentCaptor.forClass(LocalScanStartedEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
         LocalScanStartedEvent event = captor.getValue();
         assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
         assertEquals(100, event.totalGames());
     }
 
     @Test
-    void notifyBatch_SmallBatch_PublishesSingleEvent() {
-        List<ScannedLocalGameDTO> batch = createDummyGames(5);
+    void notifyBatch_PublishesProgressWithoutGames() {
+        List<ScannedLocalGameDTO> batch = createDummyGames(25);
 
-        service.notifyBatch("Steam", batch);
+        service.notifyBatch("Steam", "job-1", batch);
 
         ArgumentCaptor<LocalScanBatchEvent> captor = ArgumentCaptor.forClass(LocalScanBatchEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
-        LocalScanBatchEvent event = captor.getValue();
-        assertEquals("Steam", event.platformName());
-        assertEquals(5, event.games().size());
+        assertEquals(new LocalScanBatchEvent("Steam", "job-1", 25), captor.getValue());
     }
 
     @Test
-    void notifyBatch_LargeBatch_SplitsEvents() {
-        List<ScannedLocalGameDTO> batch = createDummyGames(25); // Batch size is 10
+    void notifyBatch_EmptyBatch_PublishesNothing() {
+        service.notifyBatch("Steam", "job-1", List.of());
 
-        service.notifyBatch("Steam", batch);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
 
-        ArgumentCaptor<LocalScanBatchEvent> captor = ArgumentCaptor.forClass(LocalScanBatchEvent.class);
-        verify(eventPublisher, times(3)).publishEvent(captor.capture());
+    @Test
+    void notifyAllComplete_PublishesAggregatedEvent() {
+        List<PlatformScanResultDTO> results = List.of(
+                new PlatformScanResultDTO("Steam", true, 10, List.of(), 100),
+                new PlatformScanResultDTO("Epic", false, 0, List.of("/epic"), 20));
+
+        service.notifyAllComplete(results, 120);
+
+        ArgumentCaptor<LocalScanAllCompletedEvent> captor = ArgumentCaptor.forClass(LocalScanAllCompletedEvent.class);
+        verify(eventPublisher).publishEvent(captor.capture());
 
-        List<LocalScanBatchEvent> events = captor.getAllValues();
-        assertEquals(3, events.size());
-        assertEquals(10, events.get(0).games().size());
-        assertEquals(10, events.get(1).games().size());
-        assertEquals(5, events.get(2).games().size());
+        LocalScanAllCompletedEvent event = captor.getValue();
+        assertEquals(results, event.platforms());
+        assertEquals(10, event.totalGamesFound());
+        assertEquals(120, event.durationMillis());
     }
 
     @Test
     void notifyComplete_Success_PublishesCompletedEvent() {
-        service.notifyComplete("Steam", 50);
+        service.notifyComplete("Steam", "job-1", 50);
 
         ArgumentCaptor<LocalScanCompletedEvent> captor = ArgumentCaptor.forClass(LocalScanCompletedEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
         LocalScanCompletedEvent event = captor.getValue();
         assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
         assertEquals(50, event.finalCount());
         assertTrue(event.success());
         assertEquals(0, event.failedPathsCount());
@@ -99,13 +107,14 @@ class LocalScanNotificationOrchestrationServiceTest {
     @Test
     void notifyComplete_WithFailures_PublishesCompletedEventWithFailures() {
         List<String> failedPaths = List.of("/path/1", "/path/2");
-        service.notifyComplete("Steam", 50, 2, failedPaths);
+        service.notifyComplete("Steam", "job-1", 50, 2, failedPaths);
 
         ArgumentCaptor<LocalScanCompletedEvent> captor = ArgumentCaptor.forClass(LocalScanCompletedEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
         LocalScanCompletedEvent event = captor.getValue();
         assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
         assertEquals(50, event.finalCount());
         assertTrue(event.success());
         assertEquals(2, event.failedPathsCount());
@@ -115,13 +124,14 @@ class LocalScanNotificationOrchestrationServiceTest {
     @Test
     void notifyError_WithPaths_PublishesFailedEvent() {
         List<String> failedPaths = List.of("/path/1");
-        service.notifyError("Steam", failedPaths);
+        service.notifyError("Steam", "job-1", failedPaths);
 
         ArgumentCaptor<LocalScanCompletedEvent> captor = ArgumentCaptor.forClass(LocalScanCompletedEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
         LocalScanCompletedEvent event = captor.getValue();
         assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
         assertFalse(event.success());
         assertEquals(1, event.failedPathsCount());
         assertEquals(failedPaths, event.failedPaths());
@@ -129,13 +139,14 @@ class LocalScanNotificationOrchestrationServiceTest {
 
     @Test
     void notifyError_WithMessage_PublishesErrorEvent() {
-        service.notifyError("Steam", "Something went wrong");
+        service.notifyError("Steam", "job-1", "Something went wrong");
 
         ArgumentCaptor<LocalScanErrorEvent> captor = ArgumentCaptor.forClass(LocalScanErrorEvent.class);
         verify(eventPublisher).publishEvent(captor.capture());
 
         LocalScanErrorEvent event = captor.getValue();
         assertEquals("Steam", event.platformName());
+        assertEquals("job-1", event.jobId());
         assertEquals("Something went wrong", event.errorMessage());
     }
 
@@ -0,0 +1,47 @@
+package com.pantheon.backend.core.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamFilterTest {
+
+    @Test
+    void matches_All_MatchesEverything() {
+        assertTrue(StreamFilter.ALL.matches("LIBRARY_DELTA", "Steam", null));
+        assertTrue(StreamFilter.ALL.matches("LOCAL_SCAN_ALL_COMPLETED", null, null));
+    }
+
+    @Test
+    void matches_PlatformsAndEventTypes_MustBothMatch() {
+        StreamFilter filter = new StreamFilter(Set.of("Steam"), Set.of("LIBRARY_DELTA"));
+
+        assertTrue(filter.matches("LIBRARY_DELTA", "Steam", null));
+        assertFalse(filter.matches("LIBRARY_DELTA", "Epic", null));
+        assertFalse(filter.matches("LOCAL_SCAN_STARTED", "Steam", null));
+    }
+
+    @Test
+    void matches_EventOfNoPlatform_PassesPlatformFilter() {
+        assertTrue(new StreamFilter(Set.of("Steam"), Set.of()).matches("LOCAL_SCAN_ALL_COMPLETED", null, null));
+    }
+
+    @Test
+    void matches_Job_OnlyEventsOfThatJob() {
+        StreamFilter filter = new StreamFilter(Set.of(), Set.of(), "job-1");
+
+        assertTrue(filter.matches("LIBRARY_DELTA", "Steam", "job-1"));
+        assertFalse(filter.matches("LIBRARY_DELTA", "Steam", "job-2"));
+        assertFalse(filter.matches("LOCAL_SCAN_ALL_COMPLETED", null, null));
+        assertTrue(StreamFilter.ALL.matches("LIBRARY_DELTA", "Steam", "job-2"));
+    }
+
+    @Test
+    void constructor_NullSets_FilterNothing() {
+        assertEquals(StreamFilter.ALL, new StreamFilter(null, null));
+    }
+}
@@ -1,11 +1,15 @@
 package com.pantheon.backend.core.notification.event.listener;
 
-import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.inventory.local.dto.PlatformScanResultDTO;
+import com.pantheon.backend.core.inventory.local.dto.LibraryEntryUpdatedDTO;
 import com.pantheon.backend.core.notification.NotificationService;
+import com.pantheon.backend.core.notification.event.library.LibraryDeltaEvent;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanAllCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanBatchEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanCompletedEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanErrorEvent;
 import com.pantheon.backend.core.notification.event.localscan.LocalScanStartedEvent;
+import com.pantheon.backend.core.platform.model.PlatformType;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -14,6 +18,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.Mockito.verify;
 
@@ -28,38 +33,57 @@ class LibraryScanEventListenerTest {
 
     @Test
     void onScanStarted_BroadcastsEvent() {
-        LocalScanStartedEvent event = new LocalScanStartedEvent("Steam", 100);
+        LocalScanStartedEvent event = new LocalScanStartedEvent("Steam", "job-1", 100);
 
         libraryScanEventListener.onScanStarted(event);
 
-        verify(notificationService).broadcast("LOCAL_SCAN_STARTED", event);
+        verify(notificationService).broadcast("LOCAL_SCAN_STARTED", event.platformName(), "job-1", event);
     }
 
     @Test
-    void onScanBatch_BroadcastsEvent() {
-        List<ScannedLocalGameDTO> games = Collections.singletonList(ScannedLocalGameDTO.builder().title("Game 1").build());
-        LocalScanBatchEvent event = new LocalScanBatchEvent("Steam", games);
+    void onScanBatch_BroadcastsEventBatched() {
+        LocalScanBatchEvent event = new LocalScanBatchEvent("Steam", "job-1", 1);
 
         libraryScanEventListener.onScanBatch(event);
 
-        verify(notificationService).broadcast("LOCAL_SCAN_BATCH", event);
+        verify(notificationService).broadcastBatched("LOCAL_SCAN_BATCH", event.platformName(), "job-1", event);
+    }
+
+    @Test
+    void onLibraryDelta_BroadcastsEventBatched() {
+        LibraryDeltaEvent event = new LibraryDeltaEvent(7, "Steam", PlatformType.MANUAL, "job-1", List.of(),
+                List.of(new LibraryEntryUpdatedDTO(12, Map.of("isInstalled", false))), List.of(13));
+
+        libraryScanEventListener.onLibraryDelta(event);
+
+        verify(notificationService).broadcastBatched("LIBRARY_DELTA", event.platformName(), "job-1", event);
     }
 
     @Test
     void onScanCompleted_BroadcastsEvent() {
-        LocalScanCompletedEvent event = new LocalScanCompletedEvent("Steam", 50, true, 0, Collections.emptyList());
+        LocalScanCompletedEvent event = new LocalScanCompletedEvent("Steam", "job-1", 50, true, 0, Collections.emptyList());
 
         libraryScanEventListener.onScanCompleted(event);
 
-        verify(notificationService).broadcast("LOCAL_SCAN_COMPLETED", event);
+        verify(notificationService).broadcast("LOCAL_SCAN_COMPLETED", event.platformName(), "job-1", event);
+    }
+
+    @Test
+    void onAllScansCompleted_BroadcastsEvent() {
+        LocalScanAllCompletedEvent event = new LocalScanAllCompletedEvent(
+                List.of(new PlatformScanResultDTO("Steam", true, 50, Collections.emptyList(), 100)), 50, 100);
+
+        libraryScanEventListener.onAllScansCompleted(event);
+
+        verify(notificationService).broadcast("LOCAL_SCAN_ALL_COMPLETED", null, event);
     }
 
     @Test
     void onScanFailed_BroadcastsEvent() {
-        LocalScanErrorEvent event = new LocalScanErrorEvent("Steam", "Error message");
+        LocalScanErrorEvent event = new LocalScanErrorEvent("Steam", "job-1", "Error message");
 
         libraryScanEventListener.onScanFailed(event);
 
-        verify(notificationService).broadcast("LOCAL_SCAN_FAILED", event);
+        verify(notificationService).broadcast("LOCAL_SCAN_FAILED", event.platformName(), "job-1", event);
     }
 }
@@ -4,6 +4,7 @@ import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
 import com.pantheon.backend.core.library.utils.ScannerUtil;
 import com.pantheon.backend.core.platform.dto.PlatformDTO;
 import com.pantheon.backend.core.platform.dto.PlatformSetupDTO;
+import com.pantheon.backend.core.platform.event.PlatformLibraryPathsChangedEvent;
 import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.Arrays;
 import java.util.List;
@@ -35,6 +37,9 @@ class PlatformLocalServiceTest {
     @Mock
     private ScannerUtil scannerUtil;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PlatformLocalService platformLocalService;
 
@@ -79,7 +84,7 @@ class PlatformLocalServiceTest {
     void setupLocalPlatform_ValidDTO_UpdatesAndReturnsPlatform() {
         PlatformSetupDTO setupDTO = new PlatformSetupDTO("Steam", "/path/to/exe", List.of("/lib/path"), "icon.png");
         
-        when(platformRepository.findByName("Steam")).thenReturn(Optional.of(steamPlatform));
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(steamPlatform));
         when(platformRepository.save(any(Platform.class))).thenAnswer(invocation -> invocation.getArgument(0));
         
         LocalGameLibraryScanner mockScanner = mock(LocalGameLibraryScanner.class);
@@ -96,12 +101,13 @@ class PlatformLocalServiceTest {
         assertEquals(PlatformType.API, result.platformType());
 
         verify(mockScanner).refreshPlatform();
+        verify(eventPublisher).publishEvent(new PlatformLibraryPathsChangedEvent("Steam"));
     }
     
     @Test
     void setupLocalPlatform_PlatformNotFound_ThrowsException() {
         PlatformSetupDTO setupDTO = new PlatformSetupDTO("Unknown", "/path/to/exe", List.of("/lib/path"), "icon.png");
-        when(platformRepository.findByName("Unknown")).thenReturn(Optional.empty());
+        when(platformRepository.findWithLibraryPathsByName("Unknown")).thenReturn(Optional.empty());
 
         assertThrows(IllegalArgumentException.class, () -> platformLocalService.setupLocalPlatform(setupDTO));
     }
@@ -0,0 +1,119 @@
+package com.pantheon.backend.external.notification;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Emitter that records the data lines of the frames sent to it, optionally stalling on the first send or failing every send.
+ * Records the event ids as well, the last one is what a browser would reconnect with.
+ * <p>
+ * Like the real emitter, completing waits for a send in progress.
+ * </p>
+ */
+class RecordingSseEmitter extends SseEmitter {
+
+    final BlockingQueue<String> payloads = new LinkedBlockingQueue<>();
+    final CountDownLatch sending = new CountDownLatch(1);
+    final CountDownLatch release;
+    final CountDownLatch completed = new CountDownLatch(1);
+    final List<String> eventIds = new CopyOnWriteArrayList<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final boolean failing;
+    private final boolean interruptible;
+
+    private RecordingSseEmitter(boolean stalled, boolean failing, boolean interruptible) {
+        this.release = new CountDownLatch(stalled ? 1 : 0);
+        this.failing = failing;
+        this.interruptible = interruptible;
+    }
+
+    static RecordingSseEmitter healthy() {
+        return new RecordingSseEmitter(false, false, true);
+    }
+
+    /**
+     * Blocks in its first send until released, like a client that stopped reading
+     */
+    static RecordingSseEmitter stalled() {
+        return new RecordingSseEmitter(true, false, true);
+    }
+
+    /**
+     * Blocks in its first send until released and ignores interrupts, like a write to a socket nobody reads
+     */
+    static RecordingSseEmitter stuck() {
+        return new RecordingSseEmitter(true, false, false);
+    }
+
+    static RecordingSseEmitter broken() {
+        return new RecordingSseEmitter(false, true, true);
+    }
+
+    @Override
+    public void send(Set<DataWithMediaType> items) throws IOException {
+        if (failing) throw new IOException("Broken pipe");
+
+        writeLock.lock();
+        try {
+            sending.countDown();
+            awaitRelease();
+
+            for (DataWithMediaType item : items) {
+                String frame = new String((byte[]) item.getData(), StandardCharsets.UTF_8);
+                if (frame.startsWith("id:")) eventIds.add(frame.substring(3, frame.indexOf('\n')));
+                payloads.add(frame.substring(frame.indexOf("\ndata:") + 6, frame.length() - 2));
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void awaitRelease() throws IOException {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                release.await();
+                break;
+            } catch (InterruptedException e) {
+                if (interruptible) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted", e);
+                }
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    @Override
+    public void complete() {
+        writeLock.lock();
+        try {
+            super.complete();
+            completed.countDown();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    List<String> take(int count) throws InterruptedException {
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String payload = payloads.poll(5, TimeUnit.SECONDS);
+            if (payload == null) break;
+            taken.add(payload);
+        }
+        return taken;
+    }
+}
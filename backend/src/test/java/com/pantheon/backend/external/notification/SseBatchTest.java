@@ -0,0 +1,35 @@
+package com.pantheon.backend.external.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseBatchTest {
+
+    private static byte[] json(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void toJsonArray_JoinsItems() {
+        SseBatch batch = new SseBatch("EVENT", "Steam", null);
+        batch.add(json("{\"a\":1}"));
+        batch.add(json("2"));
+
+        byte[] array = batch.toJsonArray();
+
+        assertEquals("[{\"a\":1},2]", new String(array, StandardCharsets.UTF_8));
+        assertEquals(array.length, batch.arrayBytes());
+    }
+
+    @Test
+    void arrayBytesWith_CountsSeparator() {
+        SseBatch batch = new SseBatch("EVENT", "Steam", null);
+        assertEquals(3, batch.arrayBytesWith(1));
+
+        batch.add(json("1"));
+        assertEquals(5, batch.arrayBytesWith(1));
+    }
+}
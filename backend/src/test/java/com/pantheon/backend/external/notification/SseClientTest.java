@@ -0,0 +1,134 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.SubscriberStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseClientTest {
+
+    private final SseEventEncoder encoder = new SseEventEncoder(JsonMapper.builder().build(), "s");
+    private final SseMetrics metrics = new SseMetrics();
+    private final CountDownLatch closed = new CountDownLatch(1);
+
+    private SseClient client;
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) client.close();
+    }
+
+    private SseClient client(RecordingSseEmitter emitter, SseOverflowPolicy policy) {
+        client = new SseClient("1", emitter, StreamFilter.ALL, 2, policy, encoder, metrics, _ -> closed.countDown());
+        return client;
+    }
+
+    private SseFrame frame(int payload) {
+        return encoder.encode(payload, "EVENT", payload);
+    }
+
+    /**
+     * Sends 1 and waits until the sender is stuck on it, then queues 2 to 6
+     */
+    private void publishWhileStalled(SseClient client, RecordingSseEmitter emitter) throws InterruptedException {
+        client.offer(frame(1));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 6; i++) {
+            client.offer(frame(i));
+        }
+    }
+
+    @Test
+    void offer_SendsEventsInOrder() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        SseClient client = client(emitter, SseOverflowPolicy.DROP_OLDEST);
+
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(client.offer(frame(i)));
+        }
+
+        assertEquals(List.of("1", "2", "3"), emitter.take(3));
+    }
+
+    @Test
+    void offer_FullQueue_DropOldest_KeepsNewestEvents() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.stalled();
+        SseClient client = client(emitter, SseOverflowPolicy.DROP_OLDEST);
+
+        publishWhileStalled(client, emitter);
+
+        SubscriberStatsDTO stats = client.stats();
+        assertEquals(2, stats.queuedEvents());
+        assertEquals(2, stats.maxQueuedEvents());
+        assertEquals(3, stats.droppedEvents());
+        assertEquals(3, metrics.dropped.sum());
+
+        emitter.release.countDown();
+        assertEquals(List.of("1", "5", "6"), emitter.take(3));
+    }
+
+    @Test
+    void offer_FullQueue_Coalesce_ReplacesBacklogByResync() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.stalled();
+        SseClient client = client(emitter, SseOverflowPolicy.COALESCE);
+
+        publishWhileStalled(client, emitter);
+
+        emitter.release.countDown();
+        assertEquals(List.of("1", "{\"droppedEvents\":4}", "6"), emitter.take(3));
+        assertEquals(4, client.stats().droppedEvents());
+        // A reconnect after the resync resumes after the last event it replaced
+        assertEquals(List.of("s-1", "s-5", "s-6"), emitter.eventIds);
+        assertEquals("s-6", emitter.eventIds.getLast());
+    }
+
+    @Test
+    void offer_FullQueue_Coalesce_ResyncTakesIdOfLastReplacedEvent() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.stalled();
+        SseClient client = client(emitter, SseOverflowPolicy.COALESCE);
+
+        publishWhileStalled(client, emitter);
+        client.close();
+        emitter.release.countDown();
+
+        // 1 was sent before the close, the resync standing for 2 to 5 never was
+        assertEquals(List.of("1"), emitter.take(1));
+        assertEquals("s-1", emitter.eventIds.getLast());
+    }
+
+    @Test
+    void offer_FullQueue_Disconnect_ClosesClient() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.stalled();
+        SseClient client = client(emitter, SseOverflowPolicy.DISCONNECT);
+
+        client.offer(frame(1));
+        assertTrue(emitter.sending.await(5, TimeUnit.SECONDS));
+        assertTrue(client.offer(frame(2)));
+        assertTrue(client.offer(frame(3)));
+
+        assertFalse(client.offer(frame(4)));
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertEquals(1, metrics.overflowDisconnects.sum());
+        assertFalse(client.offer(frame(5)));
+        assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void sendFailure_ClosesClient() throws InterruptedException {
+        SseClient client = client(RecordingSseEmitter.broken(), SseOverflowPolicy.DROP_OLDEST);
+
+        client.offer(frame(1));
+
+        assertTrue(closed.await(5, TimeUnit.SECONDS));
+        assertFalse(client.offer(frame(2)));
+    }
+}
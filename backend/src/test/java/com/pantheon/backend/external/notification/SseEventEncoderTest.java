@@ -0,0 +1,70 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.event.StreamResyncEvent;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanErrorEvent;
+import com.pantheon.backend.core.notification.event.localscan.LocalScanStartedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseEventEncoderTest {
+
+    private final SseEventEncoder encoder = new SseEventEncoder(JsonMapper.builder().build(), "k2x");
+
+    private static String text(SseFrame frame) {
+        DataWithMediaType content = frame.content().iterator().next();
+        return new String((byte[]) content.getData(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    void encode_WritesIdEventAndDataLines() {
+        SseFrame frame = encoder.encode(42, "STREAM_RESYNC", new StreamResyncEvent(7));
+
+        String expected = "id:k2x-42\nevent:STREAM_RESYNC\ndata:{\"droppedEvents\":7}\n\n";
+        assertEquals(expected, text(frame));
+        assertEquals(expected.length(), frame.size());
+        assertEquals(42, frame.sequence());
+    }
+
+    @Test
+    void encode_NoSequence_LeavesOutId() {
+        assertEquals("event:EVENT\ndata:1\n\n", text(encoder.encode(0, "EVENT", 1)));
+    }
+
+    @Test
+    void encode_LineBreaksInPayload_StayOnOneDataLine() {
+        String text = text(encoder.encode(1, "LOCAL_SCAN_FAILED", new LocalScanErrorEvent("Steam", null, "line one\nline two")));
+
+        assertEquals(4, text.split("\n", -1).length - 1);
+        assertTrue(text.contains("line one\\nline two"));
+    }
+
+    @Test
+    void encode_Event_StandsForOneEvent() {
+        assertEquals(1, encoder.encode(1, "LOCAL_SCAN_STARTED", new LocalScanStartedEvent("Steam", null, 3)).events());
+    }
+
+    @Test
+    void encode_Resync_StandsForTheEventsItReplaced() {
+        assertEquals(7, encoder.encode(1, SseClient.RESYNC_EVENT, new StreamResyncEvent(7)).events());
+        assertEquals(0, encoder.encode(1, SseClient.RESYNC_EVENT, new StreamResyncEvent(-1)).events());
+    }
+
+    @Test
+    void sequenceOf_IdOfThisStream_ReturnsSequence() {
+        assertEquals(42, encoder.sequenceOf(encoder.eventId(42)));
+    }
+
+    @Test
+    void sequenceOf_ForeignOrMalformedId_ReturnsMinusOne() {
+        assertEquals(-1, encoder.sequenceOf("k2w-42"));
+        assertEquals(-1, encoder.sequenceOf("k2x-abc"));
+        assertEquals(-1, encoder.sequenceOf("42"));
+        assertEquals(-1, encoder.sequenceOf(null));
+    }
+}
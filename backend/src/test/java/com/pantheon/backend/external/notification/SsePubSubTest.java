@@ -0,0 +1,385 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.config.SseBatching;
+import com.pantheon.backend.core.notification.StreamFilter;
+import com.pantheon.backend.core.notification.dto.BatchStatsDTO;
+import com.pantheon.backend.core.notification.dto.NotificationStatsDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SsePubSubTest {
+
+    private final SsePubSub ssePubSub = pubSub(new SseBatching(3, 1 << 16, 50));
+
+    @AfterEach
+    void tearDown() {
+        ssePubSub.close();
+    }
+
+    private static SsePubSub pubSub(SseBatching batching) {
+        return new SsePubSub(JsonMapper.builder().build(), 0L, 2, "drop-oldest", 3, 1 << 20, batching);
+    }
+
+    /**
+     * Counters move right after the emitter returns, which is after the test saw the event
+     */
+    private NotificationStatsDTO statsOnceDelivered(long events) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (ssePubSub.stats().deliveredEvents() < events && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        NotificationStatsDTO stats = ssePubSub.stats();
+        assertEquals(events, stats.deliveredEvents());
+        return stats;
+    }
+
+    @Test
+    void subscribe_ReturnsEmitter() {
+        assertNotNull(ssePubSub.subscribe(null, StreamFilter.ALL));
+        assertEquals(1, ssePubSub.stats().subscribers().size());
+    }
+
+    @Test
+    void broadcast_StalledClient_DoesNotHoldUpPublisherOrOtherClients() throws InterruptedException {
+        RecordingSseEmitter stalled = RecordingSseEmitter.stalled();
+        RecordingSseEmitter healthy = RecordingSseEmitter.healthy();
+        ssePubSub.register(stalled, null, StreamFilter.ALL);
+        ssePubSub.register(healthy, null, StreamFilter.ALL);
+
+        ssePubSub.broadcast("EVENT", null, 1);
+        assertTrue(stalled.sending.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("1"), healthy.take(1));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            for (int i = 2; i <= 10; i++) {
+                ssePubSub.broadcast("EVENT", null, i);
+                assertEquals(List.of(String.valueOf(i)), healthy.take(1));
+            }
+        });
+
+        NotificationStatsDTO stats = statsOnceDelivered(10);
+        assertEquals(7, stats.droppedEvents());
+    }
+
+    @Test
+    void broadcast_DisconnectPolicy_StuckClient_DoesNotHoldUpPublisher() throws InterruptedException {
+        SsePubSub pubSub = new SsePubSub(JsonMapper.builder().build(), 0L, 2, "disconnect", 3, 1 << 20,
+                new SseBatching(3, 1 << 16, 50));
+        RecordingSseEmitter stuck = RecordingSseEmitter.stuck();
+        try {
+            pubSub.register(stuck, null, StreamFilter.ALL);
+            pubSub.broadcast("EVENT", null, 1);
+            assertTrue(stuck.sending.await(5, TimeUnit.SECONDS));
+
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 2; i <= 10; i++) {
+                    pubSub.broadcast("EVENT", null, i);
+                }
+            });
+
+            assertTrue(pubSub.stats().subscribers().isEmpty());
+            assertEquals(1, pubSub.stats().overflowDisconnects());
+        } finally {
+            stuck.release.countDown();
+            pubSub.close();
+        }
+
+        // Completed once the send it was stuck in returned
+        assertTrue(stuck.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void broadcast_SerializesOncePerEvent_WhateverTheNumberOfClients() throws InterruptedException {
+        List<RecordingSseEmitter> emitters = List.of(RecordingSseEmitter.healthy(), RecordingSseEmitter.healthy(),
+                RecordingSseEmitter.healthy());
+        emitters.forEach(emitter -> ssePubSub.register(emitter, null, StreamFilter.ALL));
+        CountingPayload payload = new CountingPayload();
+
+        ssePubSub.broadcast("EVENT", null, payload);
+
+        for (RecordingSseEmitter emitter : emitters) {
+            assertEquals(List.of("{\"title\":\"Hades\"}"), emitter.take(1));
+        }
+        assertEquals(1, payload.reads.get());
+
+        NotificationStatsDTO stats = statsOnceDelivered(3);
+        assertEquals(1, stats.encodedEvents());
+        assertEquals(3 * stats.encodedBytes(), stats.deliveredBytes());
+    }
+
+    @Test
+    void broadcast_UnserializablePayload_IsNotSent() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        ssePubSub.register(emitter, null, StreamFilter.ALL);
+
+        ssePubSub.broadcast("EVENT", null, new Object());
+        ssePubSub.broadcast("EVENT", null, 2);
+
+        assertEquals(List.of("2"), emitter.take(1));
+    }
+
+    @Test
+    void broadcast_BrokenClient_IsUnsubscribed() throws InterruptedException {
+        ssePubSub.register(RecordingSseEmitter.broken(), null, StreamFilter.ALL);
+
+        ssePubSub.broadcast("EVENT", null, 1);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!ssePubSub.stats().subscribers().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(ssePubSub.stats().subscribers().isEmpty());
+    }
+
+    @Test
+    void broadcast_NumbersEventsInOrder() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        ssePubSub.register(emitter, null, StreamFilter.ALL);
+
+        ssePubSub.broadcast("EVENT", null, 1);
+        ssePubSub.broadcast("EVENT", null, new Object());
+        ssePubSub.broadcast("EVENT", null, 2);
+
+        assertEquals(List.of("1", "2"), emitter.take(2));
+        String stream = emitter.eventIds.getFirst().substring(0, emitter.eventIds.getFirst().indexOf('-'));
+        assertEquals(List.of(stream + "-1", stream + "-2"), emitter.eventIds);
+    }
+
+    @Test
+    void register_LastEventIdInBuffer_ReplaysMissedEvents() throws InterruptedException {
+        RecordingSseEmitter first = RecordingSseEmitter.healthy();
+        SseClient client = ssePubSub.register(first, null, StreamFilter.ALL);
+        ssePubSub.broadcast("EVENT", null, 1);
+        assertEquals(List.of("1"), first.take(1));
+        client.close();
+
+        ssePubSub.broadcast("EVENT", null, 2);
+        ssePubSub.broadcast("EVENT", null, 3);
+
+        RecordingSseEmitter reconnected = RecordingSseEmitter.healthy();
+        ssePubSub.register(reconnected, first.eventIds.getLast(), StreamFilter.ALL);
+
+        assertEquals(List.of("2", "3"), reconnected.take(2));
+        assertEquals(2, ssePubSub.stats().replayedEvents());
+    }
+
+    @Test
+    void register_LastEventIdUpToDate_ReplaysNothing() throws InterruptedException {
+        RecordingSseEmitter first = RecordingSseEmitter.healthy();
+        ssePubSub.register(first, null, StreamFilter.ALL);
+        ssePubSub.broadcast("EVENT", null, 1);
+        assertEquals(List.of("1"), first.take(1));
+
+        RecordingSseEmitter reconnected = RecordingSseEmitter.healthy();
+        ssePubSub.register(reconnected, first.eventIds.getLast(), StreamFilter.ALL);
+        ssePubSub.broadcast("EVENT", null, 2);
+
+        assertEquals(List.of("2"), reconnected.take(1));
+        assertEquals(0, ssePubSub.stats().replayResyncs());
+    }
+
+    @Test
+    void register_LastEventIdEvicted_SendsResyncWithGap() throws InterruptedException {
+        RecordingSseEmitter first = RecordingSseEmitter.healthy();
+        SseClient client = ssePubSub.register(first, null, StreamFilter.ALL);
+        ssePubSub.broadcast("EVENT", null, 1);
+        assertEquals(List.of("1"), first.take(1));
+        client.close();
+
+        for (int i = 2; i <= 6; i++) {
+            ssePubSub.broadcast("EVENT", null, i);
+        }
+
+        RecordingSseEmitter reconnected = RecordingSseEmitter.healthy();
+        ssePubSub.register(reconnected, first.eventIds.getLast(), StreamFilter.ALL);
+        ssePubSub.broadcast("EVENT", null, 7);
+
+        assertEquals(List.of("{\"droppedEvents\":5}", "7"), reconnected.take(2));
+        assertEquals(1, ssePubSub.stats().replayResyncs());
+        assertEquals(3, ssePubSub.stats().bufferedEvents());
+    }
+
+    @Test
+    void register_LastEventIdOfAnotherStream_SendsResync() throws InterruptedException {
+        ssePubSub.broadcast("EVENT", null, 1);
+
+        RecordingSseEmitter reconnected = RecordingSseEmitter.healthy();
+        ssePubSub.register(reconnected, "before-restart-12", StreamFilter.ALL);
+
+        assertEquals(List.of("{\"droppedEvents\":-1}"), reconnected.take(1));
+    }
+
+    @Test
+    void broadcastBatched_FullBatch_SentAsOneArray() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        ssePubSub.register(emitter, null, StreamFilter.ALL);
+
+        for (int i = 1; i <= 4; i++) {
+            ssePubSub.broadcastBatched("EVENT", null, i);
+        }
+
+        assertEquals(List.of("[1,2,3]", "[4]"), emitter.take(2));
+        BatchStatsDTO batching = ssePubSub.stats().batching();
+        assertEquals(4, batching.batchedEvents());
+        assertEquals(1, batching.flushes().get("ITEMS"));
+        assertEquals(1, batching.flushes().get("TIME"));
+        assertEquals(1, batching.batchSizes().get("1"));
+        assertEquals(1, batching.batchSizes().get("4"));
+    }
+
+    @Test
+    void broadcastBatched_Trickle_SentAfterDelay() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        ssePubSub.register(emitter, null, StreamFilter.ALL);
+
+        long start = System.nanoTime();
+        ssePubSub.broadcastBatched("EVENT", null, 1);
+
+        assertEquals(List.of("[1]"), emitter.take(1));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    void broadcastBatched_OverMaxBytes_SendsBatchBeforeIt() throws InterruptedException {
+        SsePubSub pubSub = pubSub(new SseBatching(100, 10, 60_000));
+        try {
+            RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+            pubSub.register(emitter, null, StreamFilter.ALL);
+
+            pubSub.broadcastBatched("EVENT", null, "abc");
+            pubSub.broadcastBatched("EVENT", null, "def");
+            pubSub.broadcastBatched("EVENT", null, "much too long for a batch");
+
+            assertEquals(List.of("[\"abc\"]", "[\"def\"]", "[\"much too long for a batch\"]"), emitter.take(3));
+            assertEquals(3, pubSub.stats().batching().flushes().get("BYTES"));
+        } finally {
+            pubSub.close();
+        }
+    }
+
+    @Test
+    void broadcast_PendingBatch_SentFirst() throws InterruptedException {
+        RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+        ssePubSub.register(emitter, null, StreamFilter.ALL);
+
+        ssePubSub.broadcastBatched("DELTA", null, 1);
+        ssePubSub.broadcastBatched("DELTA", null, 2);
+        ssePubSub.broadcast("COMPLETED", null, 3);
+
+        assertEquals(List.of("[1,2]", "3"), emitter.take(2));
+        assertEquals(1, ssePubSub.stats().batching().flushes().get("ORDER"));
+    }
+
+    @Test
+    void broadcast_FilteredClients_OnlyReceiveWhatTheySubscribedTo() throws InterruptedException {
+        RecordingSseEmitter steam = RecordingSseEmitter.healthy();
+        RecordingSseEmitter deltas = RecordingSseEmitter.healthy();
+        ssePubSub.register(steam, null, new StreamFilter(Set.of("Steam"), Set.of()));
+        ssePubSub.register(deltas, null, new StreamFilter(Set.of(), Set.of("DELTA")));
+
+        ssePubSub.broadcast("STARTED", "Epic", 1);
+        ssePubSub.broadcast("DELTA", "Epic", 2);
+        ssePubSub.broadcast("STARTED", "Steam", 3);
+        ssePubSub.broadcast("ALL_COMPLETED", null, 4);
+
+        assertEquals(List.of("3", "4"), steam.take(2));
+        assertEquals(List.of("2"), deltas.take(1));
+        statsOnceDelivered(3);
+        assertTrue(steam.payloads.isEmpty());
+        assertTrue(deltas.payloads.isEmpty());
+    }
+
+    @Test
+    void endJob_ClientFollowingJob_GetsItsEventsThenEnds() throws InterruptedException {
+        RecordingSseEmitter job = RecordingSseEmitter.healthy();
+        ssePubSub.register(job, null, new StreamFilter(Set.of(), Set.of(), "job-1"));
+
+        ssePubSub.broadcast("STARTED", "Steam", "job-1", 1);
+        ssePubSub.broadcast("STARTED", "Steam", "job-2", 2);
+        ssePubSub.broadcast("ALL_COMPLETED", null, 3);
+        ssePubSub.broadcast("COMPLETED", "Steam", "job-1", 4);
+        ssePubSub.endJob("job-1");
+        ssePubSub.broadcast("STARTED", "Steam", "job-1", 5);
+
+        assertEquals(List.of("1", "4"), job.take(2));
+        assertTrue(job.completed.await(5, TimeUnit.SECONDS));
+        assertTrue(job.payloads.isEmpty());
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!ssePubSub.stats().subscribers().isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(ssePubSub.stats().subscribers().isEmpty());
+    }
+
+    @Test
+    void broadcast_NobodySubscribedAndNoReplay_NotSerialized() throws InterruptedException {
+        SsePubSub pubSub = new SsePubSub(JsonMapper.builder().build(), 0L, 2, "drop-oldest", 0, 0,
+                new SseBatching(3, 1 << 16, 50));
+        try {
+            RecordingSseEmitter emitter = RecordingSseEmitter.healthy();
+            pubSub.register(emitter, null, new StreamFilter(Set.of("Steam"), Set.of()));
+            CountingPayload payload = new CountingPayload();
+
+            pubSub.broadcast("EVENT", "Epic", payload);
+            pubSub.broadcast("EVENT", "Steam", 1);
+
+            assertEquals(List.of("1"), emitter.take(1));
+            assertEquals(0, payload.reads.get());
+            assertEquals(1, pubSub.stats().unwantedEvents());
+        } finally {
+            pubSub.close();
+        }
+    }
+
+    @Test
+    void register_LastEventIdWithFilter_ReplaysMatchingEventsOnly() throws InterruptedException {
+        StreamFilter steamOnly = new StreamFilter(Set.of("Steam"), Set.of());
+        RecordingSseEmitter first = RecordingSseEmitter.healthy();
+        SseClient client = ssePubSub.register(first, null, steamOnly);
+        ssePubSub.broadcast("EVENT", "Steam", 1);
+        assertEquals(List.of("1"), first.take(1));
+        client.close();
+
+        ssePubSub.broadcast("EVENT", "Epic", 2);
+        ssePubSub.broadcast("EVENT", "Steam", 3);
+
+        RecordingSseEmitter reconnected = RecordingSseEmitter.healthy();
+        ssePubSub.register(reconnected, first.eventIds.getLast(), steamOnly);
+
+        assertEquals(List.of("3"), reconnected.take(1));
+        assertEquals(1, ssePubSub.stats().replayedEvents());
+    }
+
+    @Test
+    void constructor_UnknownOverflowPolicy_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SsePubSub(JsonMapper.builder().build(), 0L, 2, "block", 3, 1 << 20,
+                new SseBatching(3, 1 << 16, 50)));
+    }
+
+    /**
+     * Counts how often Jackson reads it
+     */
+    static class CountingPayload {
+
+        private final AtomicInteger reads = new AtomicInteger();
+
+        public String getTitle() {
+            reads.incrementAndGet();
+            return "Hades";
+        }
+    }
+}
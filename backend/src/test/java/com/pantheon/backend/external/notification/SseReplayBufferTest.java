@@ -0,0 +1,54 @@
+package com.pantheon.backend.external.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SseReplayBufferTest {
+
+    private static SseFrame frame(long sequence) {
+        return SseFrame.of(sequence, "EVENT", null, null, "0123456789".getBytes(StandardCharsets.UTF_8), 1);
+    }
+
+    private static List<Long> sequences(Optional<List<SseFrame>> frames) {
+        return frames.orElseThrow().stream().map(SseFrame::sequence).toList();
+    }
+
+    @Test
+    void framesAfter_ReturnsFramesAfterSequence() {
+        SseReplayBuffer buffer = new SseReplayBuffer(10, 1000);
+        for (long i = 1; i <= 5; i++) buffer.add(frame(i));
+
+        assertEquals(List.of(3L, 4L, 5L), sequences(buffer.framesAfter(2)));
+        assertEquals(List.of(), sequences(buffer.framesAfter(5)));
+    }
+
+    @Test
+    void add_OverMaxEvents_EvictsOldest() {
+        SseReplayBuffer buffer = new SseReplayBuffer(3, 1000);
+        for (long i = 1; i <= 5; i++) buffer.add(frame(i));
+
+        assertEquals(3, buffer.size());
+        assertEquals(30, buffer.bytes());
+        assertEquals(List.of(3L, 4L, 5L), sequences(buffer.framesAfter(2)));
+        assertEquals(Optional.empty(), buffer.framesAfter(1));
+    }
+
+    @Test
+    void add_OverMaxBytes_EvictsOldest() {
+        SseReplayBuffer buffer = new SseReplayBuffer(100, 25);
+        for (long i = 1; i <= 5; i++) buffer.add(frame(i));
+
+        assertEquals(2, buffer.size());
+        assertEquals(List.of(4L, 5L), sequences(buffer.framesAfter(3)));
+    }
+
+    @Test
+    void framesAfter_EmptyBuffer_ReturnsEmpty() {
+        assertEquals(Optional.empty(), new SseReplayBuffer(0, 0).framesAfter(3));
+    }
+}
@@ -0,0 +1,94 @@
+package com.pantheon.backend.external.notification;
+
+import com.pantheon.backend.core.notification.StreamFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseSubscriberIndexTest {
+
+    private final SseSubscriberIndex index = new SseSubscriberIndex();
+    private final SseEventEncoder encoder = new SseEventEncoder(JsonMapper.builder().build(), "s");
+    private final List<SseClient> clients = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        clients.forEach(SseClient::close);
+    }
+
+    private SseClient client(Set<String> platforms, Set<String> eventTypes) {
+        return client(new StreamFilter(platforms, eventTypes));
+    }
+
+    private SseClient client(StreamFilter filter) {
+        SseClient client = new SseClient(String.valueOf(clients.size() + 1), RecordingSseEmitter.healthy(), filter, 2, SseOverflowPolicy.DROP_OLDEST, encoder, new SseMetrics(),
+                _ -> {});
+        clients.add(client);
+        index.add(client);
+        return client;
+    }
+
+    private Set<SseClient> matching(String eventName, String platformName) {
+        return matching(eventName, platformName, null);
+    }
+
+    private Set<SseClient> matching(String eventName, String platformName, String jobId) {
+        return new HashSet<>(index.matching(eventName, platformName, jobId));
+    }
+
+    @Test
+    void matching_ReturnsClientsWhoseFilterMatches() {
+        SseClient everything = client(Set.of(), Set.of());
+        SseClient steam = client(Set.of("Steam"), Set.of());
+        SseClient steamDeltas = client(Set.of("Steam", "Epic"), Set.of("LIBRARY_DELTA"));
+        SseClient deltas = client(Set.of(), Set.of("LIBRARY_DELTA"));
+
+        assertEquals(Set.of(everything, steam, steamDeltas, deltas), matching("LIBRARY_DELTA", "Steam"));
+        assertEquals(Set.of(everything, steamDeltas, deltas), matching("LIBRARY_DELTA", "Epic"));
+        assertEquals(Set.of(everything, steam), matching("LOCAL_SCAN_STARTED", "Steam"));
+        assertEquals(Set.of(everything), matching("LOCAL_SCAN_STARTED", "GOG"));
+    }
+
+    @Test
+    void matching_NoPlatform_MatchesEveryPlatformFilterOnce() {
+        SseClient steam = client(Set.of("Steam", "Epic"), Set.of());
+        client(Set.of(), Set.of("LIBRARY_DELTA"));
+
+        assertEquals(List.of(steam), List.copyOf(index.matching("LOCAL_SCAN_ALL_COMPLETED", null, null)));
+    }
+
+    @Test
+    void matching_Job_OnlyItsEventsReachClientsFollowingIt() {
+        SseClient everything = client(Set.of(), Set.of());
+        SseClient job = client(new StreamFilter(Set.of(), Set.of(), "job-1"));
+        SseClient jobDeltas = client(new StreamFilter(Set.of("Steam"), Set.of("LIBRARY_DELTA"), "job-1"));
+
+        assertEquals(Set.of(everything, job, jobDeltas), matching("LIBRARY_DELTA", "Steam", "job-1"));
+        assertEquals(Set.of(everything, job), matching("LOCAL_SCAN_STARTED", "Steam", "job-1"));
+        assertEquals(Set.of(everything), matching("LIBRARY_DELTA", "Steam", "job-2"));
+        assertEquals(Set.of(everything), matching("LOCAL_SCAN_ALL_COMPLETED", null, null));
+
+        index.remove(job);
+        assertEquals(Set.of(everything, jobDeltas), matching("LIBRARY_DELTA", "Steam", "job-1"));
+    }
+
+    @Test
+    void remove_ClientNoLongerMatches() {
+        SseClient steam = client(Set.of("Steam"), Set.of("LIBRARY_DELTA", "LOCAL_SCAN_STARTED"));
+        SseClient everything = client(Set.of(), Set.of());
+
+        index.remove(steam);
+
+        assertEquals(Set.of(everything), matching("LIBRARY_DELTA", "Steam"));
+        index.remove(everything);
+        assertTrue(index.matching("LIBRARY_DELTA", "Steam", null).isEmpty());
+    }
+}
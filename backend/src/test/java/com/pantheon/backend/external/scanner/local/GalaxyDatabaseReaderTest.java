@@ -0,0 +1,121 @@
+package com.pantheon.backend.external.scanner.local;
+
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GalaxyDatabaseReaderTest {
+
+    private final GalaxyDatabaseReader reader = new GalaxyDatabaseReader();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        reader.close();
+    }
+
+    /**
+     * Creates a {@code galaxy-2.0.db} fixture with the tables and columns the reader uses
+     */
+    static Path createGalaxyDatabase(Path directory, boolean withPlayTimes, String... inserts) throws SQLException {
+
+        Path database = directory.resolve("galaxy-2.0.db");
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+             Statement statement = connection.createStatement()) {
+
+            statement.execute("CREATE TABLE InstalledBaseProducts (productId INTEGER PRIMARY KEY, installationPath TEXT, installationDate TEXT)");
+            statement.execute("CREATE TABLE LimitedDetails (id INTEGER PRIMARY KEY, productId INTEGER, languageId INTEGER, title TEXT)");
+
+            if (withPlayTimes) {
+                statement.execute("CREATE TABLE GameTimes (userId INTEGER, releaseKey TEXT, minutesInGame INTEGER, lastSessionEnd INTEGER)");
+                statement.execute("CREATE TABLE LastPlayedDates (userId INTEGER, gameReleaseKey TEXT, lastPlayedDate TEXT)");
+            }
+
+            for (String insert : inserts) {
+                statement.execute(insert);
+            }
+        }
+
+        return database;
+    }
+
+    @Test
+    void readInstalledGames_JoinsProductsPlayTimesAndLastPlayedDates() throws Exception {
+        Path database = createGalaxyDatabase(tempDir, true,
+                "INSERT INTO InstalledBaseProducts VALUES (1207658924, '/games/Witcher', '2021-01-01 10:00:00')",
+                "INSERT INTO InstalledBaseProducts VALUES (1495134320, '/games/Cyberpunk', '2021-01-01 10:00:00')",
+                "INSERT INTO LimitedDetails VALUES (1, 1207658924, 1, 'The Witcher')",
+                "INSERT INTO LimitedDetails VALUES (2, 1495134320, 1, 'Cyberpunk 2077')",
+                "INSERT INTO GameTimes VALUES (1, 'gog_1207658924', 754, 1609495200)",
+                "INSERT INTO GameTimes VALUES (1, 'steam_292030', 9999, 1609495200)",
+                "INSERT INTO LastPlayedDates VALUES (1, 'gog_1495134320', '2021-05-03 18:42:11')");
+
+        List<GalaxyDatabaseReader.InstalledGame> games = reader.readInstalledGames(database);
+
+        assertEquals(2, games.size());
+
+        GalaxyDatabaseReader.InstalledGame witcher = games.stream().filter(game -> game.productId().equals("1207658924")).findFirst().orElseThrow();
+        assertEquals("The Witcher", witcher.title());
+        assertEquals(Path.of("/games/Witcher"), witcher.installPath());
+        assertEquals(754, witcher.playtimeMinutes());
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochSecond(1609495200), ZoneId.systemDefault()), witcher.lastPlayed());
+
+        GalaxyDatabaseReader.InstalledGame cyberpunk = games.stream().filter(game -> game.productId().equals("1495134320")).findFirst().orElseThrow();
+        assertNull(cyberpunk.playtimeMinutes());
+        assertEquals(LocalDateTime.ofInstant(Instant.parse("2021-05-03T18:42:11Z"), ZoneId.systemDefault()), cyberpunk.lastPlayed());
+    }
+
+    @Test
+    void readInstalledGames_WithoutPlayTimeTables_StillReadsProducts() throws Exception {
+        Path database = createGalaxyDatabase(tempDir, false,
+                "INSERT INTO InstalledBaseProducts VALUES (1, '/games/One', NULL)");
+
+        List<GalaxyDatabaseReader.InstalledGame> games = reader.readInstalledGames(database);
+
+        assertEquals(1, games.size());
+        assertNull(games.getFirst().title());
+        assertNull(games.getFirst().lastPlayed());
+    }
+
+    @Test
+    void readInstalledGames_OpensDatabaseReadOnly() throws Exception {
+        Path database = createGalaxyDatabase(tempDir, false);
+
+        reader.readInstalledGames(database);
+
+        // Still a plain file with no journal left behind by the reader
+        assertFalse(Files.exists(tempDir.resolve("galaxy-2.0.db-journal")));
+        assertThrows(ScanFailureException.class, () -> reader.readInstalledGames(tempDir.resolve("missing.db")));
+        assertFalse(Files.exists(tempDir.resolve("missing.db")));
+    }
+
+    @Test
+    void readInstalledGames_NotAGalaxyDatabase_Throws() throws Exception {
+        Path database = tempDir.resolve("galaxy-2.0.db");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + database)) {
+            connection.createStatement().execute("CREATE TABLE Unrelated (id INTEGER)");
+        }
+
+        assertThrows(ScanFailureException.class, () -> reader.readInstalledGames(database));
+    }
+}
@@ -1,20 +1,42 @@
 package com.pantheon.backend.external.scanner.local;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class LocalEpicLibraryScannerTest {
@@ -38,8 +60,247 @@ class LocalEpicLibraryScannerTest {
     }
 
     @Test
-    void scan_ReturnsEmptyList() throws ScanFailureException {
+    void scan_NoManifestsDirectory_ReturnsEmptyList() throws ScanFailureException {
         List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void scan_ValidManifests_ReturnsGames() throws IOException, ScanFailureException {
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        Path installDir = Files.createDirectories(tempDir.resolve("Games/Fortnite"));
+        writeItem(manifests, "A1", """
+                {
+                    "FormatVersion": 0,
+                    "AppName": "Fortnite",
+                    "DisplayName": "Fortnite",
+                    "InstallLocation": "%s",
+                    "InstallSize": 31000000000,
+                    "InstallTags": ["chunk0", "chunk1"],
+                    "ExpectingDLCInstalled": {"Fortnite": true},
+                    "AppCategories": ["public", "games", "applications"],
+                    "MainGameAppName": "Fortnite"
+                }
+                """.formatted(installDir));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(1, result.size());
+        ScannedLocalGameDTO game = result.getFirst();
+        assertEquals("Fortnite", game.title());
+        assertEquals("Fortnite", game.platformGameId());
+        assertEquals("Epic", game.platformName());
+        assertEquals(PlatformType.API, game.platformType());
+        assertEquals(installDir.toString(), game.installPath());
+        assertTrue(game.isInstalled());
+        assertEquals(31000000000L, game.downloadSize());
+    }
+
+    @Test
+    void scan_MissingInstallDir_ReturnsGameAsNotInstalled() throws IOException, ScanFailureException {
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        writeItem(manifests, "A1", item("Sugar", "Celeste", tempDir.resolve("Games/Celeste")));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(1, result.size());
+        assertFalse(result.getFirst().isInstalled());
+    }
+
+    @Test
+    void scan_IncompleteInstall_ReturnsGameAsNotInstalled() throws IOException, ScanFailureException {
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        Path installDir = Files.createDirectories(tempDir.resolve("Games/Hades"));
+        writeItem(manifests, "A1", """
+                {"AppName": "Min", "DisplayName": "Hades", "InstallLocation": "%s", "bIsIncompleteInstall": true}
+                """.formatted(installDir));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertFalse(result.getFirst().isInstalled());
+    }
+
+    @Test
+    void scan_DlcAndNonGameApps_AreSkipped() throws IOException, ScanFailureException {
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        writeItem(manifests, "A1", item("Base", "Base Game", tempDir.resolve("Games/Base")));
+        writeItem(manifests, "A2", """
+                {"AppName": "BaseDlc", "DisplayName": "Base Game DLC", "InstallLocation": "%s", "MainGameAppName": "Base"}
+                """.formatted(tempDir.resolve("Games/Base")));
+        writeItem(manifests, "A3", """
+                {"AppName": "UE_5.3", "DisplayName": "Unreal Engine", "InstallLocation": "%s", "AppCategories": ["engines"]}
+                """.formatted(tempDir.resolve("Engines/UE_5.3")));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(List.of("Base Game"), result.stream().map(ScannedLocalGameDTO::title).toList());
+    }
+
+    @Test
+    void scan_ParallelMode_ReturnsGamesInStableOrderAndSkipsInvalidManifests() throws IOException, ScanFailureException {
+        LocalEpicLibraryScanner parallelScanner = new LocalEpicLibraryScanner(platformRepository, 4, null);
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+
+        for (int i = 1; i <= 6; i++) {
+            writeItem(manifests, "A" + i, item("App" + i, "Game " + i, tempDir.resolve("Games/Game" + i)));
+        }
+        writeItem(manifests, "B1", "{\"AppName\": \"Broken\", ");
+        writeItem(manifests, "B2", "{\"AppName\": \"NoName\"}");
+        Files.writeString(manifests.resolve("notes.txt"), "not a manifest");
+
+        List<ScannedLocalGameDTO> result = parallelScanner.scan(tempDir);
+
+        assertEquals(List.of("Game 1", "Game 2", "Game 3", "Game 4", "Game 5", "Game 6"),
+                result.stream().map(ScannedLocalGameDTO::title).toList());
+    }
+
+    @Test
+    void scan_LauncherInstalled_DecidesInstallLocationAndState() throws IOException, ScanFailureException {
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        Path moved = Files.createDirectories(tempDir.resolve("Moved/Control"));
+        Path leftover = Files.createDirectories(tempDir.resolve("Games/Alan Wake"));
+        writeItem(manifests, "A1", item("Calluna", "Control", tempDir.resolve("Games/Control")));
+        writeItem(manifests, "A2", item("Ferret", "Alan Wake", leftover));
+        Files.writeString(tempDir.resolve("LauncherInstalled.dat"), """
+                {
+                    "InstallationList": [
+                        {"InstallLocation": "%s", "NamespaceId": "", "ItemId": "", "ArtifactId": "Calluna", "AppName": "Calluna"}
+                    ]
+                }
+                """.formatted(moved));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(2, result.size());
+        assertEquals(moved.toString(), result.get(0).installPath());
+        assertTrue(result.get(0).isInstalled());
+        assertEquals("Alan Wake", result.get(1).title());
+        assertFalse(result.get(1).isInstalled());
+    }
+
+    @Test
+    void scan_InstallRoot_ReadsLauncherDataAndOnlyReturnsGamesBelowRoot() throws IOException, ScanFailureException {
+        Path dataDir = tempDir.resolve("ProgramData/Epic");
+        Path manifests = Files.createDirectories(dataDir.resolve("EpicGamesLauncher/Data/Manifests"));
+        Path libraryPath = Files.createDirectories(tempDir.resolve("Epic Games"));
+        Path inside = Files.createDirectories(libraryPath.resolve("Inside"));
+        Path outside = Files.createDirectories(tempDir.resolve("Other Drive/Outside"));
+        writeItem(manifests, "A1", item("In", "Inside Game", inside));
+        writeItem(manifests, "A2", item("Out", "Outside Game", outside));
+
+        LocalEpicLibraryScanner dataDirScanner = new LocalEpicLibraryScanner(platformRepository, 1, dataDir.toString());
+
+        List<ScannedLocalGameDTO> result = dataDirScanner.scan(libraryPath);
+
+        assertEquals(List.of("Inside Game"), result.stream().map(ScannedLocalGameDTO::title).toList());
+        assertTrue(result.getFirst().isInstalled());
+    }
+
+    @Test
+    void getInstallRoot_ManifestsPath_AnywhereAndInstallRoot_ItsPath() throws IOException {
+        Path manifestsPath = tempDir.resolve("Launcher");
+        Files.createDirectories(manifestsPath.resolve("Manifests"));
+        Path installRoot = Files.createDirectories(tempDir.resolve("Epic Games"));
+
+        LocalEpicLibraryScanner dataDirScanner = new LocalEpicLibraryScanner(platformRepository, 1, tempDir.toString());
+
+        assertNull(dataDirScanner.getInstallRoot(manifestsPath));
+        assertEquals(installRoot.toAbsolutePath().normalize(), dataDirScanner.getInstallRoot(installRoot));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanChanges_DeletedManifest_ReportsGameRemoved() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalEpicLibraryScanner incrementalScanner = new LocalEpicLibraryScanner(platformRepository, 1, null, store);
+        when(platformRepository.findWithLibraryPathsByName("Epic")).thenReturn(Optional.of(Platform.builder().id(2).name("Epic").build()));
+
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        writeItem(manifests, "A1", item("Sugar", "Celeste", tempDir.resolve("Games/Celeste")));
+        Path deleted = writeItem(manifests, "A2", item("Min", "Hades", tempDir.resolve("Games/Hades")));
+
+        when(store.load(2, tempDir.toString())).thenReturn(Map.of());
+        incrementalScanner.scanChanges(tempDir, ScanMonitor.NONE, game -> {
+        });
+
+        ArgumentCaptor<Collection<ManifestFingerprintDTO>> fingerprints = ArgumentCaptor.forClass(Collection.class);
+        verify(store).commit(eq(2), eq(tempDir.toString()), fingerprints.capture(), anyCollection());
+        assertEquals(List.of("Sugar", "Min"), fingerprints.getValue().stream().map(ManifestFingerprintDTO::platformGameId).toList());
+
+        Files.delete(deleted);
+        when(store.load(2, tempDir.toString())).thenReturn(byPath(fingerprints.getValue()));
+
+        List<ScannedLocalGameDTO> streamed = new ArrayList<>();
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir, ScanMonitor.NONE, streamed::add);
+
+        assertEquals(List.of("Celeste"), streamed.stream().map(ScannedLocalGameDTO::title).toList());
+        assertEquals(List.of("Min"), delta.removedPlatformGameIds());
+        verify(store).commit(eq(2), eq(tempDir.toString()), anyCollection(), eq(List.of(deleted.toAbsolutePath().toString())));
+    }
+
+    @Test
+    void scanChanges_GameMovedOutOfInstallRoot_ReportsGameRemoved() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        Path dataDir = tempDir.resolve("ProgramData/Epic");
+        LocalEpicLibraryScanner incrementalScanner = new LocalEpicLibraryScanner(platformRepository, 1, dataDir.toString(), store);
+        when(platformRepository.findWithLibraryPathsByName("Epic")).thenReturn(Optional.of(Platform.builder().id(2).name("Epic").build()));
+
+        Path manifests = Files.createDirectories(dataDir.resolve("EpicGamesLauncher/Data/Manifests"));
+        Path libraryPath = Files.createDirectories(tempDir.resolve("Epic Games"));
+        Path moved = writeItem(manifests, "A1", item("Out", "Moved Game", tempDir.resolve("Other Drive/Moved Game")));
+
+        when(store.load(2, libraryPath.toString())).thenReturn(Map.of(moved.toAbsolutePath().toString(),
+                ManifestFingerprintDTO.builder().path(moved.toAbsolutePath().toString()).platformGameId("Out").build()));
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(libraryPath);
+
+        assertTrue(delta.changed().isEmpty());
+        assertEquals(List.of("Out"), delta.removedPlatformGameIds());
+    }
+
+    @Test
+    void scanChanges_ReinstalledUnderNewManifest_NotReportedRemoved() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalEpicLibraryScanner incrementalScanner = new LocalEpicLibraryScanner(platformRepository, 1, null, store);
+        when(platformRepository.findWithLibraryPathsByName("Epic")).thenReturn(Optional.of(Platform.builder().id(2).name("Epic").build()));
+
+        Path manifests = Files.createDirectories(tempDir.resolve("Manifests"));
+        writeItem(manifests, "B1", item("Sugar", "Celeste", tempDir.resolve("Games/Celeste")));
+        String previous = manifests.resolve("A1.item").toAbsolutePath().toString();
+
+        when(store.load(2, tempDir.toString())).thenReturn(Map.of(previous,
+                ManifestFingerprintDTO.builder().path(previous).platformGameId("Sugar").build()));
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir);
+
+        assertEquals(List.of("Celeste"), delta.changed().stream().map(ScannedLocalGameDTO::title).toList());
+        assertTrue(delta.removedPlatformGameIds().isEmpty());
+        verify(store).commit(eq(2), eq(tempDir.toString()), anyCollection(), eq(List.of(previous)));
+    }
+
+    @Test
+    void scanChanges_NoManifestsDirectory_ReportsNothingRemoved() throws ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalEpicLibraryScanner incrementalScanner = new LocalEpicLibraryScanner(platformRepository, 1, null, store);
+        when(platformRepository.findWithLibraryPathsByName("Epic")).thenReturn(Optional.of(Platform.builder().id(2).name("Epic").build()));
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir);
+
+        assertTrue(delta.isEmpty());
+        verify(store, never()).commit(eq(2), eq(tempDir.toString()), anyCollection(), anyCollection());
+    }
+
+    private static Map<String, ManifestFingerprintDTO> byPath(Collection<ManifestFingerprintDTO> fingerprints) {
+        return fingerprints.stream().collect(Collectors.toMap(ManifestFingerprintDTO::path, fingerprint -> fingerprint));
+    }
+
+    private static String item(String appName, String displayName, Path installLocation) {
+        return """
+                {"AppName": "%s", "DisplayName": "%s", "InstallLocation": "%s", "AppCategories": ["games"]}
+                """.formatted(appName, displayName, installLocation);
+    }
+
+    private static Path writeItem(Path manifests, String name, String content) throws IOException {
+        return Files.writeString(manifests.resolve(name + ".item"), content);
+    }
 }
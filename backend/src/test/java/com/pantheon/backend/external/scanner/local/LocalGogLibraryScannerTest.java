@@ -1,20 +1,40 @@
 package com.pantheon.backend.external.scanner.local;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.model.PlatformType;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class LocalGogLibraryScannerTest {
@@ -24,6 +44,8 @@ class LocalGogLibraryScannerTest {
 
     private LocalGogLibraryScanner scanner;
 
+    private final GalaxyDatabaseReader galaxyDatabaseReader = new GalaxyDatabaseReader();
+
     @TempDir
     Path tempDir;
 
@@ -32,14 +54,196 @@ class LocalGogLibraryScannerTest {
         scanner = new LocalGogLibraryScanner(platformRepository);
     }
 
+    @AfterEach
+    void tearDown() {
+        galaxyDatabaseReader.close();
+    }
+
     @Test
     void getPlatformName_ReturnsGOG() {
         assertEquals("GOG", scanner.getPlatformName());
     }
 
     @Test
-    void scan_ReturnsEmptyList() throws ScanFailureException {
+    void scan_EmptyDirectory_ReturnsEmptyList() throws ScanFailureException {
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void scan_InfoFiles_ReturnsBaseGamesOnly() throws IOException, ScanFailureException {
+        Path witcher = Files.createDirectories(tempDir.resolve("The Witcher 3"));
+        writeInfo(witcher, "1207664643", "1207664643", "The Witcher 3: Wild Hunt");
+        writeInfo(witcher, "1207664663", "1207664643", "Hearts of Stone");
+        Files.createDirectories(tempDir.resolve("Not A Game"));
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(1, result.size());
+        ScannedLocalGameDTO game = result.getFirst();
+        assertEquals("The Witcher 3: Wild Hunt", game.title());
+        assertEquals("1207664643", game.platformGameId());
+        assertEquals("GOG", game.platformName());
+        assertEquals(PlatformType.API, game.platformType());
+        assertEquals(witcher.toString(), game.installPath());
+        assertTrue(game.isInstalled());
+    }
+
+    @Test
+    void scan_InvalidInfoFile_SkipsGame() throws IOException, ScanFailureException {
+        Path broken = Files.createDirectories(tempDir.resolve("Broken"));
+        Files.writeString(broken.resolve("goggame-1.info"), "{\"gameId\": ");
+
         List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void scan_GalaxyStorageDirectory_ReadsInstalledGamesFromDatabase() throws Exception {
+        Path installed = Files.createDirectories(tempDir.resolve("games/Witcher"));
+        Path storage = Files.createDirectories(tempDir.resolve("storage"));
+        GalaxyDatabaseReaderTest.createGalaxyDatabase(storage, true,
+                "INSERT INTO InstalledBaseProducts VALUES (1207658924, '" + installed + "', NULL)",
+                "INSERT INTO InstalledBaseProducts VALUES (2, '" + tempDir.resolve("games/Removed") + "', NULL)",
+                "INSERT INTO LimitedDetails VALUES (1, 1207658924, 1, 'The Witcher')",
+                "INSERT INTO GameTimes VALUES (1, 'gog_1207658924', 120, 0)");
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 1, galaxyDatabaseReader, null);
+
+        List<ScannedLocalGameDTO> result = galaxyScanner.scan(storage);
+
+        assertEquals(2, result.size());
+        ScannedLocalGameDTO witcher = result.stream().filter(game -> game.platformGameId().equals("1207658924")).findFirst().orElseThrow();
+        assertEquals("The Witcher", witcher.title());
+        assertEquals(120, witcher.playtimeMinutes());
+        assertTrue(witcher.isInstalled());
+        ScannedLocalGameDTO removed = result.stream().filter(game -> game.platformGameId().equals("2")).findFirst().orElseThrow();
+        assertEquals("Removed", removed.title());
+        assertFalse(removed.isInstalled());
+    }
+
+    @Test
+    void scan_InstallRoot_CombinesGalaxyGamesBelowRootWithInfoFiles() throws Exception {
+        Path libraryPath = Files.createDirectories(tempDir.resolve("GOG Games"));
+        Path galaxyGame = Files.createDirectories(libraryPath.resolve("Cyberpunk 2077"));
+        writeInfo(galaxyGame, "1423049311", "1423049311", "Info Name Must Not Win");
+        Path offlineGame = Files.createDirectories(libraryPath.resolve("Stardew Valley"));
+        writeInfo(offlineGame, "1453375253", "1453375253", "Stardew Valley");
+        Path elsewhere = Files.createDirectories(tempDir.resolve("Other Drive/Hades"));
+
+        Path storage = Files.createDirectories(tempDir.resolve("storage"));
+        Path database = GalaxyDatabaseReaderTest.createGalaxyDatabase(storage, true,
+                "INSERT INTO InstalledBaseProducts VALUES (1423049311, '" + galaxyGame + "', NULL)",
+                "INSERT INTO InstalledBaseProducts VALUES (1, '" + elsewhere + "', NULL)",
+                "INSERT INTO LimitedDetails VALUES (1, 1423049311, 1, 'Cyberpunk 2077')");
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 2, galaxyDatabaseReader, database.toString());
+
+        List<ScannedLocalGameDTO> result = galaxyScanner.scan(libraryPath);
+
+        assertEquals(List.of("Cyberpunk 2077", "Stardew Valley"), result.stream().map(ScannedLocalGameDTO::title).toList());
+        assertTrue(result.stream().allMatch(ScannedLocalGameDTO::isInstalled));
+    }
+
+    @Test
+    void scan_InstallRoot_UnreadableDatabase_FallsBackToInfoFiles() throws Exception {
+        Path libraryPath = Files.createDirectories(tempDir.resolve("GOG Games"));
+        writeInfo(Files.createDirectories(libraryPath.resolve("Stardew Valley")), "1453375253", "1453375253", "Stardew Valley");
+        Path database = Files.writeString(tempDir.resolve("galaxy-2.0.db"), "not a database");
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 1, galaxyDatabaseReader, database.toString());
+
+        List<ScannedLocalGameDTO> result = galaxyScanner.scan(libraryPath);
+
+        assertEquals(List.of("Stardew Valley"), result.stream().map(ScannedLocalGameDTO::title).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanChanges_InfoFileDeleted_ReportsGameRemoved() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalGogLibraryScanner incrementalScanner = new LocalGogLibraryScanner(platformRepository, 1, null, null, store);
+        when(platformRepository.findWithLibraryPathsByName("GOG")).thenReturn(Optional.of(Platform.builder().id(3).name("GOG").build()));
+
+        writeInfo(Files.createDirectories(tempDir.resolve("Stardew Valley")), "1453375253", "1453375253", "Stardew Valley");
+        Path witcher = Files.createDirectories(tempDir.resolve("The Witcher 3"));
+        writeInfo(witcher, "1207664643", "1207664643", "The Witcher 3: Wild Hunt");
+
+        when(store.loadProducts(3, tempDir.toString())).thenReturn(Set.of());
+        incrementalScanner.scanChanges(tempDir, ScanMonitor.NONE, game -> {
+        });
+
+        ArgumentCaptor<Collection<String>> reported = ArgumentCaptor.forClass(Collection.class);
+        verify(store).commitProducts(eq(3), eq(tempDir.toString()), reported.capture(), anyCollection());
+        assertEquals(Set.of("1453375253", "1207664643"), Set.copyOf(reported.getValue()));
+
+        Files.delete(witcher.resolve("goggame-1207664643.info"));
+        when(store.loadProducts(3, tempDir.toString())).thenReturn(Set.copyOf(reported.getValue()));
+
+        List<ScannedLocalGameDTO> streamed = new ArrayList<>();
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir, ScanMonitor.NONE, streamed::add);
+
+        assertEquals(List.of("Stardew Valley"), streamed.stream().map(ScannedLocalGameDTO::title).toList());
+        assertEquals(List.of("1207664643"), delta.removedPlatformGameIds());
+    }
+
+    @Test
+    void scanChanges_GalaxyNoLongerListsProduct_ReportsGameRemoved() throws Exception {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        Path storage = Files.createDirectories(tempDir.resolve("storage"));
+        GalaxyDatabaseReaderTest.createGalaxyDatabase(storage, false,
+                "INSERT INTO InstalledBaseProducts VALUES (1207658924, '" + tempDir.resolve("games/Witcher") + "', NULL)");
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 1, galaxyDatabaseReader, null, store);
+        when(platformRepository.findWithLibraryPathsByName("GOG")).thenReturn(Optional.of(Platform.builder().id(3).name("GOG").build()));
+        when(store.loadProducts(3, storage.toString())).thenReturn(Set.of("1207658924", "2"));
+
+        LocalScanDeltaDTO delta = galaxyScanner.scanChanges(storage);
+
+        assertEquals(1, delta.changed().size());
+        assertEquals(List.of("2"), delta.removedPlatformGameIds());
+        verify(store).commitProducts(eq(3), eq(storage.toString()), anyCollection(), eq(List.of("2")));
+    }
+
+    @Test
+    void scanChanges_InstallRoot_UnreadableDatabase_ReportsNothingRemoved() throws Exception {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        Path libraryPath = Files.createDirectories(tempDir.resolve("GOG Games"));
+        Files.createDirectories(libraryPath.resolve("Cyberpunk 2077"));
+        Path database = Files.writeString(tempDir.resolve("galaxy-2.0.db"), "not a database");
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 1, galaxyDatabaseReader, database.toString(), store);
+        when(platformRepository.findWithLibraryPathsByName("GOG")).thenReturn(Optional.of(Platform.builder().id(3).name("GOG").build()));
+        when(store.loadProducts(3, libraryPath.toString())).thenReturn(Set.of("1423049311"));
+
+        LocalScanDeltaDTO delta = galaxyScanner.scanChanges(libraryPath);
+
+        assertTrue(delta.isEmpty());
+    }
+
+    @Test
+    void getInstallRoot_StorageDirectory_AnywhereAndInstallRoot_ItsPath() throws Exception {
+        Path storage = Files.createDirectories(tempDir.resolve("storage"));
+        GalaxyDatabaseReaderTest.createGalaxyDatabase(storage, false);
+        Path libraryPath = Files.createDirectories(tempDir.resolve("GOG Games"));
+
+        LocalGogLibraryScanner galaxyScanner = new LocalGogLibraryScanner(platformRepository, 1, galaxyDatabaseReader, null);
+
+        assertNull(galaxyScanner.getInstallRoot(storage));
+        assertEquals(libraryPath, galaxyScanner.getInstallRoot(libraryPath));
+    }
+
+    private static void writeInfo(Path gameFolder, String gameId, String rootGameId, String name) throws IOException {
+        Files.writeString(gameFolder.resolve("goggame-" + gameId + ".info"), """
+                {
+                    "buildId": "123",
+                    "gameId": "%s",
+                    "rootGameId": "%s",
+                    "name": "%s",
+                    "playTasks": [{"category": "game", "isPrimary": true, "path": "game.exe", "type": "FileTask"}],
+                    "version": 1
+                }
+                """.formatted(gameId, rootGameId, name));
+    }
 }
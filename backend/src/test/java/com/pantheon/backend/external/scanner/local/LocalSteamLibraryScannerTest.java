@@ -1,23 +1,43 @@
 package com.pantheon.backend.external.scanner.local;
 
+import com.pantheon.backend.core.inventory.local.dto.LocalScanDeltaDTO;
 import com.pantheon.backend.core.inventory.local.dto.ScannedLocalGameDTO;
+import com.pantheon.backend.core.library.dto.ManifestFingerprintDTO;
+import com.pantheon.backend.core.library.exception.ScanCancelledException;
 import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.ManifestFingerprintStore;
+import com.pantheon.backend.core.library.local.ScanMonitor;
+import com.pantheon.backend.core.platform.model.Platform;
 import com.pantheon.backend.core.platform.repository.PlatformRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class LocalSteamLibraryScannerTest {
@@ -138,4 +158,247 @@ class LocalSteamLibraryScannerTest {
 
         assertTrue(result.isEmpty());
     }
+
+    @Test
+    void scan_NestedUserConfig_UsesRootValues() throws IOException, ScanFailureException {
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+
+        String manifestContent = """
+                "AppState"
+                {
+                    "appid"     "12345"
+                    "name"      "Test Game"
+                    "installdir" "TestGameDir"
+                    "UserConfig"
+                    {
+                        "name"      "Localized Name"
+                        "installdir" "Elsewhere"
+                    }
+                }
+                """;
+        Files.writeString(steamApps.resolve("appmanifest_12345.acf"), manifestContent);
+
+        List<ScannedLocalGameDTO> result = scanner.scan(tempDir);
+
+        assertEquals(1, result.size());
+        assertEquals("Test Game", result.get(0).title());
+        assertTrue(result.get(0).installPath().endsWith("TestGameDir"));
+    }
+
+    @Test
+    void scan_ParallelMode_ReturnsGamesInStableOrderAndSkipsFailures() throws IOException, ScanFailureException {
+        LocalSteamLibraryScanner parallelScanner = new LocalSteamLibraryScanner(platformRepository, 4, null);
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+
+        for (int i = 1; i <= 6; i++) {
+            String manifestContent = """
+                    "AppState"
+                    {
+                        "appid"     "%d"
+                        "name"      "Game %d"
+                        "installdir" "Game%d"
+                    }
+                    """.formatted(i, i, i);
+            Files.writeString(steamApps.resolve("appmanifest_" + i + ".acf"), manifestContent);
+        }
+
+        // Unreadable manifest must not cancel its siblings
+        Files.createDirectories(steamApps.resolve("appmanifest_35.acf"));
+
+        List<ScannedLocalGameDTO> result = parallelScanner.scan(tempDir);
+
+        assertEquals(6, result.size());
+        assertEquals(List.of("Game 1", "Game 2", "Game 3", "Game 4", "Game 5", "Game 6"),
+                result.stream().map(ScannedLocalGameDTO::title).toList());
+    }
+
+    @Test
+    void scan_ParallelMode_StreamsGamesWithoutParsingFarAhead() throws IOException, ScanFailureException {
+        LocalSteamLibraryScanner parallelScanner = new LocalSteamLibraryScanner(platformRepository, 2, null);
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        for (int i = 10; i < 30; i++) {
+            writeManifest(steamApps, i, "Game " + i);
+        }
+
+        AtomicInteger parsed = new AtomicInteger();
+        ScanMonitor countingMonitor = new ScanMonitor() {
+            @Override
+            public void onManifestParsed() {
+                parsed.incrementAndGet();
+            }
+        };
+        List<String> titles = new ArrayList<>();
+        AtomicInteger parsedAfterSlowConsumer = new AtomicInteger();
+
+        parallelScanner.scanChanges(tempDir, countingMonitor, game -> {
+            if (titles.isEmpty()) {
+                try {
+                    Thread.sleep(200);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                parsedAfterSlowConsumer.set(parsed.get());
+            }
+            titles.add(game.title());
+        });
+
+        assertEquals(20, titles.size());
+        assertEquals("Game 10", titles.getFirst());
+        assertTrue(parsedAfterSlowConsumer.get() <= 4, "parsed " + parsedAfterSlowConsumer.get() + " manifests ahead");
+    }
+
+    @Test
+    void scanChanges_Streaming_HandsChangedGamesToSinkAndCommits() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalSteamLibraryScanner incrementalScanner = new LocalSteamLibraryScanner(platformRepository, 2, store);
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(Platform.builder().id(1).name("Steam").build()));
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        writeManifest(steamApps, 1, "Game 1");
+        writeManifest(steamApps, 2, "Game 2");
+        when(store.load(1, tempDir.toString())).thenReturn(Map.of());
+
+        List<ScannedLocalGameDTO> streamed = new ArrayList<>();
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir, ScanMonitor.NONE, streamed::add);
+
+        assertEquals(List.of("Game 1", "Game 2"), streamed.stream().map(ScannedLocalGameDTO::title).toList());
+        assertTrue(delta.isEmpty());
+        verify(store).commit(eq(1), eq(tempDir.toString()), anyCollection(), anyCollection());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void scanChanges_ReportsOnlyAddedChangedAndRemovedManifests() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalSteamLibraryScanner incrementalScanner = new LocalSteamLibraryScanner(platformRepository, 1, store);
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(Platform.builder().id(1).name("Steam").build()));
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        Path unchanged = writeManifest(steamApps, 1, "Unchanged Game");
+        Path changed = writeManifest(steamApps, 2, "Changed Game");
+
+        Map<String, ManifestFingerprintDTO> known = new HashMap<>();
+        known.put(key(unchanged), fingerprintOf(unchanged, "1", 0L));
+        known.put(key(changed), ManifestFingerprintDTO.builder().path(key(changed)).platformGameId("2")
+                .lastModified(0L).fileSize(1L).contentHash(0L).build());
+        String removedPath = steamApps.resolve("appmanifest_3.acf").toAbsolutePath().toString();
+        known.put(removedPath, ManifestFingerprintDTO.builder().path(removedPath).platformGameId("3").build());
+        when(store.load(1, tempDir.toString())).thenReturn(known);
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir);
+
+        assertEquals(List.of("Changed Game"), delta.changed().stream().map(ScannedLocalGameDTO::title).toList());
+        assertEquals(List.of("3"), delta.removedPlatformGameIds());
+        assertEquals(1, delta.unchanged());
+
+        ArgumentCaptor<Collection<ManifestFingerprintDTO>> fingerprints = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Collection<String>> removed = ArgumentCaptor.forClass(Collection.class);
+        verify(store).commit(eq(1), eq(tempDir.toString()), fingerprints.capture(), removed.capture());
+        assertEquals(1, fingerprints.getValue().size());
+        assertEquals(List.of(removedPath), List.copyOf(removed.getValue()));
+    }
+
+    @Test
+    void scanChanges_NoStore_FallsBackToFullScan() throws IOException, ScanFailureException {
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        writeManifest(steamApps, 1, "Game 1");
+
+        LocalScanDeltaDTO delta = scanner.scanChanges(tempDir);
+
+        assertEquals(1, delta.changed().size());
+        assertTrue(delta.removedPlatformGameIds().isEmpty());
+    }
+
+    @Test
+    void scanChanges_MissingSteamApps_ReportsNothingRemoved() throws ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalSteamLibraryScanner incrementalScanner = new LocalSteamLibraryScanner(platformRepository, 1, store);
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(Platform.builder().id(1).name("Steam").build()));
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir);
+
+        assertTrue(delta.isEmpty());
+        verify(store, never()).commit(eq(1), eq(tempDir.toString()), anyCollection(), anyCollection());
+    }
+
+    @Test
+    void scanChanges_ChangedFiles_OnlyReadsGivenManifests() throws IOException, ScanFailureException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalSteamLibraryScanner incrementalScanner = new LocalSteamLibraryScanner(platformRepository, 1, store);
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(Platform.builder().id(1).name("Steam").build()));
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        writeManifest(steamApps, 1, "Untouched Game");
+        Path added = writeManifest(steamApps, 2, "Added Game");
+        Path deleted = steamApps.resolve("appmanifest_3.acf");
+
+        when(store.load(1, tempDir.toString())).thenReturn(Map.of(key(deleted),
+                ManifestFingerprintDTO.builder().path(key(deleted)).platformGameId("3").build()));
+
+        LocalScanDeltaDTO delta = incrementalScanner.scanChanges(tempDir, List.of(added, deleted, steamApps.resolve("downloading")));
+
+        assertEquals(List.of("Added Game"), delta.changed().stream().map(ScannedLocalGameDTO::title).toList());
+        assertEquals(List.of("3"), delta.removedPlatformGameIds());
+    }
+
+    @Test
+    void getWatchDirectories_ReturnsSteamApps() {
+        assertEquals(List.of(tempDir.resolve("steamapps")), scanner.getWatchDirectories(tempDir));
+    }
+
+    @Test
+    void scanChanges_CancelledMonitor_CommitsNothing() throws IOException {
+        ManifestFingerprintStore store = mock(ManifestFingerprintStore.class);
+        LocalSteamLibraryScanner incrementalScanner = new LocalSteamLibraryScanner(platformRepository, 1, store);
+        when(platformRepository.findWithLibraryPathsByName("Steam")).thenReturn(Optional.of(Platform.builder().id(1).name("Steam").build()));
+
+        Path steamApps = tempDir.resolve("steamapps");
+        Files.createDirectories(steamApps);
+        writeManifest(steamApps, 1, "Game 1");
+
+        ScanMonitor cancelledMonitor = new ScanMonitor() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertThrows(ScanCancelledException.class, () -> incrementalScanner.scanChanges(tempDir, cancelledMonitor));
+        verify(store, never()).commit(eq(1), eq(tempDir.toString()), anyCollection(), anyCollection());
+    }
+
+    private Path writeManifest(Path steamApps, int appId, String name) throws IOException {
+        String manifestContent = """
+                "AppState"
+                {
+                    "appid"     "%d"
+                    "name"      "%s"
+                    "installdir" "Dir%d"
+                }
+                """.formatted(appId, name, appId);
+        return Files.writeString(steamApps.resolve("appmanifest_" + appId + ".acf"), manifestContent);
+    }
+
+    private String key(Path manifest) {
+        return manifest.toAbsolutePath().toString();
+    }
+
+    private ManifestFingerprintDTO fingerprintOf(Path manifest, String appId, long contentHash) throws IOException {
+        return ManifestFingerprintDTO.builder()
+                .path(key(manifest))
+                .platformGameId(appId)
+                .lastModified(Files.getLastModifiedTime(manifest).toMillis())
+                .fileSize(Files.size(manifest))
+                .contentHash(contentHash)
+                .build();
+    }
 }
@@ -0,0 +1,88 @@
+package com.pantheon.backend.external.scanner.local;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VdfReaderTest {
+
+    private Map<String, String> read(String content, String... keys) throws IOException {
+        try (VdfReader reader = VdfReader.acquire()) {
+            return reader.readRootValues(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), keys);
+        }
+    }
+
+    @Test
+    void readRootValues_ReturnsOnlyWantedKeys() throws IOException {
+        Map<String, String> values = read("""
+                "AppState"
+                {
+                    "appid"     "12345"
+                    "Name"      "Test Game"
+                    "buildid"   "999"
+                }
+                """, "appid", "name");
+
+        assertEquals(Map.of("appid", "12345", "name", "Test Game"), values);
+    }
+
+    @Test
+    void readRootValues_NestedBlocksDoNotShadowRootKeys() throws IOException {
+        Map<String, String> values = read("""
+                "AppState"
+                {
+                    "appid"     "12345"
+                    "name"      "Real Name"
+                    "UserConfig"
+                    {
+                        "name"      "Nested Name"
+                        "language"  "english"
+                    }
+                    "installdir" "RealDir"
+                }
+                """, "name", "installdir", "language");
+
+        assertEquals("Real Name", values.get("name"));
+        assertEquals("RealDir", values.get("installdir"));
+        assertFalse(values.containsKey("language"));
+    }
+
+    @Test
+    void readRootValues_HandlesEscapesCommentsAndConditionals() throws IOException {
+        Map<String, String> values = read("""
+                // leading comment
+                AppState
+                {
+                    "name"   "Say \\"Hi\\""
+                    "path"   "C:\\\\Games\\\\Test" [$WIN32]
+                    unquoted value
+                }
+                """, "name", "path", "unquoted");
+
+        assertEquals("Say \"Hi\"", values.get("name"));
+        assertEquals("C:\\Games\\Test", values.get("path"));
+        assertEquals("value", values.get("unquoted"));
+    }
+
+    @Test
+    void readRootValues_TopLevelPairsOutsideBlockAreIgnored() throws IOException {
+        assertTrue(read("\"appid\" \"1\"", "appid").isEmpty());
+        assertTrue(read("Invalid Content", "invalid").isEmpty());
+    }
+
+    @Test
+    void readRootValues_ReadsValuesLargerThanBuffers() throws IOException {
+        String longName = "x".repeat(20_000);
+
+        Map<String, String> values = read("\"AppState\" { \"name\" \"" + longName + "\" }", "name");
+
+        assertEquals(longName, values.get("name"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.pantheon.backend.external.watcher;
+
+import com.pantheon.backend.core.inventory.local.processor.InventoryLocalScanService;
+import com.pantheon.backend.core.library.exception.ScanFailureException;
+import com.pantheon.backend.core.library.local.LocalGameLibraryScanner;
+import com.pantheon.backend.core.library.utils.ScannerUtil;
+import com.pantheon.backend.core.platform.model.Platform;
+import com.pantheon.backend.core.platform.repository.PlatformRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LocalLibraryWatcherTest {
+
+    @Mock
+    private PlatformRepository platformRepository;
+
+    @Mock
+    private ScannerUtil scannerUtil;
+
+    @Mock
+    private InventoryLocalScanService inventoryLocalScanService;
+
+    @Mock
+    private LocalGameLibraryScanner scanner;
+
+    @TempDir
+    Path tempDir;
+
+    private Path steamApps;
+    private Platform platform;
+    private LocalLibraryWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        steamApps = Files.createDirectories(tempDir.resolve("steamapps"));
+        platform = Platform.builder()
+                .id(1)
+                .name("Steam")
+                .libraryPaths(List.of(tempDir.toString()))
+                .build();
+
+        when(platformRepository.findAllWithLibraryPaths()).thenReturn(List.of(platform));
+        when(platformRepository.findByName("Steam")).thenReturn(Optional.of(platform));
+        when(scannerUtil.getScannerForPlatform(platform)).thenReturn(scanner);
+        when(scanner.getWatchDirectories(tempDir)).thenReturn(List.of(steamApps));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (watcher != null) watcher.stop();
+    }
+
+    @Test
+    void start_FileCreated_SyncsChangedFile() throws IOException, ScanFailureException {
+        watcher = new LocalLibraryWatcher(platformRepository, scannerUtil, inventoryLocalScanService, true, 50, 500);
+        watcher.start();
+
+        Path manifest = Files.writeString(steamApps.resolve("appmanifest_1.acf"), "\"AppState\" {}");
+
+        verify(inventoryLocalScanService, timeout(5000)).syncLibraryPath(eq(platform), eq(tempDir),
+                argThat((Collection<Path> files) -> files != null && files.contains(manifest)));
+    }
+
+    @Test
+    void start_BurstOfEvents_CoalescesIntoOneSync() throws IOException, ScanFailureException {
+        watcher = new LocalLibraryWatcher(platformRepository, scannerUtil, inventoryLocalScanService, true, 300, 2000);
+        watcher.start();
+
+        for (int i = 1; i <= 5; i++) {
+            Files.writeString(steamApps.resolve("appmanifest_" + i + ".acf"), "\"AppState\" {}");
+        }
+
+        verify(inventoryLocalScanService, timeout(5000)).syncLibraryPath(eq(platform), eq(tempDir),
+                argThat((Collection<Path> files) -> files != null && files.size() == 5));
+    }
+
+    @Test
+    void start_Disabled_DoesNotWatch() throws IOException, ScanFailureException {
+        watcher = new LocalLibraryWatcher(platformRepository, scannerUtil, inventoryLocalScanService, false, 50, 500);
+        watcher.start();
+
+        assertFalse(watcher.isRunning());
+
+        Files.writeString(steamApps.resolve("appmanifest_1.acf"), "\"AppState\" {}");
+
+        verify(inventoryLocalScanService, after(300).never()).syncLibraryPath(any(), any(), any());
+        verify(platformRepository, never()).findAllWithLibraryPaths();
+    }
+
+    @Test
+    void refresh_LibraryPathRemoved_StopsWatching() throws IOException, ScanFailureException {
+        watcher = new LocalLibraryWatcher(platformRepository, scannerUtil, inventoryLocalScanService, true, 50, 500);
+        watcher.start();
+        assertTrue(watcher.isRunning());
+
+        when(platformRepository.findAllWithLibraryPaths()).thenReturn(List.of(Platform.builder().id(1).name("Steam").build()));
+        watcher.refresh();
+
+        Files.writeString(steamApps.resolve("appmanifest_1.acf"), "\"AppState\" {}");
+
+        verify(inventoryLocalScanService, after(300).never()).syncLibraryPath(any(), any(), any());
+    }
+}
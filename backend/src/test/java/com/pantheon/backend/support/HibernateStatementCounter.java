@@ -0,0 +1,48 @@
+package com.pantheon.backend.support;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the JDBC statements Hibernate prepares while a use case runs, to pin fetch plans down in tests.
+ * <p>
+ * Pending changes are flushed and the persistence context cleared before the use case, so that it cannot be served
+ * from entities loaded while setting the test up, and flushed again after it, so that its writes are counted.
+ * </p>
+ */
+public class HibernateStatementCounter {
+
+    private final EntityManager entityManager;
+    private final Statistics statistics;
+
+    public HibernateStatementCounter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        this.statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        this.statistics.setStatisticsEnabled(true);
+    }
+
+    public long count(Runnable useCase) {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        useCase.run();
+        entityManager.flush();
+
+        return statistics.getPrepareStatementCount();
+    }
+
+    public void assertStatements(String useCase, long expected, Runnable action) {
+        assertEquals(expected, count(action), useCase + " ran an unexpected number of statements");
+    }
+
+    /**
+     * Fails when the use case runs more statements on a larger data set, the signature of an N+1 query
+     */
+    public void assertConstant(String useCase, Runnable small, Runnable large) {
+        assertEquals(count(small), count(large), useCase + " runs more statements as the data grows");
+    }
+}
@@ -0,0 +1,49 @@
+package com.pantheon.backend.support;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+/**
+ * SQLite database files for repository tests, created in a test's temporary directory and migrated with the
+ * application's Flyway migrations.
+ * <p>
+ * The data source keeps a single connection open, so nothing a test writes is lost between statements.
+ * </p>
+ */
+public final class SqliteTestDatabase {
+
+    private static final String MIGRATIONS = "classpath:db/migration";
+
+    private SqliteTestDatabase() {
+    }
+
+    /**
+     * @return a database with the latest schema
+     */
+    public static SingleConnectionDataSource migrated(Path directory) {
+        SingleConnectionDataSource dataSource = empty(directory);
+        migrate(dataSource);
+        return dataSource;
+    }
+
+    /**
+     * @return a database without any schema, to be migrated by the test
+     */
+    public static SingleConnectionDataSource empty(Path directory) {
+        return new SingleConnectionDataSource("jdbc:sqlite:" + directory.resolve("pantheon.db"), true);
+    }
+
+    public static void migrate(DataSource dataSource) {
+        Flyway.configure().dataSource(dataSource).locations(MIGRATIONS).load().migrate();
+    }
+
+    /**
+     * Migrates up to a version only, e.g. to store data the way older versions did before a later migration runs
+     */
+    public static void migrate(DataSource dataSource, String targetVersion) {
+        Flyway.configure().dataSource(dataSource).locations(MIGRATIONS).target(targetVersion).load().migrate();
+    }
+}